@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.benchmarks.framework;
+
+import com.hazelcast.simulator.utils.CliUtils;
+import com.hazelcast.simulator.utils.CommandLineExitException;
+import joptsimple.OptionParser;
+import joptsimple.OptionSet;
+import joptsimple.OptionSpec;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Properties;
+import java.util.TreeSet;
+
+import static com.hazelcast.simulator.utils.CommonUtils.exitWithError;
+import static com.hazelcast.simulator.utils.FileUtils.USER_HOME;
+import static com.hazelcast.simulator.utils.FileUtils.ensureExistingDirectory;
+import static java.lang.String.format;
+
+/**
+ * Runs the framework benchmarks in this package and compares the results with a baseline.
+ *
+ * If the overhead per operation of any benchmark exceeds the baseline by more than the tolerance, the gate
+ * fails with a non-zero exit code. If the baseline file doesn't exist yet, it is created from the current
+ * results; so the first run on a machine establishes the baseline for that machine. The results of a run
+ * can be written to a file using --output, which can be used to update the baseline.
+ */
+public final class FrameworkOverheadGate {
+
+    private static final Logger LOGGER = LogManager.getLogger(FrameworkOverheadGate.class);
+
+    private static final double DEFAULT_TOLERANCE_PERCENTAGE = 25;
+
+    private final OptionParser parser = new OptionParser();
+
+    private final OptionSpec<String> baselineSpec = parser.accepts("baseline",
+            "The properties file containing the baseline score in ns/op per benchmark.")
+            .withRequiredArg().ofType(String.class)
+            .defaultsTo(USER_HOME + "/.hazelcast-simulator/framework-overhead-baseline.properties");
+
+    private final OptionSpec<Double> toleranceSpec = parser.accepts("tolerance",
+            "The percentage a score is allowed to exceed the baseline.")
+            .withRequiredArg().ofType(Double.class).defaultsTo(DEFAULT_TOLERANCE_PERCENTAGE);
+
+    private final OptionSpec<String> outputSpec = parser.accepts("output",
+            "The properties file to write the scores of this run to.")
+            .withRequiredArg().ofType(String.class);
+
+    private final File baselineFile;
+    private final double tolerancePercentage;
+    private final File outputFile;
+
+    FrameworkOverheadGate(String[] args) {
+        OptionSet options = CliUtils.initOptionsWithHelp(parser, args);
+        this.baselineFile = new File(options.valueOf(baselineSpec));
+        this.tolerancePercentage = options.valueOf(toleranceSpec);
+        if (tolerancePercentage < 0) {
+            throw new CommandLineExitException("--tolerance can't be smaller than 0");
+        }
+        this.outputFile = options.has(outputSpec) ? new File(options.valueOf(outputSpec)) : null;
+    }
+
+    void run() throws Exception {
+        Options options = new OptionsBuilder()
+                .include(FrameworkOverheadGate.class.getPackage().getName() + ".*Benchmark")
+                .build();
+        Properties scores = toScores(new Runner(options).run());
+
+        if (outputFile != null) {
+            store(scores, outputFile);
+        }
+
+        if (!baselineFile.exists()) {
+            LOGGER.info(format("Baseline %s doesn't exist, creating it from the current scores", baselineFile));
+            store(scores, baselineFile);
+            return;
+        }
+
+        List<String> regressions = compare(load(baselineFile), scores, tolerancePercentage);
+        if (!regressions.isEmpty()) {
+            throw new CommandLineExitException(format("Framework overhead exceeds baseline %s by more than %.1f%%:%n%s",
+                    baselineFile, tolerancePercentage, String.join(System.lineSeparator(), regressions)));
+        }
+        LOGGER.info(format("Framework overhead is within %.1f%% of baseline %s", tolerancePercentage, baselineFile));
+    }
+
+    static Properties toScores(Collection<RunResult> results) {
+        Properties scores = new Properties();
+        for (RunResult result : results) {
+            scores.setProperty(toKey(result.getParams()), Double.toString(result.getPrimaryResult().getScore()));
+        }
+        return scores;
+    }
+
+    private static String toKey(BenchmarkParams params) {
+        StringBuilder sb = new StringBuilder(params.getBenchmark());
+        for (String key : new TreeSet<>(params.getParamsKeys())) {
+            sb.append(':').append(key).append('=').append(params.getParam(key));
+        }
+        return sb.toString();
+    }
+
+    static List<String> compare(Properties baseline, Properties scores, double tolerancePercentage) {
+        List<String> regressions = new ArrayList<>();
+        for (String benchmark : new TreeSet<>(scores.stringPropertyNames())) {
+            String baselineScore = baseline.getProperty(benchmark);
+            if (baselineScore == null) {
+                LOGGER.info(format("No baseline for %s, skipping", benchmark));
+                continue;
+            }
+
+            double expected = Double.parseDouble(baselineScore);
+            double actual = Double.parseDouble(scores.getProperty(benchmark));
+            double limit = expected * (1 + tolerancePercentage / 100);
+            if (actual > limit) {
+                regressions.add(format("  %s: %.3f ns/op, baseline %.3f ns/op", benchmark, actual, expected));
+            }
+        }
+        return regressions;
+    }
+
+    private static Properties load(File file) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = new FileReader(file)) {
+            properties.load(reader);
+        }
+        return properties;
+    }
+
+    private static void store(Properties scores, File file) throws IOException {
+        ensureExistingDirectory(file.getAbsoluteFile().getParentFile());
+        try (Writer writer = new FileWriter(file)) {
+            scores.store(writer, "Simulator framework overhead in ns/op");
+        }
+    }
+
+    public static void main(String[] args) {
+        try {
+            new FrameworkOverheadGate(args).run();
+        } catch (Exception e) {
+            exitWithError(LOGGER, "Framework overhead gate failed!", e);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.benchmarks.framework;
+
+import com.hazelcast.simulator.probes.impl.HdrLatencyProbe;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Measures the cost of recording a latency in the {@link HdrLatencyProbe}; this cost is part of every
+ * measured timestep call.
+ *
+ * The probe is shared between the threads, just like the probe of a timestep method is shared between all
+ * timestep threads of an execution group.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HdrLatencyProbeBenchmark {
+
+    private final HdrLatencyProbe probe = new HdrLatencyProbe("benchmark", true);
+
+    @Benchmark
+    public void recordValue() {
+        probe.recordValue(ThreadLocalRandom.current().nextLong(1000, 1_000_000));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void recordValueContended() {
+        probe.recordValue(ThreadLocalRandom.current().nextLong(1000, 1_000_000));
+    }
+
+    @Benchmark
+    public void done() {
+        probe.done(System.nanoTime() - 1000);
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.benchmarks.framework;
+
+import com.hazelcast.simulator.common.TestCase;
+import com.hazelcast.simulator.worker.metronome.BusySpinningMetronome;
+import com.hazelcast.simulator.worker.metronome.ConstantCombinedRateMetronome;
+import com.hazelcast.simulator.worker.metronome.EmptyMetronome;
+import com.hazelcast.simulator.worker.metronome.Metronome;
+import com.hazelcast.simulator.worker.metronome.SleepingMetronome;
+import com.hazelcast.simulator.worker.testcontainer.PropertyBinding;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Measures the overhead of {@link Metronome#waitForNext()}.
+ *
+ * The metronomes are configured with an interval of 1ns, so they are always behind schedule and never
+ * need to wait; what remains is the bookkeeping cost of the metronome itself.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetronomeBenchmark {
+
+    @Param({"EmptyMetronome", "SleepingMetronome", "BusySpinningMetronome", "ConstantCombinedRateMetronome"})
+    public String metronomeClass;
+
+    private Metronome metronome;
+
+    @Setup
+    public void setup() {
+        PropertyBinding binding = new PropertyBinding(new TestCase("metronomeBenchmark"));
+        switch (metronomeClass) {
+            case "EmptyMetronome":
+                metronome = EmptyMetronome.INSTANCE;
+                break;
+            case "SleepingMetronome":
+                metronome = new SleepingMetronome(1, 1, binding, "");
+                break;
+            case "BusySpinningMetronome":
+                metronome = new BusySpinningMetronome(1, 1, binding, "");
+                break;
+            case "ConstantCombinedRateMetronome":
+                metronome = new ConstantCombinedRateMetronome(1, 1, binding, "");
+                break;
+            default:
+                throw new IllegalArgumentException("Unrecognized metronomeClass: " + metronomeClass);
+        }
+    }
+
+    @Benchmark
+    public long waitForNext() {
+        return metronome.waitForNext();
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.benchmarks.framework;
+
+import com.hazelcast.simulator.common.TestCase;
+import com.hazelcast.simulator.common.TestPhase;
+import com.hazelcast.simulator.test.BaseThreadState;
+import com.hazelcast.simulator.test.annotations.TimeStep;
+import com.hazelcast.simulator.worker.testcontainer.TestContainer;
+import com.hazelcast.simulator.worker.testcontainer.TestContextImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Measures the overhead per iteration of the generated timestep loop.
+ *
+ * The test classes have empty timestep methods, so what is measured is the dispatch of the loop: checking
+ * if the test has stopped, selecting a timestep method based on its probability, recording the latency in
+ * the probe and tracking the iteration count. Each invocation runs {@link #ITERATIONS} iterations on a
+ * single timestep thread, so the cost of spawning the thread is amortized.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TimeStepLoopBenchmark {
+
+    static final int ITERATIONS = 1_000_000;
+
+    @Param({"SingleTimeStepTest", "MultipleTimeStepTest"})
+    public String testClass;
+
+    @Param({"true", "false"})
+    public boolean measureLatency;
+
+    private TestContainer testContainer;
+
+    @Setup
+    public void setup() {
+        Object testInstance = "SingleTimeStepTest".equals(testClass)
+                ? new SingleTimeStepTest()
+                : new MultipleTimeStepTest();
+
+        TestCase testCase = new TestCase("timeStepLoopBenchmark")
+                .setProperty("threadCount", 1)
+                .setProperty("iterations", ITERATIONS)
+                .setProperty("measureLatency", measureLatency);
+        TestContextImpl testContext = new TestContextImpl(testCase.getId(), "127.0.0.1", null);
+        testContainer = new TestContainer(testContext, testInstance, testCase);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ITERATIONS)
+    public void timeStepLoop() throws Exception {
+        testContainer.invoke(TestPhase.RUN);
+    }
+
+    public static class SingleTimeStepTest {
+
+        @TimeStep
+        public void timeStep(BaseThreadState state) {
+        }
+    }
+
+    public static class MultipleTimeStepTest {
+
+        @TimeStep(prob = 0.5)
+        public void timeStep1(BaseThreadState state) {
+        }
+
+        @TimeStep(prob = 0.3)
+        public void timeStep2(BaseThreadState state) {
+        }
+
+        @TimeStep(prob = 0.2)
+        public void timeStep3(BaseThreadState state) {
+        }
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.benchmarks.serialization;
+
+import com.hazelcast.config.SerializationConfig;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.simulator.hz.CustomPortableFactory;
+import com.hazelcast.simulator.hz.IdentifiedDataSerializableFactory;
+import com.hazelcast.simulator.hz.LongCompactSerializer;
+import com.hazelcast.simulator.hz.MultiFieldCompactSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Measures the cost of {@code toData} and {@code toObject} of the object created by {@link #newObject()} using a
+ * standalone Hazelcast serialization service; so without any network cost.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public abstract class AbstractSerializationBenchmark {
+
+    private InternalSerializationService serializationService;
+    private Object object;
+    private Data data;
+
+    @Setup
+    public void setup() {
+        SerializationConfig config = new SerializationConfig()
+                .addDataSerializableFactory(IdentifiedDataSerializableFactory.FACTORY_ID, new IdentifiedDataSerializableFactory())
+                .addPortableFactory(CustomPortableFactory.FACTORY_ID, new CustomPortableFactory());
+        config.getCompactSerializationConfig()
+                .addSerializer(new LongCompactSerializer())
+                .addSerializer(new MultiFieldCompactSerializer());
+
+        serializationService = new DefaultSerializationServiceBuilder()
+                .setConfig(config)
+                .setSchemaService(new InMemorySchemaService())
+                .build();
+
+        object = newObject();
+        data = serializationService.toData(object);
+    }
+
+    @TearDown
+    public void tearDown() {
+        serializationService.dispose();
+    }
+
+    abstract Object newObject();
+
+    @Benchmark
+    public Data toData() {
+        return serializationService.toData(object);
+    }
+
+    @Benchmark
+    public Object toObject() {
+        return serializationService.toObject(data);
+    }
+}
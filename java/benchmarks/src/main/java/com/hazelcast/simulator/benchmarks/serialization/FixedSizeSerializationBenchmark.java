@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.benchmarks.serialization;
+
+import com.hazelcast.simulator.hz.DataSerializablePojo;
+import com.hazelcast.simulator.hz.ExternalizablePojo;
+import com.hazelcast.simulator.hz.MultiFieldCompactPojo;
+import com.hazelcast.simulator.hz.SerializablePojo;
+import org.openjdk.jmh.annotations.Param;
+
+/**
+ * Measures the cost of {@code toData} and {@code toObject} for the POJOs in the {@code com.hazelcast.simulator.hz}
+ * package which have a fixed size. They are kept apart from the {@link SerializationBenchmark} so its payloadSize
+ * parameter doesn't produce duplicate runs for them.
+ */
+public class FixedSizeSerializationBenchmark extends AbstractSerializationBenchmark {
+
+    public enum Format {
+        MULTI_FIELD_COMPACT,
+        DATA_SERIALIZABLE,
+        EXTERNALIZABLE,
+        SERIALIZABLE
+    }
+
+    @Param
+    public Format format;
+
+    @Override
+    Object newObject() {
+        switch (format) {
+            case MULTI_FIELD_COMPACT:
+                return new MultiFieldCompactPojo(
+                        "str1", "str2", "str3", "str4", "str5",
+                        1, 2, 3, 4, 5,
+                        1L, 2L, 3L, 4L, 5L,
+                        true, false, true, false, true);
+            case DATA_SERIALIZABLE:
+                return new DataSerializablePojo(1);
+            case EXTERNALIZABLE:
+                return new ExternalizablePojo(1);
+            case SERIALIZABLE:
+                return new SerializablePojo(1);
+            default:
+                throw new IllegalStateException("Unrecognized format: " + format);
+        }
+    }
+}
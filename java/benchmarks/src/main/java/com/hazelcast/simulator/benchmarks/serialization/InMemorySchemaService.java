@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.benchmarks.serialization;
+
+import com.hazelcast.internal.serialization.impl.compact.Schema;
+import com.hazelcast.internal.serialization.impl.compact.SchemaService;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A {@link SchemaService} that keeps the Compact schemas in memory so that Compact serialization can be
+ * benchmarked without a cluster to replicate the schemas to.
+ */
+class InMemorySchemaService implements SchemaService {
+
+    private final Map<Long, Schema> schemas = new ConcurrentHashMap<>();
+
+    @Override
+    public Schema get(long schemaId) {
+        return schemas.get(schemaId);
+    }
+
+    @Override
+    public void put(Schema schema) {
+        schemas.putIfAbsent(schema.getSchemaId(), schema);
+    }
+
+    @Override
+    public void putLocal(Schema schema) {
+        put(schema);
+    }
+}
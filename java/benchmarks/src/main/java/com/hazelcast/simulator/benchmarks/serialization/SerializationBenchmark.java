@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.benchmarks.serialization;
+
+import com.hazelcast.simulator.hz.IdentifiedDataSerializablePojo;
+import com.hazelcast.simulator.hz.IdentifiedDataWithLongSerializablePojo;
+import com.hazelcast.simulator.hz.LongCompactPojo;
+import com.hazelcast.simulator.hz.LongPortablePojo;
+import org.openjdk.jmh.annotations.Param;
+
+/**
+ * Measures the cost of {@code toData} and {@code toObject} for the POJOs in the {@code com.hazelcast.simulator.hz}
+ * package which have a 'numbers' array, so their size scales with the {@link #payloadSize}; the POJOs with a fixed
+ * size are measured by the {@link FixedSizeSerializationBenchmark}.
+ *
+ * Run with '-prof gc' to get the allocation rate per operation, e.g.:
+ * <pre>
+ *     java -jar target/benchmarks.jar SerializationBenchmark -prof gc
+ * </pre>
+ * Since the pattern matches both classes, this also runs the FixedSizeSerializationBenchmark.
+ */
+public class SerializationBenchmark extends AbstractSerializationBenchmark {
+
+    public enum Format {
+        LONG_COMPACT,
+        LONG_PORTABLE,
+        IDENTIFIED_DATA_SERIALIZABLE,
+        IDENTIFIED_DATA_SERIALIZABLE_WITH_LONG
+    }
+
+    @Param
+    public Format format;
+
+    // the length of the 'numbers' array
+    @Param({"1", "20", "100"})
+    public int payloadSize;
+
+    @Override
+    Object newObject() {
+        Integer[] numbers = new Integer[payloadSize];
+        for (int i = 0; i < payloadSize; i++) {
+            numbers[i] = i;
+        }
+
+        switch (format) {
+            case LONG_COMPACT:
+                return new LongCompactPojo(numbers, 1L);
+            case LONG_PORTABLE:
+                return new LongPortablePojo(numbers, 1L);
+            case IDENTIFIED_DATA_SERIALIZABLE:
+                return new IdentifiedDataSerializablePojo(numbers, "0000000001");
+            case IDENTIFIED_DATA_SERIALIZABLE_WITH_LONG:
+                return new IdentifiedDataWithLongSerializablePojo(numbers, 1L);
+            default:
+                throw new IllegalStateException("Unrecognized format: " + format);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.hazelcast.simulator.benchmarks.framework;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Properties;
+
+import static com.hazelcast.simulator.benchmarks.framework.FrameworkOverheadGate.compare;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class FrameworkOverheadGateTest {
+
+    @Test
+    public void testCompare_withinTolerance() {
+        Properties baseline = scores("recordValue", "10.0");
+        Properties scores = scores("recordValue", "12.4");
+
+        assertTrue(compare(baseline, scores, 25).isEmpty());
+    }
+
+    @Test
+    public void testCompare_exceedsTolerance() {
+        Properties baseline = scores("recordValue", "10.0");
+        Properties scores = scores("recordValue", "12.6");
+
+        List<String> regressions = compare(baseline, scores, 25);
+
+        assertEquals(1, regressions.size());
+        assertTrue(regressions.get(0).contains("recordValue"));
+    }
+
+    @Test
+    public void testCompare_fasterThanBaseline() {
+        Properties baseline = scores("recordValue", "10.0");
+        Properties scores = scores("recordValue", "5.0");
+
+        assertTrue(compare(baseline, scores, 0).isEmpty());
+    }
+
+    @Test
+    public void testCompare_missingBaseline() {
+        Properties baseline = new Properties();
+        Properties scores = scores("recordValue", "100.0");
+
+        assertTrue(compare(baseline, scores, 25).isEmpty());
+    }
+
+    private static Properties scores(String benchmark, String score) {
+        Properties properties = new Properties();
+        properties.setProperty(benchmark, score);
+        return properties;
+    }
+}
@@ -113,10 +113,23 @@ def _get_force_download_from_maven_repo(version_spec:str):
     return "true" == force_download.lower()
 
 
-def _upload_hazelcast_jars(args:DriverInstallArgs, hosts):
+def _get_rolling_restart_version_specs(args:DriverInstallArgs):
+    # the members can be replaced by members of another version during the run; these versions need to be installed too
+    test_inner = args.test.get('test')
+    if isinstance(test_inner, dict):
+        test_inner = [test_inner]
+
+    result = []
+    for t in test_inner or []:
+        version_spec = t.get('rollingRestartVersion')
+        if version_spec and version_spec not in result:
+            result.append(version_spec)
+    return result
+
+
+def _upload_hazelcast_jars(args:DriverInstallArgs, hosts, version_spec:str):
     driver = _get_driver(args)
     is_enterprise = _get_is_enterprise(driver)
-    version_spec = args.test.get('version', 'maven=5.4.0')
     version = _get_version(version_spec)
     remote_repo = _get_remote_repo(is_enterprise, version)
     force_download = _get_force_download_from_maven_repo(version_spec)
@@ -156,6 +169,9 @@ def exec(args:DriverInstallArgs):
     hosts.extend(load_hosts(inventory_path=args.inventory_path, host_pattern=loadgenerator_hosts))
 
     upload_driver(_get_driver(args), hosts)
-    _upload_hazelcast_jars(args, hosts)
+    _upload_hazelcast_jars(args, hosts, args.test.get('version', 'maven=5.4.0'))
+    for version_spec in _get_rolling_restart_version_specs(args):
+        if version_spec != args.test.get('version'):
+            _upload_hazelcast_jars(args, hosts, version_spec)
 
     info("Install: done")
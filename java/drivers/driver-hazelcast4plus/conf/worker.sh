@@ -43,9 +43,31 @@ fi
 # Include the member/client-worker jvm options
 JVM_ARGS="$JVM_OPTIONS $JVM_ARGS"
 
+# Use an AppCDS archive to speed up the startup of the JVM; enabled with WORKER_STARTUP_CACHE=cds.
+# The CDS_ARCHIVE is shared by all workers with the same JVM, worker type and classpath. If it doesn't
+# exist yet, the archive is dumped when this worker exits; the workers started after that use it.
+# If the archive doesn't match the classpath, the JVM ignores it and starts as usual.
+CDS_ARCHIVE_TMP=
+if [ -n "${CDS_ARCHIVE}" ]; then
+    if [ -f "${CDS_ARCHIVE}" ]; then
+        JVM_ARGS="-XX:SharedArchiveFile=${CDS_ARCHIVE} $JVM_ARGS"
+    else
+        CDS_ARCHIVE_TMP="${CDS_ARCHIVE}.$$"
+        JVM_ARGS="-XX:ArchiveClassesAtExit=${CDS_ARCHIVE_TMP} $JVM_ARGS"
+    fi
+fi
+
 MAIN=com.hazelcast.simulator.worker.Worker
 
-java -classpath "$CLASSPATH" ${JVM_ARGS} ${MAIN}
+exit_code=0
+java -classpath "$CLASSPATH" ${JVM_ARGS} ${MAIN} || exit_code=$?
+
+# the rename is atomic, so concurrently exiting workers can't corrupt the archive
+if [ -n "${CDS_ARCHIVE_TMP}" ] && [ -f "${CDS_ARCHIVE_TMP}" ]; then
+    mv -f "${CDS_ARCHIVE_TMP}" "${CDS_ARCHIVE}"
+fi
+
+exit $exit_code
 
 #########################################################################
 # Yourkit
@@ -18,6 +18,9 @@ package com.hazelcast.simulator.hazelcast4plus;
 import com.hazelcast.client.HazelcastClient;
 import com.hazelcast.client.config.ClientConfig;
 import com.hazelcast.client.config.XmlClientConfigBuilder;
+import com.hazelcast.cluster.Cluster;
+import com.hazelcast.cluster.MembershipAdapter;
+import com.hazelcast.cluster.MembershipEvent;
 import com.hazelcast.config.Config;
 import com.hazelcast.config.XmlConfigBuilder;
 import com.hazelcast.core.Hazelcast;
@@ -32,18 +35,24 @@ import org.apache.logging.log4j.Logger;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
 
 import static com.hazelcast.simulator.utils.CommonUtils.sleepMillisThrowException;
 import static com.hazelcast.simulator.utils.FileUtils.getUserDir;
 import static java.lang.String.format;
 import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.SECONDS;
 
 public class Hazelcast4PlusDriver extends Driver<HazelcastInstance> {
     private static final long PARTITION_WARMUP_TIMEOUT_NANOS = MINUTES.toNanos(5);
     private static final int PARTITION_WARMUP_SLEEP_INTERVAL_MILLIS = 500;
     private static final Logger LOGGER = LogManager.getLogger(Hazelcast4PlusDriver.class);
     private HazelcastInstance hazelcastInstance;
+    private MemberMetricsSampler memberMetricsSampler;
 
     @Override
     public HazelcastInstance getDriverInstance() {
@@ -100,8 +109,22 @@ public class Hazelcast4PlusDriver extends Driver<HazelcastInstance> {
             }
         }
         LOGGER.info(format("%s HazelcastInstance started", workerType));
+        String expectedClusterSize = get("EXPECTED_CLUSTER_SIZE");
+        if ("member".equals(workerType) && expectedClusterSize != null) {
+            awaitClusterSize(hazelcastInstance, Integer.parseInt(expectedClusterSize),
+                    Integer.parseInt(get("WORKER_STARTUP_CLUSTER_TIMEOUT_SECONDS", "300")));
+        }
         warmupPartitions(hazelcastInstance);
         LOGGER.info("Warmed up partitions");
+
+        if (!"javaclient".equals(workerType)) {
+            memberMetricsSampler = new MemberMetricsSampler(hazelcastInstance);
+        }
+    }
+
+    @Override
+    public Map<String, Double> sampleMetrics() {
+        return memberMetricsSampler == null ? Collections.emptyMap() : memberMetricsSampler.sample();
     }
 
     @Override
@@ -128,6 +151,41 @@ public class Hazelcast4PlusDriver extends Driver<HazelcastInstance> {
         }
     }
 
+    /**
+     * Waits till the cluster has at least the expected number of members. The member is only reported as started
+     * after this, so the clients are started on a complete cluster.
+     */
+    private static void awaitClusterSize(HazelcastInstance hazelcastInstance, int expectedClusterSize, int timeoutSeconds) {
+        Cluster cluster = hazelcastInstance.getCluster();
+        CountDownLatch clusterComplete = new CountDownLatch(1);
+        UUID registrationId = cluster.addMembershipListener(new MembershipAdapter() {
+            @Override
+            public void memberAdded(MembershipEvent event) {
+                if (event.getMembers().size() >= expectedClusterSize) {
+                    clusterComplete.countDown();
+                }
+            }
+        });
+
+        try {
+            if (cluster.getMembers().size() >= expectedClusterSize) {
+                return;
+            }
+
+            LOGGER.info(format("Waiting for cluster size %d, current size %d", expectedClusterSize, cluster.getMembers().size()));
+            if (!clusterComplete.await(timeoutSeconds, SECONDS)) {
+                throw new IllegalStateException(format("Cluster didn't reach size %d within %d seconds, current size %d",
+                        expectedClusterSize, timeoutSeconds, cluster.getMembers().size()));
+            }
+            LOGGER.info(format("Cluster reached size %d", expectedClusterSize));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for cluster size " + expectedClusterSize, e);
+        } finally {
+            cluster.removeMembershipListener(registrationId);
+        }
+    }
+
     public static void warmupPartitions(HazelcastInstance hazelcastInstance) {
         LOGGER.info("Waiting for partition warmup");
 
@@ -0,0 +1,221 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.hazelcast4plus;
+
+import com.hazelcast.core.DistributedObject;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.instance.impl.Node;
+import com.hazelcast.internal.metrics.MetricDescriptor;
+import com.hazelcast.internal.metrics.MetricsRegistry;
+import com.hazelcast.internal.metrics.collectors.MetricsCollector;
+import com.hazelcast.map.IMap;
+import com.hazelcast.map.LocalMapStats;
+import com.hazelcast.simulator.tests.map.helpers.tasks.GetHybridLogLengthTask;
+import com.hazelcast.simulator.tests.map.helpers.tasks.GetMemberIoStatsTask;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static com.hazelcast.simulator.tests.helpers.HazelcastTestUtils.getNode;
+
+/**
+ * Samples the internal metrics of a Hazelcast member, so they can be lined up with the latencies seen by the clients.
+ * <p>
+ * The following metrics are sampled:
+ * <ul>
+ * <li>the operation and event queue sizes and partition migration metrics from the metrics registry of the member;
+ * metrics which don't exist in the Hazelcast version that is used are left out</li>
+ * <li>the number of collections and the collection time per garbage collector</li>
+ * <li>the CPU load and used heap of the member process, and the number of connected clients</li>
+ * <li>the bytes read from and written to the storage layer by the member process, from /proc/self/io</li>
+ * <li>the hits, puts, gets, average put/get latencies and owned entries of every map, from the {@link LocalMapStats}</li>
+ * <li>the hybrid log length of the tiered store, if the tiered store is available</li>
+ * </ul>
+ * Counters are reported as the change since the previous sample.
+ * <p>
+ * This class is not thread-safe; it is used by the operations monitor thread of the worker.
+ */
+final class MemberMetricsSampler {
+
+    private static final Logger LOGGER = LogManager.getLogger(MemberMetricsSampler.class);
+
+    // the member-wide metrics from the metrics registry, as prefix.metric
+    private static final Set<String> REGISTRY_METRICS = new HashSet<>(Arrays.asList(
+            "operation.queueSize",
+            "operation.priorityQueueSize",
+            "operation.runningCount",
+            "operation.invocations.pending",
+            "partitions.migrationQueueSize",
+            "partitions.migrationActive",
+            "partitions.completedMigrations",
+            "partitions.localPartitionCount",
+            "event.eventQueueSize",
+            "event.rejectedCount"));
+
+    private final HazelcastInstance hazelcastInstance;
+    private final Map<String, Long> previousCounters = new HashMap<>();
+    private boolean registryAvailable = true;
+    private boolean tieredStoreAvailable = true;
+
+    MemberMetricsSampler(HazelcastInstance hazelcastInstance) {
+        this.hazelcastInstance = hazelcastInstance;
+    }
+
+    Map<String, Double> sample() {
+        Map<String, Double> metrics = new HashMap<>();
+        sampleRegistry(metrics);
+        metrics.put("partitions.localMemberSafe", hazelcastInstance.getPartitionService().isLocalMemberSafe() ? 1d : 0d);
+        sampleGc(metrics);
+        sampleProcess(metrics);
+        sampleDiskIo(metrics);
+        sampleMaps(metrics);
+        sampleTieredStore(metrics);
+        return metrics;
+    }
+
+    private void sampleRegistry(Map<String, Double> metrics) {
+        if (!registryAvailable) {
+            return;
+        }
+
+        try {
+            Node node = getNode(hazelcastInstance);
+            MetricsRegistry registry = node.getNodeEngine().getMetricsRegistry();
+            registry.collect(new MetricsCollector() {
+                @Override
+                public void collectLong(MetricDescriptor descriptor, long value) {
+                    collect(metrics, descriptor, value);
+                }
+
+                @Override
+                public void collectDouble(MetricDescriptor descriptor, double value) {
+                    collect(metrics, descriptor, value);
+                }
+
+                @Override
+                public void collectException(MetricDescriptor descriptor, Exception e) {
+                    // a probe which fails is left out
+                }
+
+                @Override
+                public void collectNoValue(MetricDescriptor descriptor) {
+                    // a probe without a value is left out
+                }
+            });
+        } catch (Exception | LinkageError e) {
+            // the internal API of the metrics registry isn't available in every Hazelcast version
+            LOGGER.warn("Failed to sample the metrics registry, it is excluded from the member metrics", e);
+            registryAvailable = false;
+        }
+    }
+
+    private static void collect(Map<String, Double> metrics, MetricDescriptor descriptor, double value) {
+        if (descriptor.discriminatorValue() != null) {
+            return;
+        }
+
+        String name = descriptor.prefix() + "." + descriptor.metric();
+        if (REGISTRY_METRICS.contains(name)) {
+            metrics.put(name, value);
+        }
+    }
+
+    private void sampleGc(Map<String, Double> metrics) {
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            String prefix = "gc." + gc.getName().replace(" ", "");
+            putDelta(metrics, prefix + ".count", gc.getCollectionCount());
+            putDelta(metrics, prefix + ".timeMs", gc.getCollectionTime());
+        }
+    }
+
+    private void sampleProcess(Map<String, Double> metrics) {
+        OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        if (os instanceof com.sun.management.OperatingSystemMXBean) {
+            double cpuLoad = ((com.sun.management.OperatingSystemMXBean) os).getProcessCpuLoad();
+            // a negative load means it isn't available yet
+            if (cpuLoad >= 0) {
+                metrics.put("process.cpuLoad", cpuLoad);
+            }
+        }
+        metrics.put("process.heapUsedBytes", (double) ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed());
+        metrics.put("clients.connected", (double) hazelcastInstance.getClientService().getConnectedClients().size());
+    }
+
+    private void sampleDiskIo(Map<String, Double> metrics) {
+        long[] diskIo = GetMemberIoStatsTask.readProcSelfIo();
+        if (diskIo != null) {
+            putDelta(metrics, "io.readBytes", diskIo[GetMemberIoStatsTask.READ_BYTES]);
+            putDelta(metrics, "io.writeBytes", diskIo[GetMemberIoStatsTask.WRITE_BYTES]);
+        }
+    }
+
+    private void sampleMaps(Map<String, Double> metrics) {
+        for (DistributedObject object : hazelcastInstance.getDistributedObjects()) {
+            if (!(object instanceof IMap)) {
+                continue;
+            }
+
+            LocalMapStats stats = ((IMap<?, ?>) object).getLocalMapStats();
+            String prefix = "map." + object.getName();
+            long puts = putDelta(metrics, prefix + ".puts", stats.getPutOperationCount());
+            long gets = putDelta(metrics, prefix + ".gets", stats.getGetOperationCount());
+            long putLatencyMs = delta(prefix + ".totalPutLatency", stats.getTotalPutLatency());
+            long getLatencyMs = delta(prefix + ".totalGetLatency", stats.getTotalGetLatency());
+            putDelta(metrics, prefix + ".hits", stats.getHits());
+            metrics.put(prefix + ".ownedEntryCount", (double) stats.getOwnedEntryCount());
+            if (puts > 0) {
+                metrics.put(prefix + ".putLatencyAvgMs", (double) putLatencyMs / puts);
+            }
+            if (gets > 0) {
+                metrics.put(prefix + ".getLatencyAvgMs", (double) getLatencyMs / gets);
+            }
+        }
+    }
+
+    private void sampleTieredStore(Map<String, Double> metrics) {
+        if (!tieredStoreAvailable) {
+            return;
+        }
+
+        try {
+            GetHybridLogLengthTask task = new GetHybridLogLengthTask();
+            task.setHazelcastInstance(getNode(hazelcastInstance).hazelcastInstance);
+            metrics.put("tieredStore.hybridLogLength", (double) task.call());
+        } catch (Exception | LinkageError e) {
+            LOGGER.info("Tiered store not available, the hybrid log length is excluded from the member metrics");
+            tieredStoreAvailable = false;
+        }
+    }
+
+    private long putDelta(Map<String, Double> metrics, String name, long value) {
+        long delta = delta(name, value);
+        metrics.put(name, (double) delta);
+        return delta;
+    }
+
+    private long delta(String name, long value) {
+        Long previous = previousCounters.put(name, value);
+        return previous == null ? 0 : value - previous;
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.hz;
+
+import java.math.BigDecimal;
+
+/**
+ * A sample object for aggregation benchmarks that relies on zero-config (reflective) compact serialization.
+ * The fields are the same as in {@link AggregationPortablePojo} and
+ * {@link AggregationIdentifiedDataSerializablePojo} so the same attributes can be queried.
+ */
+public class AggregationCompactPojo {
+
+    public long id;
+    public int category;
+    public long amount;
+    public BigDecimal price;
+
+    public AggregationCompactPojo() {
+    }
+
+    public AggregationCompactPojo(long id, int category, long amount, BigDecimal price) {
+        this.id = id;
+        this.category = category;
+        this.amount = amount;
+        this.price = price;
+    }
+}
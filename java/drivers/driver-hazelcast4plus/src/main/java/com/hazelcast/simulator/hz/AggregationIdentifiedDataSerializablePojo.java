@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.hz;
+
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+/**
+ * The IdentifiedDataSerializable counterpart of {@link AggregationCompactPojo}.
+ */
+public class AggregationIdentifiedDataSerializablePojo implements IdentifiedDataSerializable {
+
+    public long id;
+    public int category;
+    public long amount;
+    public BigDecimal price;
+
+    public AggregationIdentifiedDataSerializablePojo() {
+    }
+
+    public AggregationIdentifiedDataSerializablePojo(long id, int category, long amount, BigDecimal price) {
+        this.id = id;
+        this.category = category;
+        this.amount = amount;
+        this.price = price;
+    }
+
+    @Override
+    public int getFactoryId() {
+        return IdentifiedDataSerializableFactory.FACTORY_ID;
+    }
+
+    @Override
+    public int getClassId() {
+        return IdentifiedDataSerializableFactory.SAMPLE_AGGREGATION_TYPE;
+    }
+
+    @Override
+    public void writeData(ObjectDataOutput objectDataOutput) throws IOException {
+        objectDataOutput.writeLong(id);
+        objectDataOutput.writeInt(category);
+        objectDataOutput.writeLong(amount);
+        objectDataOutput.writeObject(price);
+    }
+
+    @Override
+    public void readData(ObjectDataInput objectDataInput) throws IOException {
+        id = objectDataInput.readLong();
+        category = objectDataInput.readInt();
+        amount = objectDataInput.readLong();
+        price = objectDataInput.readObject();
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.hz;
+
+import com.hazelcast.nio.serialization.Portable;
+import com.hazelcast.nio.serialization.PortableReader;
+import com.hazelcast.nio.serialization.PortableWriter;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+/**
+ * The Portable counterpart of {@link AggregationCompactPojo}.
+ *
+ * Requires the {@link CustomPortableFactory} to be registered in the member and client configuration.
+ */
+public class AggregationPortablePojo implements Portable {
+
+    public long id;
+    public int category;
+    public long amount;
+    public BigDecimal price;
+
+    public AggregationPortablePojo() {
+    }
+
+    public AggregationPortablePojo(long id, int category, long amount, BigDecimal price) {
+        this.id = id;
+        this.category = category;
+        this.amount = amount;
+        this.price = price;
+    }
+
+    @Override
+    public int getFactoryId() {
+        return CustomPortableFactory.FACTORY_ID;
+    }
+
+    @Override
+    public int getClassId() {
+        return CustomPortableFactory.AGGREGATION_TYPE;
+    }
+
+    @Override
+    public void writePortable(PortableWriter portableWriter) throws IOException {
+        portableWriter.writeLong("id", id);
+        portableWriter.writeInt("category", category);
+        portableWriter.writeLong("amount", amount);
+        portableWriter.writeDecimal("price", price);
+    }
+
+    @Override
+    public void readPortable(PortableReader portableReader) throws IOException {
+        id = portableReader.readLong("id");
+        category = portableReader.readInt("category");
+        amount = portableReader.readLong("amount");
+        price = portableReader.readDecimal("price");
+    }
+}
@@ -20,12 +20,15 @@ import com.hazelcast.nio.serialization.PortableFactory;
 
 public class CustomPortableFactory implements PortableFactory {
     public static final int FACTORY_ID = 1;
+    public static final int AGGREGATION_TYPE = 2;
 
     @Override
     public Portable create(int i) {
         switch (i) {
             case 1:
                 return new LongPortablePojo();
+            case AGGREGATION_TYPE:
+                return new AggregationPortablePojo();
         }
         return null;
     }
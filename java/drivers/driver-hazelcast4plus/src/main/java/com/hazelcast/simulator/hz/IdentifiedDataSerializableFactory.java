@@ -25,6 +25,7 @@ public class IdentifiedDataSerializableFactory implements DataSerializableFactor
     public static final int SAMPLE_STRING_TYPE = 1;
     public static final int SAMPLE_LONG_TYPE = 2;
     public static final int SAMPLE_MUTLIPLE_INTS_TYPE = 3;
+    public static final int SAMPLE_AGGREGATION_TYPE = 4;
 
     @Override
     public IdentifiedDataSerializable create(int typeId) {
@@ -35,6 +36,8 @@ public class IdentifiedDataSerializableFactory implements DataSerializableFactor
                 return new IdentifiedDataWithLongSerializablePojo();
             case SAMPLE_MUTLIPLE_INTS_TYPE:
                 return new IdentifiedDataSerializableMultipleIntsPojo();
+            case SAMPLE_AGGREGATION_TYPE:
+                return new AggregationIdentifiedDataSerializablePojo();
             default:
                 return null;
         }
@@ -0,0 +1,357 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.tests.client;
+
+import com.hazelcast.client.HazelcastClient;
+import com.hazelcast.client.config.ClientConfig;
+import com.hazelcast.client.config.XmlClientConfigBuilder;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.HazelcastInstanceNotActiveException;
+import com.hazelcast.core.LifecycleEvent.LifecycleState;
+import com.hazelcast.map.IMap;
+import com.hazelcast.simulator.hz.HazelcastTest;
+import com.hazelcast.simulator.probes.LatencyProbe;
+import com.hazelcast.simulator.test.BaseThreadState;
+import com.hazelcast.simulator.test.annotations.BeforeRun;
+import com.hazelcast.simulator.test.annotations.Prepare;
+import com.hazelcast.simulator.test.annotations.Setup;
+import com.hazelcast.simulator.test.annotations.Teardown;
+import com.hazelcast.simulator.test.annotations.TimeStep;
+import com.hazelcast.simulator.worker.loadsupport.Streamer;
+import com.hazelcast.simulator.worker.loadsupport.StreamerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.hazelcast.simulator.utils.CommonUtils.sleepSeconds;
+import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Benchmarks a storm of client connections: every worker opens {@link #clientCount} clients at the same moment, like a
+ * fleet of microservices which is restarted at once.
+ * <p>
+ * The 'connect' probe records the time to create a client and the 'firstOperation' probe the time from the start of
+ * the connect till the first get on the map has completed. The connects are done by virtual threads when the JVM
+ * supports them, so the load generator doesn't need a thread per client; every client still has its own I/O threads,
+ * which are limited to {@link #clientThreadCount}. The first storm completes before the run starts. With
+ * {@link #stormIntervalSeconds} the storm is repeated periodically during the run: a new set of clients is connected
+ * while the existing clients keep serving the 'get' timestep, and the existing clients are shut down once their
+ * replacements are up. So during a storm a worker has up to twice {@link #clientCount} clients.
+ * <p>
+ * A reconnect storm after a member restart is simulated by combining the test with a fault, e.g.
+ * {@code faults: 120s restart member}. The 'reconnect' probe records the time between the disconnect and the reconnect
+ * of a client. The 'get' timestep runs on a random connected client, so the latency shows the impact of the storm on
+ * the clients which are already connected. The CPU load, heap usage and connected clients of the members are in their
+ * member-metrics.csv files; they are sampled during the whole run, including the storms.
+ */
+public class ClientConnectionStormTest extends HazelcastTest {
+
+    // properties
+    public int clientCount = 1000;
+    public boolean smartRouting = true;
+    // the maximum number of concurrent connects per worker; 0 means all clients connect at once
+    public int connectConcurrency;
+    public boolean virtualThreads = true;
+    public int clientThreadCount = 1;
+    public int stormIntervalSeconds;
+    public int reportIntervalSeconds = 10;
+    public int keyDomain = 10_000;
+    public String clientConfigFile = "client-hazelcast.xml";
+
+    private final LongAdder disconnects = new LongAdder();
+    private final LongAdder reconnects = new LongAdder();
+    private IMap<Integer, Integer> map;
+    private ClientConfig clientConfig;
+    private ExecutorService executor;
+    // the clients of the last completed storm
+    private volatile Clients clients;
+    private LatencyProbe connectProbe;
+    private LatencyProbe firstOperationProbe;
+    private LatencyProbe reconnectProbe;
+    private volatile boolean closed;
+    private boolean stormStarted;
+    private int storm;
+
+    @Setup
+    public void setup() throws IOException {
+        map = targetInstance.getMap(name);
+        clientConfig = new XmlClientConfigBuilder(new File(clientConfigFile)).build();
+        clientConfig.getNetworkConfig().setSmartRouting(smartRouting);
+        // every client has its own threads; with thousands of clients per worker they need to be kept to a minimum
+        String threadCount = Integer.toString(clientThreadCount);
+        clientConfig.setProperty("hazelcast.client.io.input.thread.count", threadCount);
+        clientConfig.setProperty("hazelcast.client.io.output.thread.count", threadCount);
+        clientConfig.setProperty("hazelcast.client.event.thread.count", threadCount);
+        clientConfig.setProperty("hazelcast.client.response.thread.count", threadCount);
+
+        executor = newExecutor();
+        connectProbe = testContext.getLatencyProbe("connect", false);
+        firstOperationProbe = testContext.getLatencyProbe("firstOperation", false);
+        reconnectProbe = testContext.getLatencyProbe("reconnect", false);
+    }
+
+    private ExecutorService newExecutor() {
+        if (virtualThreads) {
+            try {
+                // virtual threads are only available on Java 21+, while the driver is compiled for an older release
+                return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (ReflectiveOperationException e) {
+                logger.warn(name + ": virtual threads are not supported by this JVM, platform threads are used");
+            }
+        }
+        return Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, name + "-connect");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Prepare(global = true)
+    public void prepare() {
+        Streamer<Integer, Integer> streamer = StreamerFactory.getInstance(map);
+        for (int key = 0; key < keyDomain; key++) {
+            streamer.pushEntry(key, key);
+        }
+        streamer.await();
+    }
+
+    @BeforeRun
+    public synchronized void beforeRun() {
+        if (!stormStarted) {
+            stormStarted = true;
+            // the timestep threads wait for the first storm, so the 'get' latency only contains real gets
+            connectClients();
+            new StormThread().start();
+        }
+    }
+
+    @TimeStep
+    public Integer get(ThreadState state) {
+        Clients current = clients;
+        IMap<Integer, Integer> clientMap = state.randomConnectedMap(current);
+        if (clientMap == null) {
+            throw new IllegalStateException(name + ": none of the clients is connected");
+        }
+        try {
+            return clientMap.get(state.randomInt(keyDomain));
+        } catch (HazelcastInstanceNotActiveException e) {
+            if (current == clients) {
+                throw e;
+            }
+            // the client has been replaced by a storm and is shutting down
+            return get(state);
+        }
+    }
+
+    @Teardown
+    public void teardown() {
+        Clients current;
+        synchronized (this) {
+            closed = true;
+            current = clients;
+            clients = null;
+        }
+        shutdown(current);
+        executor.shutdownNow();
+    }
+
+    @Teardown(global = true)
+    public void globalTeardown() {
+        map.destroy();
+    }
+
+    private void connectClients() {
+        storm++;
+        Clients replacements = new Clients(storm);
+        Semaphore permits = new Semaphore(connectConcurrency > 0 ? connectConcurrency : clientCount);
+        LongAdder failures = new LongAdder();
+        long startNanos = System.nanoTime();
+        List<Future<?>> futures = new ArrayList<>(clientCount);
+        for (int k = 0; k < clientCount; k++) {
+            int index = k;
+            permits.acquireUninterruptibly();
+            futures.add(executor.submit(() -> {
+                try {
+                    connectClient(replacements, index);
+                } catch (Exception e) {
+                    failures.increment();
+                    logger.warn(format("%s: client %d failed to connect", name, index), e);
+                } finally {
+                    permits.release();
+                }
+            }));
+        }
+        await(futures);
+
+        String msg = format(Locale.US, "%s storm %d: connected %d %s clients in %d ms, %d failed",
+                name, storm, clientCount - failures.sum(), smartRouting ? "smart" : "unisocket",
+                NANOSECONDS.toMillis(System.nanoTime() - startNanos), failures.sum());
+        logger.info(msg);
+        testContext.echoCoordinator("%s", msg);
+
+        // the replaced clients are only shut down once their replacements are up, so the gets keep running
+        Clients replaced;
+        synchronized (this) {
+            if (closed) {
+                replaced = replacements;
+            } else {
+                replaced = clients;
+                clients = replacements;
+            }
+        }
+        shutdown(replaced);
+    }
+
+    private void connectClient(Clients replacements, int index) {
+        ClientConfig config = new ClientConfig(clientConfig).setInstanceName(name + "-" + replacements.storm + "-" + index);
+        long startNanos = System.nanoTime();
+        HazelcastInstance client = HazelcastClient.newHazelcastClient(config);
+        connectProbe.done(startNanos);
+        replacements.instances.set(index, client);
+        if (closed) {
+            return;
+        }
+
+        client.getLifecycleService().addLifecycleListener(
+                event -> onLifecycleEvent(replacements, index, event.getState()));
+        IMap<Integer, Integer> clientMap = client.getMap(name);
+        clientMap.get(index % keyDomain);
+        firstOperationProbe.done(startNanos);
+
+        replacements.maps.set(index, clientMap);
+    }
+
+    private void onLifecycleEvent(Clients owner, int index, LifecycleState state) {
+        // the clients of a storm in progress and the replaced clients which are shutting down aren't counted
+        if (owner != clients) {
+            return;
+        }
+
+        if (state == LifecycleState.CLIENT_DISCONNECTED) {
+            disconnects.increment();
+            owner.disconnectedNanos.set(index, System.nanoTime());
+        } else if (state == LifecycleState.CLIENT_CONNECTED) {
+            long startNanos = owner.disconnectedNanos.getAndSet(index, 0);
+            if (startNanos != 0) {
+                reconnectProbe.done(startNanos);
+                reconnects.increment();
+            }
+        }
+    }
+
+    private void shutdown(Clients replaced) {
+        if (replaced == null) {
+            return;
+        }
+
+        List<Future<?>> futures = new ArrayList<>(clientCount);
+        for (int k = 0; k < clientCount; k++) {
+            HazelcastInstance client = replaced.instances.getAndSet(k, null);
+            if (client != null) {
+                futures.add(executor.submit(client::shutdown));
+            }
+        }
+        await(futures);
+    }
+
+    private void await(List<Future<?>> futures) {
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                logger.warn(name + ": task failed", e);
+            }
+        }
+    }
+
+    public class ThreadState extends BaseThreadState {
+
+        private IMap<Integer, Integer> randomConnectedMap(Clients current) {
+            if (current == null) {
+                return null;
+            }
+
+            int start = randomInt(clientCount);
+            for (int k = 0; k < clientCount; k++) {
+                IMap<Integer, Integer> clientMap = current.maps.get((start + k) % clientCount);
+                if (clientMap != null) {
+                    return clientMap;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * The clients connected by a single storm.
+     */
+    private final class Clients {
+
+        private final int storm;
+        private final AtomicReferenceArray<HazelcastInstance> instances = new AtomicReferenceArray<>(clientCount);
+        private final AtomicReferenceArray<IMap<Integer, Integer>> maps = new AtomicReferenceArray<>(clientCount);
+        private final AtomicLongArray disconnectedNanos = new AtomicLongArray(clientCount);
+
+        private Clients(int storm) {
+            this.storm = storm;
+        }
+    }
+
+    private final class StormThread extends Thread {
+
+        private StormThread() {
+            super(name + "-Storm");
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            long nextStormMillis = stormIntervalSeconds > 0
+                    ? System.currentTimeMillis() + stormIntervalSeconds * 1000L : Long.MAX_VALUE;
+            while (!testContext.isStopped()) {
+                sleepSeconds(reportIntervalSeconds);
+                if (testContext.isStopped()) {
+                    break;
+                }
+
+                String msg = format("%s: %d disconnects, %d reconnects in the last %d seconds",
+                        name, disconnects.sumThenReset(), reconnects.sumThenReset(), reportIntervalSeconds);
+                logger.info(msg);
+                testContext.echoCoordinator("%s", msg);
+
+                if (System.currentTimeMillis() >= nextStormMillis) {
+                    connectClients();
+                    nextStormMillis = System.currentTimeMillis() + stormIntervalSeconds * 1000L;
+                }
+            }
+        }
+    }
+}
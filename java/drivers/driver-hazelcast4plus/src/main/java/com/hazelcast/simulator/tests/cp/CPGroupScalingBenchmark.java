@@ -0,0 +1,288 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.tests.cp;
+
+import com.hazelcast.cluster.Member;
+import com.hazelcast.core.IExecutorService;
+import com.hazelcast.cp.CPMap;
+import com.hazelcast.cp.CPSubsystem;
+import com.hazelcast.cp.IAtomicLong;
+import com.hazelcast.cp.lock.FencedLock;
+import com.hazelcast.simulator.hz.HazelcastTest;
+import com.hazelcast.simulator.probes.LatencyProbe;
+import com.hazelcast.simulator.test.BaseThreadState;
+import com.hazelcast.simulator.test.annotations.BeforeRun;
+import com.hazelcast.simulator.test.annotations.Setup;
+import com.hazelcast.simulator.test.annotations.TimeStep;
+import com.hazelcast.simulator.test.annotations.Verify;
+import com.hazelcast.simulator.tests.cp.helpers.GetRaftGroupInfoTask;
+import com.hazelcast.simulator.tests.cp.helpers.RaftGroupInfo;
+import com.hazelcast.simulator.utils.GeneratorUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Future;
+
+import static com.hazelcast.simulator.utils.CommonUtils.sleepSeconds;
+import static java.lang.String.format;
+
+/**
+ * Benchmarks the CP Subsystem with a mix of CPMap, IAtomicLong and FencedLock operations spread over a configurable
+ * number of CP groups, to find out where the Raft throughput caps out. The number of CP members is configured with the
+ * cp-member-count in the hazelcast.xml; run the test with different cpGroups and member counts to see how it scales.
+ * <p>
+ * The CPMap writes use values of the sizes in valueSizes; every size has its own probe ('cpMapSet-100B' etc.), which
+ * shows the Raft commit latency per value size.
+ * <p>
+ * On member workers the leader locality can be controlled with leaderLocalProbability: the probability that an
+ * operation goes to a group whose leader is the member itself. The 'leaderLocal' and 'leaderRemote' probes record
+ * the latency of both kinds of access. On client workers the operations are spread uniformly over the groups.
+ * <p>
+ * While the test runs, the term and leader of every group are monitored. A term change means there was a leader
+ * election; they are logged and counted, and the total is reported in the verify.
+ */
+public class CPGroupScalingBenchmark extends HazelcastTest {
+
+    private static final int VALUES_PER_SIZE = 10;
+
+    // number of CP groups; if 0, only the default CP group is used
+    public int cpGroups = 1;
+    // number of CPMaps, IAtomicLongs and FencedLocks per CP group
+    public int objectsPerGroup = 1;
+    // number of distinct keys per CPMap
+    public int keys = 100;
+    // comma separated value sizes in bytes for the CPMap writes
+    public String valueSizes = "100,1000,10000";
+    // the probability to access a group led by the member itself; -1 means the groups are picked uniformly
+    public double leaderLocalProbability = -1;
+    public int raftMonitorIntervalSeconds = 1;
+
+    private String[] groupNames;
+    private CPMap<Integer, byte[]>[][] maps;
+    private IAtomicLong[][] atomicLongs;
+    private FencedLock[][] locks;
+    private int[] sizes;
+    private byte[][][] values;
+    private LatencyProbe[] setProbes;
+    private LatencyProbe leaderLocalProbe;
+    private LatencyProbe leaderRemoteProbe;
+    private IExecutorService executor;
+    private IAtomicLong termChanges;
+    private volatile int[] localLeaderGroups = new int[0];
+    private volatile int[] remoteLeaderGroups = new int[0];
+    private boolean monitorStarted;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        groupNames = createCpGroupNames();
+        CPSubsystem cpSubsystem = targetInstance.getCPSubsystem();
+        maps = new CPMap[groupNames.length][objectsPerGroup];
+        atomicLongs = new IAtomicLong[groupNames.length][objectsPerGroup];
+        locks = new FencedLock[groupNames.length][objectsPerGroup];
+        for (int g = 0; g < groupNames.length; g++) {
+            for (int i = 0; i < objectsPerGroup; i++) {
+                String suffix = i + "@" + groupNames[g];
+                maps[g][i] = cpSubsystem.getMap(name + "-map" + suffix);
+                atomicLongs[g][i] = cpSubsystem.getAtomicLong(name + "-atomicLong" + suffix);
+                locks[g][i] = cpSubsystem.getLock(name + "-lock" + suffix);
+            }
+        }
+
+        String[] sizeStrings = valueSizes.split(",");
+        sizes = new int[sizeStrings.length];
+        values = new byte[sizeStrings.length][][];
+        setProbes = new LatencyProbe[sizeStrings.length];
+        Random random = new Random(0);
+        for (int s = 0; s < sizeStrings.length; s++) {
+            sizes[s] = Integer.parseInt(sizeStrings[s].trim());
+            values[s] = new byte[VALUES_PER_SIZE][];
+            for (int i = 0; i < VALUES_PER_SIZE; i++) {
+                values[s][i] = GeneratorUtils.generateByteArray(random, sizes[s]);
+            }
+            setProbes[s] = testContext.getLatencyProbe("cpMapSet-" + sizes[s] + "B", false);
+        }
+
+        leaderLocalProbe = testContext.getLatencyProbe("leaderLocal", false);
+        leaderRemoteProbe = testContext.getLatencyProbe("leaderRemote", false);
+        executor = targetInstance.getExecutorService(name);
+        termChanges = getAtomicLong(name + "-termChanges");
+    }
+
+    private String[] createCpGroupNames() {
+        if (cpGroups == 0) {
+            return new String[]{"default"};
+        }
+
+        String[] cpGroupNames = new String[cpGroups];
+        for (int i = 0; i < cpGroups; i++) {
+            cpGroupNames[i] = "cpgroup-" + i;
+        }
+        return cpGroupNames;
+    }
+
+    @BeforeRun
+    public synchronized void beforeRun() {
+        if (!monitorStarted) {
+            monitorStarted = true;
+            new RaftMonitorThread().start();
+        }
+    }
+
+    @TimeStep(prob = 0.4)
+    public void cpMapSet(ThreadState state) {
+        int group = state.randomGroup();
+        int size = state.randomInt(sizes.length);
+        long startNanos = System.nanoTime();
+        maps[group][state.randomInt(objectsPerGroup)].set(state.randomInt(keys), values[size][state.randomInt(VALUES_PER_SIZE)]);
+        setProbes[size].done(startNanos);
+        recordLocality(group, startNanos);
+    }
+
+    @TimeStep(prob = 0.2)
+    public void cpMapGet(ThreadState state) {
+        int group = state.randomGroup();
+        long startNanos = System.nanoTime();
+        maps[group][state.randomInt(objectsPerGroup)].get(state.randomInt(keys));
+        recordLocality(group, startNanos);
+    }
+
+    @TimeStep(prob = 0.3)
+    public void atomicLongIncrement(ThreadState state) {
+        int group = state.randomGroup();
+        long startNanos = System.nanoTime();
+        atomicLongs[group][state.randomInt(objectsPerGroup)].incrementAndGet();
+        recordLocality(group, startNanos);
+    }
+
+    @TimeStep(prob = 0.1)
+    public void lockAcquireRelease(ThreadState state) {
+        int group = state.randomGroup();
+        long startNanos = System.nanoTime();
+        FencedLock lock = locks[group][state.randomInt(objectsPerGroup)];
+        lock.lock();
+        lock.unlock();
+        recordLocality(group, startNanos);
+    }
+
+    private void recordLocality(int group, long startNanos) {
+        if (leaderLocalProbability < 0) {
+            return;
+        }
+        if (Arrays.binarySearch(localLeaderGroups, group) >= 0) {
+            leaderLocalProbe.done(startNanos);
+        } else {
+            leaderRemoteProbe.done(startNanos);
+        }
+    }
+
+    @Verify(global = true)
+    public void verify() {
+        logger.info(format("%s: %d term changes in %d CP groups during the run", name, termChanges.get(), groupNames.length));
+    }
+
+    public class ThreadState extends BaseThreadState {
+
+        private int randomGroup() {
+            if (leaderLocalProbability < 0) {
+                return randomInt(groupNames.length);
+            }
+
+            int[] candidates = randomDouble() < leaderLocalProbability ? localLeaderGroups : remoteLeaderGroups;
+            return candidates.length == 0 ? randomInt(groupNames.length) : candidates[randomInt(candidates.length)];
+        }
+    }
+
+    /**
+     * Monitors the term and leader of the CP groups. Every worker uses it to find out which groups are led by its own
+     * member; only a single worker logs the term changes.
+     */
+    private final class RaftMonitorThread extends Thread {
+        private final boolean isReporter;
+        private final Map<String, RaftGroupInfo> lastSeen = new HashMap<>();
+
+        private RaftMonitorThread() {
+            super(name + "-RaftMonitor");
+            setDaemon(true);
+            this.isReporter = getAtomicLong(name + "-isReporter").getAndIncrement() == 0;
+        }
+
+        @Override
+        public void run() {
+            while (!testContext.isStopped()) {
+                try {
+                    update();
+                } catch (Exception e) {
+                    // a member could be unavailable during a leader election; just try again the next interval
+                    logger.warn(name + ": failed to get the Raft group info", e);
+                }
+                sleepSeconds(raftMonitorIntervalSeconds);
+            }
+        }
+
+        private void update() throws Exception {
+            Map<String, RaftGroupInfo> latest = new HashMap<>();
+            List<Integer> localLeaders = new ArrayList<>();
+            Map<Member, Future<List<RaftGroupInfo>>> futures
+                    = executor.submitToAllMembers(new GetRaftGroupInfoTask(Arrays.asList(groupNames)));
+            for (Map.Entry<Member, Future<List<RaftGroupInfo>>> entry : futures.entrySet()) {
+                for (RaftGroupInfo info : entry.getValue().get()) {
+                    RaftGroupInfo current = latest.get(info.groupName);
+                    if (current == null || info.term > current.term) {
+                        latest.put(info.groupName, info);
+                    }
+                    if (info.localLeader && entry.getKey().localMember()) {
+                        localLeaders.add(Arrays.asList(groupNames).indexOf(info.groupName));
+                    }
+                }
+            }
+
+            updateLeaderGroups(localLeaders);
+            if (isReporter) {
+                logTermChanges(latest);
+            }
+        }
+
+        private void updateLeaderGroups(List<Integer> localLeaders) {
+            int[] local = localLeaders.stream().mapToInt(Integer::intValue).sorted().toArray();
+            List<Integer> remote = new ArrayList<>();
+            for (int g = 0; g < groupNames.length; g++) {
+                if (Arrays.binarySearch(local, g) < 0) {
+                    remote.add(g);
+                }
+            }
+            localLeaderGroups = local;
+            remoteLeaderGroups = remote.stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        private void logTermChanges(Map<String, RaftGroupInfo> latest) {
+            for (RaftGroupInfo info : latest.values()) {
+                RaftGroupInfo previous = lastSeen.put(info.groupName, info);
+                if (previous != null && info.term > previous.term) {
+                    termChanges.addAndGet(info.term - previous.term);
+                    String msg = format("%s: CP group %s changed from term %d to %d, leader %s",
+                            name, info.groupName, previous.term, info.term, info.leaderUuid);
+                    logger.info(msg);
+                    testContext.echoCoordinator("%s", msg);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.tests.cp.helpers;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.HazelcastInstanceAware;
+import com.hazelcast.cp.CPGroup;
+import com.hazelcast.cp.CPMember;
+import com.hazelcast.cp.internal.RaftService;
+import com.hazelcast.cp.internal.raft.impl.RaftEndpoint;
+import com.hazelcast.cp.internal.raft.impl.RaftNode;
+import com.hazelcast.cp.internal.raft.impl.RaftNodeImpl;
+import com.hazelcast.spi.impl.NodeEngineImpl;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+import static com.hazelcast.simulator.tests.helpers.HazelcastTestUtils.getNode;
+
+/**
+ * This task gets the term and leader of CP groups from the Raft nodes on a member. Groups which don't have a Raft
+ * node on the member, e.g. because the member isn't part of the group, are left out.
+ * <p>
+ * This uses the internal Raft API, since the leader and term aren't exposed by the public CP API.
+ **/
+public class GetRaftGroupInfoTask implements HazelcastInstanceAware, Callable<List<RaftGroupInfo>>, Serializable {
+    private HazelcastInstance hazelcastInstance;
+    private final List<String> groupNames;
+
+    public GetRaftGroupInfoTask(List<String> groupNames) {
+        this.groupNames = groupNames;
+    }
+
+    @Override
+    public void setHazelcastInstance(HazelcastInstance hazelcastInstance) {
+        this.hazelcastInstance = hazelcastInstance;
+    }
+
+    @Override
+    public List<RaftGroupInfo> call() throws ExecutionException, InterruptedException {
+        NodeEngineImpl nodeEngine = getNode(hazelcastInstance).getNodeEngine();
+        RaftService raftService = nodeEngine.getService(RaftService.SERVICE_NAME);
+        CPMember localMember = raftService.getLocalCPMember();
+
+        List<RaftGroupInfo> result = new ArrayList<>();
+        for (String groupName : groupNames) {
+            CPGroup group = hazelcastInstance.getCPSubsystem().getCPSubsystemManagementService()
+                    .getCPGroup(groupName).toCompletableFuture().get();
+            RaftNode raftNode = group == null ? null : raftService.getRaftNode(group.id());
+            if (raftNode == null) {
+                continue;
+            }
+
+            RaftEndpoint leader = raftNode.getLeader();
+            int term = raftNode instanceof RaftNodeImpl ? ((RaftNodeImpl) raftNode).state().term() : -1;
+            boolean localLeader = leader != null && localMember != null && leader.getUuid().equals(localMember.getUuid());
+            result.add(new RaftGroupInfo(groupName, term, leader == null ? null : leader.getUuid().toString(), localLeader));
+        }
+        return result;
+    }
+}
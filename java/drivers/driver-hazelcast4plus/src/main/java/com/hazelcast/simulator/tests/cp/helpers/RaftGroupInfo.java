@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.tests.cp.helpers;
+
+import java.io.Serializable;
+
+/**
+ * The Raft state of a CP group as seen by a CP member.
+ */
+public class RaftGroupInfo implements Serializable {
+
+    public final String groupName;
+    public final int term;
+    // the uuid of the CP member which is the leader, or null if there is no leader at the moment
+    public final String leaderUuid;
+    public final boolean localLeader;
+
+    public RaftGroupInfo(String groupName, int term, String leaderUuid, boolean localLeader) {
+        this.groupName = groupName;
+        this.term = term;
+        this.leaderUuid = leaderUuid;
+        this.localLeader = localLeader;
+    }
+
+    @Override
+    public String toString() {
+        return "RaftGroupInfo{"
+                + "groupName=" + groupName
+                + ", term=" + term
+                + ", leaderUuid=" + leaderUuid
+                + ", localLeader=" + localLeader
+                + '}';
+    }
+}
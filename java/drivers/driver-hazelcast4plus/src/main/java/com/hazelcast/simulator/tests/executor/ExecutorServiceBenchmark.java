@@ -0,0 +1,219 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.tests.executor;
+
+import com.hazelcast.cluster.Member;
+import com.hazelcast.core.IExecutorService;
+import com.hazelcast.durableexecutor.DurableExecutorService;
+import com.hazelcast.scheduledexecutor.IScheduledExecutorService;
+import com.hazelcast.scheduledexecutor.IScheduledFuture;
+import com.hazelcast.simulator.hz.HazelcastTest;
+import com.hazelcast.simulator.probes.LatencyProbe;
+import com.hazelcast.simulator.test.BaseThreadState;
+import com.hazelcast.simulator.test.annotations.Setup;
+import com.hazelcast.simulator.test.annotations.Teardown;
+import com.hazelcast.simulator.test.annotations.TimeStep;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+
+import static java.lang.Math.max;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Benchmarks the dispatch overhead of the executor services compared to the work done by the tasks.
+ * <p>
+ * Every timestep submits a task with a payload of {@link #payloadSize} bytes, which keeps the CPU of the member busy for
+ * {@link #taskCpuMicros}, and waits for its result. The timesteps cover the routing variants of the
+ * {@link IExecutorService} (submit, submitToKeyOwner, submitToMember and submitToAllMembers), the
+ * {@link DurableExecutorService} and the {@link IScheduledExecutorService}; by default only 'submit' runs, the others
+ * are enabled with their probability, e.g. {@code submitToKeyOwnerProb: 0.5}.
+ * <p>
+ * The latency of a timestep is the end-to-end latency. The task measures on the member how long it waited after it was
+ * deserialized till it was executed and how long the execution took; these are recorded by the '&lt;timestep&gt;Queue'
+ * and '&lt;timestep&gt;Execution' probes. The rest of the end-to-end latency, the serialization and the network and
+ * operation round trip, is recorded by the '&lt;timestep&gt;Dispatch' probe. For the scheduled executor the delay
+ * ({@link #scheduleDelayMillis}) isn't part of the queue time.
+ */
+public class ExecutorServiceBenchmark extends HazelcastTest {
+
+    private static final int QUEUE_NANOS = 0;
+    private static final int EXECUTION_NANOS = 1;
+
+    // properties
+    public int payloadSize = 100;
+    public int taskCpuMicros = 10;
+    public int keyDomain = 10_000;
+    public int scheduleDelayMillis;
+
+    private final Map<String, LatencyProbe[]> probes = new HashMap<>();
+    private IExecutorService executor;
+    private DurableExecutorService durableExecutor;
+    private IScheduledExecutorService scheduledExecutor;
+    private Member[] members;
+    private byte[] payload;
+
+    @Setup
+    public void setUp() {
+        executor = targetInstance.getExecutorService(name);
+        durableExecutor = targetInstance.getDurableExecutorService(name);
+        scheduledExecutor = targetInstance.getScheduledExecutorService(name);
+        members = targetInstance.getCluster().getMembers().toArray(new Member[0]);
+
+        payload = new byte[payloadSize];
+        new Random().nextBytes(payload);
+
+        for (String timestep : new String[]{"submit", "submitToKeyOwner", "submitToMember", "submitToAllMembers",
+                "durableSubmit", "durableSubmitToKeyOwner", "schedule"}) {
+            probes.put(timestep, new LatencyProbe[]{
+                    testContext.getLatencyProbe(timestep + "Queue", false),
+                    testContext.getLatencyProbe(timestep + "Execution", false),
+                    testContext.getLatencyProbe(timestep + "Dispatch", false)});
+        }
+    }
+
+    @TimeStep(prob = -1)
+    public void submit() throws Exception {
+        long startNanos = System.nanoTime();
+        record("submit", startNanos, executor.submit(newTask()).get());
+    }
+
+    @TimeStep(prob = 0)
+    public void submitToKeyOwner(BaseThreadState state) throws Exception {
+        long startNanos = System.nanoTime();
+        record("submitToKeyOwner", startNanos, executor.submitToKeyOwner(newTask(), state.randomInt(keyDomain)).get());
+    }
+
+    @TimeStep(prob = 0)
+    public void submitToMember(BaseThreadState state) throws Exception {
+        Member member = members[state.randomInt(members.length)];
+        long startNanos = System.nanoTime();
+        record("submitToMember", startNanos, executor.submitToMember(newTask(), member).get());
+    }
+
+    @TimeStep(prob = 0)
+    public void submitToAllMembers() throws Exception {
+        long startNanos = System.nanoTime();
+        List<long[]> results = new ArrayList<>(members.length);
+        for (Future<long[]> future : executor.submitToAllMembers(newTask()).values()) {
+            results.add(future.get());
+        }
+        for (long[] result : results) {
+            record("submitToAllMembers", startNanos, result);
+        }
+    }
+
+    @TimeStep(prob = 0)
+    public void durableSubmit() throws Exception {
+        long startNanos = System.nanoTime();
+        record("durableSubmit", startNanos, durableExecutor.submit(newTask()).get());
+    }
+
+    @TimeStep(prob = 0)
+    public void durableSubmitToKeyOwner(BaseThreadState state) throws Exception {
+        long startNanos = System.nanoTime();
+        record("durableSubmitToKeyOwner", startNanos,
+                durableExecutor.submitToKeyOwner(newTask(), state.randomInt(keyDomain)).get());
+    }
+
+    @TimeStep(prob = 0)
+    public void schedule() throws Exception {
+        long startNanos = System.nanoTime();
+        IScheduledFuture<long[]> future = scheduledExecutor.schedule(newTask(), scheduleDelayMillis, MILLISECONDS);
+        long[] result = future.get();
+        long endNanos = System.nanoTime();
+        // the results of a scheduled task are kept on the member till the future is disposed
+        future.dispose();
+
+        long delayNanos = MILLISECONDS.toNanos(scheduleDelayMillis);
+        result[QUEUE_NANOS] = max(0, result[QUEUE_NANOS] - delayNanos);
+        record("schedule", startNanos, endNanos - delayNanos, result);
+    }
+
+    @Teardown(global = true)
+    public void tearDown() {
+        executor.shutdownNow();
+        durableExecutor.shutdownNow();
+        scheduledExecutor.shutdown();
+        executor.destroy();
+        durableExecutor.destroy();
+        scheduledExecutor.destroy();
+    }
+
+    private Task newTask() {
+        return new Task(payload, MICROSECONDS.toNanos(taskCpuMicros));
+    }
+
+    private void record(String timestep, long startNanos, long[] result) {
+        record(timestep, startNanos, System.nanoTime(), result);
+    }
+
+    private void record(String timestep, long startNanos, long endNanos, long[] result) {
+        LatencyProbe[] timestepProbes = probes.get(timestep);
+        timestepProbes[0].recordValue(result[QUEUE_NANOS]);
+        timestepProbes[1].recordValue(result[EXECUTION_NANOS]);
+        timestepProbes[2].recordValue(max(0, endNanos - startNanos - result[QUEUE_NANOS] - result[EXECUTION_NANOS]));
+    }
+
+    /**
+     * Keeps the CPU busy for the given time and returns the time it waited between its deserialization and its
+     * execution, and the time of the execution. Both are measured on the member, so the clocks of the client and the
+     * member don't need to be in sync.
+     */
+    private static final class Task implements Callable<long[]>, Serializable {
+
+        private static final long serialVersionUID = 4761253097326418427L;
+
+        private final byte[] payload;
+        private final long cpuNanos;
+        private transient long deserializedNanos;
+
+        private Task(byte[] payload, long cpuNanos) {
+            this.payload = payload;
+            this.cpuNanos = cpuNanos;
+        }
+
+        private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+            in.defaultReadObject();
+            deserializedNanos = System.nanoTime();
+        }
+
+        @Override
+        public long[] call() {
+            long startNanos = System.nanoTime();
+            long endNanos = startNanos + cpuNanos;
+            while (System.nanoTime() < endNanos) {
+                // busy spin, so the task costs CPU like a real computation
+                Thread.onSpinWait();
+            }
+
+            long[] result = new long[2];
+            // a task which isn't serialized, e.g. a local submit on a member, has no queue time
+            result[QUEUE_NANOS] = deserializedNanos == 0 ? 0 : max(0, startNanos - deserializedNanos);
+            result[EXECUTION_NANOS] = System.nanoTime() - startNanos;
+            return result;
+        }
+    }
+}
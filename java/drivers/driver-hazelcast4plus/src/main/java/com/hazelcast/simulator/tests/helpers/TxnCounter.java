@@ -22,6 +22,7 @@ public class TxnCounter implements Serializable {
     public long committed;
     public long rolled;
     public long failedRollbacks;
+    public long retriesExhausted;
 
     public TxnCounter() {
     }
@@ -30,6 +31,7 @@ public class TxnCounter implements Serializable {
         committed += c.committed;
         rolled += c.rolled;
         failedRollbacks += c.failedRollbacks;
+        retriesExhausted += c.retriesExhausted;
     }
 
     @Override
@@ -38,6 +40,7 @@ public class TxnCounter implements Serializable {
                 + "committed=" + committed
                 + ", rolled=" + rolled
                 + ", failedRollbacks=" + failedRollbacks
+                + ", retriesExhausted=" + retriesExhausted
                 + '}';
     }
 }
@@ -0,0 +1,282 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.tests.map;
+
+import com.hazelcast.core.EntryEvent;
+import com.hazelcast.cp.IAtomicLong;
+import com.hazelcast.map.IMap;
+import com.hazelcast.map.listener.EntryAddedListener;
+import com.hazelcast.map.listener.EntryUpdatedListener;
+import com.hazelcast.query.Predicates;
+import com.hazelcast.simulator.hz.HazelcastTest;
+import com.hazelcast.simulator.probes.LatencyProbe;
+import com.hazelcast.simulator.test.BaseThreadState;
+import com.hazelcast.simulator.test.annotations.AfterRun;
+import com.hazelcast.simulator.test.annotations.BeforeRun;
+import com.hazelcast.simulator.test.annotations.Setup;
+import com.hazelcast.simulator.test.annotations.Teardown;
+import com.hazelcast.simulator.test.annotations.TimeStep;
+import com.hazelcast.simulator.test.annotations.Verify;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.hazelcast.simulator.utils.CommonUtils.sleepMillis;
+import static com.hazelcast.simulator.utils.CommonUtils.sleepNanos;
+import static com.hazelcast.simulator.utils.CommonUtils.sleepSeconds;
+import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Benchmarks the delivery of map entry events to a number of listeners, e.g. to see how far a cache invalidation
+ * fan-out scales.
+ * <p>
+ * Every worker registers {@link #listenerCount} listeners on the map and sets random keys. The listeners receive the
+ * events of all workers; they are registered with or without the value ({@link #includeValue}) and, if
+ * {@link #predicateSelectivity} is smaller than 1, with a predicate which matches that fraction of the values.
+ * {@link #listenerDelayMicros} simulates the work done by the listener, e.g. an invalidation.
+ * <p>
+ * The 'eventLatency' probe records the time from the start of a set till the callback of a listener. Only the events of
+ * the sets of the same worker are recorded, so the latency doesn't depend on the clocks of the machines; if a key is set
+ * again before the event of the previous set has been delivered, the latency of that event is underestimated, so the
+ * {@link #keyDomain} should be large compared to the throughput.
+ * <p>
+ * Every reportIntervalSeconds, every worker reports the event throughput per listener and the backlog: the number of
+ * matching sets in the cluster minus the events received by the slowest listener. If the backlog keeps growing, the
+ * listeners can't keep up and a warning is logged; the queue sizes of the event threads of the members are in their
+ * member-metrics.csv files. After the run, the workers wait up to eventDrainTimeoutSeconds for the backlog to drain
+ * and report the lost events. Hazelcast events are delivered on a best effort basis, so a loss only fails the test if
+ * failOnEventLoss is set.
+ */
+public class MapEntryListenerBenchmark extends HazelcastTest {
+
+    private static final int VALUE_RANGE = 1_000_000;
+    // the number of consecutive reports the backlog has to grow before it is reported as falling behind
+    private static final int BACKLOG_GROWTH_REPORTS = 3;
+
+    // properties
+    public int listenerCount = 1;
+    public boolean includeValue = true;
+    public double predicateSelectivity = 1;
+    public int listenerDelayMicros;
+    public int keyDomain = 100_000;
+    public int valueCount = 1000;
+    public int valueSize = 100;
+    public int reportIntervalSeconds = 10;
+    public int eventDrainTimeoutSeconds = 60;
+    public boolean failOnEventLoss;
+
+    private final LongAdder sets = new LongAdder();
+    private final LongAdder matchingSets = new LongAdder();
+    private final List<Listener> listeners = new ArrayList<>();
+    private IMap<Integer, String> map;
+    private IAtomicLong globalSets;
+    private IAtomicLong globalMatchingSets;
+    private LatencyProbe eventLatencyProbe;
+    private AtomicLongArray setNanos;
+    private String[] values;
+    private boolean[] matches;
+    private int workerIndex;
+    private boolean reporterStarted;
+
+    @Setup
+    public void setUp() {
+        if (predicateSelectivity <= 0 || predicateSelectivity > 1) {
+            throw new IllegalArgumentException("predicateSelectivity should be in the range (0, 1], but was "
+                    + predicateSelectivity);
+        }
+
+        map = targetInstance.getMap(name);
+        globalSets = getAtomicLong(name + "-sets");
+        globalMatchingSets = getAtomicLong(name + "-matchingSets");
+        eventLatencyProbe = testContext.getLatencyProbe("eventLatency", false);
+        // every worker sets its own range of keys, so a listener can tell which events are of its own worker
+        workerIndex = (int) getAtomicLong(name + "-workerIndex").getAndIncrement();
+        setNanos = new AtomicLongArray(keyDomain);
+
+        // the values start with a zero padded number, so the predicate can select a fraction of them
+        String threshold = format("%06d", (int) (predicateSelectivity * VALUE_RANGE));
+        Random random = new Random();
+        values = new String[valueCount];
+        matches = new boolean[valueCount];
+        for (int k = 0; k < valueCount; k++) {
+            StringBuilder sb = new StringBuilder(format("%06d", random.nextInt(VALUE_RANGE)));
+            while (sb.length() < valueSize) {
+                sb.append((char) ('a' + random.nextInt(26)));
+            }
+            values[k] = sb.toString();
+            matches[k] = predicateSelectivity >= 1 || values[k].compareTo(threshold) < 0;
+        }
+
+        for (int k = 0; k < listenerCount; k++) {
+            Listener listener = new Listener();
+            listeners.add(listener);
+            if (predicateSelectivity >= 1) {
+                map.addEntryListener(listener, includeValue);
+            } else {
+                map.addEntryListener(listener, Predicates.lessThan("this", threshold), includeValue);
+            }
+        }
+    }
+
+    @BeforeRun
+    public synchronized void beforeRun() {
+        if (!reporterStarted) {
+            reporterStarted = true;
+            new ReporterThread().start();
+        }
+    }
+
+    @TimeStep
+    public void set(BaseThreadState state) {
+        int localKey = state.randomInt(keyDomain);
+        int valueIndex = state.randomInt(valueCount);
+        setNanos.set(localKey, System.nanoTime());
+        map.set(workerIndex * keyDomain + localKey, values[valueIndex]);
+        sets.increment();
+        if (matches[valueIndex]) {
+            matchingSets.increment();
+        }
+    }
+
+    @AfterRun
+    public void afterRun() {
+        flushSets();
+    }
+
+    @Verify(global = false)
+    public void verify() {
+        long deadlineMillis = System.currentTimeMillis() + SECONDS.toMillis(eventDrainTimeoutSeconds);
+        long expected = globalMatchingSets.get();
+        while (minReceived() < expected && System.currentTimeMillis() < deadlineMillis) {
+            sleepMillis(100);
+            expected = globalMatchingSets.get();
+        }
+
+        long[] received = new long[listeners.size()];
+        for (int k = 0; k < received.length; k++) {
+            received[k] = listeners.get(k).received.sum();
+        }
+        long lost = expected - minReceived();
+        String msg = format(Locale.US, "%s: %d matching sets of %d, events received per listener %s, lost %d (%.3f%%)",
+                name, expected, globalSets.get(), Arrays.toString(received), lost,
+                expected == 0 ? 0 : 100d * lost / expected);
+        logger.info(msg);
+        testContext.echoCoordinator("%s", msg);
+        if (failOnEventLoss) {
+            assertEquals(name + ": lost events", 0, lost);
+        }
+    }
+
+    @Teardown(global = true)
+    public void tearDown() {
+        // destroying the map removes the listeners
+        map.destroy();
+        globalSets.destroy();
+        globalMatchingSets.destroy();
+        getAtomicLong(name + "-workerIndex").destroy();
+    }
+
+    private void flushSets() {
+        globalSets.addAndGet(sets.sumThenReset());
+        globalMatchingSets.addAndGet(matchingSets.sumThenReset());
+    }
+
+    private long minReceived() {
+        long min = Long.MAX_VALUE;
+        for (Listener listener : listeners) {
+            min = Math.min(min, listener.received.sum());
+        }
+        return listeners.isEmpty() ? 0 : min;
+    }
+
+    private final class Listener implements EntryAddedListener<Integer, String>, EntryUpdatedListener<Integer, String> {
+
+        private final LongAdder received = new LongAdder();
+
+        @Override
+        public void entryAdded(EntryEvent<Integer, String> event) {
+            onEvent(event.getKey());
+        }
+
+        @Override
+        public void entryUpdated(EntryEvent<Integer, String> event) {
+            onEvent(event.getKey());
+        }
+
+        private void onEvent(int key) {
+            if (key / keyDomain == workerIndex) {
+                long latencyNanos = System.nanoTime() - setNanos.get(key % keyDomain);
+                // the key has been set again before the event was delivered
+                if (latencyNanos >= 0) {
+                    eventLatencyProbe.recordValue(latencyNanos);
+                }
+            }
+            if (listenerDelayMicros > 0) {
+                sleepNanos(MICROSECONDS.toNanos(listenerDelayMicros));
+            }
+            received.increment();
+        }
+    }
+
+    private final class ReporterThread extends Thread {
+        private long previousMinReceived;
+        private long previousBacklog;
+        private int growingReports;
+
+        private ReporterThread() {
+            super(name + "-Reporter");
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            while (!testContext.isStopped()) {
+                sleepSeconds(reportIntervalSeconds);
+                flushSets();
+                report();
+            }
+        }
+
+        private void report() {
+            long expected = globalMatchingSets.get();
+            long minReceived = minReceived();
+            long backlog = Math.max(0, expected - minReceived);
+            growingReports = backlog > previousBacklog ? growingReports + 1 : 0;
+
+            String msg = format(Locale.US, "%s: %d listeners received %.0f events/s each (slowest), backlog %d events",
+                    name, listeners.size(), (double) (minReceived - previousMinReceived) / reportIntervalSeconds, backlog);
+            if (growingReports >= BACKLOG_GROWTH_REPORTS) {
+                msg += format(", growing for %d seconds: the listeners can't keep up",
+                        growingReports * reportIntervalSeconds);
+                logger.warn(msg);
+            } else {
+                logger.info(msg);
+            }
+            testContext.echoCoordinator("%s", msg);
+
+            previousMinReceived = minReceived;
+            previousBacklog = backlog;
+        }
+    }
+}
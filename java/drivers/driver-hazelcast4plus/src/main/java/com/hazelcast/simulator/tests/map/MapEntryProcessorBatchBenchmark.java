@@ -0,0 +1,228 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.tests.map;
+
+import com.hazelcast.config.IndexType;
+import com.hazelcast.core.Offloadable;
+import com.hazelcast.map.EntryProcessor;
+import com.hazelcast.map.IMap;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.Predicates;
+import com.hazelcast.simulator.hz.HazelcastTest;
+import com.hazelcast.simulator.probes.LatencyProbe;
+import com.hazelcast.simulator.test.BaseThreadState;
+import com.hazelcast.simulator.test.annotations.Prepare;
+import com.hazelcast.simulator.test.annotations.Setup;
+import com.hazelcast.simulator.test.annotations.StartNanos;
+import com.hazelcast.simulator.test.annotations.Teardown;
+import com.hazelcast.simulator.test.annotations.TimeStep;
+import com.hazelcast.simulator.worker.loadsupport.Streamer;
+import com.hazelcast.simulator.worker.loadsupport.StreamerFactory;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static com.hazelcast.simulator.utils.CommonUtils.sleepMillis;
+
+/**
+ * Compares per-key entry processor execution with the batched variants to find the crossover point
+ * where batching starts to pay off.
+ *
+ * Every batched timestep method records the latency of the complete batch in its own probe and
+ * additionally records the amortized latency per processed key in a '[method]PerKey' probe; for
+ * the executeOnEntries methods the keys processed are the entries in the result. The
+ * single key methods ({@link #executeOnKey} and {@link #submitToKey}) are the baseline.
+ *
+ * The {@link #executeOnEntriesWithPredicate} method selects a consecutive range of {@link #predicateRange}
+ * keys using the '__key' attribute; by enabling {@link #useIndex} the selection can make use of an index
+ * of type {@link #indexType} instead of a full scan.
+ */
+public class MapEntryProcessorBatchBenchmark extends HazelcastTest {
+
+    // properties
+    public int keyCount = 100_000;
+    // the number of keys passed to executeOnKeys/submitToKeys
+    public int batchSize = 100;
+    // the number of consecutive keys selected by the predicate of executeOnEntriesWithPredicate
+    public int predicateRange = 1000;
+    public boolean useIndex = false;
+    public IndexType indexType = IndexType.SORTED;
+    // if true, the entry processor is executed on the offloadable executor instead of the partition thread
+    public boolean offloadable = false;
+    // artificial cost of processing a single entry
+    public int processorDelayMs = 0;
+    public boolean fillOnPrepare = true;
+    public boolean destroyOnExit = true;
+
+    private IMap<Integer, Long> map;
+    private EntryProcessor<Integer, Long, Object> processor;
+    private LatencyProbe executeOnKeysPerKeyProbe;
+    private LatencyProbe submitToKeysPerKeyProbe;
+    private LatencyProbe executeOnEntriesPerKeyProbe;
+    private LatencyProbe executeOnEntriesWithPredicatePerKeyProbe;
+
+    @Setup
+    public void setUp() {
+        if (batchSize < 1 || batchSize > keyCount) {
+            throw new IllegalArgumentException("batchSize has to be between 1 and keyCount. "
+                    + "Current settings: batchSize = " + batchSize + " keyCount = " + keyCount);
+        }
+        if (predicateRange < 1 || predicateRange > keyCount) {
+            throw new IllegalArgumentException("predicateRange has to be between 1 and keyCount. "
+                    + "Current settings: predicateRange = " + predicateRange + " keyCount = " + keyCount);
+        }
+
+        map = targetInstance.getMap(name);
+        processor = offloadable
+                ? new OffloadableIncrementEntryProcessor(processorDelayMs)
+                : new IncrementEntryProcessor(processorDelayMs);
+
+        executeOnKeysPerKeyProbe = testContext.getLatencyProbe("executeOnKeysPerKey", false);
+        submitToKeysPerKeyProbe = testContext.getLatencyProbe("submitToKeysPerKey", false);
+        executeOnEntriesPerKeyProbe = testContext.getLatencyProbe("executeOnEntriesPerKey", false);
+        executeOnEntriesWithPredicatePerKeyProbe = testContext.getLatencyProbe("executeOnEntriesWithPredicatePerKey", false);
+    }
+
+    @Prepare(global = true)
+    public void prepare() {
+        if (useIndex) {
+            map.addIndex(indexType, "__key");
+        }
+
+        if (!fillOnPrepare) {
+            return;
+        }
+
+        Streamer<Integer, Long> streamer = StreamerFactory.getInstance(map);
+        for (int key = 0; key < keyCount; key++) {
+            streamer.pushEntry(key, 0L);
+        }
+        streamer.await();
+    }
+
+    @TimeStep(prob = 0)
+    public void executeOnKey(ThreadState state) {
+        map.executeOnKey(state.randomKey(), processor);
+    }
+
+    @TimeStep(prob = 0)
+    public CompletableFuture submitToKey(ThreadState state) {
+        return map.submitToKey(state.randomKey(), processor).toCompletableFuture();
+    }
+
+    @TimeStep(prob = 1)
+    public void executeOnKeys(ThreadState state, @StartNanos long startNanos, LatencyProbe probe) {
+        map.executeOnKeys(state.randomKeys(), processor);
+
+        long latencyNanos = System.nanoTime() - startNanos;
+        probe.recordValue(latencyNanos);
+        executeOnKeysPerKeyProbe.recordValue(latencyNanos / batchSize);
+    }
+
+    @TimeStep(prob = 0)
+    public CompletableFuture submitToKeys(ThreadState state, @StartNanos long startNanos) {
+        return map.submitToKeys(state.randomKeys(), processor).toCompletableFuture()
+                .whenComplete((result, throwable) -> submitToKeysPerKeyProbe.recordValue(
+                        (System.nanoTime() - startNanos) / batchSize));
+    }
+
+    @TimeStep(prob = 0)
+    public void executeOnEntries(@StartNanos long startNanos, LatencyProbe probe) {
+        Map<Integer, Object> result = map.executeOnEntries(processor);
+
+        long latencyNanos = System.nanoTime() - startNanos;
+        probe.recordValue(latencyNanos);
+        recordPerKey(executeOnEntriesPerKeyProbe, latencyNanos, result.size());
+    }
+
+    @TimeStep(prob = 0)
+    public void executeOnEntriesWithPredicate(ThreadState state, @StartNanos long startNanos, LatencyProbe probe) {
+        Map<Integer, Object> result = map.executeOnEntries(processor, state.randomRangePredicate());
+
+        long latencyNanos = System.nanoTime() - startNanos;
+        probe.recordValue(latencyNanos);
+        recordPerKey(executeOnEntriesWithPredicatePerKeyProbe, latencyNanos, result.size());
+    }
+
+    // the map may not be (completely) filled, so the latency is divided by the number of entries actually processed
+    private static void recordPerKey(LatencyProbe perKeyProbe, long latencyNanos, int processedCount) {
+        if (processedCount > 0) {
+            perKeyProbe.recordValue(latencyNanos / processedCount);
+        }
+    }
+
+    public class ThreadState extends BaseThreadState {
+
+        private int randomKey() {
+            return randomInt(keyCount);
+        }
+
+        private Set<Integer> randomKeys() {
+            Set<Integer> keys = new HashSet<>();
+            while (keys.size() < batchSize) {
+                keys.add(randomKey());
+            }
+            return keys;
+        }
+
+        private Predicate<Integer, Long> randomRangePredicate() {
+            int from = randomInt(keyCount - predicateRange + 1);
+            return Predicates.between("__key", from, from + predicateRange - 1);
+        }
+    }
+
+    private static class IncrementEntryProcessor implements EntryProcessor<Integer, Long, Object> {
+
+        private final int delayMs;
+
+        private IncrementEntryProcessor(int delayMs) {
+            this.delayMs = delayMs;
+        }
+
+        @Override
+        public Object process(Map.Entry<Integer, Long> entry) {
+            if (delayMs > 0) {
+                sleepMillis(delayMs);
+            }
+            Long value = entry.getValue();
+            Long newValue = value == null ? 1L : value + 1;
+            entry.setValue(newValue);
+            // a null result would be left out of the result map of executeOnEntries, which is used to count the entries
+            return newValue;
+        }
+    }
+
+    private static final class OffloadableIncrementEntryProcessor extends IncrementEntryProcessor implements Offloadable {
+
+        private OffloadableIncrementEntryProcessor(int delayMs) {
+            super(delayMs);
+        }
+
+        @Override
+        public String getExecutorName() {
+            return OFFLOADABLE_EXECUTOR;
+        }
+    }
+
+    @Teardown
+    public void tearDown() {
+        if (destroyOnExit) {
+            map.destroy();
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.hazelcast.simulator.tests.map;
+
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.config.MapStoreConfig;
+import com.hazelcast.core.IExecutorService;
+import com.hazelcast.cp.IAtomicLong;
+import com.hazelcast.map.IMap;
+import com.hazelcast.simulator.hz.HazelcastTest;
+import com.hazelcast.simulator.probes.LatencyProbe;
+import com.hazelcast.simulator.test.BaseThreadState;
+import com.hazelcast.simulator.test.annotations.BeforeRun;
+import com.hazelcast.simulator.test.annotations.Setup;
+import com.hazelcast.simulator.test.annotations.StartNanos;
+import com.hazelcast.simulator.test.annotations.Teardown;
+import com.hazelcast.simulator.test.annotations.TimeStep;
+import com.hazelcast.simulator.tests.map.helpers.MapStoreStats;
+import com.hazelcast.simulator.tests.map.helpers.SimulatedMapStore;
+import com.hazelcast.simulator.tests.map.helpers.tasks.GetMapStoreStatsTask;
+
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.hazelcast.config.MapStoreConfig.InitialLoadMode.LAZY;
+import static com.hazelcast.simulator.utils.CommonUtils.sleepSeconds;
+import static java.lang.String.format;
+
+/**
+ * Benchmarks a map with a write-behind {@link com.hazelcast.map.MapStore}, backed by a {@link SimulatedMapStore}.
+ * <p>
+ * The map is configured by the test using dynamic configuration, so the write-behind settings and the behavior of the
+ * simulated store (latency distribution, per entry latency of batches, throughput cap and failures) are all test
+ * properties. The 'set' timestep writes the current time as value, so the store can measure the flush lag. The
+ * 'readThrough' timestep gets a key which isn't in the map, so it is loaded from the store; its probe only records the
+ * get, not the evict which follows it.
+ * <p>
+ * Every reportIntervalSeconds, one of the workers reports the write-behind queue depth (the dirty entries on the
+ * members), the store throughput and batch size, the coalescing ratio (writes per stored entry), the flush lag and the
+ * number of store failures. When the store can't keep up, the queue depth and flush lag keep growing.
+ */
+public class MapStoreWriteBehindBenchmark extends HazelcastTest {
+
+    // properties
+    public int keyDomain = 100_000;
+    public int readThroughKeyDomain = 100_000;
+    public int writeDelaySeconds = 1;
+    public int writeBatchSize = 100;
+    public boolean writeCoalescing = true;
+    public int storeLatencyMicros = 1000;
+    public String storeLatencyDistribution = "exponential";
+    public int storePerEntryLatencyMicros = 10;
+    public int storeMaxEntriesPerSecond;
+    public double storeFailureProbability;
+    public int reportIntervalSeconds = 10;
+
+    private final LongAdder writes = new LongAdder();
+    private IMap<Integer, Long> map;
+    private IAtomicLong globalWrites;
+    private IExecutorService executor;
+    private boolean reporterStarted;
+
+    @Setup
+    public void setUp() {
+        targetInstance.getConfig().addMapConfig(newMapConfig());
+        map = targetInstance.getMap(name);
+        globalWrites = getAtomicLong(name + "-writes");
+        executor = targetInstance.getExecutorService(name);
+    }
+
+    private MapConfig newMapConfig() {
+        MapStoreConfig mapStoreConfig = new MapStoreConfig()
+                .setEnabled(true)
+                .setClassName(SimulatedMapStore.class.getName())
+                .setInitialLoadMode(LAZY)
+                .setWriteDelaySeconds(writeDelaySeconds)
+                .setWriteBatchSize(writeBatchSize)
+                .setWriteCoalescing(writeCoalescing);
+        mapStoreConfig.setProperty("latencyMicros", Integer.toString(storeLatencyMicros));
+        mapStoreConfig.setProperty("latencyDistribution", storeLatencyDistribution);
+        mapStoreConfig.setProperty("perEntryLatencyMicros", Integer.toString(storePerEntryLatencyMicros));
+        mapStoreConfig.setProperty("maxEntriesPerSecond", Integer.toString(storeMaxEntriesPerSecond));
+        mapStoreConfig.setProperty("failureProbability", Double.toString(storeFailureProbability));
+        return new MapConfig(name).setMapStoreConfig(mapStoreConfig);
+    }
+
+    @BeforeRun
+    public synchronized void beforeRun() {
+        if (!reporterStarted) {
+            reporterStarted = true;
+            new ReporterThread().start();
+        }
+    }
+
+    @TimeStep(prob = -1)
+    public void set(BaseThreadState state) {
+        map.set(state.randomInt(keyDomain), System.currentTimeMillis());
+        writes.increment();
+    }
+
+    @TimeStep(prob = 0.1)
+    public void readThrough(BaseThreadState state, LatencyProbe probe, @StartNanos long startNanos) {
+        int key = keyDomain + state.randomInt(readThroughKeyDomain);
+        map.get(key);
+        probe.done(startNanos);
+        // evict the key, so the next get of the key is loaded from the store again
+        map.evict(key);
+    }
+
+    @Teardown(global = true)
+    public void tearDown() {
+        map.destroy();
+        executor.shutdown();
+    }
+
+    private MapStoreStats getMapStoreStats() {
+        MapStoreStats result = new MapStoreStats();
+        for (Future<MapStoreStats> future : executor.submitToAllMembers(new GetMapStoreStatsTask(name)).values()) {
+            try {
+                result.add(future.get());
+            } catch (InterruptedException | ExecutionException e) {
+                throw new IllegalStateException("GetMapStoreStatsTask failed", e);
+            }
+        }
+        return result;
+    }
+
+    private final class ReporterThread extends Thread {
+        // only 1 worker should report, since the map store stats are cluster wide
+        private final boolean isReporter;
+        private MapStoreStats previous = new MapStoreStats();
+
+        private ReporterThread() {
+            super(name + "-Reporter");
+            setDaemon(true);
+            this.isReporter = getAtomicLong(name + "-isReporter").getAndIncrement() == 0;
+        }
+
+        @Override
+        public void run() {
+            while (!testContext.isStopped()) {
+                sleepSeconds(reportIntervalSeconds);
+
+                long totalWrites = globalWrites.addAndGet(writes.sumThenReset());
+                if (isReporter) {
+                    report(totalWrites, getMapStoreStats());
+                }
+            }
+        }
+
+        private void report(long totalWrites, MapStoreStats stats) {
+            long storedEntries = stats.storedEntries - previous.storedEntries;
+            long storeCalls = stats.storeCalls - previous.storeCalls;
+            String msg = format(Locale.US, "%s write-behind queue depth %d, stored %.0f entries/s in %.1f batches/s"
+                            + " (avg batch %.1f), coalescing ratio %.2f, flush lag p99 %d ms max %d ms,"
+                            + " loaded %.0f entries/s, store failures %d",
+                    name,
+                    stats.dirtyEntryCount,
+                    (double) storedEntries / reportIntervalSeconds,
+                    (double) storeCalls / reportIntervalSeconds,
+                    storeCalls == 0 ? 0 : (double) storedEntries / storeCalls,
+                    stats.storedEntries == 0 ? 0 : (double) totalWrites / stats.storedEntries,
+                    stats.flushLag99PercentileMillis,
+                    stats.flushLagMaxMillis,
+                    (double) (stats.loadedEntries - previous.loadedEntries) / reportIntervalSeconds,
+                    stats.failures - previous.failures);
+            logger.info(msg);
+            testContext.echoCoordinator("%s", msg);
+            previous = stats;
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.hazelcast.simulator.tests.map;
+
+import com.hazelcast.collection.IList;
+import com.hazelcast.map.IMap;
+import com.hazelcast.simulator.hz.HazelcastTest;
+import com.hazelcast.simulator.probes.LatencyProbe;
+import com.hazelcast.simulator.test.BaseThreadState;
+import com.hazelcast.simulator.test.annotations.AfterRun;
+import com.hazelcast.simulator.test.annotations.Prepare;
+import com.hazelcast.simulator.test.annotations.Setup;
+import com.hazelcast.simulator.test.annotations.Teardown;
+import com.hazelcast.simulator.test.annotations.TimeStep;
+import com.hazelcast.simulator.test.annotations.Verify;
+import com.hazelcast.simulator.tests.helpers.TxnCounter;
+import com.hazelcast.simulator.worker.loadsupport.Streamer;
+import com.hazelcast.simulator.worker.loadsupport.StreamerFactory;
+import com.hazelcast.transaction.TransactionContext;
+import com.hazelcast.transaction.TransactionOptions;
+import com.hazelcast.transaction.TransactionalMap;
+
+import java.util.Locale;
+
+import static com.hazelcast.simulator.utils.CommonUtils.sleepNanos;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Benchmarks map transactions under contention, to see how the throughput and latency degrade when the transactions
+ * conflict.
+ * <p>
+ * Every transaction transfers an amount between two accounts: it does a getForUpdate on both keys and puts the new
+ * balances. The conflict probability is tuned with the hot keys: with a probability of hotKeyProbability each account
+ * is one of the hotKeyCount hot keys, otherwise it is one of the other keys. The keys are locked in order, so
+ * conflicting transactions wait or time out instead of deadlocking.
+ * <p>
+ * A failed transaction is rolled back and retried according to the retryPolicy (IMMEDIATE, FIXED or EXPONENTIAL
+ * backoff with jitter) up to maxRetries times. The latency of the timestep is the end-to-end latency, including the
+ * retries; the 'committedAttempt' and 'abortedAttempt' probes record the latency of the individual attempts, so their
+ * throughput is the commit and abort rate.
+ */
+public class MapTransactionContentionBenchmark extends HazelcastTest {
+
+    public enum RetryPolicy {
+        IMMEDIATE,
+        FIXED,
+        EXPONENTIAL
+    }
+
+    // properties
+    public int keyCount = 100_000;
+    public int hotKeyCount = 10;
+    public double hotKeyProbability = 0.1;
+    public TransactionOptions.TransactionType transactionType = TransactionOptions.TransactionType.TWO_PHASE;
+    public int durability = 1;
+    public int transactionTimeoutMillis = 10_000;
+    public RetryPolicy retryPolicy = RetryPolicy.EXPONENTIAL;
+    public int maxRetries = 10;
+    public int retryBackoffMicros = 100;
+    public int maxRetryBackoffMicros = 100_000;
+    public long initialBalance = 1000;
+    public boolean logFailures = false;
+
+    private IMap<Integer, Long> map;
+    private IList<TxnCounter> counters;
+    private TransactionOptions transactionOptions;
+    private LatencyProbe committedProbe;
+    private LatencyProbe abortedProbe;
+
+    @Setup
+    public void setup() {
+        if (hotKeyCount < 2 || hotKeyCount >= keyCount) {
+            throw new IllegalArgumentException("hotKeyCount should be in the range [2, keyCount), but was " + hotKeyCount);
+        }
+
+        map = targetInstance.getMap(name);
+        counters = targetInstance.getList(name + "report");
+        transactionOptions = new TransactionOptions()
+                .setTransactionType(transactionType)
+                .setDurability(durability)
+                .setTimeout(transactionTimeoutMillis, MILLISECONDS);
+        committedProbe = testContext.getLatencyProbe("committedAttempt", false);
+        abortedProbe = testContext.getLatencyProbe("abortedAttempt", false);
+    }
+
+    @Prepare(global = true)
+    public void prepare() {
+        Streamer<Integer, Long> streamer = StreamerFactory.getInstance(map);
+        for (int key = 0; key < keyCount; key++) {
+            streamer.pushEntry(key, initialBalance);
+        }
+        streamer.await();
+    }
+
+    @TimeStep
+    public void transfer(ThreadState state) {
+        int from = state.randomAccount();
+        int to = state.randomAccount();
+        while (to == from) {
+            to = state.randomAccount();
+        }
+        long amount = 1 + state.randomInt(10);
+
+        for (int attempt = 0; attempt <= maxRetries; attempt++) {
+            if (attempt > 0) {
+                sleepNanos(state.backoffNanos(attempt));
+            }
+
+            long startNanos = System.nanoTime();
+            if (state.tryTransfer(from, to, amount)) {
+                committedProbe.done(startNanos);
+                state.counter.committed++;
+                return;
+            }
+            abortedProbe.done(startNanos);
+        }
+        state.counter.retriesExhausted++;
+    }
+
+    @AfterRun
+    public void afterRun(ThreadState state) {
+        counters.add(state.counter);
+    }
+
+    @Verify(global = true)
+    public void verify() {
+        TxnCounter total = new TxnCounter();
+        for (TxnCounter counter : counters) {
+            total.add(counter);
+        }
+        long attempts = total.committed + total.rolled;
+        logger.info(format(Locale.US, "%s: %s, abort rate %.2f%%", name, total,
+                attempts == 0 ? 0 : 100d * total.rolled / attempts));
+
+        // every transfer moves an amount between two accounts, so the total balance doesn't change
+        long totalBalance = 0;
+        for (int key = 0; key < keyCount; key++) {
+            totalBalance += map.get(key);
+        }
+        assertEquals(name + ": total balance", initialBalance * keyCount, totalBalance);
+    }
+
+    @Teardown
+    public void teardown() {
+        map.destroy();
+        counters.destroy();
+    }
+
+    public class ThreadState extends BaseThreadState {
+
+        private final TxnCounter counter = new TxnCounter();
+
+        private int randomAccount() {
+            if (randomDouble() < hotKeyProbability) {
+                return randomInt(hotKeyCount);
+            }
+            return hotKeyCount + randomInt(keyCount - hotKeyCount);
+        }
+
+        private long backoffNanos(int attempt) {
+            long backoffNanos = MICROSECONDS.toNanos(retryBackoffMicros);
+            switch (retryPolicy) {
+                case IMMEDIATE:
+                    return 0;
+                case FIXED:
+                    return backoffNanos;
+                default:
+                    long maxNanos = MICROSECONDS.toNanos(maxRetryBackoffMicros);
+                    long exponentialNanos = min(maxNanos, backoffNanos << min(attempt - 1, 30));
+                    // full jitter, so the retries of conflicting transactions spread out
+                    return randomLong(max(1, exponentialNanos));
+            }
+        }
+
+        @SuppressWarnings("PMD.PreserveStackTrace")
+        private boolean tryTransfer(int from, int to, long amount) {
+            TransactionContext context = targetInstance.newTransactionContext(transactionOptions);
+            try {
+                context.beginTransaction();
+                TransactionalMap<Integer, Long> txMap = context.getMap(name);
+                // lock the keys in order, to prevent deadlocks between transfers in opposite directions
+                int first = min(from, to);
+                int second = max(from, to);
+                long firstBalance = txMap.getForUpdate(first);
+                long secondBalance = txMap.getForUpdate(second);
+                txMap.put(first, first == from ? firstBalance - amount : firstBalance + amount);
+                txMap.put(second, second == from ? secondBalance - amount : secondBalance + amount);
+                context.commitTransaction();
+                return true;
+            } catch (Exception e) {
+                if (logFailures) {
+                    logger.warn(name + ": transaction failed from=" + from + " to=" + to, e);
+                }
+                counter.rolled++;
+                try {
+                    context.rollbackTransaction();
+                } catch (Exception rollbackException) {
+                    counter.failedRollbacks++;
+                }
+                return false;
+            }
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package com.hazelcast.simulator.tests.map;
+
+import com.hazelcast.cluster.Member;
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.core.IExecutorService;
+import com.hazelcast.map.IMap;
+import com.hazelcast.simulator.hz.HazelcastTest;
+import com.hazelcast.simulator.test.BaseThreadState;
+import com.hazelcast.simulator.test.annotations.BeforeRun;
+import com.hazelcast.simulator.test.annotations.Prepare;
+import com.hazelcast.simulator.test.annotations.Setup;
+import com.hazelcast.simulator.test.annotations.Teardown;
+import com.hazelcast.simulator.test.annotations.TimeStep;
+import com.hazelcast.simulator.tests.helpers.KeyLocality;
+import com.hazelcast.simulator.tests.map.helpers.ScrambledZipfianGenerator;
+import com.hazelcast.simulator.tests.map.helpers.tasks.ClearTsDirectoryTask;
+import com.hazelcast.simulator.tests.map.helpers.tasks.GetMapConfigTask;
+import com.hazelcast.simulator.tests.map.helpers.tasks.GetMemberIoStatsTask;
+import com.hazelcast.simulator.worker.loadsupport.Streamer;
+import com.hazelcast.simulator.worker.loadsupport.StreamerFactory;
+import org.junit.Assert;
+
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import static com.hazelcast.simulator.tests.helpers.KeyLocality.SHARED;
+import static com.hazelcast.simulator.tests.helpers.KeyUtils.generateIntKeys;
+import static com.hazelcast.simulator.tests.map.helpers.tasks.GetMemberIoStatsTask.GET_COUNT;
+import static com.hazelcast.simulator.tests.map.helpers.tasks.GetMemberIoStatsTask.PUT_COUNT;
+import static com.hazelcast.simulator.tests.map.helpers.tasks.GetMemberIoStatsTask.READ_BYTES;
+import static com.hazelcast.simulator.tests.map.helpers.tasks.GetMemberIoStatsTask.WRITE_BYTES;
+import static com.hazelcast.simulator.utils.CommonUtils.sleepSeconds;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Sweeps the ratio between the hot set and the memory tier of a Tiered Store map, to show the cost curve of
+ * the memory tier size.
+ * <p>
+ * The test runs a step per ratio in {@link #hotSetRatios}, each {@link #stepSeconds} long. In every step the keys are
+ * selected with a zipfian distribution over a hot set of ratio * memory tier capacity / {@link #valueSize} keys; the
+ * rest of the {@link #keyDomain} is cold data that is only written by the fill. The values are pregenerated, so the
+ * load generator doesn't spend its time on creating random values.
+ * <p>
+ * At the end of every step, one of the workers reports the disk reads and writes of the members (from /proc/self/io)
+ * and the in-memory vs on-disk hit rate of the gets. The on-disk hits are estimated as the read bytes divided by the
+ * value size, so it is only accurate when the values are much larger than a disk page. The steps are logged with
+ * their start and end time, so they can be lined up with the latency of the test; the disk I/O of the members is
+ * also available per interval in the member-metrics.csv files.
+ */
+public class TieredStoreWorkingSetTest extends HazelcastTest {
+
+    private static final long START_KEY = -1;
+    // the indexes of the gets and the number of the members reporting their disk I/O in the summed member stats
+    private static final int IO_GET_COUNT = 4;
+    private static final int IO_MEMBER_COUNT = 5;
+    private static final int MEMBER_COUNT = 6;
+
+    // properties
+    public int keyDomain = 1_000_000;
+    public int valueSize = 10_000;
+    public int valueCount = 1_000;
+    // the sizes of the hot set relative to the memory tier
+    public String hotSetRatios = "0.25,0.5,1,2,4";
+    public int stepSeconds = 300;
+    // the combined memory tier capacity of all members; 0 means it is taken from the map config
+    public long memoryTierCapacityBytes;
+    public boolean clearTsDirectoryOnPrepare = true;
+    public boolean fillOnPrepare = true;
+    public boolean destroyOnExit = true;
+    public KeyLocality keyLocality = SHARED;
+
+    private boolean sweepStarted;
+    private IMap<Integer, byte[]> map;
+    private IMap<Long, Long> sweepMap;
+    private IExecutorService executor;
+    private int[] keys;
+    private byte[][] values;
+    private double[] ratios;
+    private long[] hotSetSizes;
+    private ScrambledZipfianGenerator[] hotSetGenerators;
+    private volatile long startMillis;
+
+    @Setup
+    public void setUp() {
+        keys = generateIntKeys(keyDomain, keyLocality, targetInstance);
+        executor = targetInstance.getExecutorService(name);
+        map = targetInstance.getMap(name);
+        sweepMap = targetInstance.getMap(name + "-sweep");
+
+        MapConfig mapConfig = getMapConfig();
+        Assert.assertTrue("Disk Tier Config must be enabled for map: " + name, mapConfig.getTieredStoreConfig().isEnabled());
+        if (memoryTierCapacityBytes <= 0) {
+            memoryTierCapacityBytes = mapConfig.getTieredStoreConfig().getMemoryTierConfig().getCapacity().bytes()
+                    * getDataMemberCount();
+        }
+
+        String[] ratioStrings = hotSetRatios.split(",");
+        ratios = new double[ratioStrings.length];
+        hotSetSizes = new long[ratioStrings.length];
+        hotSetGenerators = new ScrambledZipfianGenerator[ratioStrings.length];
+        for (int k = 0; k < ratioStrings.length; k++) {
+            ratios[k] = Double.parseDouble(ratioStrings[k].trim());
+            hotSetSizes[k] = hotSetSize(ratios[k]);
+            hotSetGenerators[k] = new ScrambledZipfianGenerator(hotSetSizes[k]);
+        }
+
+        Random random = new Random();
+        values = new byte[valueCount][];
+        for (int k = 0; k < valueCount; k++) {
+            values[k] = new byte[valueSize];
+            random.nextBytes(values[k]);
+        }
+    }
+
+    @Prepare(global = true)
+    public void prepare() {
+        if (clearTsDirectoryOnPrepare) {
+            executor.submitToAllMembers(new ClearTsDirectoryTask()).values().forEach(this::await);
+        }
+        if (fillOnPrepare) {
+            Streamer<Integer, byte[]> streamer = StreamerFactory.getInstance(map);
+            for (int k = 0; k < keys.length; k++) {
+                streamer.pushEntry(keys[k], values[k % valueCount]);
+            }
+            streamer.await();
+            logger.info(format("Filled %s with %d entries of %d bytes", name, keys.length, valueSize));
+        }
+    }
+
+    @BeforeRun
+    public synchronized void beforeRun() {
+        if (sweepStarted) {
+            return;
+        }
+        sweepStarted = true;
+
+        // all workers share the start time, so they switch to the next step at the same moment
+        long now = System.currentTimeMillis();
+        Long previous = sweepMap.putIfAbsent(START_KEY, now);
+        startMillis = previous == null ? now : previous;
+        new SweepReporterThread().start();
+    }
+
+    @TimeStep(prob = -1)
+    public void get(ThreadState state) {
+        map.get(state.randomKey());
+    }
+
+    @TimeStep(prob = 0.1)
+    public void put(ThreadState state) {
+        map.put(state.randomKey(), state.randomValue());
+    }
+
+    @Teardown(global = true)
+    public void tearDown() {
+        if (destroyOnExit) {
+            map.destroy();
+        }
+        sweepMap.destroy();
+        executor.shutdown();
+    }
+
+    private int currentStep() {
+        long elapsedMillis = System.currentTimeMillis() - startMillis;
+        return (int) min(ratios.length - 1, max(0, elapsedMillis / SECONDS.toMillis(stepSeconds)));
+    }
+
+    private long hotSetSize(double ratio) {
+        long size = (long) (ratio * memoryTierCapacityBytes / valueSize);
+        if (size > keyDomain) {
+            logger.warn(format("The hot set for ratio %s is larger than the keyDomain, it is limited to %d keys",
+                    ratio, keyDomain));
+        }
+        return min(keyDomain, max(1, size));
+    }
+
+    private int getDataMemberCount() {
+        int count = 0;
+        for (Member member : targetInstance.getCluster().getMembers()) {
+            if (!member.isLiteMember()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private MapConfig getMapConfig() {
+        //Get MapConfig from the cluster, default option with client has lack of required fields
+        return await(executor.submit(new GetMapConfigTask(name)));
+    }
+
+    private long[] getMemberIoStats() {
+        long[] result = new long[7];
+        for (Future<long[]> future : executor.submitToAllMembers(new GetMemberIoStatsTask(name)).values()) {
+            long[] memberStats = await(future);
+            result[GET_COUNT] += memberStats[GET_COUNT];
+            result[PUT_COUNT] += memberStats[PUT_COUNT];
+            result[MEMBER_COUNT]++;
+            // a member without /proc/self/io reports -1, so it is left out of the disk I/O and the on-disk hit rate
+            if (memberStats[READ_BYTES] >= 0) {
+                result[READ_BYTES] += memberStats[READ_BYTES];
+                result[WRITE_BYTES] += memberStats[WRITE_BYTES];
+                result[IO_GET_COUNT] += memberStats[GET_COUNT];
+                result[IO_MEMBER_COUNT]++;
+            }
+        }
+        return result;
+    }
+
+    private <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException | ExecutionException e) {
+            throw new IllegalStateException("Task on member failed", e);
+        }
+    }
+
+    public class ThreadState extends BaseThreadState {
+
+        private int randomKey() {
+            return keys[hotSetGenerators[currentStep()].nextInt()];
+        }
+
+        private byte[] randomValue() {
+            return values[randomInt(valueCount)];
+        }
+    }
+
+    private final class SweepReporterThread extends Thread {
+        // only 1 worker should report the steps, since the member stats are cluster wide
+        private final boolean isReporter;
+        private int step;
+        private long stepStartMillis;
+        private long[] stepStartStats;
+
+        private SweepReporterThread() {
+            super(name + "-SweepReporter");
+            setDaemon(true);
+            this.isReporter = getAtomicLong(name + "-isReporter").getAndIncrement() == 0;
+        }
+
+        @Override
+        public void run() {
+            if (!isReporter) {
+                return;
+            }
+
+            step = currentStep();
+            stepStartMillis = System.currentTimeMillis();
+            stepStartStats = getMemberIoStats();
+            while (!testContext.isStopped()) {
+                sleepSeconds(1);
+                if (currentStep() != step || testContext.isStopped()) {
+                    report();
+                    step = currentStep();
+                }
+            }
+        }
+
+        private void report() {
+            long endMillis = System.currentTimeMillis();
+            long[] stats = getMemberIoStats();
+            double seconds = max(1, endMillis - stepStartMillis) / 1000d;
+            long readBytes = stats[READ_BYTES] - stepStartStats[READ_BYTES];
+            long writeBytes = stats[WRITE_BYTES] - stepStartStats[WRITE_BYTES];
+            long gets = stats[GET_COUNT] - stepStartStats[GET_COUNT];
+            long puts = stats[PUT_COUNT] - stepStartStats[PUT_COUNT];
+            // the hit rate is estimated from the gets on the members which report their disk reads
+            long ioGets = stats[IO_GET_COUNT] - stepStartStats[IO_GET_COUNT];
+            double onDiskHitRate = ioGets == 0 ? 0 : min(1, (double) readBytes / valueSize / ioGets);
+
+            String msg = format(Locale.US, "%s step %d (hot set ratio %s, %d keys) from %d to %d:"
+                            + " gets %d, puts %d, disk read %.1f MB/s, disk write %.1f MB/s,"
+                            + " in-memory hit rate %.1f%%, on-disk hit rate %.1f%% (estimated)",
+                    name, step, ratios[step], hotSetSizes[step], stepStartMillis, endMillis,
+                    gets, puts, readBytes / seconds / 1e6, writeBytes / seconds / 1e6,
+                    (1 - onDiskHitRate) * 100, onDiskHitRate * 100);
+            if (stats[IO_MEMBER_COUNT] < stats[MEMBER_COUNT]) {
+                msg += format(", disk I/O of %d of %d members, the others have no /proc/self/io",
+                        stats[IO_MEMBER_COUNT], stats[MEMBER_COUNT]);
+            }
+            logger.info(msg);
+            testContext.echoCoordinator("%s", msg);
+
+            stepStartMillis = endMillis;
+            stepStartStats = stats;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.hazelcast.simulator.tests.map.helpers;
+
+import java.io.Serializable;
+
+import static java.lang.Math.max;
+
+/**
+ * The stats of a {@link SimulatedMapStore} on a member. The counters are totals since the start of the member, the
+ * flush lag and dirty entry count are the values of the last interval.
+ */
+public class MapStoreStats implements Serializable {
+
+    public long storeCalls;
+    public long storedEntries;
+    public long deletedEntries;
+    public long loadedEntries;
+    public long failures;
+    public long flushLag99PercentileMillis;
+    public long flushLagMaxMillis;
+    public long dirtyEntryCount;
+
+    /**
+     * Adds the stats of another member; the counters are summed, for the flush lag the maximum is taken.
+     */
+    public void add(MapStoreStats other) {
+        storeCalls += other.storeCalls;
+        storedEntries += other.storedEntries;
+        deletedEntries += other.deletedEntries;
+        loadedEntries += other.loadedEntries;
+        failures += other.failures;
+        flushLag99PercentileMillis = max(flushLag99PercentileMillis, other.flushLag99PercentileMillis);
+        flushLagMaxMillis = max(flushLagMaxMillis, other.flushLagMaxMillis);
+        dirtyEntryCount += other.dirtyEntryCount;
+    }
+}
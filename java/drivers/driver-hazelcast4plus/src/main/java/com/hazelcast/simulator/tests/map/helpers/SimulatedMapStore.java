@@ -0,0 +1,196 @@
+package com.hazelcast.simulator.tests.map.helpers;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.MapLoaderLifecycleSupport;
+import com.hazelcast.map.MapStore;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.hazelcast.simulator.utils.CommonUtils.sleepNanos;
+import static java.lang.Math.log;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.util.concurrent.TimeUnit.DAYS;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * A {@link MapStore} which simulates a backing store, like a database, in the memory of the member.
+ * <p>
+ * The behavior is configured with the properties of the MapStoreConfig:
+ * <ul>
+ * <li>latencyMicros: the mean latency of a call to the store (default 1000)</li>
+ * <li>latencyDistribution: fixed, uniform (between 0 and twice the mean) or exponential (default)</li>
+ * <li>perEntryLatencyMicros: the additional latency per entry, so a batch is cheaper than the same number of single
+ * calls (default 10)</li>
+ * <li>maxEntriesPerSecond: the maximum throughput of the store in entries per second per member; 0 is unlimited</li>
+ * <li>failureProbability: the probability that a call fails with an exception (default 0)</li>
+ * </ul>
+ * The values are expected to be the time in epoch millis at which they were written, so the store can measure the
+ * flush lag: the time between the write into the map and the write into the store.
+ */
+public class SimulatedMapStore implements MapStore<Integer, Long>, MapLoaderLifecycleSupport {
+
+    private static final long MAX_FLUSH_LAG_MILLIS = DAYS.toMillis(1);
+    private static final ConcurrentMap<String, SimulatedMapStore> INSTANCES = new ConcurrentHashMap<>();
+
+    private final Map<Integer, Long> store = new ConcurrentHashMap<>();
+    private final AtomicLong nextFreeNanos = new AtomicLong(System.nanoTime());
+    private final AtomicLong storeCalls = new AtomicLong();
+    private final AtomicLong storedEntries = new AtomicLong();
+    private final AtomicLong deletedEntries = new AtomicLong();
+    private final AtomicLong loadedEntries = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final Recorder flushLagRecorder = new Recorder(1, MAX_FLUSH_LAG_MILLIS, 3);
+
+    private long latencyNanos = MICROSECONDS.toNanos(1000);
+    private String latencyDistribution = "exponential";
+    private long perEntryLatencyNanos = MICROSECONDS.toNanos(10);
+    private long maxEntriesPerSecond;
+    private double failureProbability;
+
+    /**
+     * Returns the SimulatedMapStore of the given map on this member, or {@code null} if the map has no
+     * SimulatedMapStore or it isn't initialized yet.
+     */
+    public static SimulatedMapStore getInstance(String mapName) {
+        return INSTANCES.get(mapName);
+    }
+
+    @Override
+    public void init(HazelcastInstance hazelcastInstance, Properties properties, String mapName) {
+        latencyNanos = MICROSECONDS.toNanos(Long.parseLong(properties.getProperty("latencyMicros", "1000")));
+        latencyDistribution = properties.getProperty("latencyDistribution", "exponential");
+        perEntryLatencyNanos = MICROSECONDS.toNanos(Long.parseLong(properties.getProperty("perEntryLatencyMicros", "10")));
+        maxEntriesPerSecond = Long.parseLong(properties.getProperty("maxEntriesPerSecond", "0"));
+        failureProbability = Double.parseDouble(properties.getProperty("failureProbability", "0"));
+        if (!"fixed".equals(latencyDistribution) && !"uniform".equals(latencyDistribution)
+                && !"exponential".equals(latencyDistribution)) {
+            throw new IllegalArgumentException("Unknown latencyDistribution: " + latencyDistribution);
+        }
+        INSTANCES.put(mapName, this);
+    }
+
+    @Override
+    public void destroy() {
+        INSTANCES.values().remove(this);
+    }
+
+    @Override
+    public void store(Integer key, Long value) {
+        storeAll(Collections.singletonMap(key, value));
+    }
+
+    @Override
+    public void storeAll(Map<Integer, Long> map) {
+        access(map.size());
+        long nowMillis = System.currentTimeMillis();
+        for (Map.Entry<Integer, Long> entry : map.entrySet()) {
+            Long value = entry.getValue();
+            if (value != null && value > 0) {
+                flushLagRecorder.recordValue(min(MAX_FLUSH_LAG_MILLIS, max(1, nowMillis - value)));
+            }
+            store.put(entry.getKey(), value);
+        }
+        storeCalls.incrementAndGet();
+        storedEntries.addAndGet(map.size());
+    }
+
+    @Override
+    public void delete(Integer key) {
+        deleteAll(Collections.singletonList(key));
+    }
+
+    @Override
+    public void deleteAll(Collection<Integer> keys) {
+        access(keys.size());
+        for (Integer key : keys) {
+            store.remove(key);
+        }
+        deletedEntries.addAndGet(keys.size());
+    }
+
+    @Override
+    public Long load(Integer key) {
+        return loadAll(Collections.singletonList(key)).get(key);
+    }
+
+    @Override
+    public Map<Integer, Long> loadAll(Collection<Integer> keys) {
+        access(keys.size());
+        Map<Integer, Long> result = new HashMap<>();
+        for (Integer key : keys) {
+            // the simulated store contains every key; keys which were never written have the value 0
+            Long value = store.get(key);
+            result.put(key, value == null ? 0L : value);
+        }
+        loadedEntries.addAndGet(keys.size());
+        return result;
+    }
+
+    @Override
+    public Iterable<Integer> loadAllKeys() {
+        // no initial load, the entries are loaded on demand
+        return null;
+    }
+
+    /**
+     * Returns the stats of this store. The flush lag is the lag since the previous call.
+     */
+    public MapStoreStats getStats() {
+        Histogram flushLag = flushLagRecorder.getIntervalHistogram();
+        MapStoreStats stats = new MapStoreStats();
+        stats.storeCalls = storeCalls.get();
+        stats.storedEntries = storedEntries.get();
+        stats.deletedEntries = deletedEntries.get();
+        stats.loadedEntries = loadedEntries.get();
+        stats.failures = failures.get();
+        stats.flushLag99PercentileMillis = flushLag.getTotalCount() == 0 ? 0 : flushLag.getValueAtPercentile(99);
+        stats.flushLagMaxMillis = flushLag.getMaxValue();
+        return stats;
+    }
+
+    private void access(int entryCount) {
+        long durationNanos = latency() + entryCount * perEntryLatencyNanos;
+        if (maxEntriesPerSecond > 0) {
+            // the store processes the entries one after the other; a call has to wait till its entries get a turn
+            long costNanos = SECONDS.toNanos(entryCount) / maxEntriesPerSecond;
+            long nowNanos = System.nanoTime();
+            for (; ; ) {
+                long next = nextFreeNanos.get();
+                long begin = max(next, nowNanos);
+                if (nextFreeNanos.compareAndSet(next, begin + costNanos)) {
+                    durationNanos = max(durationNanos, begin + costNanos - nowNanos);
+                    break;
+                }
+            }
+        }
+        sleepNanos(durationNanos);
+
+        if (failureProbability > 0 && ThreadLocalRandom.current().nextDouble() < failureProbability) {
+            failures.incrementAndGet();
+            throw new IllegalStateException("Simulated failure of the map store");
+        }
+    }
+
+    private long latency() {
+        switch (latencyDistribution) {
+            case "fixed":
+                return latencyNanos;
+            case "uniform":
+                return (long) (ThreadLocalRandom.current().nextDouble() * 2 * latencyNanos);
+            default:
+                return (long) (-latencyNanos * log(1 - ThreadLocalRandom.current().nextDouble()));
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.hazelcast.simulator.tests.map.helpers.tasks;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.HazelcastInstanceAware;
+import com.hazelcast.simulator.tests.map.helpers.MapStoreStats;
+import com.hazelcast.simulator.tests.map.helpers.SimulatedMapStore;
+
+import java.io.Serializable;
+import java.util.concurrent.Callable;
+
+/**
+ * This task gets the stats of the {@link SimulatedMapStore} of a map on a member, including the number of dirty
+ * entries which are waiting in the write-behind queue.
+ **/
+public class GetMapStoreStatsTask implements HazelcastInstanceAware, Callable<MapStoreStats>, Serializable {
+    private HazelcastInstance hazelcastInstance;
+    private final String mapName;
+
+    public GetMapStoreStatsTask(String mapName) {
+        this.mapName = mapName;
+    }
+
+    @Override
+    public void setHazelcastInstance(HazelcastInstance hazelcastInstance) {
+        this.hazelcastInstance = hazelcastInstance;
+    }
+
+    @Override
+    public MapStoreStats call() {
+        SimulatedMapStore mapStore = SimulatedMapStore.getInstance(mapName);
+        MapStoreStats stats = mapStore == null ? new MapStoreStats() : mapStore.getStats();
+        stats.dirtyEntryCount = hazelcastInstance.getMap(mapName).getLocalMapStats().getDirtyEntryCount();
+        return stats;
+    }
+}
@@ -0,0 +1,80 @@
+package com.hazelcast.simulator.tests.map.helpers.tasks;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.HazelcastInstanceAware;
+import com.hazelcast.map.LocalMapStats;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * This task gets the disk I/O of the member process and the number of gets and puts on the local entries of a map.
+ * <p>
+ * The disk I/O is read from /proc/self/io, so it only counts the bytes which were actually read from or written to the
+ * storage layer, not the reads served from the page cache. On systems without /proc the disk I/O is -1.
+ * <p>
+ * The result is an array with the read bytes, written bytes, get count and put count; all are totals since the start
+ * of the member.
+ **/
+public class GetMemberIoStatsTask implements HazelcastInstanceAware, Callable<long[]>, Serializable {
+    public static final int READ_BYTES = 0;
+    public static final int WRITE_BYTES = 1;
+    public static final int GET_COUNT = 2;
+    public static final int PUT_COUNT = 3;
+
+    private static final File PROC_SELF_IO = new File("/proc/self/io");
+
+    private HazelcastInstance hazelcastInstance;
+    private final String mapName;
+
+    public GetMemberIoStatsTask(String mapName) {
+        this.mapName = mapName;
+    }
+
+    @Override
+    public void setHazelcastInstance(HazelcastInstance hazelcastInstance) {
+        this.hazelcastInstance = hazelcastInstance;
+    }
+
+    @Override
+    public long[] call() {
+        LocalMapStats mapStats = hazelcastInstance.getMap(mapName).getLocalMapStats();
+        long[] diskIo = readProcSelfIo();
+        long[] result = new long[4];
+        result[READ_BYTES] = diskIo == null ? -1 : diskIo[READ_BYTES];
+        result[WRITE_BYTES] = diskIo == null ? -1 : diskIo[WRITE_BYTES];
+        result[GET_COUNT] = mapStats.getGetOperationCount();
+        result[PUT_COUNT] = mapStats.getPutOperationCount();
+        return result;
+    }
+
+    /**
+     * Reads the storage layer read and written bytes of the current process from /proc/self/io.
+     *
+     * @return an array with the read and written bytes, or {@code null} if /proc/self/io isn't available
+     */
+    public static long[] readProcSelfIo() {
+        if (!PROC_SELF_IO.canRead()) {
+            return null;
+        }
+
+        try {
+            List<String> lines = Files.readAllLines(PROC_SELF_IO.toPath());
+            long[] result = new long[2];
+            for (String line : lines) {
+                if (line.startsWith("read_bytes:")) {
+                    result[READ_BYTES] = Long.parseLong(line.substring("read_bytes:".length()).trim());
+                } else if (line.startsWith("write_bytes:")) {
+                    result[WRITE_BYTES] = Long.parseLong(line.substring("write_bytes:".length()).trim());
+                }
+            }
+            return result;
+        } catch (IOException | NumberFormatException e) {
+            return null;
+        }
+    }
+}
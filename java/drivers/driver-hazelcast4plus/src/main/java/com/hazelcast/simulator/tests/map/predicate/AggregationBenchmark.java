@@ -0,0 +1,272 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.tests.map.predicate;
+
+import com.hazelcast.aggregation.Aggregator;
+import com.hazelcast.aggregation.Aggregators;
+import com.hazelcast.config.IndexType;
+import com.hazelcast.core.HazelcastJsonValue;
+import com.hazelcast.cp.IAtomicLong;
+import com.hazelcast.map.IMap;
+import com.hazelcast.projection.Projections;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.Predicates;
+import com.hazelcast.simulator.hz.AggregationCompactPojo;
+import com.hazelcast.simulator.hz.AggregationIdentifiedDataSerializablePojo;
+import com.hazelcast.simulator.hz.AggregationPortablePojo;
+import com.hazelcast.simulator.hz.HazelcastTest;
+import com.hazelcast.simulator.test.BaseThreadState;
+import com.hazelcast.simulator.test.annotations.AfterRun;
+import com.hazelcast.simulator.test.annotations.Prepare;
+import com.hazelcast.simulator.test.annotations.Setup;
+import com.hazelcast.simulator.test.annotations.Teardown;
+import com.hazelcast.simulator.test.annotations.TimeStep;
+import com.hazelcast.simulator.test.annotations.Verify;
+import com.hazelcast.simulator.worker.loadsupport.Streamer;
+import com.hazelcast.simulator.worker.loadsupport.StreamerFactory;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Benchmarks the in-grid aggregation and projection paths for different serialization formats.
+ *
+ * Every entry has the attributes 'id', 'category' (low cardinality), 'amount' and 'price' (a BigDecimal).
+ * The {@link #format} determines which value class is stored: {@link AggregationCompactPojo},
+ * {@link AggregationPortablePojo} (requires the CustomPortableFactory to be configured),
+ * {@link AggregationIdentifiedDataSerializablePojo} or a {@link HazelcastJsonValue}. The bigDecimalSum
+ * timestep isn't supported for JSON since JSON numbers are not extracted as BigDecimal.
+ *
+ * If {@link #rangeSize} is 0, every operation runs over the whole map. Otherwise a random range of
+ * 'rangeSize' entries is selected using the 'amount' attribute, which can be backed by an index using
+ * {@link #useIndex}.
+ *
+ * The customAggregate timestep uses an {@link Aggregator} implemented against the public API, like a user would
+ * write it; it reads the 'amount' from the deserialized value, so unlike the built-in aggregators it includes the
+ * cost of deserializing every scanned entry.
+ *
+ * Apart from the latency per operation, the benchmark reports the number of entries scanned per second
+ * over all load generating threads in the global verify. Without an index every operation scans the whole map,
+ * also when a range is selected; with an index only the entries in the range are scanned.
+ */
+public class AggregationBenchmark extends HazelcastTest {
+
+    public enum Format {
+        COMPACT,
+        PORTABLE,
+        IDENTIFIED_DATA_SERIALIZABLE,
+        JSON
+    }
+
+    // properties
+    // the number of map entries
+    public int entryCount = 1_000_000;
+    // the number of distinct values of the 'category' attribute
+    public int categoryCount = 100;
+    // the number of entries selected by the predicate; 0 means the whole map is used
+    public int rangeSize = 0;
+    public boolean useIndex = false;
+    public IndexType indexType = IndexType.SORTED;
+    public Format format = Format.COMPACT;
+    public boolean destroyOnExit = true;
+
+    private IMap<Integer, Object> map;
+    private IAtomicLong entriesScannedPerSecond;
+    private long expectedCount;
+    private long scannedCount;
+
+    @Setup
+    public void setUp() {
+        if (rangeSize < 0 || rangeSize > entryCount) {
+            throw new IllegalArgumentException("rangeSize has to be between 0 and entryCount. "
+                    + "Current settings: rangeSize = " + rangeSize + " entryCount = " + entryCount);
+        }
+
+        map = targetInstance.getMap(name);
+        entriesScannedPerSecond = getAtomicLong(name + ":EntriesScannedPerSecond");
+        expectedCount = rangeSize == 0 ? entryCount : rangeSize;
+        scannedCount = rangeSize == 0 || !useIndex ? entryCount : rangeSize;
+    }
+
+    @Prepare(global = true)
+    public void prepare() {
+        if (useIndex) {
+            map.addIndex(indexType, "amount");
+        }
+
+        Streamer<Integer, Object> streamer = StreamerFactory.getInstance(map);
+        for (int i = 0; i < entryCount; i++) {
+            streamer.pushEntry(i, newValue(i));
+        }
+        streamer.await();
+    }
+
+    private Object newValue(int id) {
+        int category = id % categoryCount;
+        BigDecimal price = BigDecimal.valueOf(id, 2);
+        switch (format) {
+            case COMPACT:
+                return new AggregationCompactPojo(id, category, id, price);
+            case PORTABLE:
+                return new AggregationPortablePojo(id, category, id, price);
+            case IDENTIFIED_DATA_SERIALIZABLE:
+                return new AggregationIdentifiedDataSerializablePojo(id, category, id, price);
+            case JSON:
+                return new HazelcastJsonValue("{\"id\":" + id
+                        + ",\"category\":" + category
+                        + ",\"amount\":" + id
+                        + ",\"price\":" + price + "}");
+            default:
+                throw new IllegalStateException("Unrecognized format: " + format);
+        }
+    }
+
+    @TimeStep(prob = 1)
+    public void count(ThreadState state) {
+        Long count = state.aggregate(Aggregators.count());
+
+        if (count != expectedCount) {
+            throw new IllegalArgumentException("Invalid count [expected=" + expectedCount + ", actual=" + count + "]");
+        }
+    }
+
+    @TimeStep(prob = 0)
+    public Set<Integer> distinct(ThreadState state) {
+        return state.aggregate(Aggregators.distinct("category"));
+    }
+
+    @TimeStep(prob = 0)
+    public Long max(ThreadState state) {
+        return state.aggregate(Aggregators.longMax("amount"));
+    }
+
+    @TimeStep(prob = 0)
+    public BigDecimal bigDecimalSum(ThreadState state) {
+        return state.aggregate(Aggregators.bigDecimalSum("price"));
+    }
+
+    @TimeStep(prob = 0)
+    public Long customAggregate(ThreadState state) {
+        return state.aggregate(new AmountSpreadAggregator());
+    }
+
+    @TimeStep(prob = 0)
+    public Collection<Object[]> multiAttributeProjection(ThreadState state) {
+        Predicate<Integer, Object> predicate = state.randomPredicate();
+        Collection<Object[]> result = predicate == null
+                ? map.project(Projections.multiAttribute("id", "amount"))
+                : map.project(Projections.multiAttribute("id", "amount"), predicate);
+        state.entriesScanned += scannedCount;
+        return result;
+    }
+
+    @AfterRun
+    public void afterRun(ThreadState state) {
+        long durationNanos = System.nanoTime() - state.startNanos;
+        if (durationNanos > 0) {
+            entriesScannedPerSecond.addAndGet(state.entriesScanned * SECONDS.toNanos(1) / durationNanos);
+        }
+    }
+
+    @Verify(global = true)
+    public void verify() {
+        logger.info(name + ": " + entriesScannedPerSecond.get() + " entries scanned/second using format " + format
+                + (rangeSize == 0 ? " over the whole map" : " with rangeSize " + rangeSize + " and useIndex " + useIndex));
+    }
+
+    public class ThreadState extends BaseThreadState {
+
+        private final long startNanos = System.nanoTime();
+        private long entriesScanned;
+
+        private <R> R aggregate(Aggregator<Map.Entry<Integer, Object>, R> aggregator) {
+            Predicate<Integer, Object> predicate = randomPredicate();
+            R result = predicate == null
+                    ? map.aggregate(aggregator)
+                    : map.aggregate(aggregator, predicate);
+            entriesScanned += scannedCount;
+            return result;
+        }
+
+        private Predicate<Integer, Object> randomPredicate() {
+            if (rangeSize == 0) {
+                return null;
+            }
+
+            long from = randomInt(entryCount - rangeSize + 1);
+            return Predicates.between("amount", from, from + rangeSize - 1);
+        }
+    }
+
+    /**
+     * A custom aggregator that returns the difference between the largest and smallest 'amount' of the values.
+     */
+    private static final class AmountSpreadAggregator implements Aggregator<Map.Entry<Integer, Object>, Long> {
+
+        private static final long serialVersionUID = 1L;
+        private static final String JSON_AMOUNT = "\"amount\":";
+
+        private long min = Long.MAX_VALUE;
+        private long max = Long.MIN_VALUE;
+
+        @Override
+        public void accumulate(Map.Entry<Integer, Object> entry) {
+            long amount = amount(entry.getValue());
+            min = Math.min(min, amount);
+            max = Math.max(max, amount);
+        }
+
+        @Override
+        public void combine(Aggregator aggregator) {
+            AmountSpreadAggregator other = (AmountSpreadAggregator) aggregator;
+            min = Math.min(min, other.min);
+            max = Math.max(max, other.max);
+        }
+
+        @Override
+        public Long aggregate() {
+            return min > max ? 0L : max - min;
+        }
+
+        private static long amount(Object value) {
+            if (value instanceof AggregationCompactPojo) {
+                return ((AggregationCompactPojo) value).amount;
+            } else if (value instanceof AggregationPortablePojo) {
+                return ((AggregationPortablePojo) value).amount;
+            } else if (value instanceof AggregationIdentifiedDataSerializablePojo) {
+                return ((AggregationIdentifiedDataSerializablePojo) value).amount;
+            } else if (value instanceof HazelcastJsonValue) {
+                // the JSON values are written by newValue, so the 'amount' is always followed by a ','
+                String json = value.toString();
+                int start = json.indexOf(JSON_AMOUNT) + JSON_AMOUNT.length();
+                return Long.parseLong(json.substring(start, json.indexOf(',', start)));
+            }
+            throw new IllegalArgumentException("Unrecognized value: " + value);
+        }
+    }
+
+    @Teardown
+    public void tearDown() {
+        if (destroyOnExit) {
+            map.destroy();
+        }
+        entriesScannedPerSecond.destroy();
+    }
+}
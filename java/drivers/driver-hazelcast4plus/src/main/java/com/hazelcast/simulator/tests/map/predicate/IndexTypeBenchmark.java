@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.tests.map.predicate;
+
+import com.hazelcast.config.IndexConfig;
+import com.hazelcast.config.IndexType;
+import com.hazelcast.map.IMap;
+import com.hazelcast.query.Predicates;
+import com.hazelcast.simulator.hz.AggregationCompactPojo;
+import com.hazelcast.simulator.hz.HazelcastTest;
+import com.hazelcast.simulator.test.BaseThreadState;
+import com.hazelcast.simulator.test.annotations.Prepare;
+import com.hazelcast.simulator.test.annotations.Setup;
+import com.hazelcast.simulator.test.annotations.Teardown;
+import com.hazelcast.simulator.test.annotations.TimeStep;
+import com.hazelcast.simulator.worker.loadsupport.Streamer;
+import com.hazelcast.simulator.worker.loadsupport.StreamerFactory;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.Set;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Compares the different index types for IMap queries.
+ *
+ * The index is created programmatically in the global prepare after the map has been filled, so the time
+ * needed to build the index can be measured; it is logged and echoed to the coordinator. The index type
+ * is configured using {@link #indexType}; setting {@link #composite} creates a single index over
+ * 'category' and 'amount' instead of an index over 'category' only. With {@link #useIndex} set to false
+ * no index is created at all, which is the baseline for both the queries and the writes.
+ *
+ * The query timestep methods select on the 'category' attribute which has {@link #cardinality} distinct
+ * values; so an equality predicate matches roughly entryCount/cardinality entries. The 'put' and 'set'
+ * timestep methods replace entries with a value that has a different 'category' and 'amount', so comparing
+ * their latency with and without an index shows the write amplification caused by index maintenance.
+ *
+ * Not every index shape can be used by every query timestep; the others fall back to a full scan:
+ * <ul>
+ * <li>HASH: equal and in; compositeEqual uses it for 'category' and filters 'amount'</li>
+ * <li>SORTED: equal, in and range; compositeEqual uses it for 'category' and filters 'amount'</li>
+ * <li>BITMAP: equal and in; compositeEqual uses it for 'category' and filters 'amount'</li>
+ * <li>composite HASH: only compositeEqual, since a hash index can only be used if all its attributes are matched</li>
+ * <li>composite SORTED: equal, in, range (on the first attribute 'category') and compositeEqual</li>
+ * <li>composite BITMAP: not supported by Hazelcast, a bitmap index can only have a single attribute</li>
+ * </ul>
+ */
+public class IndexTypeBenchmark extends HazelcastTest {
+
+    // properties
+    // the number of map entries
+    public int entryCount = 1_000_000;
+    // the number of distinct values of the 'category' attribute
+    public int cardinality = 1000;
+    // the number of distinct values of the 'amount' attribute
+    public int amountCardinality = 1000;
+    // the number of values in the IN predicate
+    public int inSize = 10;
+    // the number of consecutive 'category' values selected by the range predicate
+    public int rangeWidth = 10;
+    public boolean useIndex = true;
+    public IndexType indexType = IndexType.HASH;
+    public boolean composite = false;
+    public boolean destroyOnExit = true;
+
+    private IMap<Integer, AggregationCompactPojo> map;
+
+    @Setup
+    public void setUp() {
+        if (cardinality < 1 || cardinality > entryCount) {
+            throw new IllegalArgumentException("cardinality has to be between 1 and entryCount. "
+                    + "Current settings: cardinality = " + cardinality + " entryCount = " + entryCount);
+        }
+        if (rangeWidth < 1 || rangeWidth > cardinality) {
+            throw new IllegalArgumentException("rangeWidth has to be between 1 and cardinality. "
+                    + "Current settings: rangeWidth = " + rangeWidth + " cardinality = " + cardinality);
+        }
+        if (useIndex && composite && indexType == IndexType.BITMAP) {
+            throw new IllegalArgumentException("A BITMAP index can't be composite, set composite to false or use "
+                    + "another indexType");
+        }
+        if (useIndex && composite && indexType == IndexType.HASH) {
+            logger.warn(name + ": a composite HASH index is only used by compositeEqual, "
+                    + "the equal, in and range timesteps do a full scan");
+        }
+
+        map = targetInstance.getMap(name);
+    }
+
+    @Prepare(global = true)
+    public void prepare() {
+        Random random = new Random();
+        Streamer<Integer, AggregationCompactPojo> streamer = StreamerFactory.getInstance(map);
+        for (int key = 0; key < entryCount; key++) {
+            streamer.pushEntry(key, newValue(key, random.nextInt(cardinality), random.nextInt(amountCardinality)));
+        }
+        streamer.await();
+
+        if (!useIndex) {
+            return;
+        }
+
+        IndexConfig indexConfig = composite
+                ? new IndexConfig(indexType, "category", "amount")
+                : new IndexConfig(indexType, "category");
+        long startNanos = System.nanoTime();
+        map.addIndex(indexConfig);
+        long durationMillis = NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+
+        String msg = name + ": building " + indexConfig + " over " + entryCount + " entries took " + durationMillis + " ms";
+        logger.info(msg);
+        testContext.echoCoordinator(msg);
+    }
+
+    private static AggregationCompactPojo newValue(int key, int category, int amount) {
+        return new AggregationCompactPojo(key, category, amount, BigDecimal.valueOf(amount, 2));
+    }
+
+    @TimeStep(prob = 1)
+    public Set<Integer> equal(ThreadState state) {
+        return map.keySet(Predicates.equal("category", state.randomCategory()));
+    }
+
+    @TimeStep(prob = 0)
+    public Set<Integer> in(ThreadState state) {
+        Integer[] categories = new Integer[inSize];
+        for (int i = 0; i < inSize; i++) {
+            categories[i] = state.randomCategory();
+        }
+        return map.keySet(Predicates.in("category", categories));
+    }
+
+    @TimeStep(prob = 0)
+    public Set<Integer> range(ThreadState state) {
+        int from = state.randomInt(cardinality - rangeWidth + 1);
+        return map.keySet(Predicates.between("category", from, from + rangeWidth - 1));
+    }
+
+    @TimeStep(prob = 0)
+    public Set<Integer> compositeEqual(ThreadState state) {
+        return map.keySet(Predicates.and(
+                Predicates.equal("category", state.randomCategory()),
+                Predicates.equal("amount", state.randomAmount())));
+    }
+
+    @TimeStep(prob = 0)
+    public AggregationCompactPojo put(ThreadState state) {
+        int key = state.randomKey();
+        return map.put(key, newValue(key, state.randomCategory(), state.randomAmount()));
+    }
+
+    @TimeStep(prob = 0)
+    public void set(ThreadState state) {
+        int key = state.randomKey();
+        map.set(key, newValue(key, state.randomCategory(), state.randomAmount()));
+    }
+
+    public class ThreadState extends BaseThreadState {
+
+        private int randomKey() {
+            return randomInt(entryCount);
+        }
+
+        private int randomCategory() {
+            return randomInt(cardinality);
+        }
+
+        private int randomAmount() {
+            return randomInt(amountCardinality);
+        }
+    }
+
+    @Teardown
+    public void tearDown() {
+        if (destroyOnExit) {
+            map.destroy();
+        }
+    }
+}
@@ -16,6 +16,7 @@
 package com.hazelcast.simulator.agent;
 
 import com.hazelcast.simulator.agent.messages.CreateWorkerMessage;
+import com.hazelcast.simulator.agent.messages.SignalWorkerMessage;
 import com.hazelcast.simulator.agent.messages.StartTimeoutDetectionMessage;
 import com.hazelcast.simulator.agent.messages.StopTimeoutDetectionMessage;
 import com.hazelcast.simulator.agent.workerprocess.WorkerProcessFailureMonitor;
@@ -47,6 +48,9 @@ class AgentMessageHandler implements MessageHandler {
         } else if (msg instanceof StopTimeoutDetectionMessage) {
             failureMonitor.stopTimeoutDetection();
             promise.answer("ok");
+        } else if (msg instanceof SignalWorkerMessage) {
+            processManager.signal((SignalWorkerMessage) msg);
+            promise.answer("ok");
         } else {
             throw new HandleException("Unknown message:" + msg);
         }
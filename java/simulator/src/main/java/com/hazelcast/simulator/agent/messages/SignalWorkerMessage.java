@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.agent.messages;
+
+import com.google.gson.annotations.SerializedName;
+import com.hazelcast.simulator.protocol.message.SimulatorMessage;
+
+/**
+ * Sends a signal to the process of a Simulator Worker on the Simulator Agent, e.g. to kill or suspend a member while a
+ * test is running.
+ */
+public class SignalWorkerMessage implements SimulatorMessage {
+
+    public enum Signal {
+        /**
+         * Kills the worker process immediately, without a graceful shutdown.
+         */
+        KILL,
+        /**
+         * Suspends the worker process.
+         */
+        STOP,
+        /**
+         * Resumes a suspended worker process.
+         */
+        CONT
+    }
+
+    @SerializedName("workerAddress")
+    private final String workerAddress;
+
+    @SerializedName("signal")
+    private final Signal signal;
+
+    public SignalWorkerMessage(String workerAddress, Signal signal) {
+        this.workerAddress = workerAddress;
+        this.signal = signal;
+    }
+
+    public String getWorkerAddress() {
+        return workerAddress;
+    }
+
+    public Signal getSignal() {
+        return signal;
+    }
+
+    @Override
+    public String toString() {
+        return "SignalWorkerMessage{workerAddress=" + workerAddress + ", signal=" + signal + '}';
+    }
+}
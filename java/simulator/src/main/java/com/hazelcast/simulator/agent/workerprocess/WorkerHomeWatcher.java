@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.agent.workerprocess;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Watches the home directories of the Workers which are starting up, so a launcher notices the pid file of its Worker
+ * as soon as it is written.
+ * <p>
+ * A single {@link WatchService} is shared by all launches of the Agent: every WatchService costs an inotify instance
+ * and the number of those is limited per user. If no WatchService can be created, the launchers fall back to polling.
+ */
+class WorkerHomeWatcher implements Closeable {
+
+    private static final Logger LOGGER = LogManager.getLogger(WorkerHomeWatcher.class);
+
+    private final ConcurrentMap<WatchKey, Semaphore> changes = new ConcurrentHashMap<>();
+    private final WatchService watchService;
+
+    WorkerHomeWatcher() {
+        this.watchService = newWatchService();
+        if (watchService != null) {
+            Thread thread = new Thread(this::dispatch, "WorkerHomeWatcher");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    private static WatchService newWatchService() {
+        try {
+            return FileSystems.getDefault().newWatchService();
+        } catch (IOException e) {
+            LOGGER.warn("Failed to create a WatchService, the startup of the Workers is polled", e);
+            return null;
+        }
+    }
+
+    /**
+     * Starts watching the given Worker home.
+     *
+     * @param workerHome the home directory of the Worker
+     * @return the registration, which needs to be closed once the Worker has started
+     */
+    Registration register(File workerHome) {
+        if (watchService == null) {
+            return new Registration(null);
+        }
+
+        try {
+            WatchKey key = workerHome.toPath().register(watchService, ENTRY_CREATE, ENTRY_MODIFY);
+            Registration registration = new Registration(key);
+            changes.put(key, registration.changes);
+            return registration;
+        } catch (IOException | ClosedWatchServiceException e) {
+            LOGGER.warn("Failed to watch " + workerHome + ", the startup of the Worker is polled", e);
+            return new Registration(null);
+        }
+    }
+
+    private void dispatch() {
+        try {
+            for (; ; ) {
+                WatchKey key = watchService.take();
+                key.pollEvents();
+                Semaphore semaphore = changes.get(key);
+                if (semaphore != null) {
+                    semaphore.release();
+                }
+                key.reset();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            LOGGER.debug("WorkerHomeWatcher closed");
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+        }
+    }
+
+    /**
+     * The registration of a single Worker home.
+     */
+    final class Registration implements Closeable {
+
+        private final Semaphore changes = new Semaphore(0);
+        private final WatchKey key;
+
+        private Registration(WatchKey key) {
+            this.key = key;
+        }
+
+        /**
+         * Waits till the Worker home has changed or the timeout has expired.
+         *
+         * @param timeoutMillis the maximum time to wait
+         * @throws InterruptedException if the thread is interrupted while waiting
+         */
+        void awaitChange(long timeoutMillis) throws InterruptedException {
+            if (changes.tryAcquire(timeoutMillis, MILLISECONDS)) {
+                changes.drainPermits();
+            }
+        }
+
+        @Override
+        public void close() {
+            if (key != null) {
+                WorkerHomeWatcher.this.changes.remove(key);
+                key.cancel();
+            }
+        }
+    }
+}
@@ -73,6 +73,11 @@ public class WorkerParameters {
         return this;
     }
 
+    public WorkerParameters remove(String key) {
+        map.remove(key);
+        return this;
+    }
+
     public WorkerParameters setAll(Map<String, String> items) {
         map.putAll(items);
         return this;
@@ -19,6 +19,7 @@ import com.hazelcast.simulator.protocol.core.SimulatorAddress;
 
 import java.io.File;
 
+import static com.hazelcast.simulator.utils.FileUtils.fileAsText;
 import static java.lang.System.currentTimeMillis;
 
 /**
@@ -87,4 +88,20 @@ public class WorkerProcess {
     public void setProcess(Process process) {
         this.process = process;
     }
+
+    /**
+     * Returns the pid of the worker JVM, as written by the worker into its pid file.
+     *
+     * @return the pid or {@code null} if the worker hasn't written its pid yet
+     */
+    public String readPid() {
+        File pidFile = new File(workerHome, "worker.pid");
+        if (!pidFile.exists()) {
+            return null;
+        }
+
+        // the pid file is created before the pid is written
+        String pid = fileAsText(pidFile).trim();
+        return pid.isEmpty() ? null : pid;
+    }
 }
@@ -21,20 +21,22 @@ import org.apache.logging.log4j.Logger;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
 
-import static com.hazelcast.simulator.utils.CommonUtils.sleepMillis;
 import static com.hazelcast.simulator.utils.FileUtils.ensureExistingDirectory;
 import static com.hazelcast.simulator.utils.FileUtils.ensureFreshDirectory;
-import static com.hazelcast.simulator.utils.FileUtils.fileAsText;
 import static com.hazelcast.simulator.utils.FileUtils.getSimulatorHome;
 import static com.hazelcast.simulator.utils.FileUtils.writeText;
 import static com.hazelcast.simulator.utils.NativeUtils.execute;
 import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
 /**
@@ -43,7 +45,9 @@ import static java.util.concurrent.TimeUnit.SECONDS;
 public class WorkerProcessLauncher {
 
     public static final String WORKERS_HOME_NAME = "workers";
+    public static final String STARTUP_CACHE_HOME_NAME = "startup-cache";
 
+    // the maximum time between checks if the worker process has exited while waiting for its startup
     private static final int WAIT_FOR_WORKER_STARTUP_INTERVAL_MILLIS = 500;
     private static final String CLASSPATH = System.getProperty("java.class.path");
     private static final String CLASSPATH_SEPARATOR = System.getProperty("path.separator");
@@ -117,13 +121,16 @@ public class WorkerProcessLauncher {
                 parametersText.append(key).append("=").append(value).append("\n");
             }
         }
-        parametersText.append("CLASSPATH=").append(getClasspath(workerDir)).append("\n");
+        String classpath = getClasspath(workerDir);
         String javaHome = getJavaHome();
         String path = javaHome + "/bin:" + environment.get("PATH");
         parametersText.append("PATH=").append(path).append("\n");
         parametersText.append("JAVA_HOME=").append(javaHome).append("\n");
-        parametersText.append("CLASSPATH=").append(getClasspath(workerDir)).append("\n");
+        parametersText.append("CLASSPATH=").append(classpath).append("\n");
         parametersText.append("SIMULATOR_HOME=").append(getSimulatorHome().getAbsolutePath()).append("\n");
+        if ("cds".equals(parameters.get("WORKER_STARTUP_CACHE"))) {
+            appendCdsArchive(parametersText, workerDir, classpath, javaHome);
+        }
 
         writeText(parametersText.toString(), new File(workerDir, "parameters"));
 
@@ -137,24 +144,40 @@ public class WorkerProcessLauncher {
         return workerProcess;
     }
 
-    private void waitForWorkersStartup(WorkerProcess worker) {
+    /**
+     * Waits for the worker to write its pid file. The worker home is watched for changes, so the startup is detected
+     * as soon as the pid file is written instead of at the next poll.
+     */
+    private void waitForWorkersStartup(WorkerProcess worker) throws InterruptedException {
         int timeout = parameters.intGet("WORKER_STARTUP_TIMEOUT_SECONDS");
-
-        int loopCount = (int) SECONDS.toMillis(timeout) / WAIT_FOR_WORKER_STARTUP_INTERVAL_MILLIS;
-        for (int i = 0; i < loopCount; i++) {
-            if (hasExited(worker)) {
-                throw new CreateWorkerFailedException(format(
-                        "Startup of Worker %s on Agent %s failed, check log files in %s for more information!",
-                        worker.getAddress(), processManager.getPublicAddress(), worker.getWorkerHome()));
-            }
-
-            String pid = readPid(worker);
-            if (pid != null) {
-                LOGGER.info(format("Worker %s started", worker.getWorkerName()));
-                return;
+        if (parameters.get("EXPECTED_CLUSTER_SIZE") != null && parameters.get("WORKER_STARTUP_CLUSTER_TIMEOUT_SECONDS") != null) {
+            // a member only writes its pid once the cluster is complete
+            timeout += parameters.intGet("WORKER_STARTUP_CLUSTER_TIMEOUT_SECONDS");
+        }
+        long deadlineNanos = System.nanoTime() + SECONDS.toNanos(timeout);
+
+        try (WorkerHomeWatcher.Registration registration = processManager.getWorkerHomeWatcher()
+                .register(worker.getWorkerHome())) {
+            for (; ; ) {
+                if (hasExited(worker)) {
+                    throw new CreateWorkerFailedException(format(
+                            "Startup of Worker %s on Agent %s failed, check log files in %s for more information!",
+                            worker.getAddress(), processManager.getPublicAddress(), worker.getWorkerHome()));
+                }
+
+                String pid = worker.readPid();
+                if (pid != null) {
+                    LOGGER.info(format("Worker %s started", worker.getWorkerName()));
+                    return;
+                }
+
+                long remainingMillis = NANOSECONDS.toMillis(deadlineNanos - System.nanoTime());
+                if (remainingMillis <= 0) {
+                    break;
+                }
+
+                registration.awaitChange(Math.min(remainingMillis, WAIT_FOR_WORKER_STARTUP_INTERVAL_MILLIS));
             }
-
-            sleepMillis(WAIT_FOR_WORKER_STARTUP_INTERVAL_MILLIS);
         }
 
         throw new CreateWorkerFailedException(format(
@@ -203,20 +226,61 @@ public class WorkerProcessLauncher {
         }
     }
 
-    private String readPid(WorkerProcess workerProcess) {
-        File pidFile = new File(workerProcess.getWorkerHome(), "worker.pid");
-        if (!pidFile.exists()) {
-            return null;
+    private void appendCdsArchive(StringBuilder parametersText, File workerDir, String classpath, String javaHome) {
+        if (new File(workerDir, "upload").isDirectory()) {
+            // the upload directory is specific to the worker, so its classpath can't be shared with other workers
+            LOGGER.info(format("Not using an AppCDS archive for Worker %s since it has an upload directory", workerAddress));
+            return;
+        }
+        parametersText.append("CDS_ARCHIVE=").append(getCdsArchive(classpath, javaHome)).append("\n");
+    }
+
+    /**
+     * Returns the AppCDS archive for the given classpath. The name of the archive is derived from the JVM, the worker
+     * type and the name, size and modification time of every jar on the classpath; so a new archive is created as soon
+     * as any of them changes and workers with the same setup share the archive. The archive itself is created by
+     * worker.sh when the first worker exits and reused by every worker started after that.
+     */
+    private String getCdsArchive(String classpath, String javaHome) {
+        File cacheDir = ensureExistingDirectory(getSimulatorHome(), STARTUP_CACHE_HOME_NAME);
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            update(digest, javaHome + '|' + System.getProperty("java.vm.version") + '|' + parameters.getWorkerType());
+            for (String entry : classpath.split(CLASSPATH_SEPARATOR)) {
+                File[] files = entry.endsWith("/*")
+                        ? new File(entry.substring(0, entry.length() - 2)).listFiles()
+                        : new File[]{new File(entry)};
+                if (files == null) {
+                    continue;
+                }
+                for (File file : files) {
+                    if (file.isFile()) {
+                        update(digest, file.getAbsolutePath() + '|' + file.length() + '|' + file.lastModified());
+                    }
+                }
+            }
+
+            StringBuilder key = new StringBuilder();
+            for (byte b : digest.digest()) {
+                key.append(format("%02x", b));
+            }
+            return new File(cacheDir, parameters.getWorkerType() + "-" + key.substring(0, 16) + ".jsa").getAbsolutePath();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
         }
+    }
 
-        return fileAsText(pidFile);
+    private static void update(MessageDigest digest, String s) {
+        digest.update(s.getBytes(StandardCharsets.UTF_8));
     }
 
     private String getClasspath(File workerHome) {
         String simulatorHome = getSimulatorHome().getAbsolutePath();
-        String classpath = new File(getRunDir(), "lib/*").getAbsolutePath()
-                + CLASSPATH_SEPARATOR + workerHome.getAbsolutePath() + "/upload/*"
-                + CLASSPATH_SEPARATOR + simulatorHome + "/user-lib/*"
+        // the run and worker specific directories are only added when they exist, so the classpath of workers with the
+        // same setup is identical; this is required to share an AppCDS archive between them
+        String classpath = existingDirToClassPath(new File(getRunDir(), "lib"))
+                + existingDirToClassPath(new File(workerHome, "upload"))
+                + simulatorHome + "/user-lib/*"
                 + uploadDirToClassPath(workerHome)
                 + CLASSPATH_SEPARATOR + CLASSPATH;
 
@@ -230,6 +294,10 @@ public class WorkerProcessLauncher {
         return classpath;
     }
 
+    private static String existingDirToClassPath(File dir) {
+        return dir.isDirectory() ? dir.getAbsolutePath() + "/*" + CLASSPATH_SEPARATOR : "";
+    }
+
     private String uploadDirToClassPath(File workerHome) {
         String uploadClassPath = "";
         File uploadDirectory = new File(workerHome, "upload").getAbsoluteFile();
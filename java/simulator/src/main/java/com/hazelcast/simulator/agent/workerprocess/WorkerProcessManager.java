@@ -16,11 +16,13 @@
 package com.hazelcast.simulator.agent.workerprocess;
 
 import com.hazelcast.simulator.agent.messages.CreateWorkerMessage;
+import com.hazelcast.simulator.agent.messages.SignalWorkerMessage;
 import com.hazelcast.simulator.coordinator.messages.FailureMessage;
 import com.hazelcast.simulator.protocol.Promise;
 import com.hazelcast.simulator.protocol.Server;
 import com.hazelcast.simulator.protocol.core.SimulatorAddress;
 import com.hazelcast.simulator.protocol.message.LogMessage;
+import com.hazelcast.simulator.utils.BashCommand;
 import com.hazelcast.simulator.utils.ThreadSpawner;
 import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.LogManager;
@@ -35,6 +37,7 @@ import java.util.concurrent.ScheduledExecutorService;
 
 import static com.hazelcast.simulator.common.FailureType.WORKER_CREATE_ERROR;
 import static com.hazelcast.simulator.protocol.core.SimulatorAddress.workerAddress;
+import static com.hazelcast.simulator.utils.CommonUtils.closeQuietly;
 import static com.hazelcast.simulator.utils.NativeUtils.getPID;
 import static java.lang.String.format;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
@@ -51,6 +54,7 @@ public class WorkerProcessManager {
     private final Server server;
     private final SimulatorAddress agentAddress;
     private final String publicAddress;
+    private WorkerHomeWatcher workerHomeWatcher;
 
     public WorkerProcessManager(Server server, SimulatorAddress agentAddress, String publicAddress) {
         this.server = server;
@@ -78,6 +82,14 @@ public class WorkerProcessManager {
         executorService.schedule(task, msg.getDelayMs(), MILLISECONDS);
     }
 
+    synchronized WorkerHomeWatcher getWorkerHomeWatcher() {
+        // created on the first launch, so a WatchService is only opened by an Agent which starts Workers
+        if (workerHomeWatcher == null) {
+            workerHomeWatcher = new WorkerHomeWatcher();
+        }
+        return workerHomeWatcher;
+    }
+
     public void add(SimulatorAddress workerAddress, WorkerProcess workerProcess) {
         workerProcesses.put(workerAddress, workerProcess);
     }
@@ -90,6 +102,29 @@ public class WorkerProcessManager {
         return workerProcesses.values();
     }
 
+    /**
+     * Sends a signal to the JVM of a worker, e.g. to kill or suspend a member while a test is running.
+     *
+     * @param msg the message containing the worker and the signal
+     */
+    public void signal(SignalWorkerMessage msg) {
+        SimulatorAddress workerAddress = SimulatorAddress.fromString(msg.getWorkerAddress());
+        WorkerProcess workerProcess = workerProcesses.get(workerAddress);
+        if (workerProcess == null) {
+            throw new IllegalArgumentException("Can't signal unknown Worker " + workerAddress);
+        }
+
+        String pid = workerProcess.readPid();
+        if (pid == null) {
+            throw new IllegalStateException("Can't signal Worker " + workerAddress + " since its pid is unknown");
+        }
+
+        LOGGER.info(format("Sending SIG%s to Worker %s (pid %s)", msg.getSignal(), workerAddress, pid));
+        new BashCommand("kill -" + msg.getSignal() + " " + pid)
+                .setThrowsExceptionOnError(true)
+                .execute();
+    }
+
     public void updateLastSeenTimestamp(SimulatorAddress workerAddress) {
         WorkerProcess workerProcess = workerProcesses.get(workerAddress);
         if (workerProcess == null) {
@@ -110,6 +145,13 @@ public class WorkerProcessManager {
             spawner.spawn(() -> shutdown(workerProcess));
         }
         spawner.awaitCompletion();
+        closeWorkerHomeWatcher();
+    }
+
+    private synchronized void closeWorkerHomeWatcher() {
+        if (workerHomeWatcher != null) {
+            closeQuietly(workerHomeWatcher);
+        }
     }
 
     void shutdown(WorkerProcess workerProcess) {
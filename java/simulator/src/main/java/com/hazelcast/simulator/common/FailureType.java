@@ -28,7 +28,9 @@ public enum FailureType {
     WORKER_OOME("workerOOME", "Worker OOME", true),
     WORKER_ABNORMAL_EXIT("workerAbnormalExit", "Worker abnormal exit", true),
     WORKER_NORMAL_EXIT("workerNormalExit", "Worker normal exit", true),
-    WORKER_CREATE_ERROR("workerCreateError", "Worker create error", true);
+    WORKER_CREATE_ERROR("workerCreateError", "Worker create error", true),
+    PERFORMANCE_REGRESSION("performanceRegression", "Performance regression", false),
+    LOAD_GENERATOR_SATURATED("loadGeneratorSaturated", "Load generator saturated", false);
 
     private final String id;
     private final String humanReadable;
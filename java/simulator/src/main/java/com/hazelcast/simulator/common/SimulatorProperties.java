@@ -33,6 +33,7 @@ import static com.hazelcast.simulator.utils.CommonUtils.rethrow;
 import static com.hazelcast.simulator.utils.FileUtils.getSimulatorHome;
 import static com.hazelcast.simulator.utils.FileUtils.getUserDir;
 import static com.hazelcast.simulator.utils.FileUtils.newFile;
+import static java.lang.Double.parseDouble;
 import static java.lang.Integer.parseInt;
 import static java.lang.String.format;
 
@@ -166,6 +167,78 @@ public class SimulatorProperties {
         return parseInt(get("TEST_COMPLETION_TIMEOUT_SECONDS", "300"));
     }
 
+    public int getWorkerStartupWaveSize() {
+        return parseInt(get("WORKER_STARTUP_WAVE_SIZE", "0"));
+    }
+
+    public boolean isWorkerStartupAwaitCluster() {
+        return Boolean.parseBoolean(get("WORKER_STARTUP_AWAIT_CLUSTER", "false"));
+    }
+
+    public String getWorkerIsolation() {
+        return get("WORKER_ISOLATION", "container");
+    }
+
+    public int getMetricsHttpPort() {
+        return parseInt(get("METRICS_HTTP_PORT", "0"));
+    }
+
+    public String getMetricsHttpHost() {
+        return get("METRICS_HTTP_HOST", "127.0.0.1");
+    }
+
+    public int getMetricsRetentionSamples() {
+        return parseInt(get("METRICS_RETENTION_SAMPLES", "3600"));
+    }
+
+    public int getMetricsExpirySeconds() {
+        return parseInt(get("METRICS_EXPIRY_SECONDS", "300"));
+    }
+
+    public String getRegressionBaselineDir() {
+        return get("REGRESSION_BASELINE_DIR", "");
+    }
+
+    public int getRegressionWarmupSeconds() {
+        return parseInt(get("REGRESSION_WARMUP_SECONDS", "60"));
+    }
+
+    public int getRegressionWindowSeconds() {
+        return parseInt(get("REGRESSION_WINDOW_SECONDS", "60"));
+    }
+
+    public double getRegressionThroughputThreshold() {
+        return parseDouble(get("REGRESSION_THROUGHPUT_THRESHOLD", "0.1"));
+    }
+
+    public double getRegressionLatencyThreshold() {
+        return parseDouble(get("REGRESSION_LATENCY_THRESHOLD", "0.2"));
+    }
+
+    public double getRegressionSignificance() {
+        return parseDouble(get("REGRESSION_SIGNIFICANCE", "0.01"));
+    }
+
+    public double getLoadGeneratorSaturationThreshold() {
+        return parseDouble(get("LOAD_GENERATOR_SATURATION_THRESHOLD", "0.05"));
+    }
+
+    public int getLoadGeneratorSaturationSeconds() {
+        return parseInt(get("LOAD_GENERATOR_SATURATION_SECONDS", "30"));
+    }
+
+    public boolean isLoadGeneratorSaturationFail() {
+        return Boolean.parseBoolean(get("LOAD_GENERATOR_SATURATION_FAIL", "false"));
+    }
+
+    public double getRateRebalanceTolerance() {
+        return parseDouble(get("RATE_REBALANCE_TOLERANCE", "0.1"));
+    }
+
+    public double getFaultRecoveryThreshold() {
+        return parseDouble(get("FAULT_RECOVERY_THRESHOLD", "0.9"));
+    }
+
     public int getAgentPort() {
         return parseInt(get("AGENT_PORT", "9000"));
     }
@@ -33,6 +33,7 @@ import org.apache.logging.log4j.Logger;
 
 import java.io.Closeable;
 import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
@@ -50,6 +51,7 @@ import static com.hazelcast.simulator.utils.FileUtils.getUserDir;
 import static com.hazelcast.simulator.utils.FileUtils.locatePythonFile;
 import static java.lang.Runtime.getRuntime;
 import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.SECONDS;
 
 @SuppressWarnings({"checkstyle:classdataabstractioncoupling", "checkstyle:classfanoutcomplexity"})
 public class Coordinator implements Closeable {
@@ -57,13 +59,15 @@ public class Coordinator implements Closeable {
     private static final Logger LOGGER = LogManager.getLogger(Coordinator.class);
     private static final int PARALLEL_CONNECT = 16;
 
-    private final PerformanceStatsCollector performanceStatsCollector = new PerformanceStatsCollector();
+    private final PerformanceStatsCollector performanceStatsCollector;
     private final Registry registry;
     private final CoordinatorParameters parameters;
     private final FailureCollector failureCollector;
     private final SimulatorProperties properties;
     private final int testCompletionTimeoutSeconds;
     private final CoordinatorClient client;
+    private final WorkerRecycler workerRecycler;
+    private MetricsHttpServer metricsHttpServer;
 
     public Coordinator(Registry registry, CoordinatorParameters parameters) {
         this.registry = registry;
@@ -71,11 +75,18 @@ public class Coordinator implements Closeable {
         this.failureCollector = new FailureCollector(parameters.getSimulatorProperties().get("run_path"), registry);
         this.properties = parameters.getSimulatorProperties();
         this.testCompletionTimeoutSeconds = properties.getTestCompletionTimeoutSeconds();
+        this.performanceStatsCollector = new PerformanceStatsCollector(properties.getMetricsHttpPort() > 0
+                ? new TimeSeriesStore(properties.getMetricsRetentionSamples(),
+                        SECONDS.toMillis(properties.getMetricsExpirySeconds()))
+                : null);
 
         this.client = new CoordinatorClient()
                 .setAgentBrokerPort(properties.getAgentPort())
                 .setProcessor(new CoordinatorMessageHandler(failureCollector, performanceStatsCollector))
                 .setFailureCollector(failureCollector);
+
+        this.workerRecycler = new WorkerRecycler(registry, client, properties.getWorkerIsolation(),
+                parameters.getWorkerVmStartupDelayMs(), properties.getWaitForWorkerShutdownTimeoutSeconds());
     }
 
     FailureCollector getFailureCollector() {
@@ -91,6 +102,8 @@ public class Coordinator implements Closeable {
 
         log("Coordinator starting...");
 
+        startMetricsHttpServer();
+
         startAgents(registry);
 
         startClient();
@@ -103,6 +116,16 @@ public class Coordinator implements Closeable {
         log("Coordinator started...");
     }
 
+    private void startMetricsHttpServer() throws IOException {
+        TimeSeriesStore timeSeriesStore = performanceStatsCollector.getTimeSeriesStore();
+        if (timeSeriesStore == null) {
+            return;
+        }
+
+        metricsHttpServer = new MetricsHttpServer(
+                timeSeriesStore, properties.getMetricsHttpHost(), properties.getMetricsHttpPort()).start();
+    }
+
     private void registerShutdownHook() {
         if (parameters.skipShutdownHook()) {
             return;
@@ -142,6 +165,10 @@ public class Coordinator implements Closeable {
 
         stopAgents(registry);
 
+        if (metricsHttpServer != null) {
+            metricsHttpServer.close();
+        }
+
         failureCollector.logFailureInfo();
     }
 
@@ -221,7 +248,9 @@ public class Coordinator implements Closeable {
                 workerTags,
                 client,
                 registry,
-                parameters.getWorkerVmStartupDelayMs());
+                parameters.getWorkerVmStartupDelayMs(),
+                properties.getWorkerStartupWaveSize(),
+                properties.getWorkerStartupWaveSize() > 0 || properties.isWorkerStartupAwaitCluster());
     }
 
     RunTestSuiteTask createRunTestSuiteTask(TestSuite testSuite) {
@@ -230,7 +259,8 @@ public class Coordinator implements Closeable {
                 registry,
                 failureCollector,
                 client,
-                performanceStatsCollector);
+                performanceStatsCollector,
+                workerRecycler);
     }
 
 
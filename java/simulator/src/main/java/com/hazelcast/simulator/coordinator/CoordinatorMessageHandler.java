@@ -43,7 +43,9 @@ public class CoordinatorMessageHandler implements MessageHandler {
         if (msg instanceof FailureMessage) {
             failureCollector.notify((FailureMessage) msg);
         } else if (msg instanceof PerformanceStatsMessage) {
-            performanceStatsCollector.update(source, ((PerformanceStatsMessage) msg).getPerformanceStats());
+            PerformanceStatsMessage statsMsg = (PerformanceStatsMessage) msg;
+            performanceStatsCollector.update(source, statsMsg.getPerformanceStats());
+            performanceStatsCollector.updateMemberMetrics(source, statsMsg.getMemberMetrics());
         } else if (msg instanceof LogMessage) {
             LogMessage logMsg = (LogMessage) msg;
             LOGGER.log(logMsg.getLevel(), logMsg.getMessage());
@@ -92,6 +92,21 @@ public final class DeploymentPlan {
         return this;
     }
 
+    /**
+     * Assigns the next free worker address on the given agent to the parameters, including the derived worker name.
+     */
+    static WorkerParameters assignWorkerIdentity(AgentData agent, WorkerParameters parameters) {
+        int workerIndex = agent.getNextWorkerIndex();
+        SimulatorAddress workerAddress = workerAddress(agent.getAddressIndex(), workerIndex);
+
+        String workerName = workerAddress.toString() + '-' + agent.getPublicAddress() + '-' + parameters.getWorkerType();
+        return parameters.set("WORKER_ADDRESS", workerAddress)
+                .set("WORKER_INDEX", workerIndex)
+                .set("PUBLIC_ADDRESS", agent.getPublicAddress())
+                .set("PRIVATE_ADDRESS", agent.getPrivateAddress())
+                .set("WORKER_NAME", workerName);
+    }
+
     private WorkersPerAgent nextAgent(String workerType) {
         WorkersPerAgent smallest = null;
         for (WorkersPerAgent agent : workersPerAgentList) {
@@ -217,15 +232,7 @@ public final class DeploymentPlan {
         }
 
         void registerWorker(WorkerParameters parameters) {
-            int workerIndex = agent.getNextWorkerIndex();
-            SimulatorAddress workerAddress = workerAddress(agent.getAddressIndex(), workerIndex);
-
-            String workerName = workerAddress.toString() + '-' + agent.getPublicAddress() + '-' + parameters.getWorkerType();
-            parameters.set("WORKER_ADDRESS", workerAddress)
-                    .set("WORKER_INDEX", workerIndex)
-                    .set("PUBLIC_ADDRESS", agent.getPublicAddress())
-                    .set("PRIVATE_ADDRESS", agent.getPrivateAddress())
-                    .set("WORKER_NAME", workerName);
+            assignWorkerIdentity(agent, parameters);
             workers.add(parameters);
         }
 
@@ -62,6 +62,10 @@ public class FailureCollector {
         listenerMap.put(listener, false);
     }
 
+    public void removeListener(FailureListener listener) {
+        listenerMap.remove(listener);
+    }
+
     public void notify(FailureMessage failure) {
         failure = enrich(failure);
 
@@ -0,0 +1,445 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.coordinator;
+
+import com.hazelcast.simulator.agent.messages.SignalWorkerMessage;
+import com.hazelcast.simulator.agent.messages.SignalWorkerMessage.Signal;
+import com.hazelcast.simulator.agent.workerprocess.WorkerParameters;
+import com.hazelcast.simulator.common.SimulatorProperties;
+import com.hazelcast.simulator.common.TestCase;
+import com.hazelcast.simulator.coordinator.registry.AgentData;
+import com.hazelcast.simulator.coordinator.registry.Registry;
+import com.hazelcast.simulator.coordinator.registry.WorkerData;
+import com.hazelcast.simulator.coordinator.tasks.StartWorkersTask;
+import com.hazelcast.simulator.protocol.CoordinatorClient;
+import com.hazelcast.simulator.protocol.core.SimulatorAddress;
+import com.hazelcast.simulator.worker.performance.PerformanceStats;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static com.hazelcast.simulator.coordinator.CoordinatorCli.getDurationSeconds;
+import static com.hazelcast.simulator.utils.FileUtils.appendText;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.lang.String.format;
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Injects faults into the Workers at scripted times during the RUN phase of a test, so the effect of e.g. the loss of
+ * a member on the latency and throughput is measured by the test itself.
+ * <p>
+ * The faults are configured with the 'faults' property of the test: a ';' separated list of
+ * {@code <offset> <action> <target> [<duration>]} entries, e.g. {@code 60s kill member; 120s suspend A2_W1 30s}. The
+ * offset is relative to the start of the RUN phase. The target is a worker address, or 'member' for a random member
+ * Worker. The actions are:
+ * <ul>
+ * <li>kill: kills the worker process without a graceful shutdown</li>
+ * <li>suspend: suspends the worker process; if a duration is given, it is resumed after the duration</li>
+ * <li>resume: resumes a suspended worker; 'member' resumes all suspended Workers</li>
+ * <li>restart: kills the worker if it is still running and starts a new worker with the same parameters on the same
+ * Agent</li>
+ * </ul>
+ * The signals are sent by the Agent of the Worker. Every injected fault is logged and written to the faults.csv in the
+ * run directory, so it can be lined up with the latency of the test.
+ * <p>
+ * After a kill, suspend or restart, the throughput of the test is compared with the average throughput before the
+ * fault; once it is back to the FAULT_RECOVERY_THRESHOLD fraction, the recovery time, the lowest throughput and the
+ * highest latency in the meantime are reported.
+ */
+public final class FaultInjector {
+
+    public static final String FAULTS_PROPERTY = "faults";
+
+    private static final Logger LOGGER = LogManager.getLogger(FaultInjector.class);
+    // tests running in parallel write their events to the same file
+    private static final Object EVENTS_FILE_LOCK = new Object();
+
+    private final String testId;
+    private final List<Fault> faults;
+    private final double recoveryThreshold;
+    private final Registry registry;
+    private final CoordinatorClient client;
+    private final int workerStartupDelayMs;
+    private final File eventsFile;
+    private final DecimalFormat epochFormat = new DecimalFormat("#.###", new DecimalFormatSymbols(Locale.ENGLISH));
+    private final Map<SimulatorAddress, WorkerData> suspendedWorkers = new LinkedHashMap<>();
+    private final Map<SimulatorAddress, WorkerData> killedWorkers = new HashMap<>();
+    private ScheduledExecutorService executor;
+
+    // the throughput before the fault; only accessed while holding the lock of the FaultInjector
+    private double baselineThroughputSum;
+    private int baselineSamples;
+    private String pendingFault;
+    private long pendingFaultMillis;
+    private double pendingBaselineThroughput;
+    private double minThroughput;
+    private long maxLatency999PercentileNanos;
+
+    enum Action {
+        KILL,
+        SUSPEND,
+        RESUME,
+        RESTART
+    }
+
+    static final class Fault {
+        final int offsetSeconds;
+        final Action action;
+        final String target;
+        final int durationSeconds;
+
+        Fault(int offsetSeconds, Action action, String target, int durationSeconds) {
+            this.offsetSeconds = offsetSeconds;
+            this.action = action;
+            this.target = target;
+            this.durationSeconds = durationSeconds;
+        }
+
+        @Override
+        public String toString() {
+            return action.name().toLowerCase(Locale.US) + " " + target;
+        }
+    }
+
+    @SuppressWarnings("checkstyle:parameternumber")
+    FaultInjector(String testId, List<Fault> faults, double recoveryThreshold, Registry registry,
+                  CoordinatorClient client, int workerStartupDelayMs, File eventsFile) {
+        this.testId = testId;
+        this.faults = faults;
+        this.recoveryThreshold = recoveryThreshold;
+        this.registry = registry;
+        this.client = client;
+        this.workerStartupDelayMs = workerStartupDelayMs;
+        this.eventsFile = eventsFile;
+    }
+
+    /**
+     * Creates the FaultInjector for a test.
+     *
+     * @param properties           the SimulatorProperties
+     * @param testCase             the test
+     * @param registry             the Registry
+     * @param client               the client to send the signals to the Agents
+     * @param workerStartupDelayMs the startup delay of restarted Workers
+     * @return the created FaultInjector or {@code null} if the test doesn't have any faults
+     */
+    public static FaultInjector create(SimulatorProperties properties, TestCase testCase, Registry registry,
+                                       CoordinatorClient client, int workerStartupDelayMs) {
+        String faults = testCase.getProperties().get(FAULTS_PROPERTY);
+        if (faults == null || faults.trim().isEmpty()) {
+            return null;
+        }
+
+        File eventsFile = new File(properties.get("run_path", "."), "faults.csv");
+        return new FaultInjector(testCase.getId(), parse(faults), properties.getFaultRecoveryThreshold(), registry,
+                client, workerStartupDelayMs, eventsFile);
+    }
+
+    static List<Fault> parse(String faults) {
+        List<Fault> result = new ArrayList<>();
+        for (String entry : faults.split(";")) {
+            entry = entry.trim();
+            if (entry.isEmpty()) {
+                continue;
+            }
+
+            String[] parts = entry.split("\\s+");
+            if (parts.length < 3 || parts.length > 4) {
+                throw new IllegalArgumentException(format(
+                        "Invalid fault [%s], expected '<offset> <action> <target> [<duration>]'", entry));
+            }
+
+            Action action;
+            try {
+                action = Action.valueOf(parts[1].toUpperCase(Locale.US));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException(format("Invalid fault [%s], unknown action [%s]", entry, parts[1]), e);
+            }
+
+            int durationSeconds = 0;
+            if (parts.length == 4) {
+                if (action != Action.SUSPEND) {
+                    throw new IllegalArgumentException(format("Invalid fault [%s], only suspend has a duration", entry));
+                }
+                durationSeconds = getDurationSeconds(parts[3]);
+            }
+            result.add(new Fault(getDurationSeconds(parts[0]), action, parts[2], durationSeconds));
+        }
+        Collections.sort(result, (f1, f2) -> Integer.compare(f1.offsetSeconds, f2.offsetSeconds));
+        return result;
+    }
+
+    /**
+     * Schedules the faults; to be called when the RUN phase has started.
+     */
+    public void start() {
+        executor = newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "FaultInjector-" + testId);
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (Fault fault : faults) {
+            executor.schedule(() -> inject(fault), fault.offsetSeconds, SECONDS);
+        }
+        LOGGER.info(format("%s scheduled %d faults: %s", testId, faults.size(), faults));
+    }
+
+    /**
+     * Cancels the remaining faults and resumes the suspended Workers, so the test can complete; to be called when
+     * the RUN phase has ended.
+     */
+    public void stop() {
+        if (executor == null) {
+            return;
+        }
+
+        executor.shutdownNow();
+        try {
+            // wait for a running fault, e.g. a restart, to complete
+            executor.awaitTermination(1, MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        for (WorkerData worker : new ArrayList<>(suspendedWorkers.values())) {
+            resume(worker);
+        }
+
+        synchronized (this) {
+            if (pendingFault != null) {
+                LOGGER.warn(format("%s throughput did not recover from [%s] before the end of the run (%d seconds)",
+                        testId, pendingFault, MILLISECONDS.toSeconds(System.currentTimeMillis() - pendingFaultMillis)));
+            }
+        }
+    }
+
+    void inject(Fault fault) {
+        try {
+            switch (fault.action) {
+                case KILL:
+                    kill(resolve(fault.target));
+                    break;
+                case SUSPEND:
+                    WorkerData worker = resolve(fault.target);
+                    suspend(worker);
+                    if (fault.durationSeconds > 0) {
+                        executor.schedule(() -> resume(worker), fault.durationSeconds, SECONDS);
+                    }
+                    break;
+                case RESUME:
+                    if ("member".equals(fault.target)) {
+                        for (WorkerData suspended : new ArrayList<>(suspendedWorkers.values())) {
+                            resume(suspended);
+                        }
+                    } else {
+                        resume(resolve(fault.target));
+                    }
+                    break;
+                case RESTART:
+                    restart(fault.target);
+                    break;
+                default:
+                    throw new IllegalStateException("Unhandled action: " + fault.action);
+            }
+        } catch (Exception e) {
+            LOGGER.warn(format("%s failed to inject fault [%s]", testId, fault), e);
+            writeEvent("failed", fault.toString());
+        }
+    }
+
+    private WorkerData resolve(String target) {
+        if ("member".equals(target)) {
+            List<WorkerData> members = new ArrayList<>();
+            for (WorkerData worker : registry.getWorkers()) {
+                if (worker.isMemberWorker() && !suspendedWorkers.containsKey(worker.getAddress())) {
+                    members.add(worker);
+                }
+            }
+            if (members.isEmpty()) {
+                throw new IllegalStateException("There are no running member Workers");
+            }
+            return members.get(ThreadLocalRandom.current().nextInt(members.size()));
+        }
+
+        SimulatorAddress address = SimulatorAddress.fromString(target);
+        WorkerData worker = registry.findWorker(address);
+        if (worker == null) {
+            worker = suspendedWorkers.get(address);
+        }
+        if (worker == null) {
+            throw new IllegalStateException("Unknown Worker " + target);
+        }
+        return worker;
+    }
+
+    private void kill(WorkerData worker) throws Exception {
+        // the Worker is going to die; its failures are expected
+        worker.setIgnoreFailures(true);
+        signal(worker, Signal.KILL);
+        suspendedWorkers.remove(worker.getAddress());
+        killedWorkers.put(worker.getAddress(), worker);
+        registry.removeWorker(worker.getAddress());
+        onFault("kill", worker);
+    }
+
+    private void suspend(WorkerData worker) throws Exception {
+        // a suspended Worker doesn't respond; its failures are expected
+        worker.setIgnoreFailures(true);
+        signal(worker, Signal.STOP);
+        suspendedWorkers.put(worker.getAddress(), worker);
+        onFault("suspend", worker);
+    }
+
+    private void resume(WorkerData worker) {
+        if (!suspendedWorkers.containsKey(worker.getAddress())) {
+            return;
+        }
+
+        try {
+            signal(worker, Signal.CONT);
+            suspendedWorkers.remove(worker.getAddress());
+            // the Worker responds again, so its failures count again
+            worker.setIgnoreFailures(false);
+            writeEvent("resume", worker.getAddress().toString());
+        } catch (Exception e) {
+            LOGGER.warn(format("%s failed to resume Worker %s", testId, worker.getAddress()), e);
+        }
+    }
+
+    private void restart(String target) throws Exception {
+        WorkerData worker = target.equals("member") ? null : killedWorkers.get(SimulatorAddress.fromString(target));
+        if (worker == null) {
+            worker = resolve(target);
+            kill(worker);
+        }
+
+        SimulatorAddress agentAddress = worker.getAddress().getParent();
+        AgentData agent = registry.getAgent(agentAddress);
+        WorkerParameters parameters = new WorkerParameters(worker.getParameters().asMap());
+        DeploymentPlan.assignWorkerIdentity(agent, parameters);
+        Map<SimulatorAddress, List<WorkerParameters>> deploymentPlan = new HashMap<>();
+        deploymentPlan.put(agentAddress, Collections.singletonList(parameters));
+
+        List<WorkerData> started = new StartWorkersTask(
+                deploymentPlan, worker.getTags(), client, registry, workerStartupDelayMs).run();
+        for (WorkerData replacement : started) {
+            writeEvent("restart", replacement.getAddress().toString());
+        }
+    }
+
+    private void signal(WorkerData worker, Signal signal) throws Exception {
+        SimulatorAddress agentAddress = worker.getAddress().getParent();
+        String response = client.submit(agentAddress, new SignalWorkerMessage(worker.getAddress().toString(), signal))
+                .get(1, MINUTES);
+        if (!"ok".equals(response)) {
+            throw new IllegalStateException(format("Failed to send SIG%s to Worker %s: %s",
+                    signal, worker.getAddress(), response));
+        }
+    }
+
+    private void onFault(String event, WorkerData worker) {
+        writeEvent(event, worker.getAddress().toString());
+        synchronized (this) {
+            if (pendingFault != null) {
+                // the recovery is measured from the first fault the test hasn't recovered from
+                return;
+            }
+
+            pendingFault = event + " " + worker.getAddress();
+            pendingFaultMillis = System.currentTimeMillis();
+            pendingBaselineThroughput = baselineSamples == 0 ? 0 : baselineThroughputSum / baselineSamples;
+            minThroughput = Double.MAX_VALUE;
+            maxLatency999PercentileNanos = 0;
+        }
+    }
+
+    /**
+     * Adds the performance of the test in the last interval.
+     *
+     * @param stats the performance of the test in the last interval
+     * @return a description of the recovery if the throughput just recovered from a fault, {@code null} otherwise
+     */
+    public synchronized String sample(PerformanceStats stats) {
+        if (stats.isEmpty()) {
+            return null;
+        }
+
+        double throughput = stats.getIntervalThroughput();
+        if (pendingFault == null) {
+            baselineThroughputSum += throughput;
+            baselineSamples++;
+            return null;
+        }
+
+        minThroughput = min(minThroughput, throughput);
+        maxLatency999PercentileNanos = max(maxLatency999PercentileNanos, stats.getIntervalLatency999PercentileNanos());
+        if (throughput < recoveryThreshold * pendingBaselineThroughput) {
+            return null;
+        }
+
+        long recoverySeconds = MILLISECONDS.toSeconds(System.currentTimeMillis() - pendingFaultMillis);
+        String recovery = format(Locale.US, "%s recovered from [%s] in %d seconds: throughput %.1f ops/s"
+                        + " (before the fault %.1f ops/s, lowest %.1f ops/s), highest %s%% latency %d µs",
+                testId, pendingFault, recoverySeconds, throughput, pendingBaselineThroughput, minThroughput,
+                PerformanceStats.INTERVAL_LATENCY_PERCENTILE, NANOSECONDS.toMicros(maxLatency999PercentileNanos));
+        writeEvent("recovered", "");
+
+        // the baseline for the next fault starts at the recovered throughput
+        pendingFault = null;
+        baselineThroughputSum = throughput;
+        baselineSamples = 1;
+        return recovery;
+    }
+
+    private void writeEvent(String event, String target) {
+        long timeMillis = System.currentTimeMillis();
+        LOGGER.info(format("%s fault event: %s %s", testId, event, target));
+
+        StringBuilder sb = new StringBuilder();
+        synchronized (EVENTS_FILE_LOCK) {
+            if (!eventsFile.exists()) {
+                sb.append("epoch,timestamp,test,event,target\n");
+            }
+            // ms are expressed in epoch time after the decimal point
+            sb.append(epochFormat.format(timeMillis * 1d / SECONDS.toMillis(1)));
+            sb.append(',').append(new SimpleDateFormat("dd/MM/yyyy HH:mm:ss").format(new Date(timeMillis)));
+            sb.append(',').append(testId);
+            sb.append(',').append(event);
+            sb.append(',').append(target);
+            sb.append('\n');
+            appendText(sb.toString(), eventsFile);
+        }
+    }
+}
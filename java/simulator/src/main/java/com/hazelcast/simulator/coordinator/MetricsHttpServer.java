@@ -0,0 +1,248 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.coordinator;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.hazelcast.simulator.coordinator.TimeSeriesStore.MemberMetrics;
+import com.hazelcast.simulator.coordinator.TimeSeriesStore.Sample;
+import com.hazelcast.simulator.coordinator.TimeSeriesStore.Series;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * A small HTTP server on the Coordinator which exposes the {@link TimeSeriesStore} while the run is in progress.
+ * <p>
+ * The following endpoints are available:
+ * <ul>
+ * <li>{@code /metrics}: the latest sample of every series in the Prometheus text format, including the latest
+ * metrics sampled from the driver instances as {@code simulator_member_metric}.</li>
+ * <li>{@code /series}: all samples in JSON. The optional query parameters 'test' and 'worker' select the series
+ * and 'since' (epoch millis) only returns the newer samples, so a dashboard can poll incrementally.</li>
+ * </ul>
+ */
+public class MetricsHttpServer implements Closeable {
+
+    private static final Logger LOGGER = LogManager.getLogger(MetricsHttpServer.class);
+
+    private static final int HTTP_OK = 200;
+    private static final int HTTP_BAD_REQUEST = 400;
+    private static final int HTTP_BAD_METHOD = 405;
+    private static final double NANOS_PER_SECOND = SECONDS.toNanos(1);
+
+    private final TimeSeriesStore store;
+    private final HttpServer server;
+
+    public MetricsHttpServer(TimeSeriesStore store, String host, int port) throws IOException {
+        this.store = store;
+        this.server = HttpServer.create(new InetSocketAddress(host, port), 0);
+        server.createContext("/metrics", exchange -> handle(exchange, "text/plain; version=0.0.4", this::prometheus));
+        server.createContext("/series", exchange -> handle(exchange, "application/json", this::json));
+    }
+
+    public MetricsHttpServer start() {
+        server.start();
+        LOGGER.info(format("Metrics available on http://%s:%d/metrics and http://%s:%d/series",
+                getHost(), getPort(), getHost(), getPort()));
+        return this;
+    }
+
+    public String getHost() {
+        return server.getAddress().getHostString();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange, String contentType, Renderer renderer) throws IOException {
+        try {
+            int status;
+            String body;
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                status = HTTP_BAD_METHOD;
+                body = "Only GET is supported\n";
+            } else {
+                try {
+                    body = renderer.render(parseQuery(exchange.getRequestURI().getRawQuery()));
+                    status = HTTP_OK;
+                    exchange.getResponseHeaders().set("Content-Type", contentType);
+                } catch (IllegalArgumentException e) {
+                    status = HTTP_BAD_REQUEST;
+                    body = e.getMessage() + "\n";
+                }
+            }
+
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(status, bytes.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(bytes);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    String prometheus(Map<String, String> query) {
+        List<Series> seriesList = store.getSeries();
+        StringBuilder sb = new StringBuilder();
+        appendMetric(sb, seriesList, "simulator_operations_total", "counter",
+                "The number of operations executed by the test on the worker.", s -> s.operationCount);
+        appendMetric(sb, seriesList, "simulator_throughput_ops_per_second", "gauge",
+                "The throughput of the test on the worker in the last interval.", s -> s.throughput);
+        appendMetric(sb, seriesList, "simulator_latency_avg_seconds", "gauge",
+                "The average latency in the last interval.", s -> s.latencyAvgNanos / NANOS_PER_SECOND);
+        appendMetric(sb, seriesList, "simulator_latency_p999_seconds", "gauge",
+                "The 99.9th percentile latency in the last interval.", s -> s.latency999PercentileNanos / NANOS_PER_SECOND);
+        appendMetric(sb, seriesList, "simulator_latency_max_seconds", "gauge",
+                "The maximum latency in the last interval.", s -> s.latencyMaxNanos / NANOS_PER_SECOND);
+        appendMetric(sb, seriesList, "simulator_late_operations", "gauge",
+                "The number of operations issued late by the load generator in the last interval.",
+                s -> s.lateOperationCount);
+        appendMetric(sb, seriesList, "simulator_schedule_lag_p999_seconds", "gauge",
+                "The 99.9th percentile of how far operations were issued behind schedule in the last interval.",
+                s -> s.scheduleLag999PercentileNanos / NANOS_PER_SECOND);
+        appendMetric(sb, seriesList, "simulator_schedule_lag_max_seconds", "gauge",
+                "The maximum of how far operations were issued behind schedule in the last interval.",
+                s -> s.scheduleLagMaxNanos / NANOS_PER_SECOND);
+        appendMemberMetrics(sb, store.getMemberMetrics());
+        return sb.toString();
+    }
+
+    private static void appendMemberMetrics(StringBuilder sb, List<MemberMetrics> memberMetricsList) {
+        if (memberMetricsList.isEmpty()) {
+            return;
+        }
+
+        String name = "simulator_member_metric";
+        sb.append("# HELP ").append(name).append(" The latest metrics sampled from the driver instance on the worker.\n");
+        sb.append("# TYPE ").append(name).append(" gauge\n");
+        for (MemberMetrics memberMetrics : memberMetricsList) {
+            for (Map.Entry<String, Double> entry : memberMetrics.metrics.entrySet()) {
+                sb.append(name)
+                        .append("{worker=\"").append(escapeLabel(memberMetrics.worker))
+                        .append("\",metric=\"").append(escapeLabel(entry.getKey()))
+                        .append("\"} ").append(entry.getValue()).append('\n');
+            }
+        }
+    }
+
+    private static void appendMetric(StringBuilder sb, List<Series> seriesList, String name, String type, String help,
+                                     SampleValue value) {
+        sb.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        sb.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+        for (Series series : seriesList) {
+            Sample sample = series.latest();
+            if (sample == null) {
+                continue;
+            }
+            sb.append(name)
+                    .append("{test=\"").append(escapeLabel(series.getTestId()))
+                    .append("\",worker=\"").append(escapeLabel(series.getWorker()))
+                    .append("\"} ").append(value.get(sample)).append('\n');
+        }
+    }
+
+    static String escapeLabel(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    String json(Map<String, String> query) {
+        long since = parseSince(query.get("since"));
+
+        JsonArray result = new JsonArray();
+        for (Series series : store.getSeries(query.get("test"), query.get("worker"))) {
+            JsonArray samples = new JsonArray();
+            for (Sample sample : series.samplesSince(since)) {
+                JsonObject s = new JsonObject();
+                s.addProperty("timestamp", sample.timestampMillis);
+                s.addProperty("operationCount", sample.operationCount);
+                s.addProperty("throughput", sample.throughput);
+                s.addProperty("latencyAvgNanos", sample.latencyAvgNanos);
+                s.addProperty("latency999PercentileNanos", sample.latency999PercentileNanos);
+                s.addProperty("latencyMaxNanos", sample.latencyMaxNanos);
+                s.addProperty("lateOperationCount", sample.lateOperationCount);
+                s.addProperty("scheduleLag999PercentileNanos", sample.scheduleLag999PercentileNanos);
+                s.addProperty("scheduleLagMaxNanos", sample.scheduleLagMaxNanos);
+                samples.add(s);
+            }
+
+            JsonObject o = new JsonObject();
+            o.addProperty("test", series.getTestId());
+            o.addProperty("worker", series.getWorker());
+            o.add("samples", samples);
+            result.add(o);
+        }
+        return result.toString();
+    }
+
+    private static long parseSince(String since) {
+        if (since == null) {
+            return Long.MIN_VALUE;
+        }
+        try {
+            return Long.parseLong(since);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid value for 'since': " + since);
+        }
+    }
+
+    static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> result = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return result;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int index = pair.indexOf('=');
+            if (index > 0) {
+                result.put(decode(pair.substring(0, index)), decode(pair.substring(index + 1)));
+            }
+        }
+        return result;
+    }
+
+    private static String decode(String s) {
+        return URLDecoder.decode(s, StandardCharsets.UTF_8);
+    }
+
+    private interface Renderer {
+        String render(Map<String, String> query);
+    }
+
+    private interface SampleValue {
+        Object get(Sample sample);
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.coordinator;
+
+import com.hazelcast.simulator.utils.CommandLineExitException;
+import org.HdrHistogram.EncodableHistogram;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogReader;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.hazelcast.simulator.worker.performance.PerformanceStats.INTERVAL_LATENCY_PERCENTILE;
+import static java.lang.String.format;
+
+/**
+ * The performance of a single test in a previous run, as interval series which can be compared to the
+ * interval performance of the current run.
+ * <p>
+ * The baseline is read from the worker directories of the run directory of the previous run: the throughput of
+ * an interval is the sum of the throughput in the {@code <testId>.operations.csv} files of all workers and the
+ * latency of an interval is the highest 99.9th percentile of the {@code <testId>.<probe>.hdr} interval histograms
+ * of all workers and probes. This is the same aggregation the
+ * Coordinator applies to the live {@link com.hazelcast.simulator.worker.performance.PerformanceStats}, so both
+ * series are comparable.
+ */
+public final class PerformanceBaseline {
+
+    private final double[] throughputs;
+    private final long[] latencies;
+
+    PerformanceBaseline(double[] throughputs, long[] latencies) {
+        this.throughputs = throughputs;
+        this.latencies = latencies;
+    }
+
+    /**
+     * Returns the aggregated throughput per interval.
+     */
+    public double[] getThroughputs() {
+        return throughputs;
+    }
+
+    /**
+     * Returns the aggregated latency percentile in nanoseconds per interval; empty if the test has no latency probes.
+     */
+    public long[] getLatencies() {
+        return latencies;
+    }
+
+    public boolean isEmpty() {
+        return throughputs.length == 0;
+    }
+
+    /**
+     * Loads the baseline of a test from a run directory.
+     *
+     * @param runDir the run directory of the previous run
+     * @param testId the id of the test
+     * @return the loaded baseline, which is empty if the test didn't run in the previous run
+     * @throws CommandLineExitException if the run directory doesn't exist or can't be read
+     */
+    public static PerformanceBaseline load(File runDir, String testId) {
+        File[] workerDirs = runDir.listFiles(File::isDirectory);
+        if (workerDirs == null) {
+            throw new CommandLineExitException(format("Baseline directory [%s] does not exist", runDir.getAbsolutePath()));
+        }
+
+        List<Double> throughputs = new ArrayList<>();
+        List<Long> latencies = new ArrayList<>();
+        for (File workerDir : workerDirs) {
+            File operationsFile = new File(workerDir, testId + ".operations.csv");
+            if (operationsFile.exists()) {
+                sum(throughputs, readThroughputs(operationsFile));
+            }
+
+            File[] latencyFiles = workerDir.listFiles(
+                    file -> file.getName().startsWith(testId + '.') && file.getName().endsWith(".hdr"));
+            if (latencyFiles != null) {
+                for (File latencyFile : latencyFiles) {
+                    max(latencies, readLatencies(latencyFile));
+                }
+            }
+        }
+
+        double[] throughputArray = new double[throughputs.size()];
+        for (int k = 0; k < throughputArray.length; k++) {
+            throughputArray[k] = throughputs.get(k);
+        }
+        long[] latencyArray = new long[latencies.size()];
+        for (int k = 0; k < latencyArray.length; k++) {
+            latencyArray[k] = latencies.get(k);
+        }
+        return new PerformanceBaseline(throughputArray, latencyArray);
+    }
+
+    private static List<Double> readThroughputs(File file) {
+        List<Double> result = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath())) {
+            // the first line is the header
+            String line = reader.readLine();
+            while ((line = reader.readLine()) != null) {
+                if (!line.isEmpty()) {
+                    // operations/second is the last column
+                    result.add(Double.parseDouble(line.substring(line.lastIndexOf(',') + 1)));
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            throw new CommandLineExitException(format("Failed to read baseline file [%s]", file.getAbsolutePath()), e);
+        }
+        return result;
+    }
+
+    private static List<Long> readLatencies(File file) {
+        List<Long> result = new ArrayList<>();
+        try {
+            HistogramLogReader reader = new HistogramLogReader(file);
+            try {
+                EncodableHistogram histogram;
+                while ((histogram = reader.nextIntervalHistogram()) != null) {
+                    if (histogram instanceof Histogram) {
+                        result.add(((Histogram) histogram).getValueAtPercentile(INTERVAL_LATENCY_PERCENTILE));
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        } catch (IOException | RuntimeException e) {
+            throw new CommandLineExitException(format("Failed to read baseline file [%s]", file.getAbsolutePath()), e);
+        }
+        return result;
+    }
+
+    private static void sum(List<Double> target, List<Double> values) {
+        for (int k = 0; k < values.size(); k++) {
+            if (k < target.size()) {
+                target.set(k, target.get(k) + values.get(k));
+            } else {
+                target.add(values.get(k));
+            }
+        }
+    }
+
+    private static void max(List<Long> target, List<Long> values) {
+        for (int k = 0; k < values.size(); k++) {
+            if (k < target.size()) {
+                target.set(k, Math.max(target.get(k), values.get(k)));
+            } else {
+                target.add(values.get(k));
+            }
+        }
+    }
+}
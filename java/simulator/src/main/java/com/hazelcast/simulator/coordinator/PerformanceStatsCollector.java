@@ -53,6 +53,22 @@ public class PerformanceStatsCollector {
     // holds a map per Worker SimulatorAddress which contains the lastDelta PerformanceStats per testCaseId
     private final ConcurrentMap<SimulatorAddress, WorkerPerformance> workerPerformanceInfoMap
             = new ConcurrentHashMap<>();
+    private final TimeSeriesStore timeSeriesStore;
+
+    public PerformanceStatsCollector() {
+        this(null);
+    }
+
+    /**
+     * @param timeSeriesStore the store to record every update in, or {@code null} if no history should be kept
+     */
+    public PerformanceStatsCollector(TimeSeriesStore timeSeriesStore) {
+        this.timeSeriesStore = timeSeriesStore;
+    }
+
+    public TimeSeriesStore getTimeSeriesStore() {
+        return timeSeriesStore;
+    }
 
     public void update(SimulatorAddress workerAddress, Map<String, PerformanceStats> performanceStatsMap) {
         WorkerPerformance workerPerformance = workerPerformanceInfoMap.get(workerAddress);
@@ -63,6 +79,23 @@ public class PerformanceStatsCollector {
         }
 
         workerPerformance.updateAll(performanceStatsMap);
+
+        if (timeSeriesStore != null) {
+            long timestampMillis = System.currentTimeMillis();
+            for (Map.Entry<String, PerformanceStats> entry : performanceStatsMap.entrySet()) {
+                timeSeriesStore.record(workerAddress, entry.getKey(), timestampMillis, entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Records the metrics sampled from the driver instance of a worker, see
+     * {@link com.hazelcast.simulator.drivers.Driver#sampleMetrics()}.
+     */
+    public void updateMemberMetrics(SimulatorAddress workerAddress, Map<String, Double> metrics) {
+        if (timeSeriesStore != null) {
+            timeSeriesStore.recordMemberMetrics(workerAddress, System.currentTimeMillis(), metrics);
+        }
     }
 
     public String formatIntervalPerformanceNumbers(String testId) {
@@ -75,7 +108,7 @@ public class PerformanceStatsCollector {
         double latency999PercentileNs = latest.getIntervalLatency999PercentileNanos();
         double latencyMaxNs = latest.getIntervalLatencyMaxNanos();
 
-        return format("%s ops %s ops/s %s %s (avg) %s %s (%sth) %s %s (max)",
+        String performance = format("%s ops %s ops/s %s %s (avg) %s %s (%sth) %s %s (max)",
                 formatLong(latest.getOperationCount(), OPERATION_COUNT_FORMAT_LENGTH),
                 formatDouble(latest.getIntervalThroughput(), THROUGHPUT_FORMAT_LENGTH),
                 formatLong(toPrettyValue(latencyAvgNs), LATENCY_FORMAT_LENGTH),
@@ -85,6 +118,17 @@ public class PerformanceStatsCollector {
                 INTERVAL_LATENCY_PERCENTILE,
                 formatLong(toPrettyValue(latencyMaxNs), LATENCY_FORMAT_LENGTH),
                 toPrettyUnit(latencyMaxNs));
+
+        if (latest.getIntervalLateOperationCount() <= 0) {
+            return performance;
+        }
+
+        double scheduleLag999PercentileNs = latest.getIntervalScheduleLag999PercentileNanos();
+        return performance + format(" %s%% late %s %s (lag %sth)",
+                formatPercentage(latest.getIntervalLateOperationCount(), latest.getIntervalScheduledOperationCount()),
+                formatLong(toPrettyValue(scheduleLag999PercentileNs), LATENCY_FORMAT_LENGTH),
+                toPrettyUnit(scheduleLag999PercentileNs),
+                INTERVAL_LATENCY_PERCENTILE);
     }
 
     /**
@@ -125,6 +169,11 @@ public class PerformanceStatsCollector {
         return result;
     }
 
+    PerformanceStats get(SimulatorAddress workerAddress, String testCaseId, boolean aggregated) {
+        WorkerPerformance workerPerformance = workerPerformanceInfoMap.get(workerAddress);
+        return workerPerformance == null ? new PerformanceStats() : workerPerformance.get(testCaseId, aggregated);
+    }
+
     public String detailedPerformanceInfo(String testId, long runningTimeMs) {
         PerformanceStats totalPerformanceStats = new PerformanceStats();
         Map<SimulatorAddress, PerformanceStats> agentPerformanceStatsMap = new HashMap<>();
@@ -0,0 +1,273 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.coordinator;
+
+import com.hazelcast.simulator.common.SimulatorProperties;
+import com.hazelcast.simulator.common.TestCase;
+import com.hazelcast.simulator.coordinator.registry.WorkerData;
+import com.hazelcast.simulator.protocol.core.SimulatorAddress;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import static com.hazelcast.simulator.worker.metronome.GlobalRateMetronome.GLOBAL_RATE_PROPERTY;
+import static com.hazelcast.simulator.worker.metronome.GlobalRateMetronome.RATE_PHASE_PROPERTY;
+import static com.hazelcast.simulator.worker.metronome.GlobalRateMetronome.RATE_SHARE_PROPERTY;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.lang.String.format;
+
+/**
+ * Divides the global rate of a test with a globalRatePerSecond over the workers running the test and rebalances the
+ * shares while the test is running.
+ * <p>
+ * Initially every worker gets an equal share and a phase of index/workerCount, so the schedules of the workers
+ * interleave. If a worker doesn't reach its share of the expected throughput (within the tolerance), its share is
+ * lowered to what it achieved and the difference is divided over the workers that did keep up, in proportion to their
+ * shares. This keeps the load on the cluster at the global rate, e.g. when a single client machine is overloaded. If
+ * none of the workers keeps up, the shares are left alone: the cluster is saturated and moving load around won't help.
+ * <p>
+ * A worker with a lowered share which keeps up again is given back half of the difference with the equal share on
+ * every rebalance, so a temporary hiccup doesn't reduce its share for the rest of the test. If it falls behind again,
+ * its share is lowered again.
+ * <p>
+ * A worker which is removed from the test, e.g. by a rolling restart or a fault, is dropped with
+ * {@link #removeWorker(SimulatorAddress)} and its share is divided over the other workers. If a worker doesn't report
+ * its throughput for a few intervals for another reason, the rebalancing is disabled and a warning is logged.
+ * <p>
+ * The expected throughput is the sum of the global rates of all execution groups of the test; so rebalancing is only
+ * meaningful if all execution groups have a globalRatePerSecond.
+ * <p>
+ * This class is not thread-safe; it is used by the thread of the TestCaseRunner.
+ */
+public final class RateBalancer {
+
+    // a share is lowered to at least this factor of the share per rebalance, so it never drops to 0
+    private static final double MIN_SHARE_FACTOR = 0.1;
+    // the fraction of the difference with the equal share a lowered share is raised per rebalance when it keeps up
+    private static final double RECOVERY_FACTOR = 0.5;
+    private static final int MAX_MISSING_INTERVALS = 3;
+    private static final Logger LOGGER = LogManager.getLogger(RateBalancer.class);
+
+    private final String testId;
+    private final List<SimulatorAddress> workers;
+    private final double globalRatePerSecond;
+    private final double tolerance;
+    private final Map<SimulatorAddress, Double> shares = new LinkedHashMap<>();
+    private boolean warmedUp;
+    private boolean disabled;
+    private int missingIntervals;
+
+    RateBalancer(String testId, List<SimulatorAddress> workers, double globalRatePerSecond, double tolerance) {
+        this.testId = testId;
+        this.workers = new ArrayList<>(workers);
+        this.globalRatePerSecond = globalRatePerSecond;
+        this.tolerance = tolerance;
+        for (SimulatorAddress worker : workers) {
+            shares.put(worker, 1d / workers.size());
+        }
+        if (tolerance <= 0) {
+            disabled = true;
+            LOGGER.info(format("Rebalancing the global rate of %s is disabled: RATE_REBALANCE_TOLERANCE is 0", testId));
+        }
+    }
+
+    /**
+     * Creates the RateBalancer for a test.
+     *
+     * @param properties the SimulatorProperties
+     * @param testCase   the test
+     * @param targets    the workers running the test
+     * @return the created RateBalancer or {@code null} if the test doesn't have a globalRatePerSecond
+     */
+    public static RateBalancer create(SimulatorProperties properties, TestCase testCase, List<WorkerData> targets) {
+        double globalRatePerSecond = getGlobalRatePerSecond(testCase);
+        if (globalRatePerSecond <= 0) {
+            return null;
+        }
+
+        List<SimulatorAddress> workers = new ArrayList<>(targets.size());
+        for (WorkerData worker : targets) {
+            workers.add(worker.getAddress());
+        }
+
+        LOGGER.info(format("Dividing the global rate of %s over %d workers", testCase.getId(), workers.size()));
+        return new RateBalancer(testCase.getId(), workers, globalRatePerSecond, properties.getRateRebalanceTolerance());
+    }
+
+    /**
+     * Returns the sum of the globalRatePerSecond properties of all execution groups of the test, or 0 if there are none.
+     */
+    static double getGlobalRatePerSecond(TestCase testCase) {
+        double result = 0;
+        for (Map.Entry<String, String> entry : testCase.getProperties().entrySet()) {
+            String key = entry.getKey();
+            if (key.equals(GLOBAL_RATE_PROPERTY) || key.endsWith("." + GLOBAL_RATE_PROPERTY)) {
+                try {
+                    result += max(0, Double.parseDouble(entry.getValue()));
+                } catch (NumberFormatException e) {
+                    // the worker will report the invalid value
+                    return 0;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns a copy of the TestCase for the worker with the given index, containing its share and phase.
+     */
+    TestCase newTestCase(TestCase testCase, int workerIndex) {
+        TestCase copy = new TestCase(testCase.getId(), testCase.getProperties());
+        copy.setProperty(RATE_SHARE_PROPERTY, Double.toString(shares.get(workers.get(workerIndex))));
+        copy.setProperty(RATE_PHASE_PROPERTY, Double.toString((double) workerIndex / workers.size()));
+        return copy;
+    }
+
+    double getShare(SimulatorAddress worker) {
+        return shares.get(worker);
+    }
+
+    boolean contains(SimulatorAddress worker) {
+        return shares.containsKey(worker);
+    }
+
+    /**
+     * Removes a worker which no longer runs the test and divides its share over the other workers, in proportion to
+     * their shares.
+     *
+     * @param worker the removed worker
+     * @return the workers with a changed share, mapped to their new share
+     */
+    Map<SimulatorAddress, Double> removeWorker(SimulatorAddress worker) {
+        Map<SimulatorAddress, Double> changed = new LinkedHashMap<>();
+        Double removedShare = shares.remove(worker);
+        workers.remove(worker);
+        if (removedShare == null || workers.isEmpty()) {
+            return changed;
+        }
+
+        double remainingShares = 1 - removedShare;
+        for (SimulatorAddress remaining : workers) {
+            double share = shares.get(remaining);
+            changed.put(remaining, remainingShares > 0 ? share / remainingShares : 1d / workers.size());
+        }
+        shares.putAll(changed);
+        LOGGER.info(format(Locale.US, "Removed %s from the global rate of %s: %s", worker, testId, formatShares()));
+
+        return changed;
+    }
+
+    /**
+     * Rebalances the shares based on the throughput of the workers in the last performance monitor interval.
+     * <p>
+     * The first call is ignored, since it will contain the ramp up of the test.
+     *
+     * @param throughputs the interval throughput per worker in operations per second
+     * @return the workers with a changed share, mapped to their new share
+     */
+    Map<SimulatorAddress, Double> rebalance(Map<SimulatorAddress, Double> throughputs) {
+        if (!warmedUp || disabled || !isComplete(throughputs)) {
+            warmedUp = true;
+            return new LinkedHashMap<>();
+        }
+
+        // the new shares of the workers that fell behind or are recovering; the other workers absorb the difference
+        Map<SimulatorAddress, Double> changed = new LinkedHashMap<>();
+        boolean fellBehind = false;
+        double absorbingShares = 0;
+        double equalShare = 1d / workers.size();
+        for (SimulatorAddress worker : workers) {
+            double share = shares.get(worker);
+            double achievedShare = throughputs.get(worker) / globalRatePerSecond;
+            if (achievedShare < share * (1 - tolerance)) {
+                changed.put(worker, max(achievedShare, share * MIN_SHARE_FACTOR));
+                fellBehind = true;
+            } else if (share < equalShare) {
+                changed.put(worker, min(equalShare, share + (equalShare - share) * RECOVERY_FACTOR));
+            } else {
+                absorbingShares += share;
+            }
+        }
+
+        if (changed.isEmpty() || !absorb(changed, absorbingShares)) {
+            // either all workers keep up, or none of the workers can take over load
+            return new LinkedHashMap<>();
+        }
+
+        shares.putAll(changed);
+        LOGGER.info(format(Locale.US, "%s the global rate of %s: %s", fellBehind ? "Rebalanced" : "Recovered", testId,
+                formatShares()));
+        return changed;
+    }
+
+    /**
+     * Checks if all workers reported their throughput. A worker which is removed from the test is dropped by the
+     * TestCaseRunner, so a worker which keeps missing indicates a problem and the rebalancing is disabled.
+     */
+    private boolean isComplete(Map<SimulatorAddress, Double> throughputs) {
+        if (throughputs.keySet().containsAll(workers)) {
+            missingIntervals = 0;
+            return true;
+        }
+
+        if (++missingIntervals >= MAX_MISSING_INTERVALS) {
+            disabled = true;
+            LOGGER.warn(format("Rebalancing the global rate of %s is disabled: not all workers reported their throughput"
+                    + " for %d intervals", testId, missingIntervals));
+        }
+        return false;
+    }
+
+    /**
+     * Divides the shares which are not taken by the changed workers over the other workers, in proportion to their
+     * current shares, and adds their new shares to the changed workers.
+     *
+     * @return {@code true} if the shares could be divided, {@code false} if there are no workers to absorb them
+     */
+    private boolean absorb(Map<SimulatorAddress, Double> changed, double absorbingShares) {
+        double remainingShares = 1;
+        for (double share : changed.values()) {
+            remainingShares -= share;
+        }
+        if (absorbingShares == 0 || remainingShares <= 0) {
+            return false;
+        }
+
+        for (SimulatorAddress worker : workers) {
+            if (!changed.containsKey(worker)) {
+                changed.put(worker, shares.get(worker) * remainingShares / absorbingShares);
+            }
+        }
+        return true;
+    }
+
+    private String formatShares() {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<SimulatorAddress, Double> entry : shares.entrySet()) {
+            if (sb.length() > 0) {
+                sb.append(", ");
+            }
+            sb.append(format(Locale.US, "%s=%.1f%%", entry.getKey(), entry.getValue() * 100));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,259 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.coordinator;
+
+import com.hazelcast.simulator.common.SimulatorProperties;
+import com.hazelcast.simulator.worker.performance.PerformanceStats;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Locale;
+
+import static java.lang.Math.abs;
+import static java.lang.Math.exp;
+import static java.lang.Math.max;
+import static java.lang.Math.sqrt;
+import static java.lang.String.format;
+
+/**
+ * Compares the live performance of a test with a {@link PerformanceBaseline} while the test is running, so a
+ * regression aborts the run after minutes instead of being found when the run has completed.
+ * <p>
+ * After a warmup, every sample of the current run is added to a sliding window. Once the window is full, the window
+ * is compared with all baseline samples after the same warmup using a one-sided Mann-Whitney U test, for the
+ * throughput and for the 99.9th percentile latency. A regression is reported if the difference is statistically
+ * significant and the median has moved beyond the threshold; the threshold prevents tiny but significant
+ * differences from failing the run and the test prevents a few noisy samples from doing the same.
+ */
+public final class RegressionGate {
+
+    private static final Logger LOGGER = LogManager.getLogger(RegressionGate.class);
+
+    private final String testId;
+    private final double[] baselineThroughputs;
+    private final double[] baselineLatencies;
+    private final int warmupSamples;
+    private final double throughputThreshold;
+    private final double latencyThreshold;
+    private final double significance;
+    private final double[] throughputWindow;
+    private final double[] latencyWindow;
+    private long samples;
+    private boolean regressed;
+
+    @SuppressWarnings("checkstyle:parameternumber")
+    RegressionGate(String testId,
+                   PerformanceBaseline baseline,
+                   int warmupSamples,
+                   int windowSamples,
+                   double throughputThreshold,
+                   double latencyThreshold,
+                   double significance) {
+        if (windowSamples < 1) {
+            throw new IllegalArgumentException("windowSamples should be at least 1, but was " + windowSamples);
+        }
+        this.testId = testId;
+        this.baselineThroughputs = skip(baseline.getThroughputs(), warmupSamples);
+        long[] latencies = baseline.getLatencies();
+        this.baselineLatencies = skip(Arrays.stream(latencies).asDoubleStream().toArray(), warmupSamples);
+        this.warmupSamples = warmupSamples;
+        this.throughputThreshold = throughputThreshold;
+        this.latencyThreshold = latencyThreshold;
+        this.significance = significance;
+        this.throughputWindow = new double[windowSamples];
+        this.latencyWindow = new double[windowSamples];
+    }
+
+    /**
+     * Creates the RegressionGate for a test, configured by the REGRESSION_* properties.
+     *
+     * @param properties             the SimulatorProperties
+     * @param testId                 the id of the test
+     * @param monitorIntervalSeconds the interval in which the test reports its performance
+     * @return the created RegressionGate or {@code null} if no baseline is configured or the baseline doesn't
+     * contain enough samples of the test
+     */
+    public static RegressionGate create(SimulatorProperties properties, String testId, int monitorIntervalSeconds) {
+        String baselineDir = properties.getRegressionBaselineDir();
+        if (baselineDir.isEmpty() || monitorIntervalSeconds <= 0) {
+            return null;
+        }
+
+        int warmupSamples = properties.getRegressionWarmupSeconds() / monitorIntervalSeconds;
+        int windowSamples = max(1, properties.getRegressionWindowSeconds() / monitorIntervalSeconds);
+        PerformanceBaseline baseline = PerformanceBaseline.load(new File(baselineDir), testId);
+        if (baseline.getThroughputs().length < warmupSamples + windowSamples) {
+            LOGGER.warn(format("Regression gate for %s is disabled: baseline [%s] has %d samples, at least %d are needed",
+                    testId, baselineDir, baseline.getThroughputs().length, warmupSamples + windowSamples));
+            return null;
+        }
+
+        LOGGER.info(format("Regression gate for %s compares with baseline [%s]", testId, baselineDir));
+        return new RegressionGate(testId, baseline, warmupSamples, windowSamples,
+                properties.getRegressionThroughputThreshold(),
+                properties.getRegressionLatencyThreshold(),
+                properties.getRegressionSignificance());
+    }
+
+    /**
+     * Adds a sample of the current run and compares the window with the baseline.
+     *
+     * @param stats the aggregated interval performance of the test over all Workers
+     * @return a description of the regression or {@code null} if there is no regression. A regression is only
+     * reported once.
+     */
+    public String sample(PerformanceStats stats) {
+        if (stats.isEmpty() || regressed) {
+            return null;
+        }
+
+        samples++;
+        long windowIndex = samples - warmupSamples - 1;
+        if (windowIndex < 0) {
+            return null;
+        }
+
+        int index = (int) (windowIndex % throughputWindow.length);
+        throughputWindow[index] = stats.getIntervalThroughput();
+        latencyWindow[index] = stats.getIntervalLatency999PercentileNanos();
+        if (windowIndex < throughputWindow.length - 1) {
+            return null;
+        }
+
+        String regression = checkThroughput();
+        if (regression == null && baselineLatencies.length > 0 && stats.getIntervalLatency999PercentileNanos() >= 0) {
+            regression = checkLatency();
+        }
+        regressed = regression != null;
+        return regression;
+    }
+
+    private String checkThroughput() {
+        double baselineMedian = median(baselineThroughputs);
+        double liveMedian = median(throughputWindow);
+        if (liveMedian >= baselineMedian * (1 - throughputThreshold)) {
+            return null;
+        }
+
+        double p = mannWhitneyPValue(throughputWindow, baselineThroughputs);
+        if (p >= significance) {
+            return null;
+        }
+        return format(Locale.US, "Throughput regression in test %s: median %.2f ops/s is %.1f%% below the baseline median"
+                        + " %.2f ops/s (threshold %.1f%%, p=%.2g)",
+                testId, liveMedian, -change(liveMedian, baselineMedian) * 100, baselineMedian, throughputThreshold * 100, p);
+    }
+
+    private String checkLatency() {
+        double baselineMedian = median(baselineLatencies);
+        double liveMedian = median(latencyWindow);
+        if (liveMedian <= baselineMedian * (1 + latencyThreshold)) {
+            return null;
+        }
+
+        // the live latencies should be higher, so the baseline is the sample expected to be smaller
+        double p = mannWhitneyPValue(baselineLatencies, latencyWindow);
+        if (p >= significance) {
+            return null;
+        }
+        return format(Locale.US, "Latency regression in test %s: median %sth percentile %.0f ns is %.1f%% above the baseline"
+                        + " median %.0f ns (threshold %.1f%%, p=%.2g)",
+                testId, PerformanceStats.INTERVAL_LATENCY_PERCENTILE, liveMedian, change(liveMedian, baselineMedian) * 100,
+                baselineMedian, latencyThreshold * 100, p);
+    }
+
+    private static double change(double value, double baseline) {
+        return baseline == 0 ? 0 : (value - baseline) / baseline;
+    }
+
+    private static double[] skip(double[] values, int count) {
+        return count >= values.length ? new double[0] : Arrays.copyOfRange(values, count, values.length);
+    }
+
+    static double median(double[] values) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        int middle = sorted.length / 2;
+        return sorted.length % 2 == 1 ? sorted[middle] : (sorted[middle - 1] + sorted[middle]) / 2;
+    }
+
+    /**
+     * Returns the p-value of the one-sided Mann-Whitney U test with the alternative hypothesis that the values of
+     * {@code x} tend to be smaller than the values of {@code y}.
+     * <p>
+     * Uses the normal approximation with a correction for ties, which is accurate enough for the sample sizes of a
+     * performance test.
+     */
+    static double mannWhitneyPValue(double[] x, double[] y) {
+        int n1 = x.length;
+        int n2 = y.length;
+        int n = n1 + n2;
+
+        // sort all values, remembering which sample every value came from
+        double[][] all = new double[n][];
+        for (int k = 0; k < n1; k++) {
+            all[k] = new double[]{x[k], 0};
+        }
+        for (int k = 0; k < n2; k++) {
+            all[n1 + k] = new double[]{y[k], 1};
+        }
+        Arrays.sort(all, (a, b) -> Double.compare(a[0], b[0]));
+
+        // assign ranks; tied values get the average of their ranks
+        double rankSumX = 0;
+        double tieCorrection = 0;
+        int k = 0;
+        while (k < n) {
+            int end = k;
+            while (end + 1 < n && all[end + 1][0] == all[k][0]) {
+                end++;
+            }
+            double rank = (k + end) / 2d + 1;
+            for (int i = k; i <= end; i++) {
+                if (all[i][1] == 0) {
+                    rankSumX += rank;
+                }
+            }
+            double ties = end - k + 1;
+            tieCorrection += ties * ties * ties - ties;
+            k = end + 1;
+        }
+
+        double u = rankSumX - n1 * (n1 + 1) / 2d;
+        double mean = n1 * (double) n2 / 2;
+        double variance = n1 * (double) n2 / 12 * ((n + 1) - tieCorrection / (n * (double) (n - 1)));
+        if (variance <= 0) {
+            // all values are equal
+            return 1;
+        }
+        // continuity correction towards the mean
+        double z = (u - mean + 0.5) / sqrt(variance);
+        return normalCdf(z);
+    }
+
+    /**
+     * The cumulative distribution function of the standard normal distribution (Abramowitz and Stegun 7.1.26).
+     */
+    static double normalCdf(double z) {
+        double x = abs(z) / sqrt(2);
+        double t = 1 / (1 + 0.3275911 * x);
+        double erf = 1 - t * (0.254829592 + t * (-0.284496736 + t * (1.421413741 + t * (-1.453152027 + t * 1.061405429))))
+                * exp(-x * x);
+        return z >= 0 ? (1 + erf) / 2 : (1 - erf) / 2;
+    }
+}
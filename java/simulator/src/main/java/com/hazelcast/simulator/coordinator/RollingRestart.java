@@ -0,0 +1,405 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.coordinator;
+
+import com.hazelcast.simulator.agent.workerprocess.WorkerParameters;
+import com.hazelcast.simulator.common.SimulatorProperties;
+import com.hazelcast.simulator.common.TestCase;
+import com.hazelcast.simulator.coordinator.messages.FailureMessage;
+import com.hazelcast.simulator.coordinator.registry.AgentData;
+import com.hazelcast.simulator.coordinator.registry.Registry;
+import com.hazelcast.simulator.coordinator.registry.WorkerData;
+import com.hazelcast.simulator.coordinator.tasks.StartWorkersTask;
+import com.hazelcast.simulator.protocol.CoordinatorClient;
+import com.hazelcast.simulator.protocol.core.SimulatorAddress;
+import com.hazelcast.simulator.worker.messages.TerminateWorkerMessage;
+import com.hazelcast.simulator.worker.performance.PerformanceStats;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static com.hazelcast.simulator.coordinator.CoordinatorCli.getDurationSeconds;
+import static com.hazelcast.simulator.utils.FileUtils.appendText;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.lang.String.format;
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Replaces the member Workers one by one during the RUN phase of a test, while the test keeps running on the client
+ * Workers. This shows if a rolling restart, or a rolling upgrade to another version, is non-disruptive under load.
+ * <p>
+ * The rolling restart is configured with the properties of the test:
+ * <ul>
+ * <li>rollingRestartDelay: the time after the start of the RUN phase before the first member is replaced; setting
+ * it enables the rolling restart</li>
+ * <li>rollingRestartInterval: the time between the start of a replacement member and the shutdown of the next
+ * member, so the cluster can migrate the partitions back (default 60s)</li>
+ * <li>rollingRestartVersion: the version of the replacement members, e.g. maven=5.4.0; if not set the members are
+ * restarted with their own version. The version needs to be installed on the Agents.</li>
+ * </ul>
+ * Every step shuts down a member gracefully, waits till it has left and starts a replacement with the same parameters
+ * on the same Agent. A step lasts until the next step starts; for every step the lowest and average throughput, the
+ * throughput dip compared to the average throughput before the first step, the highest latency and the number of
+ * failures are logged and written to the rolling-restart.csv in the run directory.
+ */
+public final class RollingRestart implements FailureListener {
+
+    public static final String DELAY_PROPERTY = "rollingRestartDelay";
+    public static final String INTERVAL_PROPERTY = "rollingRestartInterval";
+    public static final String VERSION_PROPERTY = "rollingRestartVersion";
+
+    private static final int SHUTDOWN_POLL_MILLIS = 500;
+    private static final Logger LOGGER = LogManager.getLogger(RollingRestart.class);
+    // tests running in parallel write their steps to the same file
+    private static final Object STEPS_FILE_LOCK = new Object();
+
+    private final String testId;
+    private final int delaySeconds;
+    private final int intervalSeconds;
+    private final String version;
+    private final Registry registry;
+    private final CoordinatorClient client;
+    private final int workerStartupDelayMs;
+    private final int shutdownTimeoutSeconds;
+    private final File stepsFile;
+    private final DecimalFormat epochFormat = new DecimalFormat("#.###", new DecimalFormatSymbols(Locale.ENGLISH));
+    private ScheduledExecutorService executor;
+    private FailureCollector failureCollector;
+
+    // the performance before and during the steps; only accessed while holding the lock of the RollingRestart
+    private double baselineThroughputSum;
+    private int baselineSamples;
+    private Step currentStep;
+    private int stepCount;
+
+    static final class Step {
+        final int number;
+        final SimulatorAddress worker;
+        final long startMillis;
+        final double baselineThroughput;
+        SimulatorAddress replacement;
+        long shutdownMillis;
+        long startupMillis;
+        double minThroughput = Double.MAX_VALUE;
+        double throughputSum;
+        int samples;
+        long maxLatency999PercentileNanos;
+        int failures;
+
+        Step(int number, SimulatorAddress worker, double baselineThroughput) {
+            this.number = number;
+            this.worker = worker;
+            this.startMillis = System.currentTimeMillis();
+            this.baselineThroughput = baselineThroughput;
+        }
+
+        double avgThroughput() {
+            return samples == 0 ? 0 : throughputSum / samples;
+        }
+
+        double dipPercentage() {
+            if (samples == 0 || baselineThroughput == 0) {
+                return 0;
+            }
+            return max(0, 100 * (1 - minThroughput / baselineThroughput));
+        }
+    }
+
+    @SuppressWarnings("checkstyle:parameternumber")
+    RollingRestart(String testId, int delaySeconds, int intervalSeconds, String version, Registry registry,
+                   CoordinatorClient client, int workerStartupDelayMs, int shutdownTimeoutSeconds, File stepsFile) {
+        this.testId = testId;
+        this.delaySeconds = delaySeconds;
+        this.intervalSeconds = intervalSeconds;
+        this.version = version;
+        this.registry = registry;
+        this.client = client;
+        this.workerStartupDelayMs = workerStartupDelayMs;
+        this.shutdownTimeoutSeconds = shutdownTimeoutSeconds;
+        this.stepsFile = stepsFile;
+    }
+
+    /**
+     * Creates the RollingRestart for a test.
+     *
+     * @param properties           the SimulatorProperties
+     * @param testCase             the test
+     * @param registry             the Registry
+     * @param client               the client to terminate and start the Workers
+     * @param failureCollector     the FailureCollector to count the failures during the steps
+     * @param workerStartupDelayMs the startup delay of the replacement Workers
+     * @return the created RollingRestart or {@code null} if the test doesn't have a rolling restart
+     */
+    public static RollingRestart create(SimulatorProperties properties, TestCase testCase, Registry registry,
+                                        CoordinatorClient client, FailureCollector failureCollector,
+                                        int workerStartupDelayMs) {
+        Map<String, String> testProperties = testCase.getProperties();
+        String delay = testProperties.get(DELAY_PROPERTY);
+        if (delay == null || delay.trim().isEmpty()) {
+            return null;
+        }
+
+        String interval = testProperties.get(INTERVAL_PROPERTY);
+        String version = testProperties.get(VERSION_PROPERTY);
+        File stepsFile = new File(properties.get("run_path", "."), "rolling-restart.csv");
+        RollingRestart rollingRestart = new RollingRestart(testCase.getId(),
+                getDurationSeconds(delay.trim()),
+                interval == null ? 60 : getDurationSeconds(interval.trim()),
+                version == null || version.trim().isEmpty() ? null : version.trim(),
+                registry, client, workerStartupDelayMs, properties.getWaitForWorkerShutdownTimeoutSeconds(), stepsFile);
+        rollingRestart.failureCollector = failureCollector;
+        failureCollector.addListener(rollingRestart);
+        return rollingRestart;
+    }
+
+    /**
+     * Schedules the rolling restart; to be called when the RUN phase has started.
+     */
+    public void start() {
+        executor = newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "RollingRestart-" + testId);
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.schedule(this::run, delaySeconds, SECONDS);
+        LOGGER.info(format("%s scheduled rolling restart of the members in %d seconds, with %d seconds between the"
+                + " members, to version [%s]", testId, delaySeconds, intervalSeconds, version == null ? "same" : version));
+    }
+
+    /**
+     * Cancels the remaining steps and completes the current step; to be called when the RUN phase has ended.
+     */
+    public void stop() {
+        if (executor == null) {
+            removeListener();
+            return;
+        }
+
+        executor.shutdownNow();
+        try {
+            // wait for a running step to complete, so no member is left behind without a replacement
+            executor.awaitTermination(shutdownTimeoutSeconds + MILLISECONDS.toSeconds(workerStartupDelayMs) + 60, SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        synchronized (this) {
+            if (currentStep != null && currentStep.number < stepCount) {
+                LOGGER.warn(format("%s rolling restart did not complete before the end of the run (%d of %d members)",
+                        testId, currentStep.number, stepCount));
+            }
+            finishStep();
+        }
+        removeListener();
+    }
+
+    private void removeListener() {
+        if (failureCollector != null) {
+            failureCollector.removeListener(this);
+        }
+    }
+
+    void run() {
+        List<WorkerData> members = new ArrayList<>();
+        for (WorkerData worker : registry.getWorkers()) {
+            if (worker.isMemberWorker()) {
+                members.add(worker);
+            }
+        }
+        members.sort(Comparator.comparing(worker -> worker.getAddress().toString()));
+        synchronized (this) {
+            stepCount = members.size();
+        }
+
+        try {
+            for (int k = 0; k < members.size(); k++) {
+                if (k > 0) {
+                    SECONDS.sleep(intervalSeconds);
+                }
+                replace(k + 1, members.get(k));
+            }
+            SECONDS.sleep(intervalSeconds);
+        } catch (InterruptedException e) {
+            // the run has ended
+            return;
+        } catch (Exception e) {
+            // don't continue with the next member; the cluster could lose data
+            LOGGER.warn(format("%s rolling restart failed, the remaining members are not replaced", testId), e);
+        }
+
+        synchronized (this) {
+            finishStep();
+        }
+    }
+
+    private void replace(int number, WorkerData worker) throws Exception {
+        Step step;
+        synchronized (this) {
+            finishStep();
+            step = new Step(number, worker.getAddress(),
+                    baselineSamples == 0 ? 0 : baselineThroughputSum / baselineSamples);
+            currentStep = step;
+        }
+        LOGGER.info(format("%s rolling restart step %d/%d: shutting down member %s",
+                testId, number, stepCount, worker.getAddress()));
+
+        // the member is expected to go away
+        worker.setIgnoreFailures(true);
+        client.send(worker.getAddress(), new TerminateWorkerMessage(true));
+        awaitShutdown(worker);
+        long shutdownMillis = System.currentTimeMillis() - step.startMillis;
+
+        SimulatorAddress agentAddress = worker.getAddress().getParent();
+        AgentData agent = registry.getAgent(agentAddress);
+        WorkerParameters parameters = new WorkerParameters(worker.getParameters().asMap());
+        if (version != null) {
+            parameters.set("version", version);
+        }
+        DeploymentPlan.assignWorkerIdentity(agent, parameters);
+        Map<SimulatorAddress, List<WorkerParameters>> deploymentPlan = new HashMap<>();
+        deploymentPlan.put(agentAddress, Collections.singletonList(parameters));
+
+        List<WorkerData> started = new StartWorkersTask(
+                deploymentPlan, worker.getTags(), client, registry, workerStartupDelayMs).run();
+        long startupMillis = System.currentTimeMillis() - step.startMillis - shutdownMillis;
+
+        synchronized (this) {
+            step.shutdownMillis = shutdownMillis;
+            step.startupMillis = startupMillis;
+            step.replacement = started.isEmpty() ? null : started.get(0).getAddress();
+        }
+        LOGGER.info(format("%s rolling restart step %d/%d: replaced member %s by %s [%s]", testId, number, stepCount,
+                worker.getAddress(), step.replacement, parameters.get("version")));
+    }
+
+    private void awaitShutdown(WorkerData worker) throws InterruptedException {
+        long deadlineMillis = System.currentTimeMillis() + SECONDS.toMillis(shutdownTimeoutSeconds);
+        while (registry.findWorker(worker.getAddress()) != null) {
+            if (System.currentTimeMillis() > deadlineMillis) {
+                throw new IllegalStateException(format("Member %s didn't shut down within %d seconds",
+                        worker.getAddress(), shutdownTimeoutSeconds));
+            }
+            MILLISECONDS.sleep(SHUTDOWN_POLL_MILLIS);
+        }
+    }
+
+    /**
+     * Adds the performance of the test in the last interval.
+     *
+     * @param stats the performance of the test in the last interval
+     */
+    public synchronized void sample(PerformanceStats stats) {
+        if (stats.isEmpty()) {
+            return;
+        }
+
+        double throughput = stats.getIntervalThroughput();
+        if (currentStep == null) {
+            if (stepCount == 0) {
+                baselineThroughputSum += throughput;
+                baselineSamples++;
+            }
+            return;
+        }
+
+        currentStep.minThroughput = min(currentStep.minThroughput, throughput);
+        currentStep.throughputSum += throughput;
+        currentStep.samples++;
+        currentStep.maxLatency999PercentileNanos = max(currentStep.maxLatency999PercentileNanos,
+                stats.getIntervalLatency999PercentileNanos());
+    }
+
+    @Override
+    public synchronized void onFailure(FailureMessage failure, boolean isFinishedFailure, boolean isCritical) {
+        if (currentStep != null && (failure.getTestId() == null || testId.equals(failure.getTestId()))) {
+            currentStep.failures++;
+        }
+    }
+
+    synchronized Step getCurrentStep() {
+        return currentStep;
+    }
+
+    // needs to be called while holding the lock of the RollingRestart
+    private void finishStep() {
+        Step step = currentStep;
+        currentStep = null;
+        if (step == null) {
+            return;
+        }
+
+        String msg = format(Locale.US, "%s rolling restart step %d/%d replaced %s by %s: shutdown %d ms, startup %d ms,"
+                        + " throughput lowest %.1f ops/s, average %.1f ops/s (before the restart %.1f ops/s, dip %.1f%%),"
+                        + " highest %s%% latency %d µs, failures %d",
+                testId, step.number, stepCount, step.worker, step.replacement, step.shutdownMillis, step.startupMillis,
+                step.samples == 0 ? 0 : step.minThroughput, step.avgThroughput(), step.baselineThroughput,
+                step.dipPercentage(), PerformanceStats.INTERVAL_LATENCY_PERCENTILE,
+                NANOSECONDS.toMicros(step.maxLatency999PercentileNanos), step.failures);
+        if (step.failures > 0 || step.replacement == null) {
+            LOGGER.warn(msg);
+        } else {
+            LOGGER.info(msg);
+        }
+        writeStep(step);
+    }
+
+    private void writeStep(Step step) {
+        StringBuilder sb = new StringBuilder();
+        synchronized (STEPS_FILE_LOCK) {
+            if (!stepsFile.exists()) {
+                sb.append("epoch,timestamp,test,step,worker,replacement,version,shutdown_ms,startup_ms,")
+                        .append("baseline_throughput,min_throughput,avg_throughput,dip_percentage,")
+                        .append("max_latency_999_us,failures\n");
+            }
+            // ms are expressed in epoch time after the decimal point
+            sb.append(epochFormat.format(step.startMillis * 1d / SECONDS.toMillis(1)));
+            sb.append(',').append(new SimpleDateFormat("dd/MM/yyyy HH:mm:ss").format(new Date(step.startMillis)));
+            sb.append(',').append(testId);
+            sb.append(',').append(step.number);
+            sb.append(',').append(step.worker);
+            sb.append(',').append(step.replacement == null ? "" : step.replacement);
+            sb.append(',').append(version == null ? "" : version);
+            sb.append(',').append(step.shutdownMillis);
+            sb.append(',').append(step.startupMillis);
+            sb.append(',').append(format(Locale.US, "%.1f", step.baselineThroughput));
+            sb.append(',').append(format(Locale.US, "%.1f", step.samples == 0 ? 0 : step.minThroughput));
+            sb.append(',').append(format(Locale.US, "%.1f", step.avgThroughput()));
+            sb.append(',').append(format(Locale.US, "%.1f", step.dipPercentage()));
+            sb.append(',').append(NANOSECONDS.toMicros(step.maxLatency999PercentileNanos));
+            sb.append(',').append(step.failures);
+            sb.append('\n');
+            appendText(sb.toString(), stepsFile);
+        }
+    }
+}
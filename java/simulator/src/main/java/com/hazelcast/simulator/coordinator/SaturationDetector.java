@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.coordinator;
+
+import com.hazelcast.simulator.common.SimulatorProperties;
+import com.hazelcast.simulator.protocol.core.SimulatorAddress;
+import com.hazelcast.simulator.worker.performance.PerformanceStats;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import static com.hazelcast.simulator.worker.metronome.ScheduleLag.LATE_THRESHOLD_NANOS;
+import static java.lang.Math.max;
+import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Detects workers of a test which can't generate the configured load.
+ * <p>
+ * A metronome releases a request late when all threads are busy or the machine is overloaded. If a worker keeps
+ * issuing more than the threshold fraction of its requests late, the load generator is the bottleneck and the measured
+ * latency tells more about the load generator than about the cluster. Such a worker is reported once; depending on the
+ * configuration this also fails the test.
+ * <p>
+ * This class is not thread-safe; it is used by the thread of the TestCaseRunner.
+ */
+public final class SaturationDetector {
+
+    private final String testId;
+    private final double threshold;
+    private final int samples;
+    private final boolean fail;
+    private final Map<SimulatorAddress, Integer> consecutiveMap = new HashMap<>();
+    private final Set<SimulatorAddress> saturatedWorkers = new LinkedHashSet<>();
+
+    SaturationDetector(String testId, double threshold, int samples, boolean fail) {
+        this.testId = testId;
+        this.threshold = threshold;
+        this.samples = samples;
+        this.fail = fail;
+    }
+
+    /**
+     * Creates the SaturationDetector for a test, configured by the LOAD_GENERATOR_SATURATION_* properties.
+     *
+     * @param properties             the SimulatorProperties
+     * @param testId                 the id of the test
+     * @param monitorIntervalSeconds the interval in which the test reports its performance
+     * @return the created SaturationDetector or {@code null} if the detection is disabled
+     */
+    public static SaturationDetector create(SimulatorProperties properties, String testId, int monitorIntervalSeconds) {
+        double threshold = properties.getLoadGeneratorSaturationThreshold();
+        if (threshold <= 0 || monitorIntervalSeconds <= 0) {
+            return null;
+        }
+
+        int samples = max(1, properties.getLoadGeneratorSaturationSeconds() / monitorIntervalSeconds);
+        return new SaturationDetector(testId, threshold, samples, properties.isLoadGeneratorSaturationFail());
+    }
+
+    /**
+     * Adds the performance of a worker in the last interval.
+     *
+     * @param worker the address of the worker
+     * @param stats  the performance of the test on the worker in the last interval
+     * @return a description if the worker just became saturated, {@code null} otherwise
+     */
+    public String sample(SimulatorAddress worker, PerformanceStats stats) {
+        if (saturatedWorkers.contains(worker)) {
+            return null;
+        }
+
+        if (stats.isEmpty() || stats.getIntervalLateFraction() <= threshold) {
+            consecutiveMap.remove(worker);
+            return null;
+        }
+
+        int consecutive = consecutiveMap.merge(worker, 1, Integer::sum);
+        if (consecutive < samples) {
+            return null;
+        }
+
+        saturatedWorkers.add(worker);
+        return format(Locale.US, "Load generator saturated: worker %s issued %.1f%% of the operations of %s more than %d µs"
+                        + " late for %d intervals in a row (99.9th percentile schedule lag %d µs). The latency of this test"
+                        + " is determined by the load generator, not by the system under test.",
+                worker, stats.getIntervalLateFraction() * 100, testId, NANOSECONDS.toMicros(LATE_THRESHOLD_NANOS),
+                consecutive, NANOSECONDS.toMicros(stats.getIntervalScheduleLag999PercentileNanos()));
+    }
+
+    /**
+     * Returns if a saturated load generator should fail the test.
+     */
+    public boolean isFail() {
+        return fail;
+    }
+
+    /**
+     * Returns the workers which have been reported as saturated.
+     */
+    public Set<SimulatorAddress> getSaturatedWorkers() {
+        return saturatedWorkers;
+    }
+}
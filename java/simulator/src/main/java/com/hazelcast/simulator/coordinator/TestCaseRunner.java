@@ -17,6 +17,7 @@ package com.hazelcast.simulator.coordinator;
 
 import com.hazelcast.simulator.common.TestCase;
 import com.hazelcast.simulator.common.TestPhase;
+import com.hazelcast.simulator.coordinator.messages.FailureMessage;
 import com.hazelcast.simulator.coordinator.registry.Registry;
 import com.hazelcast.simulator.coordinator.registry.TestData;
 import com.hazelcast.simulator.coordinator.registry.WorkerData;
@@ -24,8 +25,11 @@ import com.hazelcast.simulator.protocol.CoordinatorClient;
 import com.hazelcast.simulator.protocol.core.SimulatorAddress;
 import com.hazelcast.simulator.protocol.message.SimulatorMessage;
 import com.hazelcast.simulator.worker.messages.CreateTestMessage;
+import com.hazelcast.simulator.worker.messages.RemoveTestMessage;
 import com.hazelcast.simulator.worker.messages.StartPhaseMessage;
 import com.hazelcast.simulator.worker.messages.StopRunMessage;
+import com.hazelcast.simulator.worker.messages.UpdateRateShareMessage;
+import com.hazelcast.simulator.worker.performance.PerformanceStats;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -37,6 +41,8 @@ import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 
+import static com.hazelcast.simulator.common.FailureType.LOAD_GENERATOR_SATURATED;
+import static com.hazelcast.simulator.common.FailureType.PERFORMANCE_REGRESSION;
 import static com.hazelcast.simulator.common.TestPhase.GLOBAL_PREPARE;
 import static com.hazelcast.simulator.common.TestPhase.GLOBAL_TEARDOWN;
 import static com.hazelcast.simulator.common.TestPhase.GLOBAL_VERIFY;
@@ -87,7 +93,13 @@ public final class TestCaseRunner {
     private final int performanceMonitorIntervalSeconds;
     private final int logRunPhaseIntervalSeconds;
     private final List<WorkerData> targets;
-    private final WorkerData globalTarget;
+    private final Registry registry;
+    private final RegressionGate regressionGate;
+    private final RateBalancer rateBalancer;
+    private final SaturationDetector saturationDetector;
+    private final FaultInjector faultInjector;
+    private final RollingRestart rollingRestart;
+    private Runnable beforeRunPhase;
 
     @SuppressWarnings("checkstyle:parameternumber")
     public TestCaseRunner(TestData test,
@@ -107,7 +119,7 @@ public final class TestCaseRunner {
         this.prefix = padRight(testCase.getId(), testSuite.getMaxTestCaseIdLength() + 1);
         this.testPhaseSyncMap = testPhaseSyncMap;
         this.targets = targets;
-        this.globalTarget = targets.iterator().next();
+        this.registry = registry;
         this.isVerifyEnabled = testSuite.isVerifyEnabled();
         this.targetType = testSuite.getWorkerQuery().getTargetType().resolvePreferClient(registry.hasClientWorkers());
         this.targetCount = targets.size();
@@ -118,6 +130,28 @@ public final class TestCaseRunner {
         } else {
             this.logRunPhaseIntervalSeconds = RUN_PHASE_LOG_INTERVAL_SECONDS;
         }
+        this.regressionGate = RegressionGate.create(
+                coordinatorParameters.getSimulatorProperties(), testCase.getId(), performanceMonitorIntervalSeconds);
+        this.rateBalancer = RateBalancer.create(
+                coordinatorParameters.getSimulatorProperties(), testCase, targets);
+        this.saturationDetector = SaturationDetector.create(
+                coordinatorParameters.getSimulatorProperties(), testCase.getId(), performanceMonitorIntervalSeconds);
+        this.faultInjector = FaultInjector.create(coordinatorParameters.getSimulatorProperties(), testCase, registry,
+                client, coordinatorParameters.getWorkerVmStartupDelayMs());
+        this.rollingRestart = RollingRestart.create(coordinatorParameters.getSimulatorProperties(), testCase, registry,
+                client, failureCollector, coordinatorParameters.getWorkerVmStartupDelayMs());
+    }
+
+    /**
+     * Sets a task which is executed right before the RUN phase, e.g. to wait for Workers which are started or stopped
+     * in the background so they don't disturb the measurements.
+     *
+     * @param beforeRunPhase the task
+     * @return this TestCaseRunner
+     */
+    public TestCaseRunner setBeforeRunPhase(Runnable beforeRunPhase) {
+        this.beforeRunPhase = beforeRunPhase;
+        return this;
     }
 
     public boolean run() {
@@ -137,6 +171,7 @@ public final class TestCaseRunner {
         } catch (Exception e) {
             throw rethrow(e);
         } finally {
+            removeTest();
             test.setCompletedStatus(hasFailure() ? FAILED : SUCCESS);
         }
 
@@ -146,6 +181,7 @@ public final class TestCaseRunner {
     private void run0() {
         createTest();
 
+        WorkerData globalTarget = getGlobalTarget();
         LOGGER.info(format("Worker for global test phases will be %s (%s)",
                 globalTarget.getAddress(), globalTarget.getParameters().getWorkerType()));
 
@@ -163,6 +199,18 @@ public final class TestCaseRunner {
         executePhase(LOCAL_TEARDOWN);
     }
 
+    /**
+     * Removes the TestContainer from the Workers, so they are reset for the next test; also if this test has been
+     * aborted before its last phase, which normally removes the TestContainer.
+     */
+    private void removeTest() {
+        for (WorkerData worker : targets) {
+            if (!isRemoved(worker)) {
+                client.send(worker.getAddress(), new RemoveTestMessage(testCase.getId()));
+            }
+        }
+    }
+
     private void logDetails() {
         LOGGER.info(format("Test %s using %s workers [%s]",
                 testCase.getId(), targets.size(), WorkerData.toAddressString(targets)));
@@ -170,7 +218,18 @@ public final class TestCaseRunner {
 
     private void createTest() {
         log("Starting Test initialization");
-        invokeOnTargets(new CreateTestMessage(testCase));
+        if (rateBalancer == null) {
+            invokeOnTargets(new CreateTestMessage(testCase));
+        } else {
+            // every worker gets its own share and phase of the global rate
+            Map<WorkerData, Future> futures = new HashMap<>();
+            for (int k = 0; k < targets.size(); k++) {
+                WorkerData worker = targets.get(k);
+                futures.put(worker, client.submit(worker.getAddress(),
+                        new CreateTestMessage(rateBalancer.newTestCase(testCase, k))));
+            }
+            awaitCompletion(futures);
+        }
         log("Completed Test initialization");
     }
 
@@ -183,10 +242,14 @@ public final class TestCaseRunner {
         Map<WorkerData, Future> futures = new HashMap<>();
 
         if (singleTarget) {
+            WorkerData globalTarget = getGlobalTarget();
             Future f = client.submit(globalTarget.getAddress(), msg);
             futures.put(globalTarget, f);
         } else {
             for (WorkerData worker : targets) {
+                if (isRemoved(worker)) {
+                    continue;
+                }
                 Future f = client.submit(worker.getAddress(), msg);
                 futures.put(worker, f);
             }
@@ -195,6 +258,26 @@ public final class TestCaseRunner {
         return futures;
     }
 
+    /**
+     * Returns the Worker for the global test phases; this is the first target which hasn't been killed.
+     */
+    private WorkerData getGlobalTarget() {
+        for (WorkerData worker : targets) {
+            if (!isRemoved(worker)) {
+                return worker;
+            }
+        }
+        return targets.get(0);
+    }
+
+    /**
+     * Checks if a Worker has been removed from the Registry, e.g. because it has been killed by the FaultInjector or
+     * replaced by the RollingRestart. Such a Worker will never complete its test phase.
+     */
+    private boolean isRemoved(WorkerData worker) {
+        return (faultInjector != null || rollingRestart != null) && registry.findWorker(worker.getAddress()) == null;
+    }
+
     private void awaitCompletion(Map<WorkerData, Future> futures) {
         for (Map.Entry<WorkerData, Future> entry : futures.entrySet()) {
             Future f = entry.getValue();
@@ -230,12 +313,42 @@ public final class TestCaseRunner {
             log(format("Skipping %s, test stopped.", RUN));
             return;
         }
+        if (beforeRunPhase != null) {
+            beforeRunPhase.run();
+        }
 
         test.setTestPhase(RUN);
         Map<WorkerData, Future> futures = startRun();
-
         long startMs = currentTimeMillis();
+        try {
+            if (faultInjector != null) {
+                faultInjector.start();
+            }
+            if (rollingRestart != null) {
+                rollingRestart.start();
+            }
+
+            awaitRun(futures, startMs);
+        } finally {
+            // also when the RUN phase is aborted, so no faults or restarts are injected into the next phases
+            if (faultInjector != null) {
+                faultInjector.stop();
+            }
+            if (rollingRestart != null) {
+                rollingRestart.stop();
+            }
+        }
+
+        stopRun();
+
+        waitForPhaseCompletion(RUN, futures);
+
+        logFinalPerformanceInfo(startMs);
 
+        waitForGlobalTestPhaseCompletion(RUN);
+    }
+
+    private void awaitRun(Map<WorkerData, Future> futures, long startMs) {
         long durationSeconds = testSuite.getDurationSeconds();
         long durationMs;
         long timeoutMs;
@@ -270,20 +383,91 @@ public final class TestCaseRunner {
             if (iteration % logRunPhaseIntervalSeconds == 0) {
                 logProgress(nowMs - startMs, durationMs);
             }
+            if (performanceMonitorIntervalSeconds > 0 && iteration % performanceMonitorIntervalSeconds == 0) {
+                monitorPerformance();
+            }
         }
+    }
 
-        stopRun();
+    private void monitorPerformance() {
+        if (regressionGate != null) {
+            checkRegression();
+        }
+        if (saturationDetector != null) {
+            checkSaturation();
+        }
+        if (rateBalancer != null) {
+            rebalanceRate();
+        }
+        if (faultInjector != null) {
+            checkRecovery();
+        }
+        if (rollingRestart != null) {
+            rollingRestart.sample(performanceStatsCollector.get(testCase.getId(), false));
+        }
+    }
 
-        waitForPhaseCompletion(RUN, futures);
+    private void checkRegression() {
+        String regression = regressionGate.sample(performanceStatsCollector.get(testCase.getId(), false));
+        if (regression != null) {
+            failureCollector.notify(new FailureMessage(regression, PERFORMANCE_REGRESSION, null, null,
+                    null, testCase.getId(), null));
+        }
+    }
 
-        logFinalPerformanceInfo(startMs);
+    private void checkSaturation() {
+        for (WorkerData worker : targets) {
+            PerformanceStats stats = performanceStatsCollector.get(worker.getAddress(), testCase.getId(), false);
+            String saturation = saturationDetector.sample(worker.getAddress(), stats);
+            if (saturation == null) {
+                continue;
+            }
 
-        waitForGlobalTestPhaseCompletion(RUN);
+            if (saturationDetector.isFail()) {
+                failureCollector.notify(new FailureMessage(saturation, LOAD_GENERATOR_SATURATED, worker.getAddress(),
+                        null, null, testCase.getId(), null));
+            } else {
+                LOGGER.warn(prefix + saturation);
+            }
+        }
+    }
+
+    private void checkRecovery() {
+        String recovery = faultInjector.sample(performanceStatsCollector.get(testCase.getId(), false));
+        if (recovery != null) {
+            LOGGER.info(prefix + recovery);
+        }
+    }
+
+    private void rebalanceRate() {
+        Map<SimulatorAddress, Double> throughputs = new HashMap<>();
+        for (WorkerData worker : targets) {
+            if (isRemoved(worker)) {
+                // e.g. replaced by a rolling restart; its share is taken over by the remaining workers
+                if (rateBalancer.contains(worker.getAddress())) {
+                    updateRateShares(rateBalancer.removeWorker(worker.getAddress()));
+                }
+                continue;
+            }
+            PerformanceStats stats = performanceStatsCollector.get(worker.getAddress(), testCase.getId(), false);
+            if (!stats.isEmpty()) {
+                throughputs.put(worker.getAddress(), stats.getIntervalThroughput());
+            }
+        }
+
+        updateRateShares(rateBalancer.rebalance(throughputs));
+    }
+
+    private void updateRateShares(Map<SimulatorAddress, Double> shares) {
+        for (Map.Entry<SimulatorAddress, Double> entry : shares.entrySet()) {
+            // no need to wait for the response; a failure to apply the share is reported by the worker
+            client.submit(entry.getKey(), new UpdateRateShareMessage(testCase.getId(), entry.getValue()));
+        }
     }
 
     private boolean isAllDone(Map<WorkerData, Future> futures) {
-        for (Future f : futures.values()) {
-            if (!f.isDone()) {
+        for (Map.Entry<WorkerData, Future> entry : futures.entrySet()) {
+            if (!isDone(entry.getKey(), entry.getValue())) {
                 return false;
             }
         }
@@ -291,6 +475,10 @@ public final class TestCaseRunner {
         return true;
     }
 
+    private boolean isDone(WorkerData worker, Future f) {
+        return f.isDone() || isRemoved(worker);
+    }
+
     private void logFinalPerformanceInfo(long startMs) {
         // the running time of the test is current time minus the start time. We can't rely on testsuite duration
         // due to premature abortion of a test. Or if the test has no explicit duration configured
@@ -307,6 +495,12 @@ public final class TestCaseRunner {
             LOGGER.info("Performance " + testCase.getId() + "\n"
                     + performanceInfo);
         }
+
+        if (saturationDetector != null && !saturationDetector.getSaturatedWorkers().isEmpty()) {
+            LOGGER.warn(format("The load generator of %s was saturated on workers %s; the latency numbers of these"
+                    + " workers are not representative for the system under test",
+                    testCase.getId(), saturationDetector.getSaturatedWorkers()));
+        }
     }
 
     /**
@@ -363,8 +557,8 @@ public final class TestCaseRunner {
             }
 
             completedWorkers = 0;
-            for (Future f : futures.values()) {
-                if (f.isDone()) {
+            for (Map.Entry<WorkerData, Future> entry : futures.entrySet()) {
+                if (isDone(entry.getKey(), entry.getValue())) {
                     completedWorkers++;
                 }
             }
@@ -389,7 +583,7 @@ public final class TestCaseRunner {
         // verbose logging of missing workers
         List<SimulatorAddress> missingWorkers = new ArrayList<>();
         for (Map.Entry<WorkerData, Future> entry : futures.entrySet()) {
-            if (!entry.getValue().isDone()) {
+            if (!isDone(entry.getKey(), entry.getValue())) {
                 missingWorkers.add(entry.getKey().getAddress());
             }
         }
@@ -0,0 +1,311 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.coordinator;
+
+import com.hazelcast.simulator.protocol.core.SimulatorAddress;
+import com.hazelcast.simulator.worker.performance.PerformanceStats;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Stores the interval {@link PerformanceStats} of every test on every Worker as a time series.
+ * <p>
+ * Each series is a ring buffer with a fixed capacity, so the memory usage doesn't grow with the duration of the run;
+ * once a series is full, the oldest samples are overwritten. The samples are stored in primitive arrays to keep the
+ * footprint of long soak tests small.
+ * <p>
+ * A series which hasn't received a sample for the expiry time is removed, e.g. the series of a test which has
+ * completed or of a Worker which has been replaced; so the number of series doesn't grow with the number of tests in
+ * the run either.
+ * <p>
+ * For the metrics sampled from the driver instances, e.g. the members, only the latest sample per Worker is kept; the
+ * full history is written by the Worker to its member-metrics.csv file.
+ */
+public class TimeSeriesStore {
+
+    static final long DEFAULT_EXPIRY_MILLIS = MINUTES.toMillis(5);
+
+    private final int capacity;
+    private final long expiryMillis;
+    private final ConcurrentMap<SeriesKey, Series> seriesMap = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, MemberMetrics> memberMetricsMap = new ConcurrentHashMap<>();
+    private volatile long lastExpiryMillis;
+
+    /**
+     * @param capacity the maximum number of samples kept per series
+     */
+    public TimeSeriesStore(int capacity) {
+        this(capacity, DEFAULT_EXPIRY_MILLIS);
+    }
+
+    /**
+     * @param capacity     the maximum number of samples kept per series
+     * @param expiryMillis the time after its last sample after which a series is removed
+     */
+    public TimeSeriesStore(int capacity, long expiryMillis) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity should be at least 1, but was " + capacity);
+        }
+        if (expiryMillis < 1) {
+            throw new IllegalArgumentException("expiryMillis should be at least 1, but was " + expiryMillis);
+        }
+        this.capacity = capacity;
+        this.expiryMillis = expiryMillis;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public void record(SimulatorAddress workerAddress, String testId, long timestampMillis, PerformanceStats stats) {
+        if (stats.isEmpty()) {
+            return;
+        }
+
+        SeriesKey key = new SeriesKey(workerAddress.toString(), testId);
+        Series series = seriesMap.computeIfAbsent(key, k -> new Series(k, capacity));
+        series.add(timestampMillis, stats);
+        expire(timestampMillis);
+    }
+
+    public void recordMemberMetrics(SimulatorAddress workerAddress, long timestampMillis, Map<String, Double> metrics) {
+        if (metrics.isEmpty()) {
+            return;
+        }
+
+        String worker = workerAddress.toString();
+        memberMetricsMap.put(worker, new MemberMetrics(worker, timestampMillis, metrics));
+        expire(timestampMillis);
+    }
+
+    /**
+     * Removes the series and member metrics which haven't been updated since the expiry time. To keep recording cheap,
+     * this is done at most once per second.
+     */
+    private void expire(long nowMillis) {
+        if (nowMillis - lastExpiryMillis < SECONDS.toMillis(1)) {
+            return;
+        }
+        lastExpiryMillis = nowMillis;
+
+        long expiredMillis = nowMillis - expiryMillis;
+        seriesMap.values().removeIf(series -> series.lastTimestampMillis() < expiredMillis);
+        memberMetricsMap.values().removeIf(memberMetrics -> memberMetrics.timestampMillis < expiredMillis);
+    }
+
+    /**
+     * Returns the latest member metrics of every worker which provides them, sorted by worker.
+     */
+    public List<MemberMetrics> getMemberMetrics() {
+        List<MemberMetrics> result = new ArrayList<>(memberMetricsMap.values());
+        result.sort(Comparator.comparing(m -> m.worker));
+        return result;
+    }
+
+    /**
+     * Returns all series, sorted by test and worker.
+     */
+    public List<Series> getSeries() {
+        List<Series> result = new ArrayList<>(seriesMap.values());
+        result.sort(Comparator.comparing((Series s) -> s.key.testId).thenComparing(s -> s.key.worker));
+        return result;
+    }
+
+    /**
+     * Returns the series matching the filter, sorted by test and worker.
+     *
+     * @param testId the id of the test or {@code null} for all tests
+     * @param worker the address of the worker or {@code null} for all workers
+     */
+    public List<Series> getSeries(String testId, String worker) {
+        List<Series> result = new ArrayList<>();
+        for (Series series : getSeries()) {
+            if ((testId == null || testId.equals(series.getTestId()))
+                    && (worker == null || worker.equals(series.getWorker()))) {
+                result.add(series);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * A single sample of a series.
+     */
+    public static final class Sample {
+        public final long timestampMillis;
+        public final long operationCount;
+        public final double throughput;
+        public final double latencyAvgNanos;
+        public final long latency999PercentileNanos;
+        public final long latencyMaxNanos;
+        public final long lateOperationCount;
+        public final long scheduleLag999PercentileNanos;
+        public final long scheduleLagMaxNanos;
+
+        @SuppressWarnings("checkstyle:parameternumber")
+        Sample(long timestampMillis, long operationCount, double throughput, double latencyAvgNanos,
+               long latency999PercentileNanos, long latencyMaxNanos, long lateOperationCount,
+               long scheduleLag999PercentileNanos, long scheduleLagMaxNanos) {
+            this.timestampMillis = timestampMillis;
+            this.operationCount = operationCount;
+            this.throughput = throughput;
+            this.latencyAvgNanos = latencyAvgNanos;
+            this.latency999PercentileNanos = latency999PercentileNanos;
+            this.latencyMaxNanos = latencyMaxNanos;
+            this.lateOperationCount = lateOperationCount;
+            this.scheduleLag999PercentileNanos = scheduleLag999PercentileNanos;
+            this.scheduleLagMaxNanos = scheduleLagMaxNanos;
+        }
+    }
+
+    /**
+     * The latest metrics sampled from the driver instance of a single worker.
+     */
+    public static final class MemberMetrics {
+        public final String worker;
+        public final long timestampMillis;
+        public final Map<String, Double> metrics;
+
+        MemberMetrics(String worker, long timestampMillis, Map<String, Double> metrics) {
+            this.worker = worker;
+            this.timestampMillis = timestampMillis;
+            this.metrics = Collections.unmodifiableMap(new TreeMap<>(metrics));
+        }
+    }
+
+    /**
+     * The ring buffer with the samples of a single test on a single worker.
+     */
+    public static final class Series {
+        private final SeriesKey key;
+        private final long[] timestamps;
+        private final long[] operationCounts;
+        private final double[] throughputs;
+        private final double[] latencyAvgs;
+        private final long[] latency999Percentiles;
+        private final long[] latencyMaxs;
+        private final long[] lateOperationCounts;
+        private final long[] scheduleLag999Percentiles;
+        private final long[] scheduleLagMaxs;
+        // the total number of samples ever added; the next sample is written at index count % capacity
+        private long count;
+
+        private Series(SeriesKey key, int capacity) {
+            this.key = key;
+            this.timestamps = new long[capacity];
+            this.operationCounts = new long[capacity];
+            this.throughputs = new double[capacity];
+            this.latencyAvgs = new double[capacity];
+            this.latency999Percentiles = new long[capacity];
+            this.latencyMaxs = new long[capacity];
+            this.lateOperationCounts = new long[capacity];
+            this.scheduleLag999Percentiles = new long[capacity];
+            this.scheduleLagMaxs = new long[capacity];
+        }
+
+        public String getTestId() {
+            return key.testId;
+        }
+
+        public String getWorker() {
+            return key.worker;
+        }
+
+        private synchronized void add(long timestampMillis, PerformanceStats stats) {
+            int index = (int) (count % timestamps.length);
+            timestamps[index] = timestampMillis;
+            operationCounts[index] = stats.getOperationCount();
+            throughputs[index] = stats.getIntervalThroughput();
+            latencyAvgs[index] = stats.getIntervalLatencyAvgNanos();
+            latency999Percentiles[index] = stats.getIntervalLatency999PercentileNanos();
+            latencyMaxs[index] = stats.getIntervalLatencyMaxNanos();
+            lateOperationCounts[index] = stats.getIntervalLateOperationCount();
+            scheduleLag999Percentiles[index] = stats.getIntervalScheduleLag999PercentileNanos();
+            scheduleLagMaxs[index] = stats.getIntervalScheduleLagMaxNanos();
+            count++;
+        }
+
+        private synchronized long lastTimestampMillis() {
+            return count == 0 ? Long.MIN_VALUE : timestamps[(int) ((count - 1) % timestamps.length)];
+        }
+
+        /**
+         * Returns the most recent sample or {@code null} if there are no samples.
+         */
+        public synchronized Sample latest() {
+            return count == 0 ? null : sample((int) ((count - 1) % timestamps.length));
+        }
+
+        /**
+         * Returns the samples with a timestamp after the given timestamp, oldest first.
+         */
+        public synchronized List<Sample> samplesSince(long sinceMillis) {
+            int size = (int) Math.min(count, timestamps.length);
+            List<Sample> result = new ArrayList<>(size);
+            for (long k = count - size; k < count; k++) {
+                int index = (int) (k % timestamps.length);
+                if (timestamps[index] > sinceMillis) {
+                    result.add(sample(index));
+                }
+            }
+            return result;
+        }
+
+        private Sample sample(int index) {
+            return new Sample(timestamps[index], operationCounts[index], throughputs[index], latencyAvgs[index],
+                    latency999Percentiles[index], latencyMaxs[index], lateOperationCounts[index],
+                    scheduleLag999Percentiles[index], scheduleLagMaxs[index]);
+        }
+    }
+
+    private static final class SeriesKey {
+        private final String worker;
+        private final String testId;
+
+        private SeriesKey(String worker, String testId) {
+            this.worker = worker;
+            this.testId = testId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof SeriesKey)) {
+                return false;
+            }
+            SeriesKey that = (SeriesKey) o;
+            return worker.equals(that.worker) && testId.equals(that.testId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(worker, testId);
+        }
+    }
+}
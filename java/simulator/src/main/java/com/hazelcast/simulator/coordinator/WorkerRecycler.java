@@ -0,0 +1,280 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.coordinator;
+
+import com.hazelcast.simulator.agent.workerprocess.WorkerParameters;
+import com.hazelcast.simulator.common.TestCase;
+import com.hazelcast.simulator.coordinator.registry.AgentData;
+import com.hazelcast.simulator.coordinator.registry.Registry;
+import com.hazelcast.simulator.coordinator.registry.WorkerData;
+import com.hazelcast.simulator.coordinator.tasks.StartWorkersTask;
+import com.hazelcast.simulator.protocol.CoordinatorClient;
+import com.hazelcast.simulator.protocol.core.SimulatorAddress;
+import com.hazelcast.simulator.utils.CommandLineExitException;
+import com.hazelcast.simulator.worker.messages.TerminateWorkerMessage;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import static com.hazelcast.simulator.coordinator.registry.WorkerData.toAddressString;
+import static com.hazelcast.simulator.utils.CommonUtils.sleepMillis;
+import static java.lang.String.format;
+import static java.util.Collections.emptyList;
+import static java.util.concurrent.Executors.newSingleThreadExecutor;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Replaces the client Workers of a test suite by fresh Worker processes between two tests.
+ * <p>
+ * By default the tests of a test suite reuse the same Worker JVMs; every test gets its own TestContainer, which is
+ * removed from the Workers when the test has completed or has been aborted ({@link #ISOLATION_CONTAINER}). A test
+ * which needs a fresh JVM, e.g. because the previous tests leave static state, threads or a JIT profile behind that
+ * would affect its results, runs on fresh client Workers instead ({@link #ISOLATION_PROCESS}). This is configured for
+ * all tests with the WORKER_ISOLATION simulator property, or for a single test with its 'workerIsolation' property.
+ * <p>
+ * The replacements come from a pool of spare client Workers: the spares for the next test which needs fresh Workers
+ * are started in the background ({@link #prestart(List)}) while the current test is in its setup and prepare phases,
+ * and its RUN phase only starts once they are up ({@link #awaitIdle()}). So when the spares are handed out
+ * ({@link #replace(List)}), their JVMs have started and their drivers are initialized, e.g. the Hazelcast clients have
+ * connected, and neither the startup nor the driver initialization is part of the measurements or delays the next
+ * test. The used client Workers are terminated in the background as well. If no spares have been started, the
+ * replacements are started on demand. A replacement gets the same parameters on the same Agent, but a new worker
+ * address. Member Workers are never replaced since they hold the cluster state.
+ */
+public class WorkerRecycler {
+
+    public static final String ISOLATION_CONTAINER = "container";
+    public static final String ISOLATION_PROCESS = "process";
+    public static final String ISOLATION_PROPERTY = "workerIsolation";
+
+    private static final int SHUTDOWN_POLL_MILLIS = 500;
+    private static final Logger LOGGER = LogManager.getLogger(WorkerRecycler.class);
+
+    private final Registry registry;
+    private final CoordinatorClient client;
+    private final String defaultIsolation;
+    private final int startupDelayMs;
+    private final int shutdownTimeoutSeconds;
+    // the background startup of spares and shutdown of used Workers, which need to complete before a RUN phase
+    private final List<Future<?>> pending = new ArrayList<>();
+    private ExecutorService executor;
+    // the client Workers the spares are started for
+    private List<WorkerData> spareTargets;
+    private Future<List<WorkerData>> spares;
+
+    public WorkerRecycler(Registry registry, CoordinatorClient client, String defaultIsolation, int startupDelayMs,
+                          int shutdownTimeoutSeconds) {
+        this.registry = registry;
+        this.client = client;
+        this.defaultIsolation = checkIsolation(defaultIsolation, "WORKER_ISOLATION");
+        this.startupDelayMs = startupDelayMs;
+        this.shutdownTimeoutSeconds = shutdownTimeoutSeconds;
+    }
+
+    /**
+     * Checks if a test needs to run on fresh client Worker processes.
+     *
+     * @param testCase the test
+     * @return {@code true} if the test needs fresh client Workers, {@code false} if it can reuse the Workers of the
+     * previous test
+     * @throws CommandLineExitException if the isolation of the test is unknown
+     */
+    public boolean isFreshProcess(TestCase testCase) {
+        String isolation = testCase.getProperty(ISOLATION_PROPERTY);
+        if (isolation == null || isolation.trim().isEmpty()) {
+            isolation = defaultIsolation;
+        }
+        return ISOLATION_PROCESS.equals(checkIsolation(isolation.trim(), testCase.getId() + "." + ISOLATION_PROPERTY));
+    }
+
+    /**
+     * Starts a spare for each of the given client Workers in the background, to be handed out by the next
+     * {@link #replace(List)} of these Workers.
+     * <p>
+     * Does nothing if there are spares already.
+     *
+     * @param clients the client Workers to start the spares for
+     */
+    public synchronized void prestart(List<WorkerData> clients) {
+        if (clients.isEmpty() || spares != null) {
+            return;
+        }
+
+        Map<SimulatorAddress, List<WorkerParameters>> deploymentPlan = newDeploymentPlan(clients);
+        // the client Workers of a test suite are started with the same tags
+        Map<String, String> tags = clients.get(0).getTags();
+        LOGGER.info(format("Starting %d spare client Workers in the background", clients.size()));
+        spareTargets = new ArrayList<>(clients);
+        spares = executor().submit(() -> new StartWorkersTask(deploymentPlan, tags, client, registry, startupDelayMs).run());
+        pending.add(spares);
+    }
+
+    /**
+     * Waits till the spares and the shutdown of the replaced Workers have completed, so no Worker is starting or
+     * stopping during the measurements; to be called before a RUN phase.
+     */
+    public void awaitIdle() {
+        List<Future<?>> futures;
+        synchronized (this) {
+            futures = new ArrayList<>(pending);
+            pending.clear();
+        }
+
+        for (Future<?> future : futures) {
+            if (!future.isDone()) {
+                LOGGER.info("Waiting for the spare client Workers to start and the replaced Workers to shut down...");
+            }
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                // a failed startup of the spares is retried on demand by replace()
+                LOGGER.warn("Background start or shutdown of client Workers failed", e.getCause());
+            }
+        }
+    }
+
+    /**
+     * Replaces the given client Workers by the spares started for them, or by fresh Workers if there are no spares,
+     * and terminates the given Workers in the background.
+     * <p>
+     * Blocks until the replacements are running.
+     *
+     * @param clients the client Workers to replace
+     * @return the replacement Workers
+     * @throws Exception if the replacements fail to start
+     */
+    public List<WorkerData> replace(List<WorkerData> clients) throws Exception {
+        if (clients.isEmpty()) {
+            return emptyList();
+        }
+
+        List<WorkerData> replacements = takeSpares(clients);
+        if (replacements == null) {
+            LOGGER.info(format("Starting %d fresh client Workers", clients.size()));
+            replacements = new StartWorkersTask(
+                    newDeploymentPlan(clients), clients.get(0).getTags(), client, registry, startupDelayMs).run();
+        }
+
+        LOGGER.info(format("Terminating client Workers [%s]", toAddressString(clients)));
+        terminate(clients);
+        synchronized (this) {
+            pending.add(executor().submit(() -> awaitShutdown(clients)));
+        }
+        LOGGER.info(format("Replaced client Workers [%s] by [%s]", toAddressString(clients),
+                toAddressString(replacements)));
+        return replacements;
+    }
+
+    /**
+     * Terminates the spares which haven't been handed out and waits for the background work to complete; to be called
+     * when a test suite has completed.
+     */
+    public void release() {
+        List<WorkerData> unused = takeSpares(null);
+        if (unused != null && !unused.isEmpty()) {
+            LOGGER.info(format("Terminating unused spare client Workers [%s]", toAddressString(unused)));
+            terminate(unused);
+            awaitShutdown(unused);
+        }
+        awaitIdle();
+    }
+
+    // takes the spares for the given clients, or any spares if the clients are null
+    private List<WorkerData> takeSpares(List<WorkerData> clients) {
+        Future<List<WorkerData>> future;
+        synchronized (this) {
+            if (spares == null || (clients != null && !spareTargets.equals(clients))) {
+                return null;
+            }
+            future = spares;
+            spares = null;
+            spareTargets = null;
+        }
+
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            LOGGER.warn("Failed to start the spare client Workers", e.getCause());
+            return null;
+        }
+    }
+
+    private Map<SimulatorAddress, List<WorkerParameters>> newDeploymentPlan(List<WorkerData> clients) {
+        Map<SimulatorAddress, List<WorkerParameters>> deploymentPlan = new HashMap<>();
+        for (WorkerData worker : clients) {
+            SimulatorAddress agentAddress = worker.getAddress().getParent();
+            AgentData agent = registry.getAgent(agentAddress);
+            WorkerParameters parameters = new WorkerParameters(worker.getParameters().asMap());
+            DeploymentPlan.assignWorkerIdentity(agent, parameters);
+            deploymentPlan.computeIfAbsent(agentAddress, k -> new ArrayList<>()).add(parameters);
+        }
+        return deploymentPlan;
+    }
+
+    private void terminate(List<WorkerData> workers) {
+        for (WorkerData worker : workers) {
+            worker.setIgnoreFailures(true);
+            client.send(worker.getAddress(), new TerminateWorkerMessage(true));
+        }
+    }
+
+    private synchronized ExecutorService executor() {
+        if (executor == null) {
+            executor = newSingleThreadExecutor(r -> {
+                Thread thread = new Thread(r, "WorkerRecycler");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return executor;
+    }
+
+    private void awaitShutdown(List<WorkerData> workers) {
+        long deadlineMillis = System.currentTimeMillis() + SECONDS.toMillis(shutdownTimeoutSeconds);
+        for (WorkerData worker : workers) {
+            while (registry.findWorker(worker.getAddress()) != null) {
+                if (System.currentTimeMillis() > deadlineMillis) {
+                    // the replacements can still be started; the old Worker only uses resources till it has exited
+                    LOGGER.warn(format("Client Worker %s didn't shut down within %d seconds",
+                            worker.getAddress(), shutdownTimeoutSeconds));
+                    return;
+                }
+                sleepMillis(SHUTDOWN_POLL_MILLIS);
+            }
+        }
+    }
+
+    private static String checkIsolation(String isolation, String name) {
+        if (!ISOLATION_CONTAINER.equals(isolation) && !ISOLATION_PROCESS.equals(isolation)) {
+            throw new CommandLineExitException(format("Unknown %s [%s], valid values are [%s, %s]",
+                    name, isolation, ISOLATION_CONTAINER, ISOLATION_PROCESS));
+        }
+        return isolation;
+    }
+}
@@ -23,6 +23,7 @@ import com.hazelcast.simulator.coordinator.FailureCollector;
 import com.hazelcast.simulator.coordinator.PerformanceStatsCollector;
 import com.hazelcast.simulator.coordinator.TestCaseRunner;
 import com.hazelcast.simulator.coordinator.TestSuite;
+import com.hazelcast.simulator.coordinator.WorkerRecycler;
 import com.hazelcast.simulator.coordinator.registry.Registry;
 import com.hazelcast.simulator.coordinator.registry.TestData;
 import com.hazelcast.simulator.coordinator.registry.WorkerData;
@@ -33,6 +34,8 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -56,6 +59,7 @@ public class RunTestSuiteTask {
     private final FailureCollector failureCollector;
     private final CoordinatorClient client;
     private final PerformanceStatsCollector performanceStatsCollector;
+    private final WorkerRecycler workerRecycler;
     private final List<TestCaseRunner> runners = new ArrayList<>();
 
     public RunTestSuiteTask(TestSuite testSuite,
@@ -64,12 +68,28 @@ public class RunTestSuiteTask {
                             FailureCollector failureCollector,
                             CoordinatorClient client,
                             PerformanceStatsCollector performanceStatsCollector) {
+        this(testSuite, coordinatorParameters, registry, failureCollector, client, performanceStatsCollector, null);
+    }
+
+    /**
+     * @param workerRecycler the WorkerRecycler to replace the client Workers for the tests which need fresh Worker
+     *                       processes, or {@code null} if all tests of the suite share the same Workers
+     */
+    @SuppressWarnings("checkstyle:parameternumber")
+    public RunTestSuiteTask(TestSuite testSuite,
+                            CoordinatorParameters coordinatorParameters,
+                            Registry registry,
+                            FailureCollector failureCollector,
+                            CoordinatorClient client,
+                            PerformanceStatsCollector performanceStatsCollector,
+                            WorkerRecycler workerRecycler) {
         this.testSuite = testSuite;
         this.coordinatorParameters = coordinatorParameters;
         this.registry = registry;
         this.failureCollector = failureCollector;
         this.client = client;
         this.performanceStatsCollector = performanceStatsCollector;
+        this.workerRecycler = workerRecycler;
     }
 
     public boolean run() {
@@ -113,36 +133,73 @@ public class RunTestSuiteTask {
     private boolean run0(List<TestData> tests, List<WorkerData> targets) {
         int testCount = testSuite.size();
         boolean parallel = testSuite.isParallel() && testCount > 1;
-        Map<TestPhase, CountDownLatch> testPhaseSyncMap = getTestPhaseSyncMap(testCount, parallel,
+        boolean scheduled = parallel && TestScheduler.hasTargetSelection(testSuite.getTestCaseList());
+        Map<TestPhase, CountDownLatch> testPhaseSyncMap = getTestPhaseSyncMap(testCount, parallel && !scheduled,
                 coordinatorParameters.getLastTestPhaseToSync());
 
         LOGGER.info("Starting TestSuite");
-        echoTestSuiteDuration(parallel);
+        echoTestSuiteDuration(parallel && !scheduled);
 
-        for (TestData test : tests) {
-            int testIndex = test.getTestIndex();
-            TestCase testCase = test.getTestCase();
-            LOGGER.info(format("Configuration for %s (T%d):%n%s", testCase.getId(), testIndex, testCase));
-
-            TestCaseRunner runner = new TestCaseRunner(
-                    test,
-                    coordinatorParameters,
-                    targets,
-                    client,
-                    testPhaseSyncMap,
-                    failureCollector,
-                    registry,
-                    performanceStatsCollector);
-            runners.add(runner);
+        boolean recycled = needsFreshProcess(tests);
+        if (recycled && parallel) {
+            LOGGER.warn("Process isolation per test is ignored since the tests run in parallel on the same Workers");
+            recycled = false;
+        }
+
+        if (!recycled && !scheduled) {
+            for (TestData test : tests) {
+                runners.add(newRunner(test, targets, testPhaseSyncMap));
+            }
         }
 
         echoTestSuiteStart(testCount, parallel);
         long started = System.nanoTime();
-        boolean success = parallel ? runParallel() : runSequential();
+        boolean success;
+        if (recycled) {
+            success = runSequentialRecycled(tests, targets);
+        } else if (scheduled) {
+            success = runScheduled(tests, targets);
+        } else {
+            success = parallel ? runParallel() : runSequential();
+        }
         echoTestSuiteEnd(testCount, started);
         return success;
     }
 
+    /**
+     * Checks if any test, apart from the first which runs on fresh Workers anyway, needs fresh Worker processes.
+     */
+    private boolean needsFreshProcess(List<TestData> tests) {
+        if (workerRecycler == null) {
+            return false;
+        }
+
+        boolean freshProcess = false;
+        for (int k = 0; k < tests.size(); k++) {
+            // checks the isolation of every test, so an invalid value fails the suite before the first test
+            if (workerRecycler.isFreshProcess(tests.get(k).getTestCase()) && k > 0) {
+                freshProcess = true;
+            }
+        }
+        return freshProcess;
+    }
+
+    private TestCaseRunner newRunner(TestData test, List<WorkerData> targets,
+                                     Map<TestPhase, CountDownLatch> testPhaseSyncMap) {
+        TestCase testCase = test.getTestCase();
+        LOGGER.info(format("Configuration for %s (T%d):%n%s", testCase.getId(), test.getTestIndex(), testCase));
+
+        return new TestCaseRunner(
+                test,
+                coordinatorParameters,
+                targets,
+                client,
+                testPhaseSyncMap,
+                failureCollector,
+                registry,
+                performanceStatsCollector);
+    }
+
     private void echoTestSuiteDuration(boolean isParallel) {
         long testDuration = testSuite.getDurationSeconds();
         if (testDuration > 0) {
@@ -188,6 +245,136 @@ public class RunTestSuiteTask {
         return success;
     }
 
+    /**
+     * Runs the tests one by one. A test which needs fresh Worker processes gets fresh client Workers; the other tests
+     * reuse the Workers of the previous test. The fresh client Workers for the next test which needs them are started
+     * in the background while the current test is set up and prepared, and the RUN phase waits till they are up.
+     */
+    private boolean runSequentialRecycled(List<TestData> tests, List<WorkerData> targets) {
+        boolean success = true;
+        List<WorkerData> current = targets;
+        try {
+            for (int k = 0; k < tests.size(); k++) {
+                TestData test = tests.get(k);
+                if (k > 0 && workerRecycler.isFreshProcess(test.getTestCase())) {
+                    current = replaceClients(current, test);
+                }
+                if (needsFreshProcessAfter(tests, k)) {
+                    workerRecycler.prestart(filter(current, false));
+                }
+
+                TestCaseRunner runner = newRunner(test, current, null).setBeforeRunPhase(workerRecycler::awaitIdle);
+                runners.add(runner);
+                if (!runner.run()) {
+                    success = false;
+                }
+                boolean hasCriticalFailure = failureCollector.hasCriticalFailure();
+                if (hasCriticalFailure && testSuite.isFailFast()) {
+                    LOGGER.info("Aborting TestSuite due to critical failure");
+                    break;
+                }
+            }
+        } finally {
+            workerRecycler.release();
+        }
+        return success;
+    }
+
+    private boolean needsFreshProcessAfter(List<TestData> tests, int index) {
+        for (int k = index + 1; k < tests.size(); k++) {
+            if (workerRecycler.isFreshProcess(tests.get(k).getTestCase())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Replaces the client Workers of the targets by fresh ones; the member Workers keep their position, so the Worker
+     * for the global test phases stays of the same type.
+     */
+    private List<WorkerData> replaceClients(List<WorkerData> targets, TestData test) {
+        List<WorkerData> clients = filter(targets, false);
+        if (clients.isEmpty()) {
+            LOGGER.warn(format("%s runs on member Workers only, which are never replaced since they hold the cluster state",
+                    test.getTestCase().getId()));
+            return targets;
+        }
+
+        List<WorkerData> replacements;
+        try {
+            replacements = workerRecycler.replace(clients);
+        } catch (Exception e) {
+            throw rethrow(e);
+        }
+
+        List<WorkerData> result = new ArrayList<>(targets.size());
+        Iterator<WorkerData> it = replacements.iterator();
+        for (WorkerData worker : targets) {
+            result.add(worker.isMemberWorker() ? worker : it.next());
+        }
+        return result;
+    }
+
+    /**
+     * Runs the tests in parallel on disjoint subsets of the targets. A test which can't get its Workers because they
+     * are used by running tests, waits until enough Workers have been released; in the meantime later tests which
+     * fit on the remaining Workers are started.
+     */
+    private boolean runScheduled(List<TestData> tests, List<WorkerData> targets) {
+        TestScheduler scheduler = new TestScheduler(targets);
+        for (TestData test : tests) {
+            scheduler.validate(test.getTestCase());
+        }
+
+        AtomicBoolean success = new AtomicBoolean(true);
+        List<TestData> queue = new LinkedList<>(tests);
+        Object lock = new Object();
+        ThreadSpawner spawner = new ThreadSpawner("runScheduled", true);
+        synchronized (lock) {
+            while (!queue.isEmpty() && !(failureCollector.hasCriticalFailure() && testSuite.isFailFast())) {
+                for (Iterator<TestData> it = queue.iterator(); it.hasNext(); ) {
+                    TestData test = it.next();
+                    List<WorkerData> workers = scheduler.tryAcquire(test.getTestCase());
+                    if (workers == null) {
+                        continue;
+                    }
+                    it.remove();
+
+                    TestCaseRunner runner = newRunner(test, workers, null);
+                    runners.add(runner);
+                    spawner.spawn(() -> {
+                        try {
+                            if (!runner.run()) {
+                                success.set(false);
+                            }
+                        } finally {
+                            synchronized (lock) {
+                                scheduler.release(workers);
+                                lock.notifyAll();
+                            }
+                        }
+                    });
+                }
+
+                if (!queue.isEmpty()) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        throw rethrow(e);
+                    }
+                }
+            }
+        }
+
+        if (!queue.isEmpty()) {
+            LOGGER.info(format("Aborting TestSuite due to critical failure, %d tests have not been started", queue.size()));
+            success.set(false);
+        }
+        spawner.awaitCompletion();
+        return success.get();
+    }
+
     private void echoTestSuiteStart(int testCount, boolean isParallel) {
         LOGGER.info(HORIZONTAL_RULER);
         if (testCount == 1) {
@@ -28,13 +28,16 @@ import com.hazelcast.simulator.utils.ThreadSpawner;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Future;
 
 import static com.hazelcast.simulator.utils.CommonUtils.getElapsedSeconds;
+import static com.hazelcast.simulator.utils.CommonUtils.sleepMillis;
 import static com.hazelcast.simulator.utils.FormatUtils.HORIZONTAL_RULER;
 import static java.lang.String.format;
 import static java.util.Arrays.asList;
@@ -47,7 +50,14 @@ import static java.util.concurrent.TimeUnit.MINUTES;
  * The value is a list of {@link WorkerParameters}, where each item corresponds to a single Worker to create.
  * <p>
  * The Workers will be created in order: First all member Workers are started, then all client Workers.
- * This is done to prevent clients running into a non existing cluster.
+ * This is done to prevent clients running into a non existing cluster. If awaiting the cluster size is enabled,
+ * every member Worker gets the number of members it should see in the cluster before it reports itself as started,
+ * so the clients are only started once the cluster is complete.
+ * <p>
+ * If the wave size is 0, all Workers of a type are started at the same time, where the start of every next
+ * Worker is delayed by the startup delay. Otherwise the Workers are started in waves of the given size; the
+ * Workers of a wave are started in parallel and the next wave is started, after the startup delay, once all
+ * Workers of the current wave are running. The Workers of a wave are spread over the Agents.
  */
 public class StartWorkersTask {
 
@@ -56,6 +66,8 @@ public class StartWorkersTask {
     private final CoordinatorClient client;
     private final Registry registry;
     private final int startupDelayMs;
+    private final int waveSize;
+    private final boolean awaitClusterSize;
     private final Map<SimulatorAddress, List<WorkerParameters>> memberDeploymentPlan;
     private final Map<SimulatorAddress, List<WorkerParameters>> clientDeploymentPlan;
     private final Map<String, String> tags;
@@ -69,9 +81,35 @@ public class StartWorkersTask {
             CoordinatorClient client,
             Registry registry,
             int startupDelayMs) {
+        this(deploymentPlan, workerTags, client, registry, startupDelayMs, 0);
+    }
+
+    public StartWorkersTask(
+            Map<SimulatorAddress, List<WorkerParameters>> deploymentPlan,
+            Map<String, String> workerTags,
+            CoordinatorClient client,
+            Registry registry,
+            int startupDelayMs,
+            int waveSize) {
+        this(deploymentPlan, workerTags, client, registry, startupDelayMs, waveSize, waveSize > 0);
+    }
+
+    public StartWorkersTask(
+            Map<SimulatorAddress, List<WorkerParameters>> deploymentPlan,
+            Map<String, String> workerTags,
+            CoordinatorClient client,
+            Registry registry,
+            int startupDelayMs,
+            int waveSize,
+            boolean awaitClusterSize) {
+        if (waveSize < 0) {
+            throw new IllegalArgumentException("waveSize can't be smaller than 0, but was " + waveSize);
+        }
         this.client = client;
         this.registry = registry;
         this.startupDelayMs = startupDelayMs;
+        this.waveSize = waveSize;
+        this.awaitClusterSize = awaitClusterSize;
         this.tags = workerTags;
         this.memberDeploymentPlan = filterByWorkerType(true, deploymentPlan);
         this.clientDeploymentPlan = filterByWorkerType(false, deploymentPlan);
@@ -112,18 +150,63 @@ public class StartWorkersTask {
     }
 
     private void startWorkers(Map<SimulatorAddress, List<WorkerParameters>> deploymentPlan) {
-        ThreadSpawner spawner = new ThreadSpawner("createWorkers", true);
-        for (Map.Entry<SimulatorAddress, List<WorkerParameters>> entry : deploymentPlan.entrySet()) {
-
-            SimulatorAddress agentAddress = entry.getKey();
-            AgentData agent = registry.getAgent(agentAddress);
+        List<CreateWorkerOnAgentTask> tasks = interleave(deploymentPlan);
+        int size = waveSize == 0 ? tasks.size() : waveSize;
+        for (int from = 0; from < tasks.size(); from += size) {
+            int to = Math.min(from + size, tasks.size());
+            if (waveSize > 0) {
+                if (from > 0) {
+                    sleepMillis(startupDelayMs);
+                }
+                LOGGER.info(format("Starting wave of %d Workers (%d/%d)...", to - from, to, tasks.size()));
+            }
 
-            for (WorkerParameters workerParameters : entry.getValue()) {
-                spawner.spawn(new CreateWorkerOnAgentTask(workerParameters, startupDelayMs * workerStartupIndex, agent));
+            ThreadSpawner spawner = new ThreadSpawner("createWorkers", true);
+            for (int k = from; k < to; k++) {
+                CreateWorkerOnAgentTask task = tasks.get(k);
+                if (waveSize == 0) {
+                    task.startupDelayMs = startupDelayMs * workerStartupIndex;
+                }
+                if (awaitClusterSize && task.isMember()) {
+                    // a staggered member can only wait for the members started before it; else it waits for its wave
+                    int expectedClusterSize = waveSize == 0 && startupDelayMs > 0 ? k + 1 : to;
+                    task.workerParameters.set("EXPECTED_CLUSTER_SIZE", expectedClusterSize);
+                } else {
+                    // the parameters of a replacement Worker are copied from the Worker it replaces, which may have
+                    // waited for a cluster size the cluster no longer has
+                    task.workerParameters.remove("EXPECTED_CLUSTER_SIZE");
+                }
+                spawner.spawn(task);
                 workerStartupIndex++;
             }
+            spawner.awaitCompletion();
         }
-        spawner.awaitCompletion();
+    }
+
+    /**
+     * Returns the tasks to create the Workers, alternating between the Agents.
+     */
+    private List<CreateWorkerOnAgentTask> interleave(Map<SimulatorAddress, List<WorkerParameters>> deploymentPlan) {
+        List<Iterator<WorkerParameters>> iterators = new ArrayList<>();
+        List<AgentData> agents = new ArrayList<>();
+        for (Map.Entry<SimulatorAddress, List<WorkerParameters>> entry : deploymentPlan.entrySet()) {
+            iterators.add(entry.getValue().iterator());
+            agents.add(registry.getAgent(entry.getKey()));
+        }
+
+        List<CreateWorkerOnAgentTask> result = new ArrayList<>();
+        boolean found = true;
+        while (found) {
+            found = false;
+            for (int k = 0; k < iterators.size(); k++) {
+                Iterator<WorkerParameters> it = iterators.get(k);
+                if (it.hasNext()) {
+                    result.add(new CreateWorkerOnAgentTask(it.next(), agents.get(k)));
+                    found = true;
+                }
+            }
+        }
+        return result;
     }
 
     private static Map<SimulatorAddress, List<WorkerParameters>> filterByWorkerType(
@@ -159,14 +242,17 @@ public class StartWorkersTask {
 
         private final WorkerParameters workerParameters;
         private final AgentData agent;
-        private final int startupDelayMs;
+        private int startupDelayMs;
 
-        private CreateWorkerOnAgentTask(WorkerParameters workerParameters, int startupDelaysMs, AgentData agent) {
-            this.startupDelayMs = startupDelaysMs;
+        private CreateWorkerOnAgentTask(WorkerParameters workerParameters, AgentData agent) {
             this.workerParameters = workerParameters;
             this.agent = agent;
         }
 
+        private boolean isMember() {
+            return workerParameters.getWorkerType().equals("member");
+        }
+
         @Override
         public void run() {
             CreateWorkerMessage msg = new CreateWorkerMessage(workerParameters, startupDelayMs);
@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.coordinator.tasks;
+
+import com.hazelcast.simulator.common.TestCase;
+import com.hazelcast.simulator.coordinator.registry.WorkerData;
+import com.hazelcast.simulator.coordinator.registry.WorkerQuery;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static com.hazelcast.simulator.utils.TagUtils.parseTags;
+import static java.lang.String.format;
+
+/**
+ * Assigns disjoint subsets of the targets of a test suite to the tests of the suite, so tests which don't share
+ * Workers can run at the same time.
+ * <p>
+ * A test selects its Workers with the test properties:
+ * <ul>
+ * <li>{@value #TARGET_COUNT}: the number of Workers the test runs on.</li>
+ * <li>{@value #TARGET_TAGS}: the tags the Workers need to have, e.g. {@code group=loadgenerators-1}.</li>
+ * </ul>
+ * Without a target count, the test needs all Workers matching its tags; a test without any of these properties
+ * needs all targets and therefore runs alone.
+ * <p>
+ * This class is not thread-safe.
+ */
+final class TestScheduler {
+
+    static final String TARGET_COUNT = "targetCount";
+    static final String TARGET_TAGS = "targetTags";
+
+    private final List<WorkerData> targets;
+    private final Set<WorkerData> busy = new HashSet<>();
+
+    TestScheduler(List<WorkerData> targets) {
+        this.targets = targets;
+    }
+
+    /**
+     * Checks if any of the tests selects a subset of the targets.
+     */
+    static boolean hasTargetSelection(List<TestCase> testCases) {
+        for (TestCase testCase : testCases) {
+            if (testCase.getProperty(TARGET_COUNT) != null || testCase.getProperty(TARGET_TAGS) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks if the test can run on the targets when no other test is running.
+     *
+     * @throws IllegalStateException if the test can never run
+     */
+    void validate(TestCase testCase) {
+        List<WorkerData> candidates = newQuery(testCase).execute(targets);
+        int required = requiredCount(testCase, candidates);
+        if (candidates.isEmpty() || candidates.size() < required) {
+            throw new IllegalStateException(format("Test %s needs %d workers, but only %d of the targets match",
+                    testCase.getId(), required, candidates.size()));
+        }
+    }
+
+    /**
+     * Assigns the Workers of a test, if enough Workers are available.
+     *
+     * @param testCase the test to assign the Workers to
+     * @return the assigned Workers or {@code null} if not enough Workers are available at the moment
+     */
+    List<WorkerData> tryAcquire(TestCase testCase) {
+        WorkerQuery query = newQuery(testCase);
+        int required = requiredCount(testCase, query.execute(targets));
+
+        List<WorkerData> available = new ArrayList<>(targets);
+        available.removeAll(busy);
+        List<WorkerData> selected = query.execute(available);
+        if (selected.size() < required) {
+            return null;
+        }
+
+        busy.addAll(selected);
+        return selected;
+    }
+
+    /**
+     * Makes the Workers of a completed test available to other tests.
+     */
+    void release(List<WorkerData> workers) {
+        busy.removeAll(workers);
+    }
+
+    private static WorkerQuery newQuery(TestCase testCase) {
+        WorkerQuery query = new WorkerQuery();
+        String count = testCase.getProperty(TARGET_COUNT);
+        if (count != null) {
+            query.setMaxCount(parseCount(testCase, count));
+        }
+        String tags = testCase.getProperty(TARGET_TAGS);
+        if (tags != null) {
+            query.setWorkerTags(parseTags(tags));
+        }
+        return query;
+    }
+
+    private static int requiredCount(TestCase testCase, List<WorkerData> candidates) {
+        String count = testCase.getProperty(TARGET_COUNT);
+        return count == null ? candidates.size() : parseCount(testCase, count);
+    }
+
+    private static int parseCount(TestCase testCase, String count) {
+        int result;
+        try {
+            result = Integer.parseInt(count);
+        } catch (NumberFormatException e) {
+            result = 0;
+        }
+        if (result < 1) {
+            throw new IllegalArgumentException(format("Test %s has an invalid %s: %s", testCase.getId(), TARGET_COUNT, count));
+        }
+        return result;
+    }
+}
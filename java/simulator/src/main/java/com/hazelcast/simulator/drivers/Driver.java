@@ -24,6 +24,7 @@ import org.apache.logging.log4j.Logger;
 import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
@@ -126,6 +127,15 @@ public abstract class Driver<V> implements Closeable {
      */
     public abstract void startDriverInstance() throws Exception;
 
-
-
+    /**
+     * Samples the internal metrics of the driver instance, e.g. queue sizes and GC activity of a member. Method is
+     * called on the worker-side, by the operations monitor at the same interval the performance stats are collected.
+     * <p>
+     * The values should be cheap to collect; counters are best reported as the change since the previous call.
+     *
+     * @return the metrics by name, or an empty map if the driver doesn't provide metrics
+     */
+    public Map<String, Double> sampleMetrics() {
+        return Collections.emptyMap();
+    }
 }
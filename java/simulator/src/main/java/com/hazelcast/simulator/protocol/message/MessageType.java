@@ -16,15 +16,18 @@
 package com.hazelcast.simulator.protocol.message;
 
 import com.hazelcast.simulator.agent.messages.CreateWorkerMessage;
+import com.hazelcast.simulator.agent.messages.SignalWorkerMessage;
 import com.hazelcast.simulator.agent.messages.StartTimeoutDetectionMessage;
 import com.hazelcast.simulator.agent.messages.StopTimeoutDetectionMessage;
 import com.hazelcast.simulator.coordinator.messages.FailureMessage;
 import com.hazelcast.simulator.worker.messages.CreateTestMessage;
 import com.hazelcast.simulator.worker.messages.ExecuteScriptMessage;
 import com.hazelcast.simulator.worker.messages.PerformanceStatsMessage;
+import com.hazelcast.simulator.worker.messages.RemoveTestMessage;
 import com.hazelcast.simulator.worker.messages.StartPhaseMessage;
 import com.hazelcast.simulator.worker.messages.StopRunMessage;
 import com.hazelcast.simulator.worker.messages.TerminateWorkerMessage;
+import com.hazelcast.simulator.worker.messages.UpdateRateShareMessage;
 
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -47,13 +50,16 @@ public enum MessageType {
     CREATE_WORKER(CreateWorkerMessage.class, 3000),
     START_TIMEOUT_DETECTION(StartTimeoutDetectionMessage.class, 3001),
     STOP_TIMEOUT_DETECTION(StopTimeoutDetectionMessage.class, 3002),
+    SIGNAL_WORKER(SignalWorkerMessage.class, 3003),
 
     // Worker-Messages
     TERMINATE_WORKER(TerminateWorkerMessage.class, 4001),
     CREATE_TEST(CreateTestMessage.class, 4002),
     EXECUTE_SCRIPT(ExecuteScriptMessage.class, 4003),
     START_TEST_PHASE(StartPhaseMessage.class, 4004),
-    STOP_TEST(StopRunMessage.class, 4005);
+    STOP_TEST(StopRunMessage.class, 4005),
+    UPDATE_RATE_SHARE(UpdateRateShareMessage.class, 4006),
+    REMOVE_TEST(RemoveTestMessage.class, 4007);
 
     private final Class<? extends SimulatorMessage> classType;
     private final int classId;
@@ -82,7 +82,8 @@ public class Worker {
         Runtime.getRuntime().addShutdownHook(new WorkerShutdownThread(true));
 
         int performanceMonitorIntervalSeconds = Integer.parseInt(parameters.get("performance_monitor_interval_seconds"));
-        this.performanceMonitor = new OperationsMonitor(server, testManager, performanceMonitorIntervalSeconds);
+        this.performanceMonitor = new OperationsMonitor(
+                server, testManager, driver, performanceMonitorIntervalSeconds);
     }
 
     public void start() throws Exception {
@@ -23,9 +23,11 @@ import com.hazelcast.simulator.protocol.message.SimulatorMessage;
 import com.hazelcast.simulator.utils.ExceptionReporter;
 import com.hazelcast.simulator.worker.messages.CreateTestMessage;
 import com.hazelcast.simulator.worker.messages.ExecuteScriptMessage;
+import com.hazelcast.simulator.worker.messages.RemoveTestMessage;
 import com.hazelcast.simulator.worker.messages.StartPhaseMessage;
 import com.hazelcast.simulator.worker.messages.StopRunMessage;
 import com.hazelcast.simulator.worker.messages.TerminateWorkerMessage;
+import com.hazelcast.simulator.worker.messages.UpdateRateShareMessage;
 import com.hazelcast.simulator.worker.testcontainer.TestManager;
 
 public class WorkerMessageHandler implements MessageHandler {
@@ -58,6 +60,12 @@ public class WorkerMessageHandler implements MessageHandler {
             } else if (msg instanceof StopRunMessage) {
                 testManager.stopRun((StopRunMessage) msg);
                 promise.answer("ok");
+            } else if (msg instanceof UpdateRateShareMessage) {
+                testManager.updateRateShare((UpdateRateShareMessage) msg);
+                promise.answer("ok");
+            } else if (msg instanceof RemoveTestMessage) {
+                testManager.removeTest((RemoveTestMessage) msg);
+                promise.answer("ok");
             } else {
                 throw new HandleException("Unknown message:" + msg);
             }
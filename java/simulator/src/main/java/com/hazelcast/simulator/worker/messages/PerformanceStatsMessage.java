@@ -41,6 +41,13 @@ public class PerformanceStatsMessage implements SimulatorMessage {
     @SerializedName("performanceStatsMap")
     private final Map<String, PerformanceStats> performanceStatsMap = new HashMap<>();
 
+    /**
+     * The metrics sampled from the driver instance of the Worker at the same moment as the PerformanceStats; empty if
+     * the driver doesn't provide metrics.
+     */
+    @SerializedName("memberMetrics")
+    private Map<String, Double> memberMetrics = new HashMap<>();
+
     public void addPerformanceStats(String testId, PerformanceStats performanceStats) {
         performanceStatsMap.put(testId, performanceStats);
     }
@@ -48,4 +55,19 @@ public class PerformanceStatsMessage implements SimulatorMessage {
     public Map<String, PerformanceStats> getPerformanceStats() {
         return performanceStatsMap;
     }
+
+    public void setMemberMetrics(Map<String, Double> memberMetrics) {
+        this.memberMetrics = new HashMap<>();
+        for (Map.Entry<String, Double> entry : memberMetrics.entrySet()) {
+            // NaN and infinity can't be serialized to json
+            if (entry.getValue() != null && Double.isFinite(entry.getValue())) {
+                this.memberMetrics.put(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    public Map<String, Double> getMemberMetrics() {
+        // messages sent by an older worker don't contain the field
+        return memberMetrics == null ? new HashMap<>() : memberMetrics;
+    }
 }
@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.worker.messages;
+
+import com.google.gson.annotations.SerializedName;
+import com.hazelcast.simulator.protocol.message.SimulatorMessage;
+
+/**
+ * Removes the TestContainer of a test from a Worker, so the Worker can be reused for the next test.
+ * <p/>
+ * Normally the TestContainer is removed when its last test phase completes. But if a test is aborted, e.g. because
+ * of a failure on another Worker, the remaining phases are never started; this message makes sure the TestContainer
+ * is stopped and removed anyway. If the test isn't known, e.g. because it has already been removed, it is ignored.
+ */
+public class RemoveTestMessage implements SimulatorMessage {
+
+    /**
+     * The name of the test to remove.
+     */
+    @SerializedName("testId")
+    private final String testId;
+
+    public RemoveTestMessage(String testId) {
+        this.testId = testId;
+    }
+
+    public String getTestId() {
+        return testId;
+    }
+
+    @Override
+    public String toString() {
+        return "RemoveTestMessage{testId='" + testId + "'}";
+    }
+}
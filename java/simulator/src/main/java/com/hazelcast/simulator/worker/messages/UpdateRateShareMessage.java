@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.worker.messages;
+
+import com.google.gson.annotations.SerializedName;
+import com.hazelcast.simulator.protocol.message.SimulatorMessage;
+
+/**
+ * Changes the share of the global rate of a running test on a worker.
+ * <p/>
+ * This is send by the coordinator when it rebalances the global rate of a test with a globalRatePerSecond, because
+ * some workers can't keep up with their share.
+ */
+public class UpdateRateShareMessage implements SimulatorMessage {
+
+    /**
+     * The name of the test.
+     */
+    @SerializedName("testId")
+    private final String testId;
+
+    /**
+     * The new share of the global rate; a value in the range (0, 1].
+     */
+    @SerializedName("share")
+    private final double share;
+
+    public UpdateRateShareMessage(String testId, double share) {
+        this.testId = testId;
+        this.share = share;
+    }
+
+    public String getTestId() {
+        return testId;
+    }
+
+    public double getShare() {
+        return share;
+    }
+
+    @Override
+    public String toString() {
+        return "UpdateRateShareMessage{testId='" + testId + "', share=" + share + "}";
+    }
+}
@@ -38,6 +38,7 @@ public final class BusySpinningMetronome implements Metronome {
     private final long intervalNanos;
     private final boolean accountForCoordinatedOmission;
     private long nextNanos;
+    private final ScheduleLag scheduleLag = new ScheduleLag();
 
     BusySpinningMetronome(long intervalNanos, boolean accountForCoordinatedOmission) {
         this.intervalNanos = intervalNanos;
@@ -68,10 +69,16 @@ public final class BusySpinningMetronome implements Metronome {
 
         long expectedStartNanos = nextNanos;
         nextNanos = expectedStartNanos + intervalNanos;
+        scheduleLag.record(expectedStartNanos, now);
         return accountForCoordinatedOmission ? expectedStartNanos : nanoTime();
     }
 
     public long getIntervalNanos() {
         return intervalNanos;
     }
+
+    @Override
+    public ScheduleLag getScheduleLag() {
+        return scheduleLag;
+    }
 }
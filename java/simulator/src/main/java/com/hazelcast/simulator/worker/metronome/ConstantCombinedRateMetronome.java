@@ -39,6 +39,7 @@ public class ConstantCombinedRateMetronome implements Metronome {
     private final long intervalNanos;
     private final boolean accountForCoordinatedOmission;
     private final AtomicLong nextExpectedStartNanos;
+    private final ScheduleLag scheduleLag = new ScheduleLag();
 
     ConstantCombinedRateMetronome(long intervalNanos, boolean accountForCoordinatedOmission) {
         this.intervalNanos = intervalNanos;
@@ -60,9 +61,9 @@ public class ConstantCombinedRateMetronome implements Metronome {
     @Override
     public long waitForNext() {
         long expectedStartNanos;
+        long now;
         for (; ; ) {
             expectedStartNanos = nextExpectedStartNanos.get();
-            long now;
             while ((now = nanoTime()) < expectedStartNanos) {
                 // we can't pick up the request yet since it is too early.
                 parkNanos(expectedStartNanos - now);
@@ -74,10 +75,16 @@ public class ConstantCombinedRateMetronome implements Metronome {
             }
         }
 
+        scheduleLag.record(expectedStartNanos, now);
         return accountForCoordinatedOmission ? expectedStartNanos : nanoTime();
     }
 
     public long getIntervalNanos() {
         return intervalNanos;
     }
+
+    @Override
+    public ScheduleLag getScheduleLag() {
+        return scheduleLag;
+    }
 }
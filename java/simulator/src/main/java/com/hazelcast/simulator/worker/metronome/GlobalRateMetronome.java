@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.worker.metronome;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.lang.Math.floorDiv;
+import static java.lang.Math.max;
+import static java.lang.Math.round;
+import static java.lang.String.format;
+import static java.lang.System.currentTimeMillis;
+import static java.lang.System.nanoTime;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static java.util.concurrent.locks.LockSupport.parkNanos;
+
+/**
+ * A {@link Metronome} which executes this worker's share of a rate that is configured for the whole cluster.
+ * <p>
+ * The coordinator gives every worker a share of the global rate and a phase. The schedule of intended start times is
+ * aligned on the wall clock and shifted by the phase times the interval, so that the requests of the workers
+ * interleave instead of all workers firing at the same moment. This relies on the clocks of the machines being in
+ * sync, e.g. using NTP; if they aren't, the global rate is still correct but the requests are less evenly spread.
+ * <p>
+ * Just like the {@link ConstantCombinedRateMetronome}, all threads of an execution group share a single schedule and
+ * any thread that is available picks up the next request. The share can be changed while the test is running, see
+ * {@link #setShare(double)}; the schedule continues from the current intended start time with the new interval.
+ */
+public final class GlobalRateMetronome implements Metronome {
+
+    /**
+     * The property of an execution group which configures the rate for all workers combined.
+     */
+    public static final String GLOBAL_RATE_PROPERTY = "globalRatePerSecond";
+    /**
+     * The test property with the share of the global rate of a worker; set by the coordinator.
+     */
+    public static final String RATE_SHARE_PROPERTY = "rateShare";
+    /**
+     * The test property with the phase of a worker as a fraction of its interval; set by the coordinator.
+     */
+    public static final String RATE_PHASE_PROPERTY = "ratePhase";
+
+    private final double globalRatePerSecond;
+    private final boolean accountForCoordinatedOmission;
+    private final AtomicLong intervalNanos;
+    private final AtomicLong nextExpectedStartNanos;
+    private final ScheduleLag scheduleLag = new ScheduleLag();
+
+    public GlobalRateMetronome(double globalRatePerSecond, double share, double phase,
+                               boolean accountForCoordinatedOmission) {
+        if (globalRatePerSecond <= 0) {
+            throw new IllegalArgumentException("globalRatePerSecond should be larger than 0, but was " + globalRatePerSecond);
+        }
+        if (phase < 0 || phase >= 1) {
+            throw new IllegalArgumentException("phase should be in the range [0, 1), but was " + phase);
+        }
+        this.globalRatePerSecond = globalRatePerSecond;
+        this.accountForCoordinatedOmission = accountForCoordinatedOmission;
+        this.intervalNanos = new AtomicLong(toIntervalNanos(globalRatePerSecond, share));
+        this.nextExpectedStartNanos = new AtomicLong(alignedStartNanos(intervalNanos.get(), phase));
+    }
+
+    public GlobalRateMetronome(Metronome m) {
+        GlobalRateMetronome master = (GlobalRateMetronome) m;
+        this.globalRatePerSecond = master.globalRatePerSecond;
+        this.accountForCoordinatedOmission = master.accountForCoordinatedOmission;
+        this.intervalNanos = master.intervalNanos;
+        this.nextExpectedStartNanos = master.nextExpectedStartNanos;
+    }
+
+    /**
+     * Returns the first start time (in {@link System#nanoTime()}) after now which is, on the wall clock, a multiple of
+     * the interval plus the phase.
+     */
+    static long alignedStartNanos(long intervalNanos, double phase) {
+        long nowNanos = nanoTime();
+        long wallClockNanos = MILLISECONDS.toNanos(currentTimeMillis());
+        long phaseNanos = round(phase * intervalNanos);
+        long alignedWallClockNanos = (floorDiv(wallClockNanos - phaseNanos, intervalNanos) + 1) * intervalNanos + phaseNanos;
+        return nowNanos + alignedWallClockNanos - wallClockNanos;
+    }
+
+    private static long toIntervalNanos(double globalRatePerSecond, double share) {
+        if (share <= 0 || share > 1) {
+            throw new IllegalArgumentException(format("share should be in the range (0, 1], but was %s", share));
+        }
+        return max(1, round(SECONDS.toNanos(1) / (globalRatePerSecond * share)));
+    }
+
+    /**
+     * Changes the share of the global rate of this worker.
+     * <p>
+     * This method is thread-safe.
+     *
+     * @param share the new share; a value in the range (0, 1]
+     * @throws IllegalArgumentException if the share is out of range
+     */
+    public void setShare(double share) {
+        intervalNanos.set(toIntervalNanos(globalRatePerSecond, share));
+    }
+
+    @Override
+    public long waitForNext() {
+        long expectedStartNanos;
+        long now;
+        for (; ; ) {
+            expectedStartNanos = nextExpectedStartNanos.get();
+            while ((now = nanoTime()) < expectedStartNanos) {
+                // we can't pick up the request yet since it is too early.
+                parkNanos(expectedStartNanos - now);
+            }
+
+            // if we manage to cas the item, we can execute the request, otherwise continue waiting.
+            if (nextExpectedStartNanos.compareAndSet(expectedStartNanos, expectedStartNanos + intervalNanos.get())) {
+                break;
+            }
+        }
+
+        scheduleLag.record(expectedStartNanos, now);
+        return accountForCoordinatedOmission ? expectedStartNanos : nanoTime();
+    }
+
+    public long getIntervalNanos() {
+        return intervalNanos.get();
+    }
+
+    @Override
+    public ScheduleLag getScheduleLag() {
+        return scheduleLag;
+    }
+}
@@ -0,0 +1,358 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.worker.metronome;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static java.lang.Math.PI;
+import static java.lang.Math.round;
+import static java.lang.Math.sin;
+import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.HOURS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Describes the rate of a test as a function of time, as a sequence of segments separated by ';'. For example:
+ * <pre>
+ * ramp 0->50k in 60s; hold 5m; spike 200k for 10s; sine 20k+-10k period 10m for 30m
+ * </pre>
+ * The supported segments are:
+ * <ul>
+ * <li>{@code ramp <from>-><to> in <duration>}: a linear change of the rate. The {@code <from>} can be omitted, in
+ * which case the ramp starts at the current rate.</li>
+ * <li>{@code hold <duration>}: keeps the current rate.</li>
+ * <li>{@code step <rate> for <duration>}: changes the rate.</li>
+ * <li>{@code spike <rate> for <duration>}: changes the rate temporarily; after the spike the current rate is the rate
+ * from before the spike.</li>
+ * <li>{@code sine <mean>+-<amplitude> period <duration> [for <duration>]}: a sine wave, for a single period by
+ * default. Instead of '+-', '&plusmn;' can be used. The current rate after the wave is the mean.</li>
+ * </ul>
+ * The rates are operations per second and can have a 'k' (thousand) or 'M' (million) suffix. The durations need a
+ * time unit: ms, s, m or h. The profile starts at rate 0 and once the profile has ended, the current rate is kept;
+ * this rate can't be 0.
+ * <p>
+ * This class is immutable and thread-safe.
+ */
+public final class LoadProfile {
+
+    private static final double NANOS_PER_SECOND = SECONDS.toNanos(1);
+    // the time to skip forward while the rate is 0
+    private static final long IDLE_STEP_NANOS = MILLISECONDS.toNanos(1);
+
+    private final String description;
+    private final Segment[] segments;
+    private final double finalRate;
+
+    private LoadProfile(String description, List<Segment> segments, double finalRate) {
+        this.description = description;
+        this.segments = segments.toArray(new Segment[0]);
+        this.finalRate = finalRate;
+    }
+
+    /**
+     * Returns the rate in operations per second at the given time since the start of the profile.
+     */
+    public double rate(long offsetNanos) {
+        for (Segment segment : segments) {
+            if (offsetNanos < segment.endNanos) {
+                return segment.rate(offsetNanos - segment.startNanos);
+            }
+        }
+        return finalRate;
+    }
+
+    /**
+     * Returns the intended start time of the first operation since the start of the profile.
+     */
+    public long first() {
+        return skipIdle(0);
+    }
+
+    /**
+     * Returns the intended start time of the next operation, given the intended start time of the current operation.
+     * <p>
+     * The next operation is due once the area under the rate since the current operation is 1 operation, so the
+     * intervals follow ramps and waves exactly, also when the rate changes a lot during an interval like at the start of
+     * a ramp from 0. The time is found with Newton's method, which needs a few iterations at most, and falls back to
+     * bisection where the rate is 0. Periods with a rate of 0 are skipped.
+     *
+     * @param offsetNanos the intended start time of the current operation since the start of the profile
+     * @return the intended start time of the next operation since the start of the profile
+     */
+    public long next(long offsetNanos) {
+        // the interval is searched for in (lo, hi]: less than 1 operation is due after lo and at least 1 after hi
+        long lo = 0;
+        long hi = upperBound(offsetNanos);
+        long interval = hi;
+        for (; ; ) {
+            double missing = 1 - operations(offsetNanos, offsetNanos + interval);
+            if (missing > 0) {
+                lo = interval;
+            } else {
+                hi = interval;
+            }
+            if (hi - lo <= 1) {
+                break;
+            }
+
+            double intervalRate = rate(offsetNanos + interval);
+            long step = intervalRate > 0 ? round(missing * NANOS_PER_SECOND / intervalRate) : 0;
+            if (step == 0 && missing <= 0) {
+                break;
+            }
+            long candidate = interval + (missing > 0 ? Math.max(1, step) : step);
+            interval = candidate > lo && candidate < hi ? candidate : lo + (hi - lo) / 2;
+        }
+        return skipIdle(offsetNanos + hi);
+    }
+
+    // an interval after which at least 1 operation is due
+    private long upperBound(long offsetNanos) {
+        double rate = rate(offsetNanos);
+        long intervalNanos = rate > 0 ? Math.max(1, round(NANOS_PER_SECOND / rate)) : IDLE_STEP_NANOS;
+        while (operations(offsetNanos, offsetNanos + intervalNanos) < 1) {
+            intervalNanos *= 2;
+        }
+        return intervalNanos;
+    }
+
+    // the number of operations due between the given times since the start of the profile
+    private double operations(long fromNanos, long toNanos) {
+        double operations = 0;
+        long startNanos = fromNanos;
+        for (Segment segment : segments) {
+            if (startNanos >= toNanos) {
+                return operations;
+            }
+            if (startNanos < segment.endNanos) {
+                long endNanos = Math.min(toNanos, segment.endNanos);
+                operations += segment.operations(startNanos - segment.startNanos, endNanos - segment.startNanos);
+                startNanos = endNanos;
+            }
+        }
+        if (startNanos < toNanos) {
+            operations += finalRate * (toNanos - startNanos) / NANOS_PER_SECOND;
+        }
+        return operations;
+    }
+
+    // the final rate is never 0, so this always terminates
+    private long skipIdle(long offsetNanos) {
+        while (rate(offsetNanos) <= 0) {
+            offsetNanos += IDLE_STEP_NANOS;
+        }
+        return offsetNanos;
+    }
+
+    /**
+     * Returns the total duration of the segments in nanoseconds.
+     */
+    public long getDurationNanos() {
+        return segments.length == 0 ? 0 : segments[segments.length - 1].endNanos;
+    }
+
+    @Override
+    public String toString() {
+        return description;
+    }
+
+    /**
+     * Parses a load profile.
+     *
+     * @param description the description of the load profile
+     * @return the parsed LoadProfile
+     * @throws IllegalArgumentException if the description is not valid
+     */
+    public static LoadProfile parse(String description) {
+        List<Segment> segments = new ArrayList<>();
+        double current = 0;
+        long offsetNanos = 0;
+        for (String s : description.split(";")) {
+            String[] tokens = s.trim().split("\\s+");
+            if (tokens.length == 1 && tokens[0].isEmpty()) {
+                continue;
+            }
+
+            Segment segment;
+            switch (tokens[0].toLowerCase(Locale.ENGLISH)) {
+                case "ramp":
+                    expect(s, tokens, 4, "in", 2);
+                    String[] fromTo = tokens[1].split("->", -1);
+                    if (fromTo.length > 2) {
+                        throw new IllegalArgumentException(format("Invalid segment '%s'", s.trim()));
+                    }
+                    double from = fromTo.length == 2 && !fromTo[0].isEmpty() ? parseRate(fromTo[0]) : current;
+                    double to = parseRate(fromTo[fromTo.length - 1]);
+                    segment = new Segment(offsetNanos, parseDuration(tokens[3]), from, to, 0);
+                    current = to;
+                    break;
+                case "hold":
+                    expect(s, tokens, 2, null, 0);
+                    segment = new Segment(offsetNanos, parseDuration(tokens[1]), current, current, 0);
+                    break;
+                case "step":
+                case "spike":
+                    expect(s, tokens, 4, "for", 2);
+                    double rate = parseRate(tokens[1]);
+                    segment = new Segment(offsetNanos, parseDuration(tokens[3]), rate, rate, 0);
+                    if ("step".equalsIgnoreCase(tokens[0])) {
+                        current = rate;
+                    }
+                    break;
+                case "sine":
+                    segment = parseSine(s, tokens, offsetNanos);
+                    current = segment.from;
+                    break;
+                default:
+                    throw new IllegalArgumentException(
+                            format("Unknown segment '%s' in load profile [%s]", s.trim(), description));
+            }
+            segments.add(segment);
+            offsetNanos = segment.endNanos;
+        }
+
+        if (segments.isEmpty()) {
+            throw new IllegalArgumentException(format("Load profile [%s] has no segments", description));
+        }
+        if (current <= 0) {
+            throw new IllegalArgumentException(format("Load profile [%s] should not end with a rate of 0", description));
+        }
+        return new LoadProfile(description, segments, current);
+    }
+
+    private static Segment parseSine(String s, String[] tokens, long offsetNanos) {
+        if (tokens.length != 4 && tokens.length != 6) {
+            throw new IllegalArgumentException(format("Invalid segment '%s', expected 'sine <mean>+-<amplitude>"
+                    + " period <duration> [for <duration>]'", s.trim()));
+        }
+        expect(s, tokens, tokens.length, "period", 2);
+        String[] meanAmplitude = tokens[1].split("\\+-|\u00b1");
+        if (meanAmplitude.length != 2) {
+            throw new IllegalArgumentException(format("Invalid segment '%s', expected <mean>+-<amplitude>", s.trim()));
+        }
+        double mean = parseRate(meanAmplitude[0]);
+        double amplitude = parseRate(meanAmplitude[1]);
+        if (amplitude > mean) {
+            throw new IllegalArgumentException(format("Invalid segment '%s', the amplitude is larger than the mean", s.trim()));
+        }
+        long periodNanos = parseDuration(tokens[3]);
+        long durationNanos = periodNanos;
+        if (tokens.length == 6) {
+            expect(s, tokens, 6, "for", 4);
+            durationNanos = parseDuration(tokens[5]);
+        }
+        return new Segment(offsetNanos, durationNanos, mean, amplitude, periodNanos);
+    }
+
+    private static void expect(String s, String[] tokens, int length, String keyword, int keywordIndex) {
+        if (tokens.length != length || (keyword != null && !keyword.equalsIgnoreCase(tokens[keywordIndex]))) {
+            throw new IllegalArgumentException(format("Invalid segment '%s'", s.trim()));
+        }
+    }
+
+    static double parseRate(String value) {
+        double multiplier = 1;
+        String number = value;
+        if (value.endsWith("k") || value.endsWith("K")) {
+            multiplier = 1000;
+            number = value.substring(0, value.length() - 1);
+        } else if (value.endsWith("M")) {
+            multiplier = 1000 * 1000;
+            number = value.substring(0, value.length() - 1);
+        }
+
+        double rate;
+        try {
+            rate = Double.parseDouble(number) * multiplier;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(format("Invalid rate [%s]", value), e);
+        }
+        if (rate < 0) {
+            throw new IllegalArgumentException(format("Rate [%s] can't be negative", value));
+        }
+        return rate;
+    }
+
+    static long parseDuration(String value) {
+        long nanos;
+        try {
+            if (value.endsWith("ms")) {
+                nanos = MILLISECONDS.toNanos(Long.parseLong(value.substring(0, value.length() - 2)));
+            } else if (value.endsWith("s")) {
+                nanos = SECONDS.toNanos(Long.parseLong(value.substring(0, value.length() - 1)));
+            } else if (value.endsWith("m")) {
+                nanos = MINUTES.toNanos(Long.parseLong(value.substring(0, value.length() - 1)));
+            } else if (value.endsWith("h")) {
+                nanos = HOURS.toNanos(Long.parseLong(value.substring(0, value.length() - 1)));
+            } else {
+                throw new IllegalArgumentException(format("Duration [%s] is missing a time unit. For example 10s", value));
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(format("Invalid duration [%s]", value), e);
+        }
+        if (nanos <= 0) {
+            throw new IllegalArgumentException(format("Duration [%s] should be positive", value));
+        }
+        return nanos;
+    }
+
+    /**
+     * A linear segment from 'from' to 'to' or, if there is a period, a sine wave with mean 'from' and amplitude 'to'.
+     */
+    private static final class Segment {
+        private final long startNanos;
+        private final long endNanos;
+        private final double from;
+        private final double to;
+        private final long periodNanos;
+
+        private Segment(long startNanos, long durationNanos, double from, double to, long periodNanos) {
+            this.startNanos = startNanos;
+            this.endNanos = startNanos + durationNanos;
+            this.from = from;
+            this.to = to;
+            this.periodNanos = periodNanos;
+        }
+
+        private double rate(long elapsedNanos) {
+            if (periodNanos > 0) {
+                return from + to * sin(2 * PI * elapsedNanos / periodNanos);
+            }
+            return from + (to - from) * elapsedNanos / (endNanos - startNanos);
+        }
+
+        // the integral of the rate; the differences are rewritten as products, so short intervals late in a long
+        // segment don't lose their precision
+        private double operations(long fromElapsedNanos, long toElapsedNanos) {
+            double durationNanos = toElapsedNanos - fromElapsedNanos;
+            if (periodNanos > 0) {
+                // cos(a) - cos(b) = 2 sin((a + b) / 2) sin((b - a) / 2)
+                double a = 2 * PI * fromElapsedNanos / periodNanos;
+                double b = 2 * PI * toElapsedNanos / periodNanos;
+                double waveNanos = to * periodNanos / PI * sin((a + b) / 2) * sin((b - a) / 2);
+                return (from * durationNanos + waveNanos) / NANOS_PER_SECOND;
+            }
+            // for a linear change, the average rate is the rate halfway the interval
+            double midRate = from + (to - from) * (fromElapsedNanos + (toElapsedNanos - fromElapsedNanos) / 2.0)
+                    / (endNanos - startNanos);
+            return midRate * durationNanos / NANOS_PER_SECOND;
+        }
+    }
+}
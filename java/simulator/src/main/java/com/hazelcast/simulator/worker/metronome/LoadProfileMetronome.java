@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.worker.metronome;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.lang.System.nanoTime;
+import static java.util.concurrent.locks.LockSupport.parkNanos;
+
+/**
+ * A {@link Metronome} which follows the rate of a {@link LoadProfile}.
+ * <p>
+ * Just like the {@link ConstantCombinedRateMetronome}, all threads of an execution group share a single schedule of
+ * intended start times; any thread that is available picks up the next request. When the system can't keep up, e.g.
+ * during a spike, the requests queue up and are executed as soon as a thread is available. Since the latency is
+ * determined on the intended start time, the backpressure shows up in the latency instead of silently lowering the
+ * rate.
+ * <p>
+ * The profile starts with the first call to {@link #waitForNext()}.
+ */
+public final class LoadProfileMetronome implements Metronome {
+
+    private final LoadProfile profile;
+    private final boolean accountForCoordinatedOmission;
+    private final AtomicLong startNanos;
+    // the intended start time of the next request relative to the start
+    private final AtomicLong nextOffsetNanos;
+    private final ScheduleLag scheduleLag = new ScheduleLag();
+
+    public LoadProfileMetronome(LoadProfile profile, boolean accountForCoordinatedOmission) {
+        this.profile = profile;
+        this.accountForCoordinatedOmission = accountForCoordinatedOmission;
+        this.startNanos = new AtomicLong();
+        this.nextOffsetNanos = new AtomicLong(profile.first());
+    }
+
+    public LoadProfileMetronome(Metronome m) {
+        LoadProfileMetronome master = (LoadProfileMetronome) m;
+        this.profile = master.profile;
+        this.accountForCoordinatedOmission = master.accountForCoordinatedOmission;
+        this.startNanos = master.startNanos;
+        this.nextOffsetNanos = master.nextOffsetNanos;
+    }
+
+    @Override
+    public long waitForNext() {
+        long start = startNanos.get();
+        if (start == 0) {
+            startNanos.compareAndSet(0, nanoTime());
+            start = startNanos.get();
+        }
+
+        long expectedStartNanos;
+        long now;
+        for (; ; ) {
+            long offset = nextOffsetNanos.get();
+            expectedStartNanos = start + offset;
+            while ((now = nanoTime()) < expectedStartNanos) {
+                // we can't pick up the request yet since it is too early.
+                parkNanos(expectedStartNanos - now);
+            }
+
+            // if we manage to cas the item, we can execute the request, otherwise continue waiting.
+            if (nextOffsetNanos.compareAndSet(offset, profile.next(offset))) {
+                break;
+            }
+        }
+
+        scheduleLag.record(expectedStartNanos, now);
+        return accountForCoordinatedOmission ? expectedStartNanos : nanoTime();
+    }
+
+    public LoadProfile getProfile() {
+        return profile;
+    }
+
+    @Override
+    public ScheduleLag getScheduleLag() {
+        return scheduleLag;
+    }
+}
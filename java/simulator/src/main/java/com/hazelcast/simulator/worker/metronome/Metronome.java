@@ -31,5 +31,14 @@ public interface Metronome {
      * @return the time the call was supposed to execute in nanos.
      */
     long waitForNext();
+
+    /**
+     * Returns the {@link ScheduleLag} in which this metronome records how late it releases requests.
+     *
+     * @return the ScheduleLag or {@code null} if this metronome doesn't track the schedule lag.
+     */
+    default ScheduleLag getScheduleLag() {
+        return null;
+    }
 }
 
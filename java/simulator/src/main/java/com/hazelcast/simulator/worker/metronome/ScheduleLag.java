@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.worker.metronome;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import static java.util.concurrent.TimeUnit.DAYS;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Tracks how far behind its intended start time a {@link Metronome} releases each request.
+ * <p>
+ * When a load generator can't keep up, the metronome keeps returning intended start times that are already in the
+ * past. With coordinated omission accounted for, this shows up as a higher latency, but it can't be told apart from a
+ * slow cluster. The schedule lag makes the difference visible: a slow cluster increases the latency, a saturated load
+ * generator increases the schedule lag.
+ * <p>
+ * Every thread has its own metronome and therefore its own ScheduleLag. The values are recorded by the owning thread
+ * and read by the performance monitor thread.
+ */
+public final class ScheduleLag {
+
+    /**
+     * The lag beyond which a request is considered to be issued late.
+     */
+    public static final long LATE_THRESHOLD_NANOS = MILLISECONDS.toNanos(1);
+
+    static final long HIGHEST_TRACKABLE_VALUE_NANOS = DAYS.toNanos(1);
+
+    private static final long LOWEST_DISCERNIBLE_VALUE = MICROSECONDS.toNanos(1);
+    private static final int NUMBER_OF_SIGNIFICANT_VALUE_DIGITS = 3;
+
+    private final Recorder recorder = new Recorder(
+            LOWEST_DISCERNIBLE_VALUE,
+            HIGHEST_TRACKABLE_VALUE_NANOS,
+            NUMBER_OF_SIGNIFICANT_VALUE_DIGITS);
+
+    /**
+     * Creates an empty histogram to which the interval histograms of ScheduleLags can be added.
+     */
+    public static Histogram newHistogram() {
+        return new Histogram(LOWEST_DISCERNIBLE_VALUE, HIGHEST_TRACKABLE_VALUE_NANOS, NUMBER_OF_SIGNIFICANT_VALUE_DIGITS);
+    }
+
+    /**
+     * Records the lag of a single request.
+     *
+     * @param expectedStartNanos the intended start time of the request
+     * @param actualStartNanos   the time the request was released
+     */
+    public void record(long expectedStartNanos, long actualStartNanos) {
+        long lagNanos = actualStartNanos - expectedStartNanos;
+        if (lagNanos < 0) {
+            lagNanos = 0;
+        } else if (lagNanos > HIGHEST_TRACKABLE_VALUE_NANOS) {
+            lagNanos = HIGHEST_TRACKABLE_VALUE_NANOS;
+        }
+        recorder.recordValue(lagNanos);
+    }
+
+    /**
+     * Returns the lags recorded since the previous call; see {@link Recorder#getIntervalHistogram()}.
+     */
+    public Histogram getIntervalHistogram() {
+        return recorder.getIntervalHistogram();
+    }
+
+    public void reset() {
+        recorder.reset();
+    }
+
+    /**
+     * Returns the number of requests in the histogram which were issued late.
+     */
+    public static long lateCount(Histogram histogram) {
+        return histogram.getTotalCount() - histogram.getCountBetweenValues(0, LATE_THRESHOLD_NANOS);
+    }
+}
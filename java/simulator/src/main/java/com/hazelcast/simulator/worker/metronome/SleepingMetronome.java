@@ -34,6 +34,7 @@ public final class SleepingMetronome implements Metronome {
     private final long intervalNanos;
     private final boolean accountForCoordinatedOmission;
     private long nextNanos;
+    private final ScheduleLag scheduleLag = new ScheduleLag();
 
     SleepingMetronome(long intervalNanos, boolean accountForCoordinatedOmission) {
         this.intervalNanos = intervalNanos;
@@ -64,10 +65,16 @@ public final class SleepingMetronome implements Metronome {
 
         long expectedStartNanos = nextNanos;
         nextNanos += intervalNanos;
+        scheduleLag.record(expectedStartNanos, now);
         return accountForCoordinatedOmission ? expectedStartNanos : nanoTime();
     }
 
     public long getIntervalNanos() {
         return intervalNanos;
     }
+
+    @Override
+    public ScheduleLag getScheduleLag() {
+        return scheduleLag;
+    }
 }
@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.worker.performance;
+
+import java.io.File;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static com.hazelcast.simulator.utils.FileUtils.appendText;
+import static com.hazelcast.simulator.utils.Preconditions.checkNotNull;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Responsible for writing the sampled metrics of the driver instance to disk in csv format.
+ * <p>
+ * Since the available metrics depend on the driver and can change during the run, e.g. when a map is created, every
+ * metric is written as a separate row.
+ */
+final class MemberMetricsLogWriter {
+
+    private final StringBuilder sb = new StringBuilder();
+    private final DecimalFormat format = new DecimalFormat("#.###", new DecimalFormatSymbols(Locale.ENGLISH));
+    private final File file;
+    private boolean headerWritten;
+
+    MemberMetricsLogWriter(File file) {
+        this.file = checkNotNull(file, "file can't be null");
+    }
+
+    void write(long timeMillis, String timestamp, Map<String, Double> metrics) {
+        if (metrics.isEmpty()) {
+            return;
+        }
+
+        sb.setLength(0);
+        if (!headerWritten) {
+            sb.append("epoch,timestamp,metric,value\n");
+            headerWritten = true;
+        }
+
+        // ms are expressed in epoch time after the decimal point
+        String epoch = format.format(timeMillis * 1d / SECONDS.toMillis(1));
+        for (Map.Entry<String, Double> entry : new TreeMap<>(metrics).entrySet()) {
+            if (entry.getValue() == null || !Double.isFinite(entry.getValue())) {
+                continue;
+            }
+            sb.append(epoch);
+            sb.append(',').append(timestamp);
+            sb.append(',').append(entry.getKey());
+            sb.append(',').append(format.format(entry.getValue()));
+            sb.append('\n');
+        }
+        appendText(sb.toString(), file);
+    }
+}
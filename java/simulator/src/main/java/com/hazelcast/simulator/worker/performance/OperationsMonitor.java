@@ -15,6 +15,7 @@
  */
 package com.hazelcast.simulator.worker.performance;
 
+import com.hazelcast.simulator.drivers.Driver;
 import com.hazelcast.simulator.protocol.Server;
 import com.hazelcast.simulator.worker.messages.PerformanceStatsMessage;
 import com.hazelcast.simulator.worker.testcontainer.TestContainer;
@@ -27,7 +28,9 @@ import java.io.File;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import static com.hazelcast.simulator.utils.CommonUtils.joinThread;
@@ -43,6 +46,11 @@ import static java.util.concurrent.TimeUnit.SECONDS;
 
 /**
  * Monitors the performance of all running Simulator Tests.
+ * <p>
+ * The metrics of the driver instance (see {@link Driver#sampleMetrics()}) are sampled every update interval, also on a
+ * Worker which doesn't run a test, e.g. a member when the clients generate the load. While tests are running, they are
+ * sampled at the same moments as the performance stats, so the internal state of e.g. a member can be lined up with
+ * the latencies seen by the clients. They are written to the member-metrics.csv file and sent to the Coordinator.
  */
 public class OperationsMonitor implements Closeable {
 
@@ -54,13 +62,25 @@ public class OperationsMonitor implements Closeable {
     private final AtomicBoolean shutdown = new AtomicBoolean();
     private final TestManager testManager;
     private final Server server;
+    private final Driver driver;
     private final int updateIntervalSeconds;
 
     public OperationsMonitor(Server server,
                              TestManager testManager,
                              int updateIntervalSeconds) {
+        this(server, testManager, null, updateIntervalSeconds);
+    }
+
+    /**
+     * @param driver the driver to sample the metrics from, or {@code null} if no metrics should be sampled
+     */
+    public OperationsMonitor(Server server,
+                             TestManager testManager,
+                             Driver driver,
+                             int updateIntervalSeconds) {
         this.testManager = testManager;
         this.server = server;
+        this.driver = driver;
         this.updateIntervalSeconds = updateIntervalSeconds;
         this.thread = new OperationsMonitorThread();
         thread.setUncaughtExceptionHandler((t, e) -> LOGGER.fatal(e.getMessage(), e));
@@ -91,15 +111,19 @@ public class OperationsMonitor implements Closeable {
 
         private final long scanIntervalNanos = SECONDS.toNanos(1);
         private final OperationsLogWriter globalOperationsLogWriter;
+        private final MemberMetricsLogWriter memberMetricsLogWriter;
         private final SimpleDateFormat simpleDateFormat = new SimpleDateFormat("dd/MM/yyyy HH:mm:ss");
         private final long updateIntervalMillis;
         private final List<TestContainer> dirtyContainers = new ArrayList<>();
+        private boolean metricsSamplingFailed;
+        private long nextMetricsMillis;
 
         private OperationsMonitorThread() {
             super("WorkerOperationsMonitor");
             setDaemon(true);
             this.updateIntervalMillis = SECONDS.toMillis(updateIntervalSeconds);
             this.globalOperationsLogWriter = new OperationsLogWriter(new File(getUserDir(), "operations.csv"));
+            this.memberMetricsLogWriter = new MemberMetricsLogWriter(new File(getUserDir(), "member-metrics.csv"));
         }
 
         @Override
@@ -111,9 +135,11 @@ public class OperationsMonitor implements Closeable {
 
                     updateTrackers(currentTimeMillis);
 
-                    if (!dirtyContainers.isEmpty()) {
-                        coordinatorUpdate();
-                        persist(currentTimeMillis);
+                    if (!dirtyContainers.isEmpty() || isMetricsSampleDue(currentTimeMillis)) {
+                        nextMetricsMillis = currentTimeMillis + updateIntervalMillis;
+                        Map<String, Double> metrics = sampleMetrics();
+                        coordinatorUpdate(metrics);
+                        persist(currentTimeMillis, metrics);
                     }
 
                     long elapsedNanos = nanoTime() - startNanos;
@@ -144,21 +170,46 @@ public class OperationsMonitor implements Closeable {
             }
         }
 
-        private void coordinatorUpdate() {
+        private boolean isMetricsSampleDue(long currentTimeMillis) {
+            return driver != null && !metricsSamplingFailed && currentTimeMillis >= nextMetricsMillis;
+        }
+
+        private Map<String, Double> sampleMetrics() {
+            if (driver == null || metricsSamplingFailed) {
+                return Collections.emptyMap();
+            }
+
+            try {
+                return driver.sampleMetrics();
+            } catch (Exception e) {
+                // a broken sampler should not stop the performance monitoring
+                LOGGER.warn("Failed to sample the driver metrics, metrics sampling is disabled", e);
+                metricsSamplingFailed = true;
+                return Collections.emptyMap();
+            }
+        }
+
+        private void coordinatorUpdate(Map<String, Double> metrics) {
             PerformanceStatsMessage msg = new PerformanceStatsMessage();
+            msg.setMemberMetrics(metrics);
 
             for (TestContainer container : dirtyContainers) {
                 TestOperationsTracker tracker = container.getTestOperationsTracker();
                 msg.addPerformanceStats(container.getTestCase().getId(), tracker.createPerformanceStats());
             }
 
-            if (!msg.getPerformanceStats().isEmpty()) {
+            if (!msg.getPerformanceStats().isEmpty() || !metrics.isEmpty()) {
                 server.sendCoordinator(msg);
             }
         }
 
-        private void persist(long currentTimestamp) {
+        private void persist(long currentTimestamp, Map<String, Double> metrics) {
             String dateString = simpleDateFormat.format(new Date(currentTimestamp));
+            memberMetricsLogWriter.write(currentTimestamp, dateString, metrics);
+            if (dirtyContainers.isEmpty()) {
+                return;
+            }
+
             long globalIntervalOperationCount = 0;
             long globalOperationsCount = 0;
             double globalIntervalThroughput = 0;
@@ -39,6 +39,10 @@ public class PerformanceStats {
     private double intervalLatencyAvgNanos;
     private long intervalLatencyMaxNanos;
     private long intervalLatency999PercentileNanos;
+    private long intervalScheduledOperationCount;
+    private long intervalLateOperationCount;
+    private long intervalScheduleLag999PercentileNanos;
+    private long intervalScheduleLagMaxNanos;
 
     /**
      * Creates an empty {@link PerformanceStats} instance.
@@ -66,12 +70,46 @@ public class PerformanceStats {
                             double intervalLatencyAvgNanos,
                             long intervalLatency999PercentileNanos,
                             long intervalLatencyMaxNanos) {
+        this(operationCount, intervalThroughput, totalThroughput, intervalLatencyAvgNanos,
+                intervalLatency999PercentileNanos, intervalLatencyMaxNanos, 0, 0, 0, 0);
+    }
+
+    /**
+     * Creates a {@link PerformanceStats} instance with values, including the schedule lag of the metronomes.
+     *
+     * @param operationCount                        Operation count value.
+     * @param intervalThroughput                    Throughput value for an interval.
+     * @param totalThroughput                       Total throughput value.
+     * @param intervalLatencyAvgNanos               Average latency for an interval.
+     * @param intervalLatency999PercentileNanos     99.9 Percentile latency for an interval
+     *                                              ({@link PerformanceStats#INTERVAL_LATENCY_PERCENTILE}).
+     * @param intervalLatencyMaxNanos               Maximum latency for an interval.
+     * @param intervalScheduledOperationCount       Number of operations released by a metronome in an interval.
+     * @param intervalLateOperationCount            Number of operations released late by a metronome in an interval.
+     * @param intervalScheduleLag999PercentileNanos 99.9 Percentile schedule lag for an interval.
+     * @param intervalScheduleLagMaxNanos           Maximum schedule lag for an interval.
+     */
+    @SuppressWarnings("checkstyle:parameternumber")
+    public PerformanceStats(long operationCount,
+                            double intervalThroughput,
+                            double totalThroughput,
+                            double intervalLatencyAvgNanos,
+                            long intervalLatency999PercentileNanos,
+                            long intervalLatencyMaxNanos,
+                            long intervalScheduledOperationCount,
+                            long intervalLateOperationCount,
+                            long intervalScheduleLag999PercentileNanos,
+                            long intervalScheduleLagMaxNanos) {
         this.operationCount = operationCount;
         this.intervalThroughput = intervalThroughput;
         this.totalThroughput = totalThroughput;
         this.intervalLatencyAvgNanos = intervalLatencyAvgNanos;
         this.intervalLatency999PercentileNanos = intervalLatency999PercentileNanos;
         this.intervalLatencyMaxNanos = intervalLatencyMaxNanos;
+        this.intervalScheduledOperationCount = intervalScheduledOperationCount;
+        this.intervalLateOperationCount = intervalLateOperationCount;
+        this.intervalScheduleLag999PercentileNanos = intervalScheduleLag999PercentileNanos;
+        this.intervalScheduleLagMaxNanos = intervalScheduleLagMaxNanos;
     }
 
     public PerformanceStats(PerformanceStats original) {
@@ -81,6 +119,10 @@ public class PerformanceStats {
         this.intervalLatencyAvgNanos = original.intervalLatencyAvgNanos;
         this.intervalLatency999PercentileNanos = original.intervalLatency999PercentileNanos;
         this.intervalLatencyMaxNanos = original.intervalLatencyMaxNanos;
+        this.intervalScheduledOperationCount = original.intervalScheduledOperationCount;
+        this.intervalLateOperationCount = original.intervalLateOperationCount;
+        this.intervalScheduleLag999PercentileNanos = original.intervalScheduleLag999PercentileNanos;
+        this.intervalScheduleLagMaxNanos = original.intervalScheduleLagMaxNanos;
     }
 
     /**
@@ -121,20 +163,31 @@ public class PerformanceStats {
             intervalLatencyAvgNanos = other.intervalLatencyAvgNanos;
             intervalLatency999PercentileNanos = other.intervalLatency999PercentileNanos;
             intervalLatencyMaxNanos = other.intervalLatencyMaxNanos;
+            intervalScheduledOperationCount = other.intervalScheduledOperationCount;
+            intervalLateOperationCount = other.intervalLateOperationCount;
+            intervalScheduleLag999PercentileNanos = other.intervalScheduleLag999PercentileNanos;
+            intervalScheduleLagMaxNanos = other.intervalScheduleLagMaxNanos;
         } else {
             if (addOperationCountAndThroughput) {
                 operationCount += other.operationCount;
                 intervalThroughput += other.intervalThroughput;
                 totalThroughput += other.totalThroughput;
+                intervalScheduledOperationCount += other.intervalScheduledOperationCount;
+                intervalLateOperationCount += other.intervalLateOperationCount;
             } else {
                 operationCount = max(operationCount, other.operationCount);
                 intervalThroughput = max(intervalThroughput, other.intervalThroughput);
                 totalThroughput = max(totalThroughput, other.totalThroughput);
+                intervalScheduledOperationCount = max(intervalScheduledOperationCount, other.intervalScheduledOperationCount);
+                intervalLateOperationCount = max(intervalLateOperationCount, other.intervalLateOperationCount);
             }
 
             intervalLatencyAvgNanos = max(intervalLatencyAvgNanos, other.intervalLatencyAvgNanos);
             intervalLatency999PercentileNanos = max(intervalLatency999PercentileNanos, other.intervalLatency999PercentileNanos);
             intervalLatencyMaxNanos = max(intervalLatencyMaxNanos, other.intervalLatencyMaxNanos);
+            intervalScheduleLag999PercentileNanos = max(intervalScheduleLag999PercentileNanos,
+                    other.intervalScheduleLag999PercentileNanos);
+            intervalScheduleLagMaxNanos = max(intervalScheduleLagMaxNanos, other.intervalScheduleLagMaxNanos);
         }
     }
 
@@ -171,6 +224,32 @@ public class PerformanceStats {
         return intervalLatencyMaxNanos;
     }
 
+    public long getIntervalScheduledOperationCount() {
+        return intervalScheduledOperationCount;
+    }
+
+    public long getIntervalLateOperationCount() {
+        return intervalLateOperationCount;
+    }
+
+    /**
+     * Returns the fraction of the operations released by a metronome in the interval that were released late, or 0 if
+     * no operations were released by a metronome.
+     *
+     * @return the late fraction
+     */
+    public double getIntervalLateFraction() {
+        return intervalScheduledOperationCount <= 0 ? 0 : (double) intervalLateOperationCount / intervalScheduledOperationCount;
+    }
+
+    public long getIntervalScheduleLag999PercentileNanos() {
+        return intervalScheduleLag999PercentileNanos;
+    }
+
+    public long getIntervalScheduleLagMaxNanos() {
+        return intervalScheduleLagMaxNanos;
+    }
+
     @Override
     public String toString() {
         return "PerformanceStats{"
@@ -180,6 +259,10 @@ public class PerformanceStats {
                 + ", intervalAvgLatencyNanos=" + intervalLatencyAvgNanos
                 + ", intervalLatency999PercentileNanos=" + intervalLatency999PercentileNanos
                 + ", intervalMaxLatencyNanos=" + intervalLatencyMaxNanos
+                + ", intervalScheduledOperationCount=" + intervalScheduledOperationCount
+                + ", intervalLateOperationCount=" + intervalLateOperationCount
+                + ", intervalScheduleLag999PercentileNanos=" + intervalScheduleLag999PercentileNanos
+                + ", intervalScheduleLagMaxNanos=" + intervalScheduleLagMaxNanos
                 + '}';
     }
 
@@ -18,6 +18,7 @@ package com.hazelcast.simulator.worker.performance;
 import com.hazelcast.simulator.probes.LatencyProbe;
 import com.hazelcast.simulator.probes.impl.HdrLatencyProbe;
 import com.hazelcast.simulator.test.TestException;
+import com.hazelcast.simulator.worker.metronome.ScheduleLag;
 import com.hazelcast.simulator.worker.testcontainer.TestContainer;
 import com.hazelcast.simulator.worker.testcontainer.TestContextImpl;
 import org.HdrHistogram.Histogram;
@@ -59,6 +60,10 @@ public final class TestOperationsTracker {
     private double intervalLatencyAvgNanos;
     private long intervalLatency999PercentileNanos;
     private long intervalLatencyMaxNanos;
+    private long intervalScheduledOperationCount;
+    private long intervalLateOperationCount;
+    private long intervalScheduleLag999PercentileNanos;
+    private long intervalScheduleLagMaxNanos;
     private long intervalOperationCount;
     private long totalOperationCount;
     private double intervalThroughput;
@@ -102,6 +107,9 @@ public final class TestOperationsTracker {
             for (LatencyProbe probe : testContext.getLatencyProbes().values()) {
                 probe.reset();
             }
+            for (ScheduleLag scheduleLag : testContainer.getScheduleLags()) {
+                scheduleLag.reset();
+            }
             lastUpdateMillis = currentTimeMillis;
             nextUpdateMillis = lastUpdateMillis + updateIntervalMillis;
             return true;
@@ -156,6 +164,8 @@ public final class TestOperationsTracker {
 
         this.intervalHistogramMap = intervalHistograms;
 
+        updateScheduleLag();
+
         this.intervalLatency999PercentileNanos = intervalPercentileLatency;
         this.intervalLatencyAvgNanos = intervalMean;
         this.intervalLatencyMaxNanos = intervalMaxLatency;
@@ -174,6 +184,18 @@ public final class TestOperationsTracker {
         this.lastUpdateMillis = currentTimeMillis;
     }
 
+    private void updateScheduleLag() {
+        Histogram scheduleLagHistogram = ScheduleLag.newHistogram();
+        for (ScheduleLag scheduleLag : testContainer.getScheduleLags()) {
+            scheduleLagHistogram.add(scheduleLag.getIntervalHistogram());
+        }
+
+        this.intervalScheduledOperationCount = scheduleLagHistogram.getTotalCount();
+        this.intervalLateOperationCount = ScheduleLag.lateCount(scheduleLagHistogram);
+        this.intervalScheduleLag999PercentileNanos = scheduleLagHistogram.getValueAtPercentile(INTERVAL_LATENCY_PERCENTILE);
+        this.intervalScheduleLagMaxNanos = scheduleLagHistogram.getMaxValue();
+    }
+
     long intervalOperationCount() {
         return intervalOperationCount;
     }
@@ -214,7 +236,11 @@ public final class TestOperationsTracker {
                 totalThroughput,
                 intervalLatencyAvgNanos,
                 intervalLatency999PercentileNanos,
-                intervalLatencyMaxNanos);
+                intervalLatencyMaxNanos,
+                intervalScheduledOperationCount,
+                intervalLateOperationCount,
+                intervalScheduleLag999PercentileNanos,
+                intervalScheduleLagMaxNanos);
     }
 
     HistogramLogWriter createHistogramLogWriter(String probeName) {
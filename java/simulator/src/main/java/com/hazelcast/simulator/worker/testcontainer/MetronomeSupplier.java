@@ -16,6 +16,9 @@
 package com.hazelcast.simulator.worker.testcontainer;
 
 import com.hazelcast.simulator.worker.metronome.EmptyMetronome;
+import com.hazelcast.simulator.worker.metronome.GlobalRateMetronome;
+import com.hazelcast.simulator.worker.metronome.LoadProfile;
+import com.hazelcast.simulator.worker.metronome.LoadProfileMetronome;
 import com.hazelcast.simulator.worker.metronome.Metronome;
 import com.hazelcast.simulator.worker.metronome.SleepingMetronome;
 
@@ -23,6 +26,9 @@ import java.lang.reflect.Constructor;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 
+import static com.hazelcast.simulator.worker.metronome.GlobalRateMetronome.GLOBAL_RATE_PROPERTY;
+import static com.hazelcast.simulator.worker.metronome.GlobalRateMetronome.RATE_PHASE_PROPERTY;
+import static com.hazelcast.simulator.worker.metronome.GlobalRateMetronome.RATE_SHARE_PROPERTY;
 import static com.hazelcast.simulator.worker.testcontainer.PropertyBinding.toPropertyName;
 import static java.lang.Math.round;
 import static java.lang.String.format;
@@ -58,8 +64,26 @@ public class MetronomeSupplier implements Supplier<Metronome> {
         Class<SleepingMetronome> configuredMetronomeClass = binding.loadAsClass(
                 toPropertyName(executionGroup, "metronomeClass"), SleepingMetronome.class);
 
+        LoadProfile loadProfile = loadProfile(executionGroup, binding);
+        double globalRatePerSecond = binding.loadAsDouble(toPropertyName(executionGroup, GLOBAL_RATE_PROPERTY), 0);
+
         this.intervalNanos = intervalNanos;
-        if (intervalNanos == 0) {
+        if (loadProfile != null) {
+            if (intervalNanos != 0 || globalRatePerSecond > 0 || configuredMetronomeClass != SleepingMetronome.class) {
+                throw new IllegalTestException(format("%s can't be combined with an interval, ratePerSecond,"
+                        + " globalRatePerSecond or metronomeClass", toPropertyName(executionGroup, "loadProfile")));
+            }
+            this.metronomeClass = LoadProfileMetronome.class;
+            this.masterMetronome = new LoadProfileMetronome(loadProfile, binding.loadAsBoolean(
+                    toPropertyName(executionGroup, "accountForCoordinatedOmission"), true));
+        } else if (globalRatePerSecond > 0) {
+            if (intervalNanos != 0 || configuredMetronomeClass != SleepingMetronome.class) {
+                throw new IllegalTestException(format("%s can't be combined with an interval, ratePerSecond or metronomeClass",
+                        toPropertyName(executionGroup, GLOBAL_RATE_PROPERTY)));
+            }
+            this.metronomeClass = GlobalRateMetronome.class;
+            this.masterMetronome = newGlobalRateMetronome(executionGroup, binding, globalRatePerSecond);
+        } else if (intervalNanos == 0) {
             this.metronomeClass = EmptyMetronome.class;
             this.masterMetronome = EmptyMetronome.INSTANCE;
         } else {
@@ -80,6 +104,34 @@ public class MetronomeSupplier implements Supplier<Metronome> {
         }
     }
 
+    private static LoadProfile loadProfile(String executionGroup, PropertyBinding binding) {
+        String property = toPropertyName(executionGroup, "loadProfile");
+        String value = binding.load(property);
+        if (value == null) {
+            return null;
+        }
+
+        try {
+            return LoadProfile.parse(value);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalTestException(
+                    format("%s has an invalid property value [%s]: %s", property, value, e.getMessage()), e);
+        }
+    }
+
+    private static GlobalRateMetronome newGlobalRateMetronome(String executionGroup, PropertyBinding binding,
+                                                              double globalRatePerSecond) {
+        try {
+            return new GlobalRateMetronome(globalRatePerSecond,
+                    binding.loadAsDouble(RATE_SHARE_PROPERTY, 1),
+                    binding.loadAsDouble(RATE_PHASE_PROPERTY, 0),
+                    binding.loadAsBoolean(toPropertyName(executionGroup, "accountForCoordinatedOmission"), true));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalTestException(format("%s can't be applied: %s",
+                    toPropertyName(executionGroup, GLOBAL_RATE_PROPERTY), e.getMessage()), e);
+        }
+    }
+
     public long getIntervalNanos() {
         return intervalNanos;
     }
@@ -121,6 +173,20 @@ public class MetronomeSupplier implements Supplier<Metronome> {
         return unit.toNanos(interval);
     }
 
+    /**
+     * Changes the share of the global rate if this execution group is configured with a globalRatePerSecond.
+     *
+     * @param share the new share of the global rate
+     * @return true if the share was applied, false if the execution group doesn't have a global rate
+     */
+    boolean setRateShare(double share) {
+        if (!(masterMetronome instanceof GlobalRateMetronome)) {
+            return false;
+        }
+        ((GlobalRateMetronome) masterMetronome).setShare(share);
+        return true;
+    }
+
     Class<? extends Metronome> getMetronomeClass() {
         return metronomeClass;
     }
@@ -59,6 +59,9 @@ public class PropertyBinding {
     public boolean recordJitter;
     // configures the minimum value for the jitter sample to be recorded.
     public int recordJitterThresholdNs = DEFAULT_RECORD_JITTER_THRESHOLD_NS;
+    // if true, the timestep loops are generated as Java source and compiled with javac instead of being generated
+    // as bytecode. The source is written to the 'timestep-loop-classes' directory, which is useful for debugging.
+    public boolean javacTimeStepLoop;
 
     // this can be removed as soon as the @InjectMetronome/worker functionality is dropped
     private MetronomeSupplier workerMetronomeConstructor;
@@ -73,6 +76,17 @@ public class PropertyBinding {
         this.unusedProperties.addAll(testCase.getProperties().keySet());
         unusedProperties.remove("class");
         unusedProperties.remove("rampupSeconds");
+        // used by the Coordinator to select the Workers of the test
+        unusedProperties.remove("targetCount");
+        unusedProperties.remove("targetTags");
+        // used by the Coordinator to inject faults during the run
+        unusedProperties.remove("faults");
+        // used by the Coordinator to replace the members during the run
+        unusedProperties.remove("rollingRestartDelay");
+        unusedProperties.remove("rollingRestartInterval");
+        unusedProperties.remove("rollingRestartVersion");
+        // used by the Coordinator to decide if the test needs fresh client Workers
+        unusedProperties.remove("workerIsolation");
         unusedProperties.remove("id");
 
         bind(this);
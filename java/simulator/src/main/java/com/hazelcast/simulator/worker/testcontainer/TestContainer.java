@@ -29,6 +29,7 @@ import com.hazelcast.simulator.utils.AnnotatedMethodRetriever;
 import com.hazelcast.simulator.utils.AnnotationFilter;
 import com.hazelcast.simulator.utils.AnnotationFilter.TeardownFilter;
 import com.hazelcast.simulator.utils.AnnotationFilter.VerifyFilter;
+import com.hazelcast.simulator.worker.metronome.ScheduleLag;
 import com.hazelcast.simulator.worker.performance.TestOperationsTracker;
 
 import java.lang.annotation.Annotation;
@@ -37,6 +38,7 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.text.MessageFormat;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
@@ -120,6 +122,18 @@ public class TestContainer {
         runner.stop();
     }
 
+    /**
+     * Changes the share of the global rate of the execution groups with a globalRatePerSecond.
+     *
+     * @param share the new share of the global rate
+     * @throws IllegalStateException if the test doesn't have a global rate
+     */
+    public void setRateShare(double share) {
+        if (!runner.setRateShare(share)) {
+            throw new IllegalStateException(format("Test [%s] doesn't have a globalRatePerSecond", testCase.getId()));
+        }
+    }
+
     public TestPhase getCurrentPhase() {
         return currentPhase.get();
     }
@@ -172,6 +186,10 @@ public class TestContainer {
         return runner == null ? 0 : runner.iterations();
     }
 
+    public List<ScheduleLag> getScheduleLags() {
+        return runner == null ? Collections.<ScheduleLag>emptyList() : runner.getScheduleLags();
+    }
+
     public void invoke(TestPhase testPhase) throws Exception {
         if (!currentPhase.compareAndSet(null, testPhase)) {
             throw new IllegalStateException(format("Tried to start %s for test %s, but %s is still running!", testPhase,
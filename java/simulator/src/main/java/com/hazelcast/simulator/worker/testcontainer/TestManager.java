@@ -22,8 +22,10 @@ import com.hazelcast.simulator.protocol.Server;
 import com.hazelcast.simulator.utils.ExceptionReporter;
 import com.hazelcast.simulator.drivers.Driver;
 import com.hazelcast.simulator.worker.messages.CreateTestMessage;
+import com.hazelcast.simulator.worker.messages.RemoveTestMessage;
 import com.hazelcast.simulator.worker.messages.StartPhaseMessage;
 import com.hazelcast.simulator.worker.messages.StopRunMessage;
+import com.hazelcast.simulator.worker.messages.UpdateRateShareMessage;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -93,6 +95,31 @@ public class TestManager {
         testContainer.stop();
     }
 
+    public void removeTest(RemoveTestMessage msg) {
+        String testId = msg.getTestId();
+
+        TestContainer testContainer = tests.remove(testId);
+        if (testContainer == null) {
+            // the last phase of the test has completed, so it has already been removed
+            return;
+        }
+
+        LOGGER.info(format("%s Removing %s %s", DASHES, testId, DASHES));
+        testContainer.stop();
+    }
+
+    public void updateRateShare(UpdateRateShareMessage msg) {
+        String testId = msg.getTestId();
+
+        TestContainer testContainer = tests.get(testId);
+        if (testContainer == null) {
+            throw new IllegalArgumentException(format("Could not update rate share, test [%s] is not found.", testId));
+        }
+
+        LOGGER.info(format("Changing share of the global rate of %s to %s", testId, msg.getShare()));
+        testContainer.setRateShare(msg.getShare());
+    }
+
     public void startTestPhase(StartPhaseMessage msg, Promise promise) throws Exception {
         TestPhase testPhase = msg.getTestPhase();
 
@@ -15,6 +15,11 @@
  */
 package com.hazelcast.simulator.worker.testcontainer;
 
+import com.hazelcast.simulator.worker.metronome.ScheduleLag;
+
+import java.util.Collections;
+import java.util.List;
+
 /**
  * A TestRunner is responsible for running a test.
  * <ol>
@@ -82,6 +87,30 @@ abstract class TestRunner {
         stop = true;
     }
 
+    /**
+     * Returns the {@link ScheduleLag} of every thread running the test with a metronome. The list is empty if the test
+     * isn't running or doesn't use metronomes.
+     *
+     * This method is thread-safe.
+     *
+     * @return the list of ScheduleLags.
+     */
+    public List<ScheduleLag> getScheduleLags() {
+        return Collections.emptyList();
+    }
+
+    /**
+     * Changes the share of the global rate of the test.
+     *
+     * This method is thread-safe.
+     *
+     * @param share the new share of the global rate
+     * @return true if the test has a global rate, false otherwise
+     */
+    boolean setRateShare(double share) {
+        return false;
+    }
+
     /**
      * Returns the timestamp when the test started running. As long as the test has not started, the returned value is 0.
      *
@@ -0,0 +1,571 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.worker.testcontainer;
+
+import com.hazelcast.simulator.probes.LatencyProbe;
+import com.hazelcast.simulator.probes.impl.NoopLatencyProbe;
+import com.hazelcast.simulator.utils.ThrottlingLogger;
+import com.hazelcast.simulator.worker.metronome.EmptyMetronome;
+import com.hazelcast.simulator.worker.metronome.Metronome;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.Logger;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+
+import static com.hazelcast.simulator.worker.testcontainer.TimeStepLoopCodeGenerator.loopClassName;
+import static org.objectweb.asm.Opcodes.ACC_FINAL;
+import static org.objectweb.asm.Opcodes.ACC_PUBLIC;
+import static org.objectweb.asm.Opcodes.ACC_SUPER;
+import static org.objectweb.asm.Opcodes.ALOAD;
+import static org.objectweb.asm.Opcodes.ARRAYLENGTH;
+import static org.objectweb.asm.Opcodes.ASTORE;
+import static org.objectweb.asm.Opcodes.BALOAD;
+import static org.objectweb.asm.Opcodes.CHECKCAST;
+import static org.objectweb.asm.Opcodes.DUP;
+import static org.objectweb.asm.Opcodes.F2D;
+import static org.objectweb.asm.Opcodes.GETFIELD;
+import static org.objectweb.asm.Opcodes.GETSTATIC;
+import static org.objectweb.asm.Opcodes.GOTO;
+import static org.objectweb.asm.Opcodes.IFEQ;
+import static org.objectweb.asm.Opcodes.IFNE;
+import static org.objectweb.asm.Opcodes.INVOKEINTERFACE;
+import static org.objectweb.asm.Opcodes.INVOKESPECIAL;
+import static org.objectweb.asm.Opcodes.INVOKESTATIC;
+import static org.objectweb.asm.Opcodes.INVOKEVIRTUAL;
+import static org.objectweb.asm.Opcodes.LADD;
+import static org.objectweb.asm.Opcodes.LCMP;
+import static org.objectweb.asm.Opcodes.LCONST_0;
+import static org.objectweb.asm.Opcodes.LCONST_1;
+import static org.objectweb.asm.Opcodes.LLOAD;
+import static org.objectweb.asm.Opcodes.LSTORE;
+import static org.objectweb.asm.Opcodes.LSUB;
+import static org.objectweb.asm.Opcodes.NEW;
+import static org.objectweb.asm.Opcodes.POP;
+import static org.objectweb.asm.Opcodes.RETURN;
+import static org.objectweb.asm.Opcodes.V11;
+import static org.objectweb.asm.Type.getDescriptor;
+import static org.objectweb.asm.Type.getInternalName;
+import static org.objectweb.asm.Type.getMethodDescriptor;
+
+/**
+ * Generates the {@link TimeStepLoop} subclass directly as bytecode and defines it as a hidden class.
+ *
+ * The generated loop is the equivalent of the one produced from the 'TimeStepLoop.ftl' template by the
+ * {@link TimeStepLoopCodeGenerator}, but it doesn't need a JDK, doesn't write any files and takes
+ * milliseconds instead of seconds. Since the class is hidden, it is unloaded as soon as the test is done
+ * with it. The {@link TimeStepLoopCodeGenerator} can still be selected using the 'javacTimeStepLoop'
+ * property to inspect the source of a loop.
+ */
+class TimeStepLoopBytecodeGenerator {
+
+    private static final String LOOP = getInternalName(TimeStepLoop.class);
+    private static final String ATOMIC_LONG = getInternalName(AtomicLong.class);
+    private static final String STRING = getInternalName(String.class);
+    private static final String THROTTLING_LOGGER = getInternalName(ThrottlingLogger.class);
+    private static final String CALLBACK = getInternalName(LatencyRecordingCallback.class);
+
+    private final MethodHandles.Lookup lookup = MethodHandles.lookup();
+
+    Class compile(
+            String testCaseId,
+            String executionGroup,
+            TimeStepModel timeStepModel,
+            Class<? extends Metronome> metronomeClass,
+            Class<? extends LatencyProbe> probeClass,
+            long logFrequency,
+            long logRateMs,
+            boolean hasIterationCap) {
+
+        String className = loopClassName(testCaseId, executionGroup, timeStepModel);
+        try {
+            byte[] bytecode = new LoopWriter(
+                    className,
+                    executionGroup,
+                    timeStepModel,
+                    metronomeClass == EmptyMetronome.class ? null : metronomeClass,
+                    probeClass,
+                    logFrequency,
+                    logRateMs,
+                    hasIterationCap).write();
+            return lookup.defineHiddenClass(bytecode, true).lookupClass();
+        } catch (Exception | LinkageError e) {
+            throw new IllegalTestException(className + " ran into a code generation problem: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Records the latency of an asynchronous timestep method when its future completes.
+     */
+    static final class LatencyRecordingCallback implements BiConsumer<Object, Throwable> {
+
+        static final Executor DIRECT_EXECUTOR = Runnable::run;
+
+        private final LatencyProbe probe;
+        private final long startNanos;
+
+        LatencyRecordingCallback(LatencyProbe probe, long startNanos) {
+            this.probe = probe;
+            this.startNanos = startNanos;
+        }
+
+        @Override
+        public void accept(Object result, Throwable throwable) {
+            probe.recordValue(System.nanoTime() - startNanos);
+        }
+    }
+
+    private static final class LoopWriter {
+
+        private final String internalName;
+        private final String executionGroup;
+        private final TimeStepModel timeStepModel;
+        private final Class testClass;
+        private final Class<? extends Metronome> metronomeClass;
+        private final Class<? extends LatencyProbe> probeClass;
+        private final List<Method> timeStepMethods;
+        private final long logFrequency;
+        private final long logRateMs;
+        private final boolean hasIterationCap;
+
+        private MethodVisitor mv;
+        private int nextSlot = 1;
+        private int randomSlot;
+        private int iterationsSlot;
+        private int testContextSlot;
+        private int testInstanceSlot;
+        private int metronomeSlot;
+        private int[] probeSlots;
+        private int threadStateSlot;
+        private int logCounterSlot;
+        private int throttlingLoggerSlot;
+        private int probsSlot;
+        private int maxIterationsSlot;
+        private int iterationSlot;
+        private int startNanosSlot = -1;
+
+        private LoopWriter(String className,
+                           String executionGroup,
+                           TimeStepModel timeStepModel,
+                           Class<? extends Metronome> metronomeClass,
+                           Class<? extends LatencyProbe> probeClass,
+                           long logFrequency,
+                           long logRateMs,
+                           boolean hasIterationCap) {
+            this.internalName = LOOP.substring(0, LOOP.lastIndexOf('/') + 1) + className;
+            this.executionGroup = executionGroup;
+            this.timeStepModel = timeStepModel;
+            this.testClass = timeStepModel.getTestClass();
+            this.metronomeClass = metronomeClass;
+            this.probeClass = probeClass;
+            this.timeStepMethods = timeStepModel.getActiveTimeStepMethods(executionGroup);
+            this.logFrequency = logFrequency;
+            this.logRateMs = logRateMs;
+            this.hasIterationCap = hasIterationCap;
+        }
+
+        private byte[] write() {
+            ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_FRAMES) {
+                @Override
+                protected ClassLoader getClassLoader() {
+                    return testClass.getClassLoader();
+                }
+            };
+            cw.visit(V11, ACC_PUBLIC | ACC_FINAL | ACC_SUPER, internalName, null, LOOP, null);
+            writeConstructor(cw);
+            writeTimeStepLoop(cw);
+            cw.visitEnd();
+            return cw.toByteArray();
+        }
+
+        private void writeConstructor(ClassWriter cw) {
+            String descriptor = "(" + getDescriptor(testClass) + getDescriptor(TimeStepModel.class)
+                    + getDescriptor(String.class) + ")V";
+            String superDescriptor = "(" + getDescriptor(Object.class) + getDescriptor(TimeStepModel.class)
+                    + getDescriptor(String.class) + ")V";
+
+            MethodVisitor ctor = cw.visitMethod(ACC_PUBLIC, "<init>", descriptor, null, null);
+            ctor.visitCode();
+            ctor.visitVarInsn(ALOAD, 0);
+            ctor.visitVarInsn(ALOAD, 1);
+            ctor.visitVarInsn(ALOAD, 2);
+            ctor.visitVarInsn(ALOAD, 3);
+            ctor.visitMethodInsn(INVOKESPECIAL, LOOP, "<init>", superDescriptor, false);
+            ctor.visitInsn(RETURN);
+            ctor.visitMaxs(0, 0);
+            ctor.visitEnd();
+        }
+
+        private void writeTimeStepLoop(ClassWriter cw) {
+            mv = cw.visitMethod(ACC_PUBLIC, "timeStepLoop", "()V", null, new String[]{getInternalName(Exception.class)});
+            mv.visitCode();
+
+            writeLocals();
+
+            Label loopStart = new Label();
+            Label loopEnd = new Label();
+            mv.visitLabel(loopStart);
+
+            // while (!testContext.isStopped())
+            mv.visitVarInsn(ALOAD, testContextSlot);
+            mv.visitMethodInsn(INVOKEVIRTUAL, getInternalName(TestContextImpl.class), "isStopped", "()Z", false);
+            mv.visitJumpInsn(IFNE, loopEnd);
+
+            if (metronomeClass != null) {
+                mv.visitVarInsn(ALOAD, metronomeSlot);
+                invoke(metronomeClass, "waitForNext", "()J");
+                mv.visitVarInsn(LSTORE, startNanosSlot);
+            } else if (probeClass != null) {
+                nanoTime();
+                mv.visitVarInsn(LSTORE, startNanosSlot);
+            }
+
+            if (timeStepMethods.size() == 1) {
+                writeTimeStep(0);
+            } else {
+                writeTimeStepSwitch();
+            }
+
+            // iteration++; iterations.lazySet(iteration);
+            mv.visitVarInsn(LLOAD, iterationSlot);
+            mv.visitInsn(LCONST_1);
+            mv.visitInsn(LADD);
+            mv.visitVarInsn(LSTORE, iterationSlot);
+            mv.visitVarInsn(ALOAD, iterationsSlot);
+            mv.visitVarInsn(LLOAD, iterationSlot);
+            mv.visitMethodInsn(INVOKEVIRTUAL, ATOMIC_LONG, "lazySet", "(J)V", false);
+
+            writeLogging();
+
+            if (hasIterationCap) {
+                mv.visitVarInsn(LLOAD, iterationSlot);
+                mv.visitVarInsn(LLOAD, maxIterationsSlot);
+                mv.visitInsn(LCMP);
+                mv.visitJumpInsn(IFEQ, loopEnd);
+            }
+
+            mv.visitJumpInsn(GOTO, loopStart);
+            mv.visitLabel(loopEnd);
+            mv.visitInsn(RETURN);
+            mv.visitMaxs(0, 0);
+            mv.visitEnd();
+        }
+
+        /**
+         * Copies the fields used in the loop into local variables, like the template does with its final locals.
+         */
+        private void writeLocals() {
+            if (timeStepMethods.size() > 1) {
+                randomSlot = nextSlot++;
+                mv.visitTypeInsn(NEW, getInternalName(Random.class));
+                mv.visitInsn(DUP);
+                mv.visitMethodInsn(INVOKESPECIAL, getInternalName(Random.class), "<init>", "()V", false);
+                mv.visitVarInsn(ASTORE, randomSlot);
+                probsSlot = loadField("timeStepProbabilities", byte[].class, null);
+            }
+
+            iterationsSlot = loadField("iterations", AtomicLong.class, null);
+            testContextSlot = loadField("testContext", TestContextImpl.class, null);
+            testInstanceSlot = loadField("testInstance", Object.class, testClass);
+            if (metronomeClass != null) {
+                metronomeSlot = loadField("metronome", Metronome.class, metronomeClass);
+            }
+            if (probeClass != null) {
+                writeProbeLocals();
+            }
+            Class threadStateClass = timeStepModel.getThreadStateClass(executionGroup);
+            if (threadStateClass != null) {
+                threadStateSlot = loadField("threadState", Object.class, threadStateClass);
+            }
+
+            if (logFrequency > 0) {
+                logCounterSlot = nextLongSlot();
+                mv.visitInsn(LCONST_0);
+                mv.visitVarInsn(LSTORE, logCounterSlot);
+            }
+            if (logRateMs > 0) {
+                throttlingLoggerSlot = nextSlot++;
+                mv.visitTypeInsn(NEW, THROTTLING_LOGGER);
+                mv.visitInsn(DUP);
+                mv.visitVarInsn(ALOAD, 0);
+                mv.visitFieldInsn(GETFIELD, LOOP, "logger", getDescriptor(Logger.class));
+                mv.visitLdcInsn(logRateMs);
+                mv.visitMethodInsn(INVOKESPECIAL, THROTTLING_LOGGER, "<init>",
+                        "(" + getDescriptor(Logger.class) + "J)V", false);
+                mv.visitVarInsn(ASTORE, throttlingLoggerSlot);
+            }
+            if (hasIterationCap) {
+                maxIterationsSlot = nextLongSlot();
+                mv.visitVarInsn(ALOAD, 0);
+                mv.visitFieldInsn(GETFIELD, LOOP, "maxIterations", "J");
+                mv.visitVarInsn(LSTORE, maxIterationsSlot);
+            }
+
+            iterationSlot = nextLongSlot();
+            mv.visitInsn(LCONST_0);
+            mv.visitVarInsn(LSTORE, iterationSlot);
+
+            if (metronomeClass != null || probeClass != null) {
+                startNanosSlot = nextLongSlot();
+            }
+        }
+
+        // final ProbeClass methodProbe = (ProbeClass) probeMap.get("method");
+        private void writeProbeLocals() {
+            probeSlots = new int[timeStepMethods.size()];
+            for (int i = 0; i < probeSlots.length; i++) {
+                mv.visitVarInsn(ALOAD, 0);
+                mv.visitFieldInsn(GETFIELD, LOOP, "probeMap", getDescriptor(Map.class));
+                mv.visitLdcInsn(timeStepMethods.get(i).getName());
+                mv.visitMethodInsn(INVOKEINTERFACE, getInternalName(Map.class), "get",
+                        "(Ljava/lang/Object;)Ljava/lang/Object;", true);
+                mv.visitTypeInsn(CHECKCAST, getInternalName(probeClass));
+                probeSlots[i] = nextSlot++;
+                mv.visitVarInsn(ASTORE, probeSlots[i]);
+            }
+        }
+
+        // switch (probs[random.nextInt(probs.length)])
+        private void writeTimeStepSwitch() {
+            Label switchEnd = new Label();
+            Label[] cases = new Label[timeStepMethods.size()];
+            for (int i = 0; i < cases.length; i++) {
+                cases[i] = new Label();
+            }
+            mv.visitVarInsn(ALOAD, probsSlot);
+            mv.visitVarInsn(ALOAD, randomSlot);
+            mv.visitVarInsn(ALOAD, probsSlot);
+            mv.visitInsn(ARRAYLENGTH);
+            mv.visitMethodInsn(INVOKEVIRTUAL, getInternalName(Random.class), "nextInt", "(I)I", false);
+            mv.visitInsn(BALOAD);
+            mv.visitTableSwitchInsn(0, cases.length - 1, switchEnd, cases);
+            for (int i = 0; i < cases.length; i++) {
+                mv.visitLabel(cases[i]);
+                writeTimeStep(i);
+                mv.visitJumpInsn(GOTO, switchEnd);
+            }
+            mv.visitLabel(switchEnd);
+        }
+
+        private void writeLogging() {
+            if (logFrequency > 0) {
+                Label skipLog = new Label();
+                mv.visitVarInsn(LLOAD, logCounterSlot);
+                mv.visitInsn(LCONST_1);
+                mv.visitInsn(LADD);
+                mv.visitVarInsn(LSTORE, logCounterSlot);
+                mv.visitVarInsn(LLOAD, logCounterSlot);
+                mv.visitLdcInsn(logFrequency);
+                mv.visitInsn(LCMP);
+                mv.visitJumpInsn(IFNE, skipLog);
+                mv.visitVarInsn(ALOAD, 0);
+                mv.visitFieldInsn(GETFIELD, LOOP, "logger", getDescriptor(Logger.class));
+                atMessage(logCounterSlot);
+                mv.visitMethodInsn(INVOKEINTERFACE, getInternalName(Logger.class), "info", "(Ljava/lang/String;)V", true);
+                mv.visitInsn(LCONST_0);
+                mv.visitVarInsn(LSTORE, logCounterSlot);
+                mv.visitLabel(skipLog);
+            }
+
+            if (logRateMs > 0) {
+                Label skipLog = new Label();
+                mv.visitVarInsn(ALOAD, throttlingLoggerSlot);
+                mv.visitMethodInsn(INVOKEVIRTUAL, THROTTLING_LOGGER, "requestLogSlot", "()Z", false);
+                mv.visitJumpInsn(IFEQ, skipLog);
+                mv.visitVarInsn(ALOAD, throttlingLoggerSlot);
+                mv.visitFieldInsn(GETSTATIC, getInternalName(Level.class), "INFO", getDescriptor(Level.class));
+                atMessage(iterationSlot);
+                mv.visitMethodInsn(INVOKEVIRTUAL, THROTTLING_LOGGER, "logInSlot",
+                        "(" + getDescriptor(Level.class) + getDescriptor(String.class) + ")V", false);
+                mv.visitLabel(skipLog);
+            }
+        }
+
+        private void writeTimeStep(int index) {
+            Method method = timeStepMethods.get(index);
+            Class<?> returnType = method.getReturnType();
+            boolean async = returnType == CompletableFuture.class;
+            boolean consumeResult = returnType != Void.TYPE && !async;
+
+            // the result is written to one of the atomics to prevent dead code elimination
+            if (consumeResult) {
+                mv.visitVarInsn(ALOAD, 0);
+                mv.visitFieldInsn(GETFIELD, LOOP, resultField(returnType), getDescriptor(resultAtomic(returnType)));
+            }
+
+            mv.visitVarInsn(ALOAD, testInstanceSlot);
+            writeArguments(method, index);
+            mv.visitMethodInsn(INVOKEVIRTUAL, getInternalName(testClass), method.getName(),
+                    getMethodDescriptor(method), false);
+
+            if (consumeResult) {
+                writeLazySet(returnType);
+            }
+
+            if (async) {
+                writeAsyncLatencyRecording(index);
+            } else if (probeClass != null && !hasProbeParameter(method)) {
+                // probe.recordValue(System.nanoTime() - startNanos)
+                mv.visitVarInsn(ALOAD, probeSlots[index]);
+                nanoTime();
+                mv.visitVarInsn(LLOAD, startNanosSlot);
+                mv.visitInsn(LSUB);
+                invoke(probeClass, "recordValue", "(J)V");
+            }
+        }
+
+        private void writeArguments(Method method, int index) {
+            Class<?>[] parameterTypes = method.getParameterTypes();
+            for (int i = 0; i < parameterTypes.length; i++) {
+                if (timeStepModel.hasStartNanosAnnotation(method, i)) {
+                    if (startNanosSlot == -1) {
+                        nanoTime();
+                    } else {
+                        mv.visitVarInsn(LLOAD, startNanosSlot);
+                    }
+                } else if (LatencyProbe.class.isAssignableFrom(parameterTypes[i])) {
+                    if (probeClass == null) {
+                        mv.visitFieldInsn(GETSTATIC, getInternalName(NoopLatencyProbe.class), "INSTANCE",
+                                getDescriptor(NoopLatencyProbe.class));
+                    } else {
+                        mv.visitVarInsn(ALOAD, probeSlots[index]);
+                    }
+                } else {
+                    mv.visitVarInsn(ALOAD, threadStateSlot);
+                }
+            }
+        }
+
+        private void writeLazySet(Class<?> returnType) {
+            String valueDescriptor;
+            if (returnType == Boolean.TYPE) {
+                valueDescriptor = "Z";
+            } else if (returnType == Long.TYPE) {
+                valueDescriptor = "J";
+            } else if (returnType == Double.TYPE || returnType == Float.TYPE) {
+                if (returnType == Float.TYPE) {
+                    mv.visitInsn(F2D);
+                }
+                mv.visitMethodInsn(INVOKESTATIC, getInternalName(Double.class), "doubleToLongBits", "(D)J", false);
+                valueDescriptor = "J";
+            } else if (returnType.isPrimitive()) {
+                valueDescriptor = "I";
+            } else {
+                valueDescriptor = getDescriptor(Object.class);
+            }
+            mv.visitMethodInsn(INVOKEVIRTUAL, getInternalName(resultAtomic(returnType)), "lazySet",
+                    "(" + valueDescriptor + ")V", false);
+        }
+
+        // result.whenCompleteAsync(new LatencyRecordingCallback(probe, startNanos), DIRECT_EXECUTOR)
+        private void writeAsyncLatencyRecording(int index) {
+            if (probeClass == null) {
+                mv.visitInsn(POP);
+                return;
+            }
+
+            mv.visitTypeInsn(NEW, CALLBACK);
+            mv.visitInsn(DUP);
+            mv.visitVarInsn(ALOAD, probeSlots[index]);
+            mv.visitVarInsn(LLOAD, startNanosSlot);
+            mv.visitMethodInsn(INVOKESPECIAL, CALLBACK, "<init>",
+                    "(" + getDescriptor(LatencyProbe.class) + "J)V", false);
+            mv.visitFieldInsn(GETSTATIC, CALLBACK, "DIRECT_EXECUTOR", getDescriptor(Executor.class));
+            mv.visitMethodInsn(INVOKEVIRTUAL, getInternalName(CompletableFuture.class), "whenCompleteAsync",
+                    "(" + getDescriptor(BiConsumer.class) + getDescriptor(Executor.class) + ")"
+                            + getDescriptor(CompletableFuture.class), false);
+            mv.visitInsn(POP);
+        }
+
+        private static String resultField(Class<?> returnType) {
+            Class atomic = resultAtomic(returnType);
+            return "atomic" + atomic.getSimpleName().substring("Atomic".length());
+        }
+
+        private static Class resultAtomic(Class<?> returnType) {
+            if (returnType == Boolean.TYPE) {
+                return AtomicBoolean.class;
+            } else if (returnType == Long.TYPE || returnType == Double.TYPE || returnType == Float.TYPE) {
+                return AtomicLong.class;
+            } else if (returnType.isPrimitive()) {
+                return AtomicInteger.class;
+            } else {
+                return AtomicReference.class;
+            }
+        }
+
+        private static boolean hasProbeParameter(Method method) {
+            for (Class<?> parameterType : method.getParameterTypes()) {
+                if (LatencyProbe.class.isAssignableFrom(parameterType)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Loads a field of the {@link TimeStepLoop} into a new local variable, optionally casting it to a more
+         * specific type, and returns the slot of that variable.
+         */
+        private int loadField(String field, Class fieldType, Class castType) {
+            mv.visitVarInsn(ALOAD, 0);
+            mv.visitFieldInsn(GETFIELD, LOOP, field, getDescriptor(fieldType));
+            if (castType != null) {
+                mv.visitTypeInsn(CHECKCAST, getInternalName(castType));
+            }
+            int slot = nextSlot++;
+            mv.visitVarInsn(ASTORE, slot);
+            return slot;
+        }
+
+        private int nextLongSlot() {
+            int slot = nextSlot;
+            nextSlot += 2;
+            return slot;
+        }
+
+        private void nanoTime() {
+            mv.visitMethodInsn(INVOKESTATIC, getInternalName(System.class), "nanoTime", "()J", false);
+        }
+
+        // "At " + value
+        private void atMessage(int longSlot) {
+            mv.visitLdcInsn("At ");
+            mv.visitVarInsn(LLOAD, longSlot);
+            mv.visitMethodInsn(INVOKESTATIC, STRING, "valueOf", "(J)Ljava/lang/String;", false);
+            mv.visitMethodInsn(INVOKEVIRTUAL, STRING, "concat", "(Ljava/lang/String;)Ljava/lang/String;", false);
+        }
+
+        private void invoke(Class owner, String name, String descriptor) {
+            boolean isInterface = owner.isInterface();
+            mv.visitMethodInsn(isInterface ? INVOKEINTERFACE : INVOKEVIRTUAL,
+                    getInternalName(owner), name, descriptor, isInterface);
+        }
+    }
+}
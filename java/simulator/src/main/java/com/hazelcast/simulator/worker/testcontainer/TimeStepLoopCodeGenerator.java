@@ -70,6 +70,13 @@ class TimeStepLoopCodeGenerator {
 
         ensureExistingDirectory(targetDirectory);
 
+        String className = loopClassName(testCaseId, executionGroup, timeStepModel);
+        JavaFileObject file = createJavaFileObject(
+                className, executionGroup, metronomeClass, timeStepModel, probeClass, logFrequency, logRateMs, hasIterationCap);
+        return compile(javaCompiler, file, className);
+    }
+
+    static String loopClassName(String testCaseId, String executionGroup, TimeStepModel timeStepModel) {
         String className = timeStepModel.getTestClass().getSimpleName();
         if (!"".equals(executionGroup)) {
             className += "_" + executionGroup + "_";
@@ -80,9 +87,7 @@ class TimeStepLoopCodeGenerator {
         if (!"".equals(testCaseId)) {
             className += testCaseId;
         }
-        JavaFileObject file = createJavaFileObject(
-                className, executionGroup, metronomeClass, timeStepModel, probeClass, logFrequency, logRateMs, hasIterationCap);
-        return compile(javaCompiler, file, className);
+        return className;
     }
 
     Class compile(JavaCompiler compiler, JavaFileObject file, final String className) {
@@ -18,11 +18,14 @@ package com.hazelcast.simulator.worker.testcontainer;
 
 import com.hazelcast.simulator.test.TestContext;
 import com.hazelcast.simulator.utils.ThreadSpawner;
+import com.hazelcast.simulator.worker.metronome.ScheduleLag;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.lang.reflect.Constructor;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static com.hazelcast.simulator.worker.testcontainer.PropertyBinding.toPropertyName;
@@ -79,15 +82,28 @@ class TimeStepRunner extends TestRunner {
             long iterations = binding.loadAsLong(toPropertyName(executionGroup, "iterations"), 0);
             runIterationMap.put(executionGroup, iterations);
 
-            Class loopClass = new TimeStepLoopCodeGenerator().compile(
-                    testContainer.getTestCase().getId(),
-                    executionGroup,
-                    timeStepModel,
-                    metronomeConstructor.getMetronomeClass(),
-                    binding.getProbeClass(),
-                    logFrequency,
-                    logRateMs,
-                    iterations > 0);
+            Class loopClass;
+            if (binding.javacTimeStepLoop) {
+                loopClass = new TimeStepLoopCodeGenerator().compile(
+                        testContainer.getTestCase().getId(),
+                        executionGroup,
+                        timeStepModel,
+                        metronomeConstructor.getMetronomeClass(),
+                        binding.getProbeClass(),
+                        logFrequency,
+                        logRateMs,
+                        iterations > 0);
+            } else {
+                loopClass = new TimeStepLoopBytecodeGenerator().compile(
+                        testContainer.getTestCase().getId(),
+                        executionGroup,
+                        timeStepModel,
+                        metronomeConstructor.getMetronomeClass(),
+                        binding.getProbeClass(),
+                        logFrequency,
+                        logRateMs,
+                        iterations > 0);
+            }
 
             loopClassMap.put(executionGroup, loopClass);
         }
@@ -105,6 +121,30 @@ class TimeStepRunner extends TestRunner {
         return iterations;
     }
 
+    @Override
+    public List<ScheduleLag> getScheduleLags() {
+        TimeStepLoop[] localLoops = loops;
+        List<ScheduleLag> result = new ArrayList<>();
+        if (localLoops != null) {
+            for (TimeStepLoop loop : localLoops) {
+                ScheduleLag scheduleLag = loop.metronome.getScheduleLag();
+                if (scheduleLag != null) {
+                    result.add(scheduleLag);
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    boolean setRateShare(double share) {
+        boolean applied = false;
+        for (MetronomeSupplier metronomeSupplier : metronomeSettingsMap.values()) {
+            applied |= metronomeSupplier.setRateShare(share);
+        }
+        return applied;
+    }
+
     @Override
     public void run() throws Exception {
         try {
@@ -27,6 +27,7 @@ import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
 
 public class FailureCollectorTest {
 
@@ -137,6 +138,17 @@ public class FailureCollectorTest {
         assertSame(suite1.getTestCaseList().get(0), failureCaptor.getValue().getTestCase());
     }
 
+    @Test
+    public void removeListener() {
+        FailureListener listener = mock(FailureListener.class);
+        failureCollector.addListener(listener);
+        failureCollector.removeListener(listener);
+
+        failureCollector.notify(exceptionFailure);
+
+        verifyZeroInteractions(listener);
+    }
+
     @Test
     public void notify_withException() {
         failureCollector.notify(exceptionFailure);
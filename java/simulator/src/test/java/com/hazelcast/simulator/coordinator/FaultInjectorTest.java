@@ -0,0 +1,189 @@
+package com.hazelcast.simulator.coordinator;
+
+import com.hazelcast.simulator.agent.messages.CreateWorkerMessage;
+import com.hazelcast.simulator.agent.messages.SignalWorkerMessage;
+import com.hazelcast.simulator.agent.workerprocess.WorkerParameters;
+import com.hazelcast.simulator.coordinator.FaultInjector.Action;
+import com.hazelcast.simulator.coordinator.FaultInjector.Fault;
+import com.hazelcast.simulator.coordinator.registry.AgentData;
+import com.hazelcast.simulator.coordinator.registry.Registry;
+import com.hazelcast.simulator.coordinator.registry.WorkerData;
+import com.hazelcast.simulator.protocol.CoordinatorClient;
+import com.hazelcast.simulator.worker.performance.PerformanceStats;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static com.hazelcast.simulator.TestEnvironmentUtils.setupFakeUserDir;
+import static com.hazelcast.simulator.TestEnvironmentUtils.teardownFakeUserDir;
+import static com.hazelcast.simulator.utils.FileUtils.fileAsText;
+import static com.hazelcast.simulator.utils.FileUtils.getUserDir;
+import static java.util.Collections.emptyList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class FaultInjectorTest {
+
+    private final Registry registry = new Registry();
+    private CoordinatorClient client;
+    private AgentData agent;
+    private File eventsFile;
+
+    @Before
+    public void before() throws Exception {
+        setupFakeUserDir();
+        eventsFile = new File(getUserDir(), "faults.csv");
+
+        client = mock(CoordinatorClient.class);
+        agent = registry.addAgent("192.168.0.1", "192.168.0.1");
+
+        Future f = mock(Future.class);
+        when(f.get(anyLong(), any(TimeUnit.class))).thenReturn("ok");
+        when(client.submit(eq(agent.getAddress()), any(SignalWorkerMessage.class))).thenReturn(f);
+    }
+
+    @After
+    public void after() {
+        teardownFakeUserDir();
+    }
+
+    @Test
+    public void testParse() {
+        List<Fault> faults = FaultInjector.parse("2m suspend A1_W1 30s; 60s kill member;;90 restart A1_W2 ");
+
+        assertEquals(3, faults.size());
+        assertFault(faults.get(0), 60, Action.KILL, "member", 0);
+        assertFault(faults.get(1), 90, Action.RESTART, "A1_W2", 0);
+        assertFault(faults.get(2), 120, Action.SUSPEND, "A1_W1", 30);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParse_whenUnknownAction() {
+        FaultInjector.parse("60s explode member");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParse_whenMissingTarget() {
+        FaultInjector.parse("60s kill");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParse_whenDurationOfKill() {
+        FaultInjector.parse("60s kill member 10s");
+    }
+
+    @Test
+    public void testKill() {
+        WorkerData member = addWorker("member");
+        FaultInjector faultInjector = newFaultInjector();
+
+        faultInjector.inject(new Fault(0, Action.KILL, "member", 0));
+
+        verify(client).submit(eq(agent.getAddress()), any(SignalWorkerMessage.class));
+        assertTrue(member.isIgnoreFailures());
+        assertNull(registry.findWorker(member.getAddress()));
+        assertTrue(fileAsText(eventsFile).contains(",test,kill," + member.getAddress()));
+    }
+
+    @Test
+    public void testKill_whenNoMembers() {
+        addWorker("javaclient");
+        FaultInjector faultInjector = newFaultInjector();
+
+        faultInjector.inject(new Fault(0, Action.KILL, "member", 0));
+
+        assertEquals(1, registry.workerCount());
+        assertTrue(fileAsText(eventsFile).contains(",test,failed,kill member"));
+    }
+
+    @Test
+    public void testRestart_afterKill_doesNotInheritExpectedClusterSize() throws Exception {
+        WorkerData member = addWorker("member");
+        // the member awaited the cluster size of the initial startup
+        member.getParameters().set("EXPECTED_CLUSTER_SIZE", 3);
+        Future created = mock(Future.class);
+        when(created.get()).thenReturn("SUCCESS");
+        when(client.submit(eq(agent.getAddress()), any(CreateWorkerMessage.class))).thenReturn(created);
+        FaultInjector faultInjector = newFaultInjector();
+
+        faultInjector.inject(new Fault(0, Action.KILL, "member", 0));
+        faultInjector.inject(new Fault(0, Action.RESTART, member.getAddress().toString(), 0));
+
+        assertEquals(1, registry.workerCount());
+        WorkerData replacement = registry.getWorkers().get(0);
+        assertNotEquals(member.getAddress(), replacement.getAddress());
+        assertNull(replacement.getParameters().get("EXPECTED_CLUSTER_SIZE"));
+        assertTrue(fileAsText(eventsFile).contains(",test,restart," + replacement.getAddress()));
+    }
+
+    @Test
+    public void testSuspendAndResume() {
+        WorkerData member = addWorker("member");
+        FaultInjector faultInjector = newFaultInjector();
+
+        faultInjector.inject(new Fault(0, Action.SUSPEND, member.getAddress().toString(), 0));
+        assertTrue(member.isIgnoreFailures());
+
+        faultInjector.inject(new Fault(0, Action.RESUME, member.getAddress().toString(), 0));
+        assertFalse(member.isIgnoreFailures());
+        assertTrue(fileAsText(eventsFile).contains(",test,resume," + member.getAddress()));
+    }
+
+    @Test
+    public void testSample_recovery() {
+        WorkerData member = addWorker("member");
+        FaultInjector faultInjector = newFaultInjector();
+
+        assertNull(faultInjector.sample(stats(1000)));
+        assertNull(faultInjector.sample(stats(1200)));
+
+        faultInjector.inject(new Fault(0, Action.SUSPEND, member.getAddress().toString(), 0));
+        assertNull(faultInjector.sample(stats(100)));
+        assertNull(faultInjector.sample(stats(800)));
+        String recovery = faultInjector.sample(stats(1050));
+
+        assertNotNull(recovery);
+        assertTrue(recovery, recovery.contains("suspend " + member.getAddress()));
+        assertTrue(recovery, recovery.contains("before the fault 1100.0 ops/s, lowest 100.0 ops/s"));
+        assertTrue(fileAsText(eventsFile).contains(",test,recovered,"));
+        // once recovered, there is nothing left to report
+        assertNull(faultInjector.sample(stats(1050)));
+    }
+
+    private FaultInjector newFaultInjector() {
+        return new FaultInjector("test", emptyList(), 0.9, registry, client, 0, eventsFile);
+    }
+
+    private WorkerData addWorker(String workerType) {
+        DeploymentPlan deploymentPlan = new DeploymentPlan(registry.getAgents()).addToPlan(1, workerType);
+        List<WorkerParameters> parameters = deploymentPlan.getWorkerDeployment().values().iterator().next();
+        return registry.addWorkers(parameters, new HashMap<>()).get(0);
+    }
+
+    private static void assertFault(Fault fault, int offsetSeconds, Action action, String target, int durationSeconds) {
+        assertEquals(offsetSeconds, fault.offsetSeconds);
+        assertEquals(action, fault.action);
+        assertEquals(target, fault.target);
+        assertEquals(durationSeconds, fault.durationSeconds);
+    }
+
+    private static PerformanceStats stats(double throughput) {
+        return new PerformanceStats(1000, throughput, throughput, 1000, 2000, 3000);
+    }
+}
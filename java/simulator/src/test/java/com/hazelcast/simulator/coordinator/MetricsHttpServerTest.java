@@ -0,0 +1,119 @@
+package com.hazelcast.simulator.coordinator;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.hazelcast.simulator.worker.performance.PerformanceStats;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
+
+import static com.hazelcast.simulator.protocol.core.SimulatorAddress.workerAddress;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MetricsHttpServerTest {
+
+    private TimeSeriesStore store;
+    private MetricsHttpServer server;
+
+    @Before
+    public void before() throws IOException {
+        store = new TimeSeriesStore(10);
+        store.record(workerAddress(1, 1), "test1", 1000, new PerformanceStats(100, 50, 50, 2000, 4000, 8000));
+        store.record(workerAddress(1, 1), "test1", 2000, new PerformanceStats(200, 100, 75, 1000, 2000, 4000));
+        store.record(workerAddress(1, 2), "test1", 2000, new PerformanceStats(300, 150, 150, 1000, 2000, 4000));
+
+        server = new MetricsHttpServer(store, "127.0.0.1", 0).start();
+    }
+
+    @After
+    public void after() {
+        server.close();
+    }
+
+    @Test
+    public void testPrometheus() throws IOException {
+        String body = get("/metrics");
+
+        assertTrue(body.contains("# TYPE simulator_operations_total counter"));
+        assertTrue(body.contains("simulator_operations_total{test=\"test1\",worker=\"A1_W1\"} 200\n"));
+        assertTrue(body.contains("simulator_operations_total{test=\"test1\",worker=\"A1_W2\"} 300\n"));
+        assertTrue(body.contains("simulator_throughput_ops_per_second{test=\"test1\",worker=\"A1_W1\"} 100.0\n"));
+        assertTrue(body.contains("simulator_latency_p999_seconds{test=\"test1\",worker=\"A1_W1\"} 2.0E-6\n"));
+        assertTrue(body.contains("simulator_late_operations{test=\"test1\",worker=\"A1_W1\"} 0\n"));
+        assertFalse(body.contains("simulator_member_metric"));
+    }
+
+    @Test
+    public void testPrometheus_memberMetrics() throws IOException {
+        store.recordMemberMetrics(workerAddress(1, 1), 3000, Collections.singletonMap("operation.queueSize", 42d));
+
+        String body = get("/metrics");
+
+        assertTrue(body.contains("# TYPE simulator_member_metric gauge"));
+        assertTrue(body.contains("simulator_member_metric{worker=\"A1_W1\",metric=\"operation.queueSize\"} 42.0\n"));
+    }
+
+    @Test
+    public void testSeries() throws IOException {
+        JsonArray series = JsonParser.parseString(get("/series")).getAsJsonArray();
+
+        assertEquals(2, series.size());
+        JsonObject first = series.get(0).getAsJsonObject();
+        assertEquals("test1", first.get("test").getAsString());
+        assertEquals("A1_W1", first.get("worker").getAsString());
+        assertEquals(2, first.getAsJsonArray("samples").size());
+    }
+
+    @Test
+    public void testSeries_withFilter() throws IOException {
+        JsonArray series = JsonParser.parseString(get("/series?worker=A1_W1&since=1000")).getAsJsonArray();
+
+        assertEquals(1, series.size());
+        JsonArray samples = series.get(0).getAsJsonObject().getAsJsonArray("samples");
+        assertEquals(1, samples.size());
+        assertEquals(2000, samples.get(0).getAsJsonObject().get("timestamp").getAsLong());
+    }
+
+    @Test
+    public void testSeries_invalidSince() throws IOException {
+        HttpURLConnection connection = open("/series?since=foo");
+
+        assertEquals(400, connection.getResponseCode());
+    }
+
+    @Test
+    public void testParseQuery() {
+        Map<String, String> query = MetricsHttpServer.parseQuery("test=map%20test&worker=A1_W1");
+
+        assertEquals("map test", query.get("test"));
+        assertEquals("A1_W1", query.get("worker"));
+    }
+
+    @Test
+    public void testEscapeLabel() {
+        assertEquals("a\\\"b\\\\c\\n", MetricsHttpServer.escapeLabel("a\"b\\c\n"));
+    }
+
+    private String get(String path) throws IOException {
+        HttpURLConnection connection = open(path);
+        assertEquals(200, connection.getResponseCode());
+        try (InputStream is = connection.getInputStream()) {
+            return new String(is.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private HttpURLConnection open(String path) throws IOException {
+        return (HttpURLConnection) new URL("http://127.0.0.1:" + server.getPort() + path).openConnection();
+    }
+}
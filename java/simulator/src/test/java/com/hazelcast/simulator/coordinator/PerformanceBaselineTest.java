@@ -0,0 +1,92 @@
+package com.hazelcast.simulator.coordinator;
+
+import com.hazelcast.simulator.utils.CommandLineExitException;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+
+import static com.hazelcast.simulator.TestEnvironmentUtils.setupFakeUserDir;
+import static com.hazelcast.simulator.TestEnvironmentUtils.teardownFakeUserDir;
+import static com.hazelcast.simulator.utils.FileUtils.ensureExistingDirectory;
+import static com.hazelcast.simulator.utils.FileUtils.getUserDir;
+import static com.hazelcast.simulator.utils.FileUtils.writeText;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PerformanceBaselineTest {
+
+    private File runDir;
+
+    @Before
+    public void before() {
+        setupFakeUserDir();
+        runDir = ensureExistingDirectory(getUserDir(), "baseline");
+    }
+
+    @After
+    public void after() {
+        teardownFakeUserDir();
+    }
+
+    @Test
+    public void testLoad() throws Exception {
+        File worker1 = ensureExistingDirectory(runDir, "A1_W1-192.168.0.1-javaclient");
+        File worker2 = ensureExistingDirectory(runDir, "A1_W2-192.168.0.1-javaclient");
+        writeOperations(worker1, "map", 100, 200, 300);
+        writeOperations(worker2, "map", 10, 20);
+        writeOperations(worker1, "other", 5000);
+        writeLatencies(worker1, "map", "get", 1000, 3000);
+        writeLatencies(worker2, "map", "get", 2000, 1000, 5000);
+
+        PerformanceBaseline baseline = PerformanceBaseline.load(runDir, "map");
+
+        assertArrayEquals(new double[]{110, 220, 300}, baseline.getThroughputs(), 0);
+        long[] latencies = baseline.getLatencies();
+        assertEquals(3, latencies.length);
+        assertEquals(2000, latencies[0], 2000 / 100);
+        assertEquals(3000, latencies[1], 3000 / 100);
+        assertEquals(5000, latencies[2], 5000 / 100);
+    }
+
+    @Test
+    public void testLoad_whenTestNotFound() {
+        ensureExistingDirectory(runDir, "A1_W1-192.168.0.1-javaclient");
+
+        PerformanceBaseline baseline = PerformanceBaseline.load(runDir, "map");
+
+        assertTrue(baseline.isEmpty());
+        assertEquals(0, baseline.getLatencies().length);
+    }
+
+    @Test(expected = CommandLineExitException.class)
+    public void testLoad_whenDirectoryNotFound() {
+        PerformanceBaseline.load(new File(runDir, "notexisting"), "map");
+    }
+
+    private static void writeOperations(File workerDir, String testId, double... throughputs) {
+        StringBuilder sb = new StringBuilder("epoch,timestamp,operations,operations-delta,operations/second\n");
+        for (int k = 0; k < throughputs.length; k++) {
+            sb.append(k).append(",2023-01-01 00:00:0").append(k).append(",0,0,").append(throughputs[k]).append('\n');
+        }
+        writeText(sb.toString(), new File(workerDir, testId + ".operations.csv"));
+    }
+
+    private static void writeLatencies(File workerDir, String testId, String probe, long... values) throws Exception {
+        HistogramLogWriter writer = new HistogramLogWriter(new File(workerDir, testId + '.' + probe + ".hdr"));
+        writer.outputLogFormatVersion();
+        writer.outputLegend();
+        for (int k = 0; k < values.length; k++) {
+            Histogram histogram = new Histogram(3);
+            histogram.recordValue(values[k]);
+            histogram.setStartTimeStamp(k * 1000L);
+            histogram.setEndTimeStamp((k + 1) * 1000L);
+            writer.outputIntervalHistogram(histogram);
+        }
+        writer.close();
+    }
+}
@@ -0,0 +1,168 @@
+package com.hazelcast.simulator.coordinator;
+
+import com.hazelcast.simulator.common.TestCase;
+import com.hazelcast.simulator.protocol.core.SimulatorAddress;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.hazelcast.simulator.protocol.core.SimulatorAddress.workerAddress;
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RateBalancerTest {
+
+    private final SimulatorAddress worker1 = workerAddress(1, 1);
+    private final SimulatorAddress worker2 = workerAddress(1, 2);
+    private final SimulatorAddress worker3 = workerAddress(2, 1);
+    private final SimulatorAddress worker4 = workerAddress(2, 2);
+    private final List<SimulatorAddress> workers = asList(worker1, worker2, worker3, worker4);
+
+    @Test
+    public void testGetGlobalRatePerSecond() {
+        TestCase testCase = new TestCase("test")
+                .setProperty("put.globalRatePerSecond", "1000")
+                .setProperty("get.globalRatePerSecond", "3000")
+                .setProperty("ratePerSecond", "10");
+
+        assertEquals(4000, RateBalancer.getGlobalRatePerSecond(testCase), 0);
+        assertEquals(0, RateBalancer.getGlobalRatePerSecond(new TestCase("test")), 0);
+    }
+
+    @Test
+    public void testNewTestCase() {
+        RateBalancer balancer = new RateBalancer("test", workers, 4000, 0.1);
+        TestCase testCase = new TestCase("test").setProperty("globalRatePerSecond", "4000");
+
+        TestCase copy = balancer.newTestCase(testCase, 3);
+
+        assertEquals("0.25", copy.getProperty("rateShare"));
+        assertEquals("0.75", copy.getProperty("ratePhase"));
+        assertEquals("4000", copy.getProperty("globalRatePerSecond"));
+        assertEquals(null, testCase.getProperty("rateShare"));
+    }
+
+    @Test
+    public void testRebalance_ignoresFirstSample() {
+        RateBalancer balancer = new RateBalancer("test", workers, 4000, 0.1);
+
+        assertTrue(balancer.rebalance(throughputs(100, 1000, 1000, 1000)).isEmpty());
+    }
+
+    @Test
+    public void testRebalance_whenAllKeepUp() {
+        RateBalancer balancer = warmedUp(new RateBalancer("test", workers, 4000, 0.1));
+
+        assertTrue(balancer.rebalance(throughputs(950, 1000, 1000, 1000)).isEmpty());
+    }
+
+    @Test
+    public void testRebalance_whenWorkerFallsBehind() {
+        RateBalancer balancer = warmedUp(new RateBalancer("test", workers, 4000, 0.1));
+
+        Map<SimulatorAddress, Double> changed = balancer.rebalance(throughputs(400, 1000, 1000, 1000));
+
+        assertEquals(4, changed.size());
+        assertEquals(0.1, balancer.getShare(worker1), 0.0001);
+        assertEquals(0.3, balancer.getShare(worker2), 0.0001);
+        assertEquals(0.3, balancer.getShare(worker3), 0.0001);
+        assertEquals(0.3, balancer.getShare(worker4), 0.0001);
+    }
+
+    @Test
+    public void testRebalance_whenNoneKeepUp() {
+        RateBalancer balancer = warmedUp(new RateBalancer("test", workers, 4000, 0.1));
+
+        assertTrue(balancer.rebalance(throughputs(500, 500, 500, 500)).isEmpty());
+        assertEquals(0.25, balancer.getShare(worker1), 0);
+    }
+
+    @Test
+    public void testRebalance_whenWorkerMissing() {
+        RateBalancer balancer = warmedUp(new RateBalancer("test", workers, 4000, 0.1));
+
+        Map<SimulatorAddress, Double> throughputs = throughputs(0, 1000, 1000, 1000);
+        throughputs.remove(worker1);
+
+        assertTrue(balancer.rebalance(throughputs).isEmpty());
+    }
+
+    @Test
+    public void testRebalance_dividesWholeDeficit() {
+        RateBalancer balancer = warmedUp(new RateBalancer("test", asList(worker1, worker2), 4000, 0.1));
+
+        balancer.rebalance(throughputs(400, 2000));
+
+        assertEquals(0.1, balancer.getShare(worker1), 0.0001);
+        assertEquals(0.9, balancer.getShare(worker2), 0.0001);
+    }
+
+    @Test
+    public void testRebalance_raisesShareAgainWhenWorkerKeepsUp() {
+        RateBalancer balancer = warmedUp(new RateBalancer("test", workers, 4000, 0.1));
+        balancer.rebalance(throughputs(400, 1000, 1000, 1000));
+
+        Map<SimulatorAddress, Double> changed = balancer.rebalance(throughputs(400, 1200, 1200, 1200));
+
+        assertEquals(4, changed.size());
+        // half of the difference with the equal share of 0.25 is given back
+        assertEquals(0.175, balancer.getShare(worker1), 0.0001);
+        assertEquals(0.275, balancer.getShare(worker2), 0.0001);
+        assertEquals(0.275, balancer.getShare(worker3), 0.0001);
+        assertEquals(0.275, balancer.getShare(worker4), 0.0001);
+    }
+
+    @Test
+    public void testRemoveWorker() {
+        RateBalancer balancer = warmedUp(new RateBalancer("test", workers, 4000, 0.1));
+        balancer.rebalance(throughputs(400, 1000, 1000, 1000));
+
+        Map<SimulatorAddress, Double> changed = balancer.removeWorker(worker2);
+
+        assertEquals(3, changed.size());
+        assertFalse(balancer.contains(worker2));
+        assertEquals(0.1 / 0.7, balancer.getShare(worker1), 0.0001);
+        assertEquals(0.3 / 0.7, balancer.getShare(worker3), 0.0001);
+
+        // the rebalancing continues with the remaining workers
+        Map<SimulatorAddress, Double> throughputs = throughputs(4000 * 0.1 / 0.7, 0, 4000 * 0.3 / 0.7, 4000 * 0.3 / 0.7);
+        throughputs.remove(worker2);
+        assertEquals(3, balancer.rebalance(throughputs).size());
+    }
+
+    @Test
+    public void testRebalance_disabledWhenWorkerKeepsMissing() {
+        RateBalancer balancer = warmedUp(new RateBalancer("test", workers, 4000, 0.1));
+        Map<SimulatorAddress, Double> throughputs = throughputs(0, 1000, 1000, 1000);
+        throughputs.remove(worker1);
+        for (int k = 0; k < 3; k++) {
+            balancer.rebalance(throughputs);
+        }
+
+        assertTrue(balancer.rebalance(throughputs(400, 1000, 1000, 1000)).isEmpty());
+    }
+
+    @Test
+    public void testRebalance_disabled() {
+        RateBalancer balancer = warmedUp(new RateBalancer("test", workers, 4000, 0));
+
+        assertTrue(balancer.rebalance(throughputs(100, 1000, 1000, 1000)).isEmpty());
+    }
+
+    private RateBalancer warmedUp(RateBalancer balancer) {
+        balancer.rebalance(new HashMap<>());
+        return balancer;
+    }
+
+    private Map<SimulatorAddress, Double> throughputs(double... values) {
+        Map<SimulatorAddress, Double> result = new HashMap<>();
+        for (int k = 0; k < values.length; k++) {
+            result.put(workers.get(k), values[k]);
+        }
+        return result;
+    }
+}
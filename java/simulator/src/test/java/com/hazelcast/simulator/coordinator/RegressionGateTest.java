@@ -0,0 +1,144 @@
+package com.hazelcast.simulator.coordinator;
+
+import com.hazelcast.simulator.worker.performance.PerformanceStats;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class RegressionGateTest {
+
+    private static final int WARMUP = 5;
+    private static final int WINDOW = 20;
+
+    @Test
+    public void testMannWhitneyPValue_whenSmaller() {
+        double p = RegressionGate.mannWhitneyPValue(new double[]{1, 2, 3, 4, 5}, new double[]{6, 7, 8, 9, 10});
+
+        assertTrue("p was " + p, p < 0.01);
+    }
+
+    @Test
+    public void testMannWhitneyPValue_whenLarger() {
+        double p = RegressionGate.mannWhitneyPValue(new double[]{6, 7, 8, 9, 10}, new double[]{1, 2, 3, 4, 5});
+
+        assertTrue("p was " + p, p > 0.99);
+    }
+
+    @Test
+    public void testMannWhitneyPValue_whenAllEqual() {
+        assertEquals(1, RegressionGate.mannWhitneyPValue(new double[]{5, 5, 5}, new double[]{5, 5}), 0);
+    }
+
+    @Test
+    public void testNormalCdf() {
+        assertEquals(0.5, RegressionGate.normalCdf(0), 1e-6);
+        assertEquals(0.975, RegressionGate.normalCdf(1.96), 1e-3);
+        assertEquals(0.025, RegressionGate.normalCdf(-1.96), 1e-3);
+    }
+
+    @Test
+    public void testMedian() {
+        assertEquals(2, RegressionGate.median(new double[]{3, 1, 2}), 0);
+        assertEquals(2.5, RegressionGate.median(new double[]{4, 1, 3, 2}), 0);
+    }
+
+    @Test
+    public void testSample_whenSamePerformance() {
+        RegressionGate gate = newGate();
+
+        for (int k = 0; k < WARMUP + 3 * WINDOW; k++) {
+            assertNull(gate.sample(stats(1000 + k % 7, 1000 + k % 5)));
+        }
+    }
+
+    @Test
+    public void testSample_whenThroughputRegression() {
+        RegressionGate gate = newGate();
+
+        for (int k = 0; k < WARMUP + WINDOW - 1; k++) {
+            assertNull(gate.sample(stats(700 + k % 7, 1000)));
+        }
+        String regression = gate.sample(stats(700, 1000));
+
+        assertNotNull(regression);
+        assertTrue(regression, regression.startsWith("Throughput regression in test test"));
+    }
+
+    @Test
+    public void testSample_whenLatencyRegression() {
+        RegressionGate gate = newGate();
+
+        String regression = null;
+        for (int k = 0; k < WARMUP + WINDOW && regression == null; k++) {
+            regression = gate.sample(stats(1000, 2000 + k % 5));
+        }
+
+        assertNotNull(regression);
+        assertTrue(regression, regression.startsWith("Latency regression in test test"));
+    }
+
+    @Test
+    public void testSample_whenSmallDifference_thenIgnored() {
+        RegressionGate gate = newGate();
+
+        for (int k = 0; k < WARMUP + WINDOW; k++) {
+            // significant, but within the threshold
+            assertNull(gate.sample(stats(950, 1100)));
+        }
+    }
+
+    @Test
+    public void testSample_reportedOnce() {
+        RegressionGate gate = newGate();
+
+        int reported = 0;
+        for (int k = 0; k < WARMUP + 2 * WINDOW; k++) {
+            if (gate.sample(stats(500, 1000)) != null) {
+                reported++;
+            }
+        }
+
+        assertEquals(1, reported);
+    }
+
+    @Test
+    public void testSample_warmupIsIgnored() {
+        RegressionGate gate = newGate();
+
+        for (int k = 0; k < WARMUP; k++) {
+            assertNull(gate.sample(stats(1, 1000000)));
+        }
+        for (int k = 0; k < 3 * WINDOW; k++) {
+            assertNull(gate.sample(stats(1000 + k % 7, 1000 + k % 5)));
+        }
+    }
+
+    @Test
+    public void testSample_emptyStatsIgnored() {
+        RegressionGate gate = newGate();
+
+        for (int k = 0; k < WARMUP + WINDOW; k++) {
+            assertNull(gate.sample(new PerformanceStats()));
+        }
+    }
+
+    private static RegressionGate newGate() {
+        int length = 100;
+        double[] throughputs = new double[length];
+        long[] latencies = new long[length];
+        for (int k = 0; k < length; k++) {
+            throughputs[k] = 1000 + k % 7;
+            latencies[k] = 1000 + k % 5;
+        }
+        PerformanceBaseline baseline = new PerformanceBaseline(throughputs, latencies);
+        return new RegressionGate("test", baseline, WARMUP, WINDOW, 0.1, 0.2, 0.01);
+    }
+
+    private static PerformanceStats stats(double throughput, long latency999PercentileNanos) {
+        return new PerformanceStats(1, throughput, throughput, latency999PercentileNanos / 2d,
+                latency999PercentileNanos, latency999PercentileNanos * 2);
+    }
+}
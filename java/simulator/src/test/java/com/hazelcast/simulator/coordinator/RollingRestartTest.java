@@ -0,0 +1,148 @@
+package com.hazelcast.simulator.coordinator;
+
+import com.hazelcast.simulator.agent.messages.CreateWorkerMessage;
+import com.hazelcast.simulator.agent.workerprocess.WorkerParameters;
+import com.hazelcast.simulator.coordinator.messages.FailureMessage;
+import com.hazelcast.simulator.coordinator.registry.AgentData;
+import com.hazelcast.simulator.coordinator.registry.Registry;
+import com.hazelcast.simulator.coordinator.registry.WorkerData;
+import com.hazelcast.simulator.protocol.CoordinatorClient;
+import com.hazelcast.simulator.protocol.core.SimulatorAddress;
+import com.hazelcast.simulator.worker.messages.TerminateWorkerMessage;
+import com.hazelcast.simulator.worker.performance.PerformanceStats;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.Future;
+
+import static com.hazelcast.simulator.TestEnvironmentUtils.setupFakeUserDir;
+import static com.hazelcast.simulator.TestEnvironmentUtils.teardownFakeUserDir;
+import static com.hazelcast.simulator.common.FailureType.WORKER_EXCEPTION;
+import static com.hazelcast.simulator.utils.FileUtils.fileAsText;
+import static com.hazelcast.simulator.utils.FileUtils.getUserDir;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class RollingRestartTest {
+
+    private final Registry registry = new Registry();
+    private CoordinatorClient client;
+    private AgentData agent;
+    private File stepsFile;
+
+    @Before
+    public void before() throws Exception {
+        setupFakeUserDir();
+        stepsFile = new File(getUserDir(), "rolling-restart.csv");
+
+        client = mock(CoordinatorClient.class);
+        agent = registry.addAgent("192.168.0.1", "192.168.0.1");
+
+        Future f = mock(Future.class);
+        when(f.get()).thenReturn("SUCCESS");
+        when(client.submit(eq(agent.getAddress()), any(CreateWorkerMessage.class))).thenReturn(f);
+    }
+
+    @After
+    public void after() {
+        teardownFakeUserDir();
+    }
+
+    @Test
+    public void testRun() {
+        WorkerData member1 = addWorker("member");
+        WorkerData member2 = addWorker("member");
+        WorkerData client1 = addWorker("javaclient");
+        shutdownOnTerminate(null);
+        RollingRestart rollingRestart = newRollingRestart("maven=5.4.0", 10);
+
+        rollingRestart.run();
+
+        assertTrue(member1.isIgnoreFailures());
+        assertTrue(member2.isIgnoreFailures());
+        assertNull(registry.findWorker(member1.getAddress()));
+        assertNull(registry.findWorker(member2.getAddress()));
+        assertEquals(client1, registry.findWorker(client1.getAddress()));
+        assertEquals(3, registry.workerCount());
+        for (WorkerData worker : registry.getWorkers()) {
+            if (worker.isMemberWorker()) {
+                assertEquals("maven=5.4.0", worker.getParameters().get("version"));
+            }
+        }
+
+        String steps = fileAsText(stepsFile);
+        assertTrue(steps, steps.contains(",test,1," + member1.getAddress() + ",A1_W4,maven=5.4.0,"));
+        assertTrue(steps, steps.contains(",test,2," + member2.getAddress() + ",A1_W5,maven=5.4.0,"));
+    }
+
+    @Test
+    public void testRun_recordsPerformanceOfStep() {
+        addWorker("member");
+        RollingRestart rollingRestart = newRollingRestart(null, 10);
+        rollingRestart.sample(stats(1000));
+        rollingRestart.sample(stats(1200));
+        shutdownOnTerminate(rollingRestart);
+
+        rollingRestart.run();
+
+        String steps = fileAsText(stepsFile);
+        // the baseline is 1100 ops/s and the lowest throughput during the step is 500 ops/s
+        assertTrue(steps, steps.contains(",1100.0,500.0,500.0,54.5,2,1\n"));
+    }
+
+    @Test
+    public void testRun_whenMemberDoesNotShutDown() {
+        WorkerData member1 = addWorker("member");
+        WorkerData member2 = addWorker("member");
+        RollingRestart rollingRestart = newRollingRestart(null, 0);
+
+        rollingRestart.run();
+
+        // the rolling restart stops at the first member, so the cluster doesn't lose a second member
+        verify(client, times(1)).send(any(SimulatorAddress.class), any(TerminateWorkerMessage.class));
+        assertEquals(member1, registry.findWorker(member1.getAddress()));
+        assertEquals(member2, registry.findWorker(member2.getAddress()));
+        assertFalse(member2.isIgnoreFailures());
+        assertTrue(fileAsText(stepsFile).contains(",test,1," + member1.getAddress() + ",,"));
+    }
+
+    private void shutdownOnTerminate(RollingRestart rollingRestart) {
+        doAnswer(invocation -> {
+            SimulatorAddress address = invocation.getArgument(0);
+            if (rollingRestart != null) {
+                rollingRestart.sample(stats(500));
+                rollingRestart.onFailure(new FailureMessage("failure", WORKER_EXCEPTION, address, null, null,
+                        "test", null), false, true);
+            }
+            registry.removeWorker(address);
+            return null;
+        }).when(client).send(any(SimulatorAddress.class), any(TerminateWorkerMessage.class));
+    }
+
+    private RollingRestart newRollingRestart(String version, int shutdownTimeoutSeconds) {
+        return new RollingRestart("test", 0, 0, version, registry, client, 0, shutdownTimeoutSeconds, stepsFile);
+    }
+
+    private WorkerData addWorker(String workerType) {
+        DeploymentPlan deploymentPlan = new DeploymentPlan(registry.getAgents()).addToPlan(1, workerType);
+        List<WorkerParameters> parameters = deploymentPlan.getWorkerDeployment().values().iterator().next();
+        return registry.addWorkers(parameters, new HashMap<>()).get(0);
+    }
+
+    private static PerformanceStats stats(double throughput) {
+        return new PerformanceStats(1000, throughput, throughput, 1000, 2000, 3000);
+    }
+}
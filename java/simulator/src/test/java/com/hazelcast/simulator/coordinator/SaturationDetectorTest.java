@@ -0,0 +1,67 @@
+package com.hazelcast.simulator.coordinator;
+
+import com.hazelcast.simulator.protocol.core.SimulatorAddress;
+import com.hazelcast.simulator.worker.performance.PerformanceStats;
+import org.junit.Test;
+
+import static com.hazelcast.simulator.protocol.core.SimulatorAddress.workerAddress;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class SaturationDetectorTest {
+
+    private final SimulatorAddress worker1 = workerAddress(1, 1);
+    private final SimulatorAddress worker2 = workerAddress(1, 2);
+    private final SaturationDetector detector = new SaturationDetector("test", 0.05, 3, false);
+
+    @Test
+    public void testSample_whenSaturated() {
+        assertNull(detector.sample(worker1, stats(1000, 100)));
+        assertNull(detector.sample(worker1, stats(1000, 100)));
+        String saturation = detector.sample(worker1, stats(1000, 100));
+
+        assertNotNull(saturation);
+        assertTrue(saturation.contains("10.0%"));
+        assertTrue(detector.getSaturatedWorkers().contains(worker1));
+        // a worker is reported only once
+        assertNull(detector.sample(worker1, stats(1000, 100)));
+    }
+
+    @Test
+    public void testSample_whenRecovered() {
+        detector.sample(worker1, stats(1000, 100));
+        detector.sample(worker1, stats(1000, 100));
+        detector.sample(worker1, stats(1000, 10));
+
+        assertNull(detector.sample(worker1, stats(1000, 100)));
+        assertTrue(detector.getSaturatedWorkers().isEmpty());
+    }
+
+    @Test
+    public void testSample_perWorker() {
+        detector.sample(worker1, stats(1000, 100));
+        detector.sample(worker2, stats(1000, 100));
+        detector.sample(worker1, stats(1000, 100));
+        detector.sample(worker2, stats(1000, 0));
+
+        assertNotNull(detector.sample(worker1, stats(1000, 100)));
+        assertNull(detector.sample(worker2, stats(1000, 100)));
+        assertEquals(1, detector.getSaturatedWorkers().size());
+    }
+
+    @Test
+    public void testSample_withoutMetronome() {
+        for (int k = 0; k < 10; k++) {
+            assertNull(detector.sample(worker1, new PerformanceStats(1000, 100, 100, 1000, 2000, 3000)));
+        }
+        assertNull(detector.sample(worker1, new PerformanceStats()));
+    }
+
+    private static PerformanceStats stats(long scheduled, long late) {
+        return new PerformanceStats(1000, 100, 100, 1000, 2000, 3000,
+                scheduled, late, MILLISECONDS.toNanos(5), MILLISECONDS.toNanos(10));
+    }
+}
@@ -0,0 +1,158 @@
+package com.hazelcast.simulator.coordinator;
+
+import com.hazelcast.simulator.coordinator.TimeSeriesStore.MemberMetrics;
+import com.hazelcast.simulator.coordinator.TimeSeriesStore.Sample;
+import com.hazelcast.simulator.coordinator.TimeSeriesStore.Series;
+import com.hazelcast.simulator.protocol.core.SimulatorAddress;
+import com.hazelcast.simulator.worker.performance.PerformanceStats;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.hazelcast.simulator.protocol.core.SimulatorAddress.workerAddress;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TimeSeriesStoreTest {
+
+    private final SimulatorAddress a1w1 = workerAddress(1, 1);
+    private final SimulatorAddress a1w2 = workerAddress(1, 2);
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructor_invalidCapacity() {
+        new TimeSeriesStore(0);
+    }
+
+    @Test
+    public void testRecord() {
+        TimeSeriesStore store = new TimeSeriesStore(10);
+
+        store.record(a1w1, "test1", 1000, stats(100));
+        store.record(a1w1, "test1", 2000, stats(200));
+        store.record(a1w2, "test1", 1000, stats(50));
+
+        List<Series> series = store.getSeries();
+        assertEquals(2, series.size());
+        assertEquals("A1_W1", series.get(0).getWorker());
+        assertEquals("A1_W2", series.get(1).getWorker());
+
+        List<Sample> samples = series.get(0).samplesSince(Long.MIN_VALUE);
+        assertEquals(2, samples.size());
+        assertEquals(1000, samples.get(0).timestampMillis);
+        assertEquals(100, samples.get(0).operationCount);
+        assertEquals(200, series.get(0).latest().operationCount);
+    }
+
+    @Test
+    public void testRecord_emptyStatsIgnored() {
+        TimeSeriesStore store = new TimeSeriesStore(10);
+
+        store.record(a1w1, "test1", 1000, new PerformanceStats());
+
+        assertTrue(store.getSeries().isEmpty());
+    }
+
+    @Test
+    public void testRingBufferOverwritesOldestSamples() {
+        TimeSeriesStore store = new TimeSeriesStore(3);
+
+        for (int k = 1; k <= 5; k++) {
+            store.record(a1w1, "test1", k * 1000, stats(k));
+        }
+
+        List<Sample> samples = store.getSeries().get(0).samplesSince(Long.MIN_VALUE);
+        assertEquals(3, samples.size());
+        assertEquals(3, samples.get(0).operationCount);
+        assertEquals(4, samples.get(1).operationCount);
+        assertEquals(5, samples.get(2).operationCount);
+    }
+
+    @Test
+    public void testSamplesSince() {
+        TimeSeriesStore store = new TimeSeriesStore(10);
+        for (int k = 1; k <= 5; k++) {
+            store.record(a1w1, "test1", k * 1000, stats(k));
+        }
+
+        List<Sample> samples = store.getSeries().get(0).samplesSince(3000);
+
+        assertEquals(2, samples.size());
+        assertEquals(4000, samples.get(0).timestampMillis);
+        assertEquals(5000, samples.get(1).timestampMillis);
+    }
+
+    @Test
+    public void testGetSeries_withFilter() {
+        TimeSeriesStore store = new TimeSeriesStore(10);
+        store.record(a1w1, "test1", 1000, stats(1));
+        store.record(a1w2, "test1", 1000, stats(1));
+        store.record(a1w1, "test2", 1000, stats(1));
+
+        assertEquals(2, store.getSeries("test1", null).size());
+        assertEquals(2, store.getSeries(null, "A1_W1").size());
+        assertEquals(1, store.getSeries("test2", "A1_W1").size());
+        assertEquals(Collections.emptyList(), store.getSeries("test3", null));
+    }
+
+    @Test
+    public void testPerformanceStatsCollector_recordsUpdates() {
+        TimeSeriesStore store = new TimeSeriesStore(10);
+        PerformanceStatsCollector collector = new PerformanceStatsCollector(store);
+
+        collector.update(a1w1, Collections.singletonMap("test1", stats(10)));
+        collector.update(a1w1, Collections.singletonMap("test1", stats(20)));
+
+        assertEquals(2, store.getSeries().get(0).samplesSince(Long.MIN_VALUE).size());
+    }
+
+    @Test
+    public void testRecordMemberMetrics_keepsLatest() {
+        TimeSeriesStore store = new TimeSeriesStore(10);
+        Map<String, Double> metrics = new HashMap<>();
+        metrics.put("operation.queueSize", 5d);
+        store.recordMemberMetrics(a1w2, 1000, metrics);
+        metrics.put("operation.queueSize", 10d);
+        store.recordMemberMetrics(a1w2, 2000, metrics);
+        store.recordMemberMetrics(a1w1, 2000, Collections.singletonMap("operation.queueSize", 1d));
+
+        List<MemberMetrics> memberMetrics = store.getMemberMetrics();
+        assertEquals(2, memberMetrics.size());
+        assertEquals("A1_W1", memberMetrics.get(0).worker);
+        assertEquals("A1_W2", memberMetrics.get(1).worker);
+        assertEquals(2000, memberMetrics.get(1).timestampMillis);
+        assertEquals(10d, memberMetrics.get(1).metrics.get("operation.queueSize"), 0);
+    }
+
+    @Test
+    public void testRecordMemberMetrics_ignoresEmpty() {
+        TimeSeriesStore store = new TimeSeriesStore(10);
+        PerformanceStatsCollector collector = new PerformanceStatsCollector(store);
+
+        collector.updateMemberMetrics(a1w1, Collections.emptyMap());
+
+        assertTrue(store.getMemberMetrics().isEmpty());
+    }
+
+    @Test
+    public void testRecord_expiresIdleSeries() {
+        TimeSeriesStore store = new TimeSeriesStore(10, 5000);
+        store.record(a1w1, "test1", 1000, stats(1));
+        store.recordMemberMetrics(a1w2, 1000, Collections.singletonMap("operation.queueSize", 1d));
+        store.record(a1w1, "test2", 4000, stats(1));
+
+        // test1 has completed, so only test2 keeps getting samples
+        store.record(a1w1, "test2", 7000, stats(2));
+
+        List<Series> series = store.getSeries();
+        assertEquals(1, series.size());
+        assertEquals("test2", series.get(0).getTestId());
+        assertTrue(store.getMemberMetrics().isEmpty());
+    }
+
+    private static PerformanceStats stats(long operationCount) {
+        return new PerformanceStats(operationCount, 100, 100, 1000, 2000, 3000);
+    }
+}
@@ -0,0 +1,171 @@
+package com.hazelcast.simulator.coordinator;
+
+import com.hazelcast.simulator.agent.messages.CreateWorkerMessage;
+import com.hazelcast.simulator.agent.workerprocess.WorkerParameters;
+import com.hazelcast.simulator.common.TestCase;
+import com.hazelcast.simulator.coordinator.registry.AgentData;
+import com.hazelcast.simulator.coordinator.registry.Registry;
+import com.hazelcast.simulator.coordinator.registry.WorkerData;
+import com.hazelcast.simulator.protocol.CoordinatorClient;
+import com.hazelcast.simulator.protocol.core.SimulatorAddress;
+import com.hazelcast.simulator.utils.CommandLineExitException;
+import com.hazelcast.simulator.worker.messages.TerminateWorkerMessage;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.Future;
+
+import static java.util.Collections.emptyList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class WorkerRecyclerTest {
+
+    private final Registry registry = new Registry();
+    private CoordinatorClient client;
+    private AgentData agent;
+
+    @Before
+    public void before() throws Exception {
+        client = mock(CoordinatorClient.class);
+        agent = registry.addAgent("192.168.0.1", "192.168.0.1");
+
+        Future f = mock(Future.class);
+        when(f.get()).thenReturn("SUCCESS");
+        when(client.submit(eq(agent.getAddress()), any(CreateWorkerMessage.class))).thenReturn(f);
+        doAnswer(invocation -> {
+            registry.removeWorker((SimulatorAddress) invocation.getArgument(0));
+            return null;
+        }).when(client).send(any(SimulatorAddress.class), any(TerminateWorkerMessage.class));
+    }
+
+    @Test
+    public void testReplace() throws Exception {
+        WorkerRecycler recycler = new WorkerRecycler(registry, client, "process", 0, 10);
+        List<WorkerData> clients = addWorkers(2, "javaclient");
+
+        List<WorkerData> replacements = recycler.replace(clients);
+
+        assertEquals(2, replacements.size());
+        for (WorkerData replacement : replacements) {
+            assertFalse(replacement.isMemberWorker());
+            assertEquals(agent.getAddress(), replacement.getAddress().getParent());
+            assertFalse(clients.contains(replacement));
+        }
+        assertNotEquals(replacements.get(0).getAddress(), replacements.get(1).getAddress());
+        assertEquals(2, registry.workerCount());
+
+        for (WorkerData worker : clients) {
+            assertTrue(worker.isIgnoreFailures());
+            assertNull(registry.findWorker(worker.getAddress()));
+            verify(client).send(eq(worker.getAddress()), any(TerminateWorkerMessage.class));
+        }
+    }
+
+    @Test
+    public void testReplace_handsOutPrestartedSpares() throws Exception {
+        WorkerRecycler recycler = new WorkerRecycler(registry, client, "process", 0, 10);
+        List<WorkerData> clients = addWorkers(2, "javaclient");
+
+        recycler.prestart(clients);
+        recycler.awaitIdle();
+        List<WorkerData> spares = new ArrayList<>(registry.getWorkers());
+        spares.removeAll(clients);
+        assertEquals(2, spares.size());
+
+        List<WorkerData> replacements = recycler.replace(clients);
+        recycler.awaitIdle();
+
+        assertEquals(spares, replacements);
+        assertEquals(2, registry.workerCount());
+        // the replacements are the spares, no other Workers have been started
+        verify(client, times(2)).submit(eq(agent.getAddress()), any(CreateWorkerMessage.class));
+        for (WorkerData worker : clients) {
+            assertNull(registry.findWorker(worker.getAddress()));
+        }
+    }
+
+    @Test
+    public void testPrestart_whenSparesExist() {
+        WorkerRecycler recycler = new WorkerRecycler(registry, client, "process", 0, 10);
+        List<WorkerData> clients = addWorkers(2, "javaclient");
+
+        recycler.prestart(clients);
+        recycler.prestart(clients);
+        recycler.awaitIdle();
+
+        assertEquals(4, registry.workerCount());
+    }
+
+    @Test
+    public void testRelease_terminatesUnusedSpares() {
+        WorkerRecycler recycler = new WorkerRecycler(registry, client, "process", 0, 10);
+        List<WorkerData> clients = addWorkers(2, "javaclient");
+
+        recycler.prestart(clients);
+        recycler.release();
+
+        assertEquals(2, registry.workerCount());
+        for (WorkerData worker : clients) {
+            assertNotNull(registry.findWorker(worker.getAddress()));
+        }
+    }
+
+    @Test
+    public void testReplace_whenNoClients() throws Exception {
+        WorkerRecycler recycler = new WorkerRecycler(registry, client, "process", 0, 10);
+
+        assertTrue(recycler.replace(emptyList()).isEmpty());
+    }
+
+    @Test
+    public void testIsFreshProcess() {
+        WorkerRecycler recycler = new WorkerRecycler(registry, client, "container", 0, 10);
+
+        assertFalse(recycler.isFreshProcess(new TestCase("test")));
+        assertTrue(recycler.isFreshProcess(new TestCase("test").setProperty("workerIsolation", "process")));
+    }
+
+    @Test
+    public void testIsFreshProcess_whenDefaultIsProcess() {
+        WorkerRecycler recycler = new WorkerRecycler(registry, client, "process", 0, 10);
+
+        assertTrue(recycler.isFreshProcess(new TestCase("test")));
+        assertFalse(recycler.isFreshProcess(new TestCase("test").setProperty("workerIsolation", "container")));
+    }
+
+    @Test(expected = CommandLineExitException.class)
+    public void testIsFreshProcess_whenUnknownIsolation() {
+        WorkerRecycler recycler = new WorkerRecycler(registry, client, "container", 0, 10);
+
+        recycler.isFreshProcess(new TestCase("test").setProperty("workerIsolation", "suite"));
+    }
+
+    @Test(expected = CommandLineExitException.class)
+    public void testConstructor_whenUnknownDefaultIsolation() {
+        new WorkerRecycler(registry, client, "test", 0, 10);
+    }
+
+    private List<WorkerData> addWorkers(int count, String workerType) {
+        DeploymentPlan deploymentPlan = new DeploymentPlan(registry.getAgents()).addToPlan(count, workerType);
+        List<WorkerData> result = new ArrayList<>();
+        for (List<WorkerParameters> parameters : deploymentPlan.getWorkerDeployment().values()) {
+            result.addAll(registry.addWorkers(parameters, new HashMap<>()));
+        }
+        return result;
+    }
+}
@@ -15,13 +15,17 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 
 import static com.hazelcast.simulator.utils.CommonUtils.closeQuietly;
+import static java.util.Arrays.asList;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
@@ -79,6 +83,69 @@ public class StartWorkersTaskTest {
         assertComponentRegistry(registry, 6, 0);
     }
 
+    @Test
+    public void testCreateWorkers_inWaves() throws Exception {
+        Map<SimulatorAddress, List<WorkerParameters>> deploymentPlan = getDeployment(0, 5, 4);
+
+        Future f = mock(Future.class);
+        when(f.get()).thenReturn("SUCCESS");
+        when(client.submit(eq(agent1.getAddress()), any(CreateWorkerMessage.class))).thenReturn(f);
+        when(client.submit(eq(agent2.getAddress()), any(CreateWorkerMessage.class))).thenReturn(f);
+        when(client.submit(eq(agent3.getAddress()), any(CreateWorkerMessage.class))).thenReturn(f);
+
+        new StartWorkersTask(deploymentPlan, Collections.<String, String>emptyMap(), client, registry, 0, 2).run();
+
+        assertComponentRegistry(registry, 5, 4);
+        Set<String> expectedClusterSizes = new HashSet<>();
+        for (WorkerData workerData : registry.getWorkers()) {
+            if (workerData.isMemberWorker()) {
+                expectedClusterSizes.add(workerData.getParameters().get("EXPECTED_CLUSTER_SIZE"));
+            } else {
+                assertNull(workerData.getParameters().get("EXPECTED_CLUSTER_SIZE"));
+            }
+        }
+        assertEquals(new HashSet<>(asList("2", "4", "5")), expectedClusterSizes);
+    }
+
+    @Test
+    public void testCreateWorkers_expectedClusterSizeWithoutWaves() throws Exception {
+        Map<SimulatorAddress, List<WorkerParameters>> deploymentPlan = getDeployment(0, 3, 0);
+
+        Future f = mock(Future.class);
+        when(f.get()).thenReturn("SUCCESS");
+        when(client.submit(eq(agent1.getAddress()), any(CreateWorkerMessage.class))).thenReturn(f);
+        when(client.submit(eq(agent2.getAddress()), any(CreateWorkerMessage.class))).thenReturn(f);
+        when(client.submit(eq(agent3.getAddress()), any(CreateWorkerMessage.class))).thenReturn(f);
+
+        new StartWorkersTask(deploymentPlan, Collections.<String, String>emptyMap(), client, registry, 0, 0, true).run();
+
+        for (WorkerData workerData : registry.getWorkers()) {
+            assertEquals("3", workerData.getParameters().get("EXPECTED_CLUSTER_SIZE"));
+        }
+    }
+
+    @Test
+    public void testCreateWorkers_noExpectedClusterSizeByDefault() throws Exception {
+        Map<SimulatorAddress, List<WorkerParameters>> deploymentPlan = getDeployment(0, 3, 0);
+
+        Future f = mock(Future.class);
+        when(f.get()).thenReturn("SUCCESS");
+        when(client.submit(eq(agent1.getAddress()), any(CreateWorkerMessage.class))).thenReturn(f);
+        when(client.submit(eq(agent2.getAddress()), any(CreateWorkerMessage.class))).thenReturn(f);
+        when(client.submit(eq(agent3.getAddress()), any(CreateWorkerMessage.class))).thenReturn(f);
+
+        new StartWorkersTask(deploymentPlan, Collections.<String, String>emptyMap(), client, registry, 0).run();
+
+        for (WorkerData workerData : registry.getWorkers()) {
+            assertNull(workerData.getParameters().get("EXPECTED_CLUSTER_SIZE"));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCreateWorkers_negativeWaveSize() {
+        new StartWorkersTask(getDeployment(0, 1, 0), Collections.<String, String>emptyMap(), client, registry, 0, -1);
+    }
+
     @Test(expected = CommandLineExitException.class)
     public void testCreateWorkers_withErrorResponse() throws Exception {
         Map<SimulatorAddress, List<WorkerParameters>> deploymentPlan = getDeployment(0, 1, 0);
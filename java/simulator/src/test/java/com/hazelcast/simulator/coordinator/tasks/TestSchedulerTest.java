@@ -0,0 +1,117 @@
+package com.hazelcast.simulator.coordinator.tasks;
+
+import com.hazelcast.simulator.agent.workerprocess.WorkerParameters;
+import com.hazelcast.simulator.common.TestCase;
+import com.hazelcast.simulator.coordinator.DeploymentPlan;
+import com.hazelcast.simulator.coordinator.registry.Registry;
+import com.hazelcast.simulator.coordinator.registry.WorkerData;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.hazelcast.simulator.utils.TagUtils.parseTags;
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TestSchedulerTest {
+
+    private final Registry registry = new Registry();
+    private final List<WorkerData> targets = new ArrayList<>();
+    private TestScheduler scheduler;
+
+    @Before
+    public void before() {
+        registry.addAgent("192.168.0.1", "192.168.0.1");
+        targets.addAll(addWorkers(2, "group=a"));
+        targets.addAll(addWorkers(2, "group=b"));
+        scheduler = new TestScheduler(targets);
+    }
+
+    @Test
+    public void testHasTargetSelection() {
+        assertFalse(TestScheduler.hasTargetSelection(singletonList(new TestCase("a"))));
+        assertTrue(TestScheduler.hasTargetSelection(asList(new TestCase("a"), testCase("b", "1", null))));
+        assertTrue(TestScheduler.hasTargetSelection(singletonList(testCase("a", null, "group=a"))));
+    }
+
+    @Test
+    public void testTryAcquire_disjoint() {
+        List<WorkerData> first = scheduler.tryAcquire(testCase("first", "2", null));
+        List<WorkerData> second = scheduler.tryAcquire(testCase("second", "2", null));
+
+        assertEquals(2, first.size());
+        assertEquals(2, second.size());
+        for (WorkerData worker : first) {
+            assertFalse(second.contains(worker));
+        }
+        assertNull(scheduler.tryAcquire(testCase("third", "1", null)));
+    }
+
+    @Test
+    public void testTryAcquire_whenReleased() {
+        List<WorkerData> first = scheduler.tryAcquire(testCase("first", "3", null));
+        assertNull(scheduler.tryAcquire(testCase("second", "2", null)));
+
+        scheduler.release(first);
+
+        assertNotNull(scheduler.tryAcquire(testCase("second", "2", null)));
+    }
+
+    @Test
+    public void testTryAcquire_withTags() {
+        List<WorkerData> workers = scheduler.tryAcquire(testCase("test", null, "group=b"));
+
+        assertEquals(targets.subList(2, 4), workers);
+        assertNotNull(scheduler.tryAcquire(testCase("other", null, "group=a")));
+        assertNull(scheduler.tryAcquire(testCase("another", "1", "group=b")));
+    }
+
+    @Test
+    public void testTryAcquire_withoutSelection_needsAllTargets() {
+        scheduler.tryAcquire(testCase("first", "1", null));
+
+        assertNull(scheduler.tryAcquire(new TestCase("second")));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testValidate_whenTooManyWorkers() {
+        scheduler.validate(testCase("test", "5", null));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testValidate_whenNoMatchingTags() {
+        scheduler.validate(testCase("test", null, "group=c"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testValidate_whenInvalidCount() {
+        scheduler.validate(testCase("test", "foo", null));
+    }
+
+    private static TestCase testCase(String id, String targetCount, String targetTags) {
+        TestCase testCase = new TestCase(id);
+        if (targetCount != null) {
+            testCase.setProperty(TestScheduler.TARGET_COUNT, targetCount);
+        }
+        if (targetTags != null) {
+            testCase.setProperty(TestScheduler.TARGET_TAGS, targetTags);
+        }
+        return testCase;
+    }
+
+    private List<WorkerData> addWorkers(int count, String tags) {
+        DeploymentPlan deploymentPlan = new DeploymentPlan(registry.getAgents()).addToPlan(count, "javaclient");
+        List<WorkerData> result = new ArrayList<>();
+        for (List<WorkerParameters> parameters : deploymentPlan.getWorkerDeployment().values()) {
+            result.addAll(registry.addWorkers(parameters, parseTags(tags)));
+        }
+        return result;
+    }
+}
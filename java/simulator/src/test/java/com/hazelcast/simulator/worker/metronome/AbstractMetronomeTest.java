@@ -1,11 +1,13 @@
 package com.hazelcast.simulator.worker.metronome;
 
+import org.HdrHistogram.Histogram;
 import org.junit.Test;
 
 import java.util.concurrent.TimeUnit;
 
 import static java.lang.String.format;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 public abstract class AbstractMetronomeTest {
@@ -38,6 +40,21 @@ public abstract class AbstractMetronomeTest {
         testMetronome(intervalMs);
     }
 
+    @Test
+    public void testScheduleLag() throws Exception {
+        metronome = createMetronome(1, MILLISECONDS);
+        metronome.waitForNext();
+
+        // by not calling the metronome for a while, the next requests are issued late
+        Thread.sleep(50);
+        metronome.waitForNext();
+
+        Histogram histogram = metronome.getScheduleLag().getIntervalHistogram();
+        assertEquals(2, histogram.getTotalCount());
+        assertEquals(1, ScheduleLag.lateCount(histogram));
+        assertTrue(histogram.getMaxValue() >= MILLISECONDS.toNanos(40));
+    }
+
     private void testMetronome(int intervalMs) {
         // we don't want to measure the first invocation, since it has a random delay
         metronome.waitForNext();
@@ -0,0 +1,63 @@
+package com.hazelcast.simulator.worker.metronome;
+
+import org.junit.Test;
+
+import static java.lang.System.currentTimeMillis;
+import static java.lang.System.nanoTime;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class GlobalRateMetronomeTest {
+
+    @Test
+    public void test() {
+        long intervalNanos = MILLISECONDS.toNanos(10);
+        // 4 workers at a global rate of 400/s means 100/s per worker
+        GlobalRateMetronome master = new GlobalRateMetronome(400, 0.25, 0, true);
+
+        GlobalRateMetronome metronome1 = new GlobalRateMetronome(master);
+        GlobalRateMetronome metronome2 = new GlobalRateMetronome(master);
+
+        long next = metronome1.waitForNext() + intervalNanos;
+
+        assertEquals(next, metronome2.waitForNext());
+        next += intervalNanos;
+        assertEquals(next, metronome1.waitForNext());
+    }
+
+    @Test
+    public void testSetShare() {
+        GlobalRateMetronome master = new GlobalRateMetronome(400, 0.25, 0, true);
+        GlobalRateMetronome metronome = new GlobalRateMetronome(master);
+
+        master.setShare(0.5);
+
+        assertEquals(MILLISECONDS.toNanos(5), metronome.getIntervalNanos());
+        long first = metronome.waitForNext();
+        assertEquals(MILLISECONDS.toNanos(5), metronome.waitForNext() - first);
+    }
+
+    @Test
+    public void testAlignedStart() {
+        long intervalNanos = MILLISECONDS.toNanos(100);
+        long start = GlobalRateMetronome.alignedStartNanos(intervalNanos, 0.5);
+
+        long wallClockNanos = MILLISECONDS.toNanos(currentTimeMillis()) + start - nanoTime();
+        // the start is in the future, within one interval and 50ms past a multiple of the interval on the wall clock
+        assertTrue(start > nanoTime() - MILLISECONDS.toNanos(1));
+        assertTrue(start <= nanoTime() + intervalNanos);
+        long offset = Math.floorMod(wallClockNanos, intervalNanos);
+        assertEquals(MILLISECONDS.toNanos(50), offset, MILLISECONDS.toNanos(2));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidShare() {
+        new GlobalRateMetronome(400, 0, 0, true);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidPhase() {
+        new GlobalRateMetronome(400, 0.5, 1, true);
+    }
+}
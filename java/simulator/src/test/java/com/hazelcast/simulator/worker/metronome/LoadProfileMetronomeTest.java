@@ -0,0 +1,54 @@
+package com.hazelcast.simulator.worker.metronome;
+
+import org.junit.Test;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LoadProfileMetronomeTest {
+
+    @Test
+    public void test() {
+        long intervalNanos = MILLISECONDS.toNanos(10);
+        LoadProfileMetronome master = new LoadProfileMetronome(LoadProfile.parse("step 100 for 1m"), true);
+
+        LoadProfileMetronome metronome1 = new LoadProfileMetronome(master);
+        LoadProfileMetronome metronome2 = new LoadProfileMetronome(master);
+
+        long next = metronome1.waitForNext() + intervalNanos;
+
+        assertEquals(next, metronome2.waitForNext());
+        next += intervalNanos;
+        assertEquals(next, metronome1.waitForNext());
+        next += intervalNanos;
+        assertEquals(next, metronome2.waitForNext());
+    }
+
+    @Test
+    public void testFollowsProfile() {
+        LoadProfileMetronome metronome = new LoadProfileMetronome(
+                LoadProfile.parse("step 1000 for 100ms; step 100 for 1m"), true);
+
+        long first = metronome.waitForNext();
+        long last = first;
+        for (int k = 0; k < 100; k++) {
+            last = metronome.waitForNext();
+        }
+        // 100 requests at 1000/s and 1 request at 100/s
+        assertEquals(MILLISECONDS.toNanos(100), last - first, MILLISECONDS.toNanos(1));
+
+        long next = metronome.waitForNext();
+        assertEquals(MILLISECONDS.toNanos(10), next - last, MILLISECONDS.toNanos(1));
+    }
+
+    @Test
+    public void testWithoutCoordinatedOmission() {
+        LoadProfileMetronome metronome = new LoadProfileMetronome(LoadProfile.parse("step 1000 for 1m"), false);
+
+        long before = System.nanoTime();
+        long actual = metronome.waitForNext();
+
+        assertTrue(actual >= before);
+    }
+}
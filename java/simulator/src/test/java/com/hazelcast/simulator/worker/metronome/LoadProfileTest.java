@@ -0,0 +1,154 @@
+package com.hazelcast.simulator.worker.metronome;
+
+import org.junit.Test;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LoadProfileTest {
+
+    @Test
+    public void testRamp() {
+        LoadProfile profile = LoadProfile.parse("ramp 0->50k in 60s");
+
+        assertEquals(0, profile.rate(0), 0);
+        assertEquals(25000, profile.rate(SECONDS.toNanos(30)), 0.001);
+        assertEquals(50000, profile.rate(SECONDS.toNanos(60)), 0);
+        assertEquals(50000, profile.rate(MINUTES.toNanos(10)), 0);
+        assertEquals(SECONDS.toNanos(60), profile.getDurationNanos());
+    }
+
+    @Test
+    public void testRamp_fromCurrentRate() {
+        LoadProfile profile = LoadProfile.parse("step 10k for 10s; ramp 20k in 10s");
+
+        assertEquals(15000, profile.rate(SECONDS.toNanos(15)), 0.001);
+    }
+
+    @Test
+    public void testHoldAndSpike() {
+        LoadProfile profile = LoadProfile.parse("ramp 0->1k in 10s; hold 5m; spike 200k for 10s; hold 1m");
+
+        assertEquals(1000, profile.rate(MINUTES.toNanos(1)), 0);
+        assertEquals(200000, profile.rate(SECONDS.toNanos(315)), 0);
+        // after the spike, the rate returns to the rate before the spike
+        assertEquals(1000, profile.rate(SECONDS.toNanos(325)), 0);
+        assertEquals(SECONDS.toNanos(380), profile.getDurationNanos());
+    }
+
+    @Test
+    public void testSine() {
+        LoadProfile profile = LoadProfile.parse("sine 20k+-10k period 10m for 20m");
+
+        assertEquals(20000, profile.rate(0), 0.001);
+        assertEquals(30000, profile.rate(MINUTES.toNanos(12) + SECONDS.toNanos(30)), 0.001);
+        assertEquals(10000, profile.rate(MINUTES.toNanos(7) + SECONDS.toNanos(30)), 0.001);
+        assertEquals(MINUTES.toNanos(20), profile.getDurationNanos());
+        assertEquals(20000, profile.rate(MINUTES.toNanos(30)), 0);
+    }
+
+    @Test
+    public void testSine_plusMinusSign() {
+        LoadProfile profile = LoadProfile.parse("sine 20k±10k period 10m");
+
+        assertEquals(MINUTES.toNanos(10), profile.getDurationNanos());
+    }
+
+    @Test
+    public void testNext_constantRate() {
+        LoadProfile profile = LoadProfile.parse("step 1000 for 1m");
+
+        assertEquals(0, profile.first());
+        assertEquals(MILLISECONDS.toNanos(1), profile.next(0));
+    }
+
+    @Test
+    public void testNext_followsRamp() {
+        LoadProfile profile = LoadProfile.parse("ramp 0->1k in 10s; hold 10s");
+
+        // the number of requests during the ramp should be the area under the ramp: 5000
+        long offset = profile.first();
+        int count = 0;
+        while (offset < SECONDS.toNanos(10)) {
+            count++;
+            offset = profile.next(offset);
+        }
+        assertEquals(5000, count, 50);
+    }
+
+    @Test
+    public void testNext_firstIntervalOfRampFromZero() {
+        LoadProfile profile = LoadProfile.parse("ramp 0->50k in 60s");
+
+        // the area under the ramp is 1 operation after sqrt(2 / (50k / 60s)) = 48.99 ms
+        assertEquals(MILLISECONDS.toNanos(49), profile.next(0), MICROSECONDS.toNanos(50));
+    }
+
+    @Test
+    public void testNext_followsSine() {
+        LoadProfile profile = LoadProfile.parse("sine 1k+-1k period 10s");
+
+        // the number of requests during the wave should be the mean rate times the period: 10000
+        long offset = profile.first();
+        int count = 0;
+        while (offset < SECONDS.toNanos(10)) {
+            count++;
+            offset = profile.next(offset);
+        }
+        assertEquals(10000, count, 10);
+    }
+
+    @Test
+    public void testNext_skipsIdlePeriod() {
+        LoadProfile profile = LoadProfile.parse("step 1000 for 1s; step 0 for 10s; step 1000 for 1s");
+
+        long offset = SECONDS.toNanos(1) - MILLISECONDS.toNanos(1);
+        long next = profile.next(offset);
+
+        assertTrue(next >= SECONDS.toNanos(11));
+        assertTrue(next < SECONDS.toNanos(11) + MILLISECONDS.toNanos(2));
+    }
+
+    @Test
+    public void testParseRate() {
+        assertEquals(50, LoadProfile.parseRate("50"), 0);
+        assertEquals(1500, LoadProfile.parseRate("1.5k"), 0);
+        assertEquals(2000000, LoadProfile.parseRate("2M"), 0);
+    }
+
+    @Test
+    public void testParseDuration() {
+        assertEquals(MILLISECONDS.toNanos(10), LoadProfile.parseDuration("10ms"));
+        assertEquals(SECONDS.toNanos(10), LoadProfile.parseDuration("10s"));
+        assertEquals(MINUTES.toNanos(10), LoadProfile.parseDuration("10m"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParse_unknownSegment() {
+        LoadProfile.parse("ramp 0->10 in 10s; jump 20");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParse_missingTimeUnit() {
+        LoadProfile.parse("hold 10");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParse_empty() {
+        LoadProfile.parse(" ; ");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParse_endsWithRateZero() {
+        LoadProfile.parse("step 10 for 10s; ramp 0 in 10s");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParse_amplitudeLargerThanMean() {
+        LoadProfile.parse("sine 10+-20 period 1m");
+    }
+}
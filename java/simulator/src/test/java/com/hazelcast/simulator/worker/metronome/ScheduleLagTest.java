@@ -0,0 +1,63 @@
+package com.hazelcast.simulator.worker.metronome;
+
+import org.HdrHistogram.Histogram;
+import org.junit.Test;
+
+import static java.util.concurrent.TimeUnit.DAYS;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.Assert.assertEquals;
+
+public class ScheduleLagTest {
+
+    private final ScheduleLag scheduleLag = new ScheduleLag();
+
+    @Test
+    public void testRecord() {
+        scheduleLag.record(1000, 1000 + MICROSECONDS.toNanos(10));
+        scheduleLag.record(1000, 1000 + MILLISECONDS.toNanos(5));
+        scheduleLag.record(1000, 1000 + MILLISECONDS.toNanos(20));
+
+        Histogram histogram = scheduleLag.getIntervalHistogram();
+        assertEquals(3, histogram.getTotalCount());
+        assertEquals(2, ScheduleLag.lateCount(histogram));
+        assertEquals(MILLISECONDS.toNanos(20), histogram.getMaxValue(), MILLISECONDS.toNanos(20) / 1000);
+
+        // the interval histogram is reset
+        assertEquals(0, scheduleLag.getIntervalHistogram().getTotalCount());
+    }
+
+    @Test
+    public void testRecord_early() {
+        scheduleLag.record(1000, 500);
+
+        Histogram histogram = scheduleLag.getIntervalHistogram();
+        assertEquals(1, histogram.getTotalCount());
+        assertEquals(0, histogram.getMaxValue());
+    }
+
+    @Test
+    public void testRecord_tooLarge() {
+        scheduleLag.record(0, DAYS.toNanos(2));
+
+        assertEquals(1, ScheduleLag.lateCount(scheduleLag.getIntervalHistogram()));
+    }
+
+    @Test
+    public void testReset() {
+        scheduleLag.record(1000, 1000 + MILLISECONDS.toNanos(5));
+        scheduleLag.reset();
+
+        assertEquals(0, scheduleLag.getIntervalHistogram().getTotalCount());
+    }
+
+    @Test
+    public void testNewHistogram() {
+        scheduleLag.record(1000, 1000 + MILLISECONDS.toNanos(5));
+        Histogram histogram = ScheduleLag.newHistogram();
+
+        histogram.add(scheduleLag.getIntervalHistogram());
+
+        assertEquals(1, histogram.getTotalCount());
+    }
+}
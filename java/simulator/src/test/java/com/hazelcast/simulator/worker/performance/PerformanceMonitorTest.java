@@ -2,6 +2,7 @@ package com.hazelcast.simulator.worker.performance;
 
 import com.hazelcast.simulator.common.TestCase;
 import com.hazelcast.simulator.common.TestPhase;
+import com.hazelcast.simulator.drivers.Driver;
 import com.hazelcast.simulator.protocol.Server;
 import com.hazelcast.simulator.test.TestContext;
 import com.hazelcast.simulator.tests.DummyTest;
@@ -14,7 +15,10 @@ import com.hazelcast.simulator.worker.testcontainer.TestManager;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 
+import java.io.File;
+import java.util.Collections;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
@@ -23,7 +27,11 @@ import static com.hazelcast.simulator.TestEnvironmentUtils.teardownFakeUserDir;
 import static com.hazelcast.simulator.utils.CommonUtils.joinThread;
 import static com.hazelcast.simulator.utils.CommonUtils.sleepMillis;
 import static com.hazelcast.simulator.utils.EmptyStatement.ignore;
+import static com.hazelcast.simulator.utils.FileUtils.fileAsText;
+import static com.hazelcast.simulator.utils.FileUtils.getUserDir;
 import static com.hazelcast.simulator.utils.TestUtils.assertTrueEventually;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.mock;
@@ -119,6 +127,27 @@ public class PerformanceMonitorTest {
         performanceMonitor.close();
     }
 
+    @Test
+    public void test_whenNoTestButDriver_thenSendMemberMetrics() {
+        Driver driver = mock(Driver.class);
+        when(driver.sampleMetrics()).thenReturn(Collections.singletonMap("operation.queueSize", 42d));
+        performanceMonitor = new OperationsMonitor(server, containerManager, driver, 1);
+
+        performanceMonitor.start();
+
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() throws Exception {
+                ArgumentCaptor<PerformanceStatsMessage> captor = ArgumentCaptor.forClass(PerformanceStatsMessage.class);
+                verify(server, atLeastOnce()).sendCoordinator(captor.capture());
+                PerformanceStatsMessage msg = captor.getValue();
+                assertTrue(msg.getPerformanceStats().isEmpty());
+                assertEquals(42d, msg.getMemberMetrics().get("operation.queueSize"), 0);
+                assertTrue(fileAsText(new File(getUserDir(), "member-metrics.csv")).contains("operation.queueSize,42"));
+            }
+        });
+    }
+
     private TestContext addTest(Object test) {
         return addTest(test, 0);
     }
@@ -101,4 +101,22 @@ public class PerformanceStatsTest {
     public void testToString() {
         assertNotNull(new PerformanceStats().toString());
     }
+
+    @Test
+    public void testAdd_scheduleLag() {
+        PerformanceStats addState = new PerformanceStats(100, 5.0, 10.0, 175.0d, 150, 200, 100, 10, 3000, 5000);
+
+        addState.add(new PerformanceStats(150, 6.0, 12.0, 90.0d, 80, 100, 300, 50, 2000, 8000));
+
+        assertEquals(400, addState.getIntervalScheduledOperationCount());
+        assertEquals(60, addState.getIntervalLateOperationCount());
+        assertEquals(0.15, addState.getIntervalLateFraction(), 0.00001);
+        assertEquals(3000, addState.getIntervalScheduleLag999PercentileNanos());
+        assertEquals(8000, addState.getIntervalScheduleLagMaxNanos());
+    }
+
+    @Test
+    public void testGetIntervalLateFraction_withoutScheduledOperations() {
+        assertEquals(0, new PerformanceStats(100, 5.0, 10.0, 175.0d, 150, 200).getIntervalLateFraction(), 0);
+    }
 }
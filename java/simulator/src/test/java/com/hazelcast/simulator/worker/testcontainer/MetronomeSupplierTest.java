@@ -3,6 +3,8 @@ package com.hazelcast.simulator.worker.testcontainer;
 import com.hazelcast.simulator.common.TestCase;
 import com.hazelcast.simulator.worker.metronome.BusySpinningMetronome;
 import com.hazelcast.simulator.worker.metronome.EmptyMetronome;
+import com.hazelcast.simulator.worker.metronome.GlobalRateMetronome;
+import com.hazelcast.simulator.worker.metronome.LoadProfileMetronome;
 import com.hazelcast.simulator.worker.metronome.Metronome;
 import com.hazelcast.simulator.worker.metronome.SleepingMetronome;
 import org.junit.Test;
@@ -15,6 +17,8 @@ import static java.util.concurrent.TimeUnit.MINUTES;
 import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 public class MetronomeSupplierTest {
 
@@ -93,4 +97,73 @@ public class MetronomeSupplierTest {
         Metronome m = supplier.get();
         assertEquals(EmptyMetronome.class, m.getClass());
     }
+
+    @Test
+    public void withLoadProfile() {
+        PropertyBinding propertyBinding = new PropertyBinding(
+                new TestCase("foo").setProperty("loadProfile", "ramp 0->1k in 10s; hold 1m"));
+        MetronomeSupplier supplier = new MetronomeSupplier("", propertyBinding, 5);
+
+        Metronome m = supplier.get();
+        assertEquals(LoadProfileMetronome.class, m.getClass());
+        assertEquals("ramp 0->1k in 10s; hold 1m", ((LoadProfileMetronome) m).getProfile().toString());
+    }
+
+    @Test(expected = IllegalTestException.class)
+    public void withLoadProfile_andInterval() {
+        PropertyBinding propertyBinding = new PropertyBinding(
+                new TestCase("foo")
+                        .setProperty("loadProfile", "hold 1m")
+                        .setProperty("interval", "10ms"));
+        new MetronomeSupplier("", propertyBinding, 1);
+    }
+
+    @Test(expected = IllegalTestException.class)
+    public void withInvalidLoadProfile() {
+        PropertyBinding propertyBinding = new PropertyBinding(new TestCase("foo").setProperty("loadProfile", "hold"));
+        new MetronomeSupplier("", propertyBinding, 1);
+    }
+
+    @Test
+    public void withGlobalRate() {
+        PropertyBinding propertyBinding = new PropertyBinding(
+                new TestCase("foo")
+                        .setProperty("globalRatePerSecond", "1000")
+                        .setProperty("rateShare", "0.25")
+                        .setProperty("ratePhase", "0.5"));
+        MetronomeSupplier supplier = new MetronomeSupplier("", propertyBinding, 5);
+
+        Metronome m = supplier.get();
+        assertEquals(GlobalRateMetronome.class, m.getClass());
+        assertEquals(MILLISECONDS.toNanos(4), ((GlobalRateMetronome) m).getIntervalNanos());
+
+        assertTrue(supplier.setRateShare(0.5));
+        assertEquals(MILLISECONDS.toNanos(2), ((GlobalRateMetronome) m).getIntervalNanos());
+    }
+
+    @Test
+    public void setRateShare_withoutGlobalRate() {
+        PropertyBinding propertyBinding = new PropertyBinding(new TestCase("foo").setProperty("ratePerSecond", "10"));
+        MetronomeSupplier supplier = new MetronomeSupplier("", propertyBinding, 5);
+
+        assertFalse(supplier.setRateShare(0.5));
+    }
+
+    @Test(expected = IllegalTestException.class)
+    public void withGlobalRate_andRatePerSecond() {
+        PropertyBinding propertyBinding = new PropertyBinding(
+                new TestCase("foo")
+                        .setProperty("globalRatePerSecond", "1000")
+                        .setProperty("ratePerSecond", "10"));
+        new MetronomeSupplier("", propertyBinding, 1);
+    }
+
+    @Test(expected = IllegalTestException.class)
+    public void withGlobalRate_andInvalidShare() {
+        PropertyBinding propertyBinding = new PropertyBinding(
+                new TestCase("foo")
+                        .setProperty("globalRatePerSecond", "1000")
+                        .setProperty("rateShare", "2"));
+        new MetronomeSupplier("", propertyBinding, 1);
+    }
 }
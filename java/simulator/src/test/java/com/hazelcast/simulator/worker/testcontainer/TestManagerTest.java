@@ -14,6 +14,7 @@ import com.hazelcast.simulator.utils.ExceptionReporter;
 import com.hazelcast.simulator.fake.FakeInstance;
 import com.hazelcast.simulator.drivers.Driver;
 import com.hazelcast.simulator.worker.messages.CreateTestMessage;
+import com.hazelcast.simulator.worker.messages.RemoveTestMessage;
 import com.hazelcast.simulator.worker.messages.StartPhaseMessage;
 import com.hazelcast.simulator.worker.messages.StopRunMessage;
 import org.junit.After;
@@ -227,6 +228,37 @@ public class TestManagerTest {
         });
     }
 
+    @Test
+    public void test_removeTest() throws Exception {
+        TestCase testCase = new TestCase("foo")
+                .setProperty("threadCount", 1)
+                .setProperty("class", SuccessTest.class);
+
+        manager.createTest(new CreateTestMessage(testCase));
+        TestContainer container = manager.getContainers().iterator().next();
+
+        StubPromise setupPromise = new StubPromise();
+        manager.startTestPhase(new StartPhaseMessage(SETUP, "foo"), setupPromise);
+        setupPromise.assertCompletesEventually();
+
+        StubPromise runPromise = new StubPromise();
+        manager.startTestPhase(new StartPhaseMessage(RUN, "foo"), runPromise);
+        awaitRunning(container);
+
+        // the test is aborted in the run phase, so the teardown phases are never started
+        manager.removeTest(new RemoveTestMessage("foo"));
+
+        runPromise.assertCompletesEventually();
+        assertEquals(0, manager.getContainers().size());
+    }
+
+    @Test
+    public void test_removeTest_whenNotExistingTest() {
+        manager.removeTest(new RemoveTestMessage("foo"));
+
+        assertEquals(0, manager.getContainers().size());
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void test_startTestPhase_whenNonExistingTest() throws Exception {
         manager.startTestPhase(new StartPhaseMessage(SETUP, "foo"), mock(Promise.class));
@@ -0,0 +1,130 @@
+package com.hazelcast.simulator.worker.testcontainer;
+
+import com.hazelcast.simulator.common.TestCase;
+import com.hazelcast.simulator.common.TestPhase;
+import com.hazelcast.simulator.probes.LatencyProbe;
+import com.hazelcast.simulator.probes.impl.HdrLatencyProbe;
+import com.hazelcast.simulator.protocol.Server;
+import com.hazelcast.simulator.test.BaseThreadState;
+import com.hazelcast.simulator.test.annotations.StartNanos;
+import com.hazelcast.simulator.test.annotations.TimeStep;
+import com.hazelcast.simulator.worker.metronome.SleepingMetronome;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.hazelcast.simulator.utils.TestUtils.assertNoExceptions;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class TimeStepLoopBytecodeGeneratorTest extends TestContainer_AbstractTest {
+
+    @Test
+    public void testCompile_createsHiddenTimeStepLoop() {
+        TestCase testCase = new TestCase("foo").setProperty("class", MixedTest.class);
+        TimeStepModel timeStepModel = new TimeStepModel(MixedTest.class, new PropertyBinding(testCase));
+
+        Class loopClass = new TimeStepLoopBytecodeGenerator().compile(
+                "foo", "", timeStepModel, SleepingMetronome.class, HdrLatencyProbe.class, 10, 10, true);
+
+        assertTrue(loopClass.isHidden());
+        assertTrue(TimeStepLoop.class.isAssignableFrom(loopClass));
+    }
+
+    @Test
+    public void testRun() throws Exception {
+        MixedTest testInstance = run(new MixedTest(), new TestCase("foo")
+                .setProperty("iterations", 1000)
+                .setProperty("threadCount", 1)
+                .setProperty("class", MixedTest.class));
+
+        assertNoExceptions();
+        assertEquals(1000, testInstance.count.get());
+    }
+
+    @Test
+    public void testRun_withMetronomeAndLogging() throws Exception {
+        MixedTest testInstance = run(new MixedTest(), new TestCase("foo")
+                .setProperty("iterations", 100)
+                .setProperty("threadCount", 2)
+                .setProperty("interval", "10us")
+                .setProperty("logFrequency", 10)
+                .setProperty("logRateMs", 1)
+                .setProperty("class", MixedTest.class));
+
+        assertNoExceptions();
+        assertEquals(200, testInstance.count.get());
+    }
+
+    @Test
+    public void testRun_asyncWithoutLatencyMeasurement() throws Exception {
+        MixedTest testInstance = run(new MixedTest(), new TestCase("foo")
+                .setProperty("iterations", 1000)
+                .setProperty("threadCount", 1)
+                .setProperty("measureLatency", false)
+                .setProperty("class", MixedTest.class));
+
+        assertNoExceptions();
+        assertEquals(1000, testInstance.count.get());
+    }
+
+    @Test
+    public void testRun_javacTimeStepLoop() throws Exception {
+        MixedTest testInstance = run(new MixedTest(), new TestCase("foo")
+                .setProperty("iterations", 1000)
+                .setProperty("threadCount", 1)
+                .setProperty("javacTimeStepLoop", true)
+                .setProperty("class", MixedTest.class));
+
+        assertNoExceptions();
+        assertEquals(1000, testInstance.count.get());
+    }
+
+    private static <T> T run(T testInstance, TestCase testCase) throws Exception {
+        TestContextImpl testContext = new TestContextImpl(testCase.getId(), "localhost", mock(Server.class));
+        TestContainer container = new TestContainer(testContext, testInstance, testCase);
+        for (TestPhase phase : TestPhase.values()) {
+            container.invoke(phase);
+        }
+        return testInstance;
+    }
+
+    public static class MixedTest {
+        private final AtomicLong count = new AtomicLong();
+
+        @TimeStep(prob = 0.2)
+        public int intResult(ThreadState state) {
+            count.incrementAndGet();
+            return state.randomInt();
+        }
+
+        @TimeStep(prob = 0.2)
+        public double doubleResult(@StartNanos long startNanos, LatencyProbe probe) {
+            count.incrementAndGet();
+            probe.recordValue(System.nanoTime() - startNanos);
+            return 1.5;
+        }
+
+        @TimeStep(prob = 0.2)
+        public CompletableFuture async() {
+            count.incrementAndGet();
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @TimeStep(prob = 0.2)
+        public String objectResult(ThreadState state, @StartNanos long startNanos) {
+            count.incrementAndGet();
+            return "result";
+        }
+
+        @TimeStep(prob = 0.2)
+        public void voidResult() {
+            count.incrementAndGet();
+        }
+
+        public class ThreadState extends BaseThreadState {
+        }
+    }
+}
@@ -38,9 +38,7 @@ def analyze(config: ReportConfig):
 
         if not config.preserve_time:
             period = config.periods[run_label]
-            start_time_sec = round(period.start_time)
-            if config.warmup_seconds is not None:
-                start_time_sec = start_time_sec + config.warmup_seconds
+            start_time_sec = run_start_time_sec(config, run_label)
             end_time_sec = round(period.end_time)
             if config.cooldown_seconds is not None:
                 end_time_sec = end_time_sec - config.cooldown_seconds
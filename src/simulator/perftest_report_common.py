@@ -124,6 +124,33 @@ def df_trim_time(df: pd.DataFrame, start_time_seconds, end_time_seconds):
     return df
 
 
+# The time the data of a run is shifted by when the time isn't preserved.
+def run_start_time_sec(config: ReportConfig, run_label):
+    period = config.periods[run_label]
+    start_time_sec = round(period.start_time)
+    if config.warmup_seconds is not None:
+        start_time_sec = start_time_sec + config.warmup_seconds
+    return start_time_sec
+
+
+# Loads the faults injected by the coordinator during the run of the given test, as (time, event) tuples. The test_id
+# of the latency data is '<test id>.<probe name>'. The time is shifted in the same way as the rest of the data of the run.
+def load_fault_events(config: ReportConfig, run_label, run_dir, test_id):
+    path = os.path.join(run_dir, "faults.csv")
+    if not os.path.isfile(path):
+        return []
+
+    df = pd.read_csv(path, keep_default_na=False)
+    shift_sec = 0 if config.preserve_time else run_start_time_sec(config, run_label)
+    result = []
+    for row in df.itertuples():
+        if test_id is not None and test_id != row.test and not test_id.startswith(f"{row.test}."):
+            continue
+        time = pd.to_datetime(float(row.epoch) - shift_sec, unit='s')
+        result.append((time, f"{row.event} {row.target}".strip()))
+    return result
+
+
 def extract_worker_id(path):
     if not os.path.isdir(path):
         return None
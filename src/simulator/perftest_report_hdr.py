@@ -274,6 +274,13 @@ def __report_latency_history(config: ReportConfig, df):
         if config.y_start_from_zero:
             plt.ylim(bottom=0)
 
+        # mark the faults injected during the run
+        for run_label, run_dir in config.runs.items():
+            for fault_time, fault_event in load_fault_events(config, run_label, run_dir, test_id):
+                ax.axvline(x=fault_time, color='red', linestyle='--', linewidth=1)
+                ax.annotate(fault_event, xy=(fault_time, 1), xycoords=('data', 'axes fraction'),
+                            rotation=90, ha='right', va='top', fontsize='small')
+
         if metric_id == "Int_Throughput" or metric_id == "Total_Throughput":
             plt.ylabel("operations/second")
         elif metric_id == "Inc_Count" or metric_id == "Total_Count":